@@ -3,6 +3,7 @@ package com.JSPICE.SElement;
 import com.JSPICE.Util.ComponentTerminals;
 import com.JSPICE.SMath.*;
 import com.JSPICE.Util.ComponentDenominations;
+import com.JSPICE.Util.StampType;
 
 /**
  * @author 1sand0s
@@ -14,6 +15,16 @@ public class Diode extends SElement {
     private double cFactor;
     private double tVoltage;
 
+    /* Node indices and slots kept by compile */
+    private int anode;
+    private int cathode;
+    private int slots[];
+
+    /* Device state : junction voltage the last stamp was linearized about
+     * (after limiting), NaN until the first stamp of an analysis */
+    private double junctionVoltage;
+    private boolean limited;
+
     public Diode() {
         denomination = ComponentDenominations.D;
         iSat = 0;
@@ -63,12 +74,12 @@ public class Diode extends SElement {
     }
 
     @Override
-    public Complex[] getVoltage(Complex[][] result){
+    public Complex getVoltage(ComplexVector result){
         int anode = terminals.getTerminal(ComponentTerminals.ANODE);
         int cathode = terminals.getTerminal(ComponentTerminals.CATHODE);
 
-        return (ComplexMatrixOperations.SubArrays(result[anode],
-						  result[cathode]));
+        return new Complex(result.getReal(anode) - result.getReal(cathode),
+			   result.getImaginary(anode) - result.getImaginary(cathode));
     }
 
     /**
@@ -85,22 +96,94 @@ public class Diode extends SElement {
     }
 
     @Override
-    public Complex[] getCurrent(Complex[][] result,
-				double frequency) {
+    public Complex getCurrent(ComplexVector result,
+			      double frequency) {
 	return null;
     }
     
     @Override
-    public void stampMatrixDC(Complex[][] G,
-                              Complex[][] B,
-                              Complex[][] C,
-                              Complex[][] D,
-                              Complex[][] z,
-			      Complex[][] result,
-                              int iSourceIndex) {
-        int anode = terminals.getTerminal(ComponentTerminals.ANODE);
-        int cathode = terminals.getTerminal(ComponentTerminals.CATHODE);
+    public StampType getStampType() {
+        return StampType.NONLINEAR;
+    }
+
+    @Override
+    public void compile(SparsePattern pattern,
+			int branchIndex) {
+        anode = terminals.getTerminal(ComponentTerminals.ANODE);
+        cathode = terminals.getTerminal(ComponentTerminals.CATHODE);
+	slots = compileAdmittance(pattern, anode, cathode);
+	junctionVoltage = Double.NaN;
+	limited = false;
+	/* Conductance and current source of the linearization */
+	resetBypassState(2);
+    }
+
+    @Override
+    public boolean isLimiting() {
+	return limited;
+    }
 
+    @Override
+    public void resetLimiting() {
+	super.resetLimiting();
+	junctionVoltage = Double.NaN;
+	limited = false;
+    }
+
+    /**
+     * @brief Limits the change of the junction voltage between two
+     *        Newton-Raphson iterations (SPICE pnjlim). Above the critical
+     *        voltage, where the exponential makes the linearization poor, a
+     *        step larger than 2 * n * Vt is replaced by a logarithmic one so
+     *        the diode current grows at most linearly with the step. The
+     *        result is kept as the device state for the next iteration
+     * 
+     * @author 1sand0s
+     * @param double : vNew Junction voltage of the current iterate
+     * @return double : Limited junction voltage to linearize about
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double limitJunctionVoltage(double vNew){
+	double vt = cFactor * tVoltage;
+	double vCritical = vt * Math.log(vt / (Math.sqrt(2) * iSat));
+	double vOld = junctionVoltage;
+
+	/* The first iterate of an analysis (zeros or the DC operating point
+	 * for transient analysis) has no previous junction voltage */
+	limited = false;
+	if (!Double.isNaN(vOld) && vNew > vCritical && Math.abs(vNew - vOld) > 2 * vt) {
+	    limited = true;
+	    if (vOld > 0) {
+		double arg = 1 + (vNew - vOld) / vt;
+		vNew = arg > 0 ? vOld + vt * Math.log(arg) : vCritical;
+	    } else
+		vNew = vt * Math.log(vNew / vt);
+	}
+	junctionVoltage = vNew;
+	return vNew;
+    }
+
+    /**
+     * @brief Linearization error of the cached stamp : the second order
+     *        term of the Taylor expansion of the Shockley equation,
+     *        id''(vd*) * deltaV^2 / 2 with id'' = id'(vd*) / (n * Vt)
+     * 
+     * @author 1sand0s
+     * @param double : deltaV Change of the junction voltage
+     * @return double : Estimated current error in Amperes
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Override
+    protected double getBypassError(double deltaV){
+	return 0.5 * bypassState[0] * deltaV * deltaV / (cFactor * tVoltage);
+    }
+
+    @Override
+    public void stampMatrixDC(SparseMatrix A,
+                              RealVector z,
+			      RealVector result) {
 	/*
 	 *      id
 	 *       ^
@@ -146,43 +229,50 @@ public class Diode extends SElement {
 	 *    
 	 */
 
-	double voltage = getVoltage(result)[0].getReal();
-	voltage = voltage > 0.8 ? 0.8 : voltage;
-	double id = evaluateShockelyEquation(voltage);
-	double R = (cFactor * tVoltage) / (id + iSat);
-	double id0 = id - voltage / R;
+	double vNew = result.get(anode) - result.get(cathode);
+
+	/* An idle diode keeps its last linearization (device bypass) */
+	if (isBypassed(vNew))
+	    limited = false;
+	else {
+	    double voltage = limitJunctionVoltage(vNew);
+	    double id = evaluateShockelyEquation(voltage);
+	    double R = (cFactor * tVoltage) / (id + iSat);
+
+	    bypassState[0] = 1 / R;
+	    bypassState[1] = id - voltage / R;
+	    updateBypassState(voltage);
+	}
 
-        G[anode][anode].add(new Complex(1 / R, 0));
-        G[cathode][cathode].add(new Complex(1 / R, 0));
-        G[anode][cathode].add(new Complex(-1 / R, 0));
-        G[cathode][anode].add(new Complex(-1 / R, 0));
+	stampAdmittance(A.getValues(), slots, bypassState[0]);
 
-       	z[anode][0].add(new Complex(-id0, 0));
-	z[cathode][0].add(new Complex(id0, 0));
+       	z.add(anode, -bypassState[1]);
+	z.add(cathode, bypassState[1]);
     }
 
     @Override
-    public void stampMatrixAC(Complex[][] G,
-                              Complex[][] B,
-                              Complex[][] C,
-                              Complex[][] D,
-                              Complex[][] z,
-			      Complex[][] result,
-                              int iSourceIndex,
+    public void stampMatrixAC(ComplexSparseMatrix A,
+                              ComplexVector z,
+			      ComplexVector result,
                               double frequency) {
-        stampMatrixDC(G, B, C, D, z, result, iSourceIndex);
+	/* Same linearization as stampMatrixDC about the operating point in result */
+	double voltage = result.getReal(anode) - result.getReal(cathode);
+	double id = evaluateShockelyEquation(voltage);
+	double R = (cFactor * tVoltage) / (id + iSat);
+	double id0 = id - voltage / R;
+
+	stampAdmittance(A.getReal(), A.getImaginary(), slots, 1 / R, 0);
+
+       	z.add(anode, -id0, 0);
+	z.add(cathode, id0, 0);
     }
 
     @Override
-    public void stampMatrixTransient(Complex[][] G,
-				     Complex[][] B,
-				     Complex[][] C,
-				     Complex[][] D,
-				     Complex[][] z,
-				     Complex[][] result,
-				     int iSourceIndex,
+    public void stampMatrixTransient(SparseMatrix A,
+				     RealVector z,
+				     RealVector result,
 				     double time,
 				     double deltaT) {
-	stampMatrixDC(G, B, C, D, z, result, iSourceIndex);
+	stampMatrixDC(A, z, result);
     }
 }
@@ -1,7 +1,13 @@
 package com.JSPICE.SElement;
 
 import com.JSPICE.SMath.Complex;
+import com.JSPICE.SMath.ComplexSparseMatrix;
+import com.JSPICE.SMath.ComplexVector;
+import com.JSPICE.SMath.SparseMatrix;
+import com.JSPICE.SMath.SparsePattern;
+import com.JSPICE.SMath.RealVector;
 import com.JSPICE.Util.ComponentDenominations;
+import com.JSPICE.Util.StampType;
 import com.JSPICE.Util.ComponentTerminals;
 
 /**
@@ -28,49 +34,48 @@ public class GND extends SElement {
     }
 
     @Override
-    public Complex[] getVoltage(Complex[][] result) {
+    public Complex getVoltage(ComplexVector result) {
         // TODO Auto-generated method stub
         return null;
     }
 
     @Override
-    public Complex[] getCurrent(Complex[][] result,
-				double frequency) {
+    public Complex getCurrent(ComplexVector result,
+			      double frequency) {
         // TODO Auto-generated method stub
         return null;
     }
 
     @Override
-    public void stampMatrixDC(Complex[][] G,
-                              Complex[][] B,
-                              Complex[][] C,
-                              Complex[][] D,
-                              Complex[][] z,
-			      Complex[][] result,
-                              int iSourceIndex) {
+    public StampType getStampType() {
+        return StampType.LINEAR;
+    }
+
+    @Override
+    public void compile(SparsePattern pattern,
+			int branchIndex) {
+	/* Do nothing */
+    }
+
+    @Override
+    public void stampMatrixDC(SparseMatrix A,
+                              RealVector z,
+			      RealVector result) {
 	/* Do nothing */
     }
 
     @Override
-    public void stampMatrixAC(Complex[][] G,
-                              Complex[][] B,
-                              Complex[][] C,
-                              Complex[][] D,
-                              Complex[][] z,
-			      Complex[][] result,
-                              int iSourceIndex,
+    public void stampMatrixAC(ComplexSparseMatrix A,
+                              ComplexVector z,
+			      ComplexVector result,
                               double frequency) {
 	/* Do nothing */
     }
 
     @Override
-    public void stampMatrixTransient(Complex[][] G,
-				     Complex[][] B,
-				     Complex[][] C,
-				     Complex[][] D,
-				     Complex[][] z,
-				     Complex[][] result,
-				     int iSourceIndex,
+    public void stampMatrixTransient(SparseMatrix A,
+				     RealVector z,
+				     RealVector result,
 				     double time,
 				     double deltaT) {
 	/* Do nothing */
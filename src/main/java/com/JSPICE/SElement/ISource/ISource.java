@@ -1,7 +1,10 @@
 package com.JSPICE.SElement.ISource;
 
 import com.JSPICE.SMath.Complex;
+import com.JSPICE.SMath.ComplexVector;
+import com.JSPICE.SMath.SparsePattern;
 import com.JSPICE.Util.ComponentDenominations;
+import com.JSPICE.Util.StampType;
 import com.JSPICE.Util.ComponentTerminals;
 import com.JSPICE.SElement.SElement;
 import com.JSPICE.SElement.Wire;
@@ -16,6 +19,13 @@ public abstract class ISource extends SElement {
     protected double frequency;
     protected double phase;
 
+    /* Node indices, branch and slots kept by compile */
+    protected int posNode;
+    protected int negNode;
+    protected int branchIndex;
+    protected int branchSlots[];
+    protected int branchDiagonal;
+
     public ISource() {
         denomination = ComponentDenominations.I;
         current = 0;
@@ -35,13 +45,33 @@ public abstract class ISource extends SElement {
     }
 
     @Override
-    public Complex[] getVoltage(Complex[][] result) {
+    public StampType getStampType() {
+        return StampType.LINEAR;
+    }
+
+    @Override
+    public void compile(SparsePattern pattern,
+			int branchIndex) {
+        posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
+        negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
+	this.branchIndex = branchIndex;
+	branchSlots = compileBranch(pattern, posNode, negNode, branchIndex);
+	branchDiagonal = pattern.slot(branchIndex, branchIndex);
+    }
+
+    @Override
+    public int getBranchIndex() {
+        return branchIndex;
+    }
+
+    @Override
+    public Complex getVoltage(ComplexVector result) {
         return null;
     }
     
     @Override
-    public Complex[] getCurrent(Complex[][] result,
-				double frequency) {
+    public Complex getCurrent(ComplexVector result,
+			      double frequency) {
         return null;
     }
 
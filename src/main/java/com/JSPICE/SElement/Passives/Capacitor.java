@@ -2,8 +2,14 @@ package com.JSPICE.SElement.Passives;
 
 import com.JSPICE.Util.ComponentTerminals;
 import com.JSPICE.SMath.Complex;
-import com.JSPICE.SMath.ComplexMatrixOperations;
+import com.JSPICE.SMath.ComplexSparseMatrix;
+import com.JSPICE.SMath.ComplexVector;
+import com.JSPICE.SMath.SparseMatrix;
+import com.JSPICE.SMath.SparsePattern;
+import com.JSPICE.SMath.RealVector;
 import com.JSPICE.Util.ComponentDenominations;
+import com.JSPICE.Util.IntegrationMethod;
+import com.JSPICE.Util.StampType;
 import com.JSPICE.SElement.SElement;
 import com.JSPICE.SElement.Wire;
 import com.JSPICE.SElement.Terminals;
@@ -17,6 +23,23 @@ public class Capacitor extends SElement {
     private double capacitance;
     private double epsilonLoss;
 
+    /* Node indices and slots kept by compile */
+    private int posNode;
+    private int negNode;
+    private int slots[];
+
+    /* Transient history : voltage at the last three accepted time points
+     * (index 0 the latest), the time steps between them and the current
+     * at the latest, needed by the trapezoidal rule */
+    private double voltageHistory[] = new double[3];
+    private double stepHistory[] = new double[2];
+    private double currentHistory;
+    private int historyLength;
+
+    /* Companion model of the time step being integrated */
+    private double conductance;
+    private double historyCurrent;
+
     public Capacitor() {
         denomination = ComponentDenominations.C;
         capacitance = 0;
@@ -35,95 +58,165 @@ public class Capacitor extends SElement {
     }
 
     @Override
-    public Complex[] getVoltage(Complex[][] result) {
+    public Complex getVoltage(ComplexVector result) {
 	int posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
         int negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
 
-	return (ComplexMatrixOperations.SubArrays(result[posNode],
-						  result[negNode]));
+	return new Complex(result.getReal(posNode) - result.getReal(negNode),
+			   result.getImaginary(posNode) - result.getImaginary(negNode));
     }
 
     @Override
-    public Complex[] getCurrent(Complex[][] result,
-				double frequency) {
-	return ComplexMatrixOperations.Multiply(ComplexMatrixOperations.ScalarMultiply(getVoltage(result),
-										       2 * frequency * Math.PI * capacitance),
-						new Complex(0, 1));
+    public Complex getCurrent(ComplexVector result,
+			      double frequency) {
+	Complex current = getVoltage(result);
+	current.multiply(0, 2 * frequency * Math.PI * capacitance);
+	return current;
     }
 
     @Override
-    public void stampMatrixDC(Complex[][] G,
-                              Complex[][] B,
-                              Complex[][] C,
-                              Complex[][] D,
-                              Complex[][] z,
-			      Complex[][] result,
-                              int iSourceIndex) {
-        int posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
-        int negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
+    public StampType getStampType() {
+        return StampType.TIME_DEPENDENT;
+    }
+
+    @Override
+    public boolean isFrequencyDependent() {
+	return true;
+    }
 
+    @Override
+    public void compile(SparsePattern pattern,
+			int branchIndex) {
+        posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
+        negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
+	slots = compileAdmittance(pattern, posNode, negNode);
+    }
+
+    @Override
+    public void stampMatrixDC(SparseMatrix A,
+                              RealVector z,
+			      RealVector result) {
         /* Stamp high impedance dielectric loss during DC*/
-        G[posNode][posNode].add(new Complex(1 / epsilonLoss, 0));
-        G[negNode][negNode].add(new Complex(1 / epsilonLoss, 0));
-        G[posNode][negNode].add(new Complex(-1 / epsilonLoss, 0));
-        G[negNode][posNode].add(new Complex(-1 / epsilonLoss, 0));
+	stampAdmittance(A.getValues(), slots, 1 / epsilonLoss);
     }
 
     @Override
-    public void stampMatrixAC(Complex[][] G,
-                              Complex[][] B,
-                              Complex[][] C,
-                              Complex[][] D,
-                              Complex[][] z,
-			      Complex[][] result,
-                              int iSourceIndex,
+    public void stampMatrixAC(ComplexSparseMatrix A,
+                              ComplexVector z,
+			      ComplexVector result,
                               double frequency) {
-        int posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
-        int negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
-
         /* Stamp capacitance reactance during AC */
-        G[posNode][posNode].add(new Complex(0, -(capacitance * frequency * 2 * Math.PI)));
-        G[negNode][negNode].add(new Complex(0, -(capacitance * frequency * 2 * Math.PI)));
-        G[posNode][negNode].add(new Complex(0, (capacitance * frequency * 2 * Math.PI)));
-        G[negNode][posNode].add(new Complex(0, (capacitance * frequency * 2 * Math.PI)));
+	stampAdmittance(A.getReal(), A.getImaginary(), slots, 0, -(capacitance * frequency * 2 * Math.PI));
+    }
+
+    @Override
+    public void startTransient(RealVector result) {
+	voltageHistory[0] = result.get(posNode) - result.get(negNode);
+	/* No current flows through the capacitor at the DC operating point.
+	 * The dielectric loss is a DC only element, left out of the
+	 * companion model, so its current is not part of the history */
+	currentHistory = 0;
+	historyLength = 1;
+    }
+
+    @Override
+    public void acceptTimeStep(RealVector result,
+			       double deltaT) {
+	double voltage = result.get(posNode) - result.get(negNode);
+
+	integrate(deltaT);
+	currentHistory = conductance * voltage - historyCurrent;
+	System.arraycopy(voltageHistory, 0, voltageHistory, 1, voltageHistory.length - 1);
+	System.arraycopy(stepHistory, 0, stepHistory, 1, stepHistory.length - 1);
+	voltageHistory[0] = voltage;
+	stepHistory[0] = deltaT;
+	historyLength = Math.min(historyLength + 1, voltageHistory.length);
     }
-    
+
     @Override
-    public void stampMatrixTransient(Complex[][] G,
-				     Complex[][] B,
-				     Complex[][] C,
-				     Complex[][] D,
-				     Complex[][] z,
-				     Complex[][] result,
-				     int iSourceIndex,
+    public double getTruncationError(RealVector result,
+				     double deltaT,
+				     double reltol,
+				     double chgtol) {
+	/* Error on q = C * v */
+	return estimateTruncationError(getStepMethod(), result.get(posNode) - result.get(negNode),
+				       voltageHistory, stepHistory, historyLength,
+				       capacitance, deltaT, reltol, chgtol);
+    }
+
+    @Override
+    public void stampMatrixTransient(SparseMatrix A,
+				     RealVector z,
+				     RealVector result,
 				     double time,
 				     double deltaT) {
-	int posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
-	int negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
-	
         /* Capacitor transient equation
 	 *
 	 *  i = C * dv/dt
 	 *  
-	 * If 'dt' is small then variation of 'v(t)' about t in the range (t - dt, t) 
-	 * can be assumed to be linear, therefore
+	 * discretized by the integration method into a companion model
 	 *
-	 *  i = C * (v(t) - v(t - dt))/(dt)
-	 *  (v(t) - v(t - dt))/i = dt/C
+	 *  i(t) = G * v(t) - is
 	 *
-	 *  Therefore, for impedance we stamp 'dt/C'
+	 *  Therefore, for admittance we stamp 'G'
 	 */
-        G[posNode][posNode].add(new Complex(-(capacitance / deltaT), 0));
-        G[negNode][negNode].add(new Complex(-(capacitance / deltaT), 0));
-        G[posNode][negNode].add(new Complex(+(capacitance / deltaT), 0));
-        G[negNode][posNode].add(new Complex(+(capacitance / deltaT), 0));
+	integrate(deltaT);
+	stampAdmittance(A.getValues(), slots, conductance);
 
-	/* Capacitors stamped as current sources
+	/* Capacitors stamped as current sources, from the history
 	 *
-	 * i(t - dt) = -C * v(t - dt)/dt
+	 * is flowing into the positive node
 	 */
-	double voltage = getVoltage(result)[0].getReal(); // v(t - dt)
-	z[posNode][0].add(new Complex(+capacitance * voltage / deltaT, 0));
-	z[negNode][0].add(new Complex(-capacitance * voltage / deltaT, 0));
+	z.add(posNode, +historyCurrent);
+	z.add(negNode, -historyCurrent);
+    }
+
+    /**
+     * @brief Companion model of a time step. With v0, v1 the voltages at
+     *        the last two accepted time points, i0 the current at the
+     *        latest, h the time step and w = h / (time step before it)
+     * 
+     *        Backward Euler : G = C/h,                       is = G * v0
+     *        Trapezoidal    : G = 2C/h,                      is = G * v0 + i0
+     *        Gear-2         : G = C/h * (1 + 2w) / (1 + w),
+     *                         is = C/h * ((1 + w) * v0 - w^2 / (1 + w) * v1)
+     * 
+     * @author 1sand0s
+     * @param double : deltaT Time step
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void integrate(double deltaT) {
+	switch (getStepMethod()) {
+	case TRAPEZOIDAL:
+	    conductance = 2 * capacitance / deltaT;
+	    historyCurrent = conductance * voltageHistory[0] + currentHistory;
+	    break;
+	case GEAR2:
+	    double ratio = deltaT / stepHistory[0];
+	    conductance = capacitance / deltaT * (1 + 2 * ratio) / (1 + ratio);
+	    historyCurrent = capacitance / deltaT
+		* ((1 + ratio) * voltageHistory[0] - ratio * ratio / (1 + ratio) * voltageHistory[1]);
+	    break;
+	default:
+	    conductance = capacitance / deltaT;
+	    historyCurrent = conductance * voltageHistory[0];
+	}
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return IntegrationMethod : Method of the next time step, backward
+     *                             Euler until Gear-2 has two accepted
+     *                             time points
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private IntegrationMethod getStepMethod() {
+	if (integrationMethod == IntegrationMethod.GEAR2 && historyLength < 2)
+	    return IntegrationMethod.BACKWARD_EULER;
+	return integrationMethod;
     }
 }
@@ -1,8 +1,14 @@
 package com.JSPICE.SElement.Passives;
 
 import com.JSPICE.SMath.Complex;
-import com.JSPICE.SMath.ComplexMatrixOperations;
+import com.JSPICE.SMath.ComplexSparseMatrix;
+import com.JSPICE.SMath.ComplexVector;
+import com.JSPICE.SMath.SparseMatrix;
+import com.JSPICE.SMath.SparsePattern;
+import com.JSPICE.SMath.RealVector;
 import com.JSPICE.Util.ComponentDenominations;
+import com.JSPICE.Util.IntegrationMethod;
+import com.JSPICE.Util.StampType;
 import com.JSPICE.Util.ComponentTerminals;
 import com.JSPICE.SElement.SElement;
 import com.JSPICE.SElement.Wire;
@@ -17,6 +23,24 @@ public class Inductor extends SElement {
     private double inductance;
     private double gMinResistance;
 
+    /* Node indices and slots kept by compile */
+    private int posNode;
+    private int negNode;
+    private int slots[];
+
+    /* Transient history : current from the positive to the negative node
+     * at the last three accepted time points (index 0 the latest), the
+     * time steps between them and the voltage at the latest, needed by
+     * the trapezoidal rule */
+    private double currentHistory[] = new double[3];
+    private double stepHistory[] = new double[2];
+    private double voltageHistory;
+    private int historyLength;
+
+    /* Companion model of the time step being integrated */
+    private double conductance;
+    private double historyCurrent;
+
     public Inductor() {
         denomination = ComponentDenominations.L;
         inductance = 0;
@@ -35,95 +59,182 @@ public class Inductor extends SElement {
     }
     
     @Override
-    public Complex[] getVoltage(Complex[][] result) {
+    public Complex getVoltage(ComplexVector result) {
 	int posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
         int negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
 
-	return (ComplexMatrixOperations.SubArrays(result[posNode],
-						  result[negNode]));
+	return new Complex(result.getReal(posNode) - result.getReal(negNode),
+			   result.getImaginary(posNode) - result.getImaginary(negNode));
     }
     
     @Override
-    public Complex[] getCurrent(Complex[][] result,
-				double frequency) {
-	return ComplexMatrixOperations.Multiply(ComplexMatrixOperations.ScalarMultiply(getVoltage(result),
-										       1 / (2 * Math.PI * frequency * inductance)),
-						new Complex(0, -1));
+    public Complex getCurrent(ComplexVector result,
+			      double frequency) {
+	Complex current = getVoltage(result);
+	current.multiply(0, -1 / (2 * Math.PI * frequency * inductance));
+	return current;
     }
     
     @Override
-    public void stampMatrixDC(Complex[][] G,
-                              Complex[][] B,
-                              Complex[][] C,
-                              Complex[][] D,
-                              Complex[][] z,
-			      Complex[][] result,
-                              int iSourceIndex) {
-        int posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
-        int negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
+    public StampType getStampType() {
+        return StampType.TIME_DEPENDENT;
+    }
+
+    @Override
+    public boolean isFrequencyDependent() {
+	return true;
+    }
 
+    @Override
+    public void compile(SparsePattern pattern,
+			int branchIndex) {
+        posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
+        negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
+	slots = compileAdmittance(pattern, posNode, negNode);
+    }
+
+    @Override
+    public void stampMatrixDC(SparseMatrix A,
+                              RealVector z,
+			      RealVector result) {
         /* Stamp low impedance during DC (prevents singular matrices) */
-        G[posNode][posNode].add(new Complex(1 / gMinResistance, 0));
-        G[negNode][negNode].add(new Complex(1 / gMinResistance, 0));
-        G[posNode][negNode].add(new Complex(-1 / gMinResistance, 0));
-        G[negNode][posNode].add(new Complex(-1 / gMinResistance, 0));
+	stampAdmittance(A.getValues(), slots, 1 / gMinResistance);
     }
 
     @Override
-    public void stampMatrixAC(Complex[][] G,
-                              Complex[][] B,
-                              Complex[][] C,
-                              Complex[][] D,
-                              Complex[][] z,
-			      Complex[][] result,
-                              int iSourceIndex,
+    public void stampMatrixAC(ComplexSparseMatrix A,
+                              ComplexVector z,
+			      ComplexVector result,
                               double frequency) {
-        int posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
-        int negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
-
         /* Stamp inductive reactance during AC */
-        G[posNode][posNode].add(new Complex(0, 1 / (inductance * frequency * 2 * Math.PI)));
-        G[negNode][negNode].add(new Complex(0, 1 / (inductance * frequency * 2 * Math.PI)));
-        G[posNode][negNode].add(new Complex(0, -1 / (inductance * frequency * 2 * Math.PI)));
-        G[negNode][posNode].add(new Complex(0, -1 / (inductance * frequency * 2 * Math.PI)));
+	stampAdmittance(A.getReal(), A.getImaginary(), slots, 0, 1 / (inductance * frequency * 2 * Math.PI));
     }
     
     @Override
-    public void stampMatrixTransient(Complex[][] G,
-				     Complex[][] B,
-				     Complex[][] C,
-				     Complex[][] D,
-				     Complex[][] z,
-				     Complex[][] result,
-				     int iSourceIndex,
+    public void startTransient(RealVector result) {
+	currentHistory[0] = getOperatingPointCurrent(result);
+	/* The ideal inductor of the companion model has no voltage across it
+	 * at DC, unlike the small DC resistance standing in for it */
+	voltageHistory = 0;
+	historyLength = 1;
+    }
+
+    /**
+     * @brief Branch current at the DC operating point. The inductor has no
+     *        branch row and is stamped at DC as the short gMinResistance
+     *        (see stampMatrixDC), which carries the whole branch current, so
+     *        the current is read from the drop across it
+     * 
+     * @author 1sand0s
+     * @param RealVector : result DC operating point
+     * @return double : Current from the positive to the negative node
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private double getOperatingPointCurrent(RealVector result) {
+	return (result.get(posNode) - result.get(negNode)) / gMinResistance;
+    }
+
+    @Override
+    public void acceptTimeStep(RealVector result,
+			       double deltaT) {
+	double voltage = result.get(posNode) - result.get(negNode);
+
+	integrate(deltaT);
+	System.arraycopy(currentHistory, 0, currentHistory, 1, currentHistory.length - 1);
+	System.arraycopy(stepHistory, 0, stepHistory, 1, stepHistory.length - 1);
+	currentHistory[0] = conductance * voltage + historyCurrent;
+	stepHistory[0] = deltaT;
+	voltageHistory = voltage;
+	historyLength = Math.min(historyLength + 1, currentHistory.length);
+    }
+
+    @Override
+    public double getTruncationError(RealVector result,
+				     double deltaT,
+				     double reltol,
+				     double chgtol) {
+	/* Error on phi = L * i */
+	integrate(deltaT);
+	double current = conductance * (result.get(posNode) - result.get(negNode)) + historyCurrent;
+	return estimateTruncationError(getStepMethod(), current,
+				       currentHistory, stepHistory, historyLength,
+				       inductance, deltaT, reltol, chgtol);
+    }
+
+    @Override
+    public void stampMatrixTransient(SparseMatrix A,
+				     RealVector z,
+				     RealVector result,
 				     double time,
 				     double deltaT) {
-	int posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
-	int negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
-	
         /* Inductor transient equation
 	 *
 	 *  v = L * di/dt
 	 *  
-	 * If 'dt' is small then variation of 'i(t)' about t in the range (t - dt, t) 
-	 * can be assumed to be linear, therefore
+	 * discretized by the integration method into a companion model
 	 *
-	 *  v = L * (i(t) - i(t - dt))/(dt)
-	 *  (i(t) - i(t - dt))/v = dt/L
+	 *  i(t) = G * v(t) + is
 	 *
-	 *  Therefore, for impedance we stamp 'L/dt'
+	 *  Therefore, for admittance we stamp 'G'
 	 */
-        G[posNode][posNode].add(new Complex(-(deltaT / inductance), 0));
-        G[negNode][negNode].add(new Complex(-(deltaT / inductance), 0));
-        G[posNode][negNode].add(new Complex(+(deltaT / inductance), 0));
-        G[negNode][posNode].add(new Complex(+(deltaT / inductance), 0));
+	integrate(deltaT);
+	stampAdmittance(A.getValues(), slots, conductance);
         
-        /* Inductors stamped as current sources
+        /* Inductors stamped as current sources, from the history
 	 *
-	 * is = -i(t - dt) = -v(t - dt) * dt / L
+	 * is flowing out of the positive node
 	 */
-	double voltage = getVoltage(result)[0].getReal(); // v(t - dt)
-        z[posNode][0].add(new Complex(-voltage * deltaT / inductance, 0));
-	z[negNode][0].add(new Complex(+voltage * deltaT / inductance, 0));
+        z.add(posNode, -historyCurrent);
+	z.add(negNode, +historyCurrent);
+    }
+
+    /**
+     * @brief Companion model of a time step. With i0, i1 the currents at
+     *        the last two accepted time points, v0 the voltage at the
+     *        latest, h the time step, w = h / (time step before it) and
+     *        a = (1 + 2w) / (1 + w)
+     * 
+     *        Backward Euler : G = h/L,      is = i0
+     *        Trapezoidal    : G = h/(2L),   is = i0 + G * v0
+     *        Gear-2         : G = h/(a*L),  is = ((1 + w) * i0 - w^2 / (1 + w) * i1) / a
+     * 
+     * @author 1sand0s
+     * @param double : deltaT Time step
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void integrate(double deltaT) {
+	switch (getStepMethod()) {
+	case TRAPEZOIDAL:
+	    conductance = deltaT / (2 * inductance);
+	    historyCurrent = currentHistory[0] + conductance * voltageHistory;
+	    break;
+	case GEAR2:
+	    double ratio = deltaT / stepHistory[0];
+	    double leading = (1 + 2 * ratio) / (1 + ratio);
+	    conductance = deltaT / (leading * inductance);
+	    historyCurrent = ((1 + ratio) * currentHistory[0] - ratio * ratio / (1 + ratio) * currentHistory[1]) / leading;
+	    break;
+	default:
+	    conductance = deltaT / inductance;
+	    historyCurrent = currentHistory[0];
+	}
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return IntegrationMethod : Method of the next time step, backward
+     *                             Euler until Gear-2 has two accepted
+     *                             time points
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private IntegrationMethod getStepMethod() {
+	if (integrationMethod == IntegrationMethod.GEAR2 && historyLength < 2)
+	    return IntegrationMethod.BACKWARD_EULER;
+	return integrationMethod;
     }
 }
@@ -3,6 +3,7 @@ package com.JSPICE.SElement.Passives;
 import com.JSPICE.Util.ComponentTerminals;
 import com.JSPICE.SMath.*;
 import com.JSPICE.Util.ComponentDenominations;
+import com.JSPICE.Util.StampType;
 import com.JSPICE.SElement.SElement;
 import com.JSPICE.SElement.Wire;
 import com.JSPICE.SElement.Terminals;
@@ -15,6 +16,11 @@ public class Resistor extends SElement {
 
     private double resistance;
 
+    /* Node indices and slots kept by compile */
+    private int posNode;
+    private int negNode;
+    private int slots[];
+
     public Resistor() {
         denomination = ComponentDenominations.R;
         resistance = 0;
@@ -32,60 +38,56 @@ public class Resistor extends SElement {
     }
 
     @Override
-    public Complex[] getVoltage(Complex[][] result){
+    public Complex getVoltage(ComplexVector result){
         int posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
         int negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
 
-        return (ComplexMatrixOperations.SubArrays(result[posNode],
-						  result[negNode]));
+        return new Complex(result.getReal(posNode) - result.getReal(negNode),
+			   result.getImaginary(posNode) - result.getImaginary(negNode));
     }
 
     @Override
-    public Complex[] getCurrent(Complex[][] result,
-				double frequency) {
-	return ComplexMatrixOperations.ScalarMultiply(getVoltage(result),
-						      1 / resistance);
+    public Complex getCurrent(ComplexVector result,
+			      double frequency) {
+	Complex current = getVoltage(result);
+	current.scale(1 / resistance);
+	return current;
     }
     
     @Override
-    public void stampMatrixDC(Complex[][] G,
-                              Complex[][] B,
-                              Complex[][] C,
-                              Complex[][] D,
-                              Complex[][] z,
-			      Complex[][] result,
-                              int iSourceIndex) {
-        int posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
-        int negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
+    public StampType getStampType() {
+        return StampType.LINEAR;
+    }
 
-        G[posNode][posNode].add(new Complex(1 / resistance, 0));
-        G[negNode][negNode].add(new Complex(1 / resistance, 0));
-        G[posNode][negNode].add(new Complex(-1 / resistance, 0));
-        G[negNode][posNode].add(new Complex(-1 / resistance, 0));
+    @Override
+    public void compile(SparsePattern pattern,
+			int branchIndex) {
+        posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
+        negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
+	slots = compileAdmittance(pattern, posNode, negNode);
+    }
+
+    @Override
+    public void stampMatrixDC(SparseMatrix A,
+                              RealVector z,
+			      RealVector result) {
+	stampAdmittance(A.getValues(), slots, 1 / resistance);
     }
 
     @Override
-    public void stampMatrixAC(Complex[][] G,
-                              Complex[][] B,
-                              Complex[][] C,
-                              Complex[][] D,
-                              Complex[][] z,
-			      Complex[][] result,
-                              int iSourceIndex,
+    public void stampMatrixAC(ComplexSparseMatrix A,
+                              ComplexVector z,
+			      ComplexVector result,
                               double frequency) {
-        stampMatrixDC(G, B, C, D, z, result, iSourceIndex);
+	stampAdmittance(A.getReal(), A.getImaginary(), slots, 1 / resistance, 0);
     }
 
     @Override
-    public void stampMatrixTransient(Complex[][] G,
-				     Complex[][] B,
-				     Complex[][] C,
-				     Complex[][] D,
-				     Complex[][] z,
-				     Complex[][] result,
-				     int iSourceIndex,
+    public void stampMatrixTransient(SparseMatrix A,
+				     RealVector z,
+				     RealVector result,
 				     double time,
 				     double deltaT) {
-	stampMatrixDC(G, B, C, D, z, result, iSourceIndex);
+	stampMatrixDC(A, z, result);
     }
 }
@@ -6,7 +6,14 @@ package com.JSPICE.SElement;
 import com.JSPICE.Util.ComponentTerminals;
 import com.JSPICE.Util.UnitConversion;
 import com.JSPICE.Util.ComponentDenominations;
+import com.JSPICE.Util.IntegrationMethod;
+import com.JSPICE.Util.StampType;
 import com.JSPICE.SMath.Complex;
+import com.JSPICE.SMath.ComplexSparseMatrix;
+import com.JSPICE.SMath.ComplexVector;
+import com.JSPICE.SMath.RealVector;
+import com.JSPICE.SMath.SparseMatrix;
+import com.JSPICE.SMath.SparsePattern;
 
 /**
  * @author audi
@@ -18,6 +25,22 @@ public abstract class SElement {
     protected ComponentDenominations denomination;
     protected int id;
     protected Terminals terminals;
+    /* Device bypass (nonlinear elements) : values of the last evaluated
+     * stamp, kept in bypassState by the element, and the controlling
+     * voltage they were evaluated at. A new voltage within the bypass
+     * tolerances of it, for which the cached stamp is also accurate to
+     * abstol, reuses them instead of evaluating the device again */
+    protected double bypassState[];
+    private double bypassVoltage = Double.NaN;
+    private boolean bypass;
+    private double bypassReltol;
+    private double bypassVntol;
+    private double bypassAbstol;
+    private long evaluations;
+    private long bypasses;
+    /* Integration of charge or flux by reactive elements in transient
+     * analysis */
+    protected IntegrationMethod integrationMethod = IntegrationMethod.BACKWARD_EULER;
 
     /**
      * @brief Returns the Id of this SElement as a String
@@ -97,6 +120,19 @@ public abstract class SElement {
         return terminals.getTerminal(terminal);
     }
 
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Row of the branch current of a source in the MNA
+     *               system, given by compile (-1 for elements without one)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getBranchIndex() {
+        return -1;
+    }
+
     /**
      * regular
      * 
@@ -126,60 +162,271 @@ public abstract class SElement {
      * regular
      * 
      * @author 1sand0s
-     * @param result : double array of results after solve
+     * @param result : Result vector after solve
      * @return Complex : get voltage
      * @since 1.0.0
      * @version 1.0.0
      */
-    public abstract Complex[] getVoltage(Complex[][] result);
+    public abstract Complex getVoltage(ComplexVector result);
     
     /**
      * regular
      * 
      * @author 1sand0s
-     * @param result : double array of results after solve
+     * @param result : Result vector after solve
      * @param frequency : frequency 
      * @return Complex : get current
      * @since 1.0.0
      * @version 1.0.0
      */
-    public abstract Complex[] getCurrent(Complex[][] result,
-					 double frequency);
+    public abstract Complex getCurrent(ComplexVector result,
+				       double frequency);
 
     /**
-     * @brief Stamps the complex admittances of the concerned
+     * @brief Tells the solver how often the stamps of this element must be
+     *        redone. LINEAR stamps depend neither on time nor on the
+     *        solution and are stamped once into a cached base system,
+     *        TIME_DEPENDENT stamps are redone once per time step (they may
+     *        use time, the time step and the solution of the previous time
+     *        point) and NONLINEAR stamps on every Newton-Raphson iteration.
+     *        (Must be implemented by derived classes)
+     * 
+     * @author 1sand0s
+     * @return StampType : LINEAR, TIME_DEPENDENT or NONLINEAR
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public abstract StampType getStampType();
+
+    /**
+     * @brief Tells whether the last stamp of a nonlinear element limited the
+     *        iterate it was linearized about (see Diode.limitJunctionVoltage).
+     *        The solver does not accept a Newton-Raphson iteration as
+     *        converged while any element is limiting
+     * 
+     * @author 1sand0s
+     * @return boolean : true if the last stamp was limited (false for
+     *                   elements without limiting)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public boolean isLimiting() {
+	return false;
+    }
+
+    /**
+     * @brief Forgets the device state carried from one Newton-Raphson
+     *        iterate to the next : the last evaluation kept for bypass
+     *        and, in elements with limiting, the voltage the last stamp
+     *        was limited about. Called by the solver whenever it sets x
+     *        back to a point other than the last iterate, so the next
+     *        stamp is linearized about that point
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void resetLimiting() {
+	bypassVoltage = Double.NaN;
+    }
+
+    /**
+     * @brief Tells whether the AC stamp of this element depends on the
+     *        frequency. The AC sweep stamps every other element once into a
+     *        shared base system and restamps these at each frequency, on a
+     *        copy of the base system. Only the matrix may be stamped by
+     *        them, not the right hand side
+     * 
+     * @author 1sand0s
+     * @return boolean : true for reactive elements (false by default)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public boolean isFrequencyDependent() {
+	return false;
+    }
+
+    /**
+     * @brief Enables or disables device bypass for this element. Set by
+     *        the solver on every nonlinear element when the circuit is
+     *        compiled
+     * 
+     * @author 1sand0s
+     * @param boolean : bypass true to reuse the last evaluated stamp while
+     *                         the controlling voltage does not change
+     * @param double : reltol  Relative tolerance on the controlling voltage
+     * @param double : vntol   Absolute tolerance on the controlling voltage
+     *                         in Volts
+     * @param double : abstol  Tolerance on the error of the element current
+     *                         from reusing the stamp in Amperes (see
+     *                         getBypassError)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setBypass(boolean bypass,
+			  double reltol,
+			  double vntol,
+			  double abstol) {
+	this.bypass = bypass;
+	this.bypassReltol = reltol;
+	this.bypassVntol = vntol;
+	this.bypassAbstol = abstol;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return long : Number of times the device was evaluated since it was
+     *                compiled
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public long getEvaluationCount() {
+	return evaluations;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return long : Number of stamps that reused the last evaluation since
+     *                the device was compiled
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public long getBypassCount() {
+	return bypasses;
+    }
+
+    /**
+     * @brief Selects how a reactive element integrates its charge or flux
+     *        in transient analysis. Set by the solver on every time
+     *        dependent element before the first time point
+     * 
+     * @author 1sand0s
+     * @param IntegrationMethod : integrationMethod BACKWARD_EULER (default),
+     *                                              TRAPEZOIDAL or GEAR2
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setIntegrationMethod(IntegrationMethod integrationMethod) {
+	this.integrationMethod = integrationMethod;
+    }
+
+    /**
+     * @brief Starts the transient history of a reactive element (charge or
+     *        flux) from the DC operating point. Elements without history
+     *        ignore it
+     * 
+     * @author 1sand0s
+     * @param RealVector : result DC operating point
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void startTransient(RealVector result) {
+    }
+
+    /**
+     * @brief Adds the solution of an accepted time point to the transient
+     *        history. Time dependent stamps use the history, not the
+     *        solution they are given, so a rejected time point leaves no
+     *        trace. Elements without history ignore it
+     * 
+     * @author 1sand0s
+     * @param RealVector : result Solution at the accepted time point
+     * @param double : deltaT     Time step that led to it
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void acceptTimeStep(RealVector result,
+			       double deltaT) {
+    }
+
+    /**
+     * @brief Estimates the local truncation error of the integration of the
+     *        charge or flux of a reactive element over the last time step
+     *        from its divided differences, relative to the tolerance
+     *        reltol * |charge or flux| + chgtol
+     * 
+     * @author 1sand0s
+     * @param RealVector : result Solution at the time point being checked
+     * @param double : deltaT     Time step that led to it
+     * @param double : reltol     Relative tolerance
+     * @param double : chgtol     Absolute tolerance on charge (Coulombs) or
+     *                            flux (Webers)
+     * @return double : Error over tolerance, above 1 the time step is too
+     *                  long (0 for elements without history or before the
+     *                  history holds two time points)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double getTruncationError(RealVector result,
+				     double deltaT,
+				     double reltol,
+				     double chgtol) {
+	return 0;
+    }
+
+    /**
+     * @brief First breakpoint of a time dependent source after a time : a
+     *        time at which its value or slope jumps (corners of a pulse). The
+     *        transient solver lands exactly on breakpoints and restarts with
+     *        a short time step after each. Elements without breakpoints
+     *        ignore it
+     * 
+     * @author 1sand0s
+     * @param double : time Time in seconds
+     * @return double : First breakpoint strictly after time,
+     *                  Double.POSITIVE_INFINITY if there is none
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double getNextBreakpoint(double time) {
+	return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @brief Compiles the stamps of this element against the pattern of the
+     *        system matrix : declares every entry any analysis may stamp and
+     *        keeps their offsets (slots) and the node indices, so stamping
+     *        does not look terminals up. Called twice by the solver after
+     *        numberNodes(), before and after the pattern is compiled (see
+     *        SparsePattern.slot). (Must be implemented by derived classes)
+     * 
+     * @author 1sand0s
+     * @param SparsePattern : pattern Pattern of the MNA system. Rows/columns
+     *                                of the circuit nodes come first (GND is
+     *                                node 0, a sink whose entries are
+     *                                discarded) followed by one branch
+     *                                row/column per source
+     * @param int : branchIndex       Row/column of the branch current of this
+     *                                element (sources only)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public abstract void compile(SparsePattern pattern,
+				 int branchIndex);
+
+    /**
+     * @brief Stamps the real admittances of the concerned
      *        SElement. The value of independent sources are also
      *        stamped here. (Must be implemented by derived classes)
      * 
      * @author 1sand0s
-     * @param Complex[][] : G       The admittance matrix (determined by the 
-     *                              interconnections between the passive circuit 
-     *                              elements and linearized equivalent passive 
-     *                              models of active circuit elements)
-     * @param Complex[][] : B       Source mapping matrix (determined by the 
-     *                              interconnections of the voltage sources)
-     * @param Complex[][] : C       Source mapping matrix (determined by the 
-     *                              interconnections of the voltage sources)
-     * @param Complex[][] : D       Source mapping matrix (determined by the 
-     *                              interconnections of the voltage sources)
-     * @param Complex[][] : z       Contains the values of the independent 
-     *                              voltage and current sources
-     * @param Complex[][] : result  The result of the previous Newton-Raphson
-     *                              iteration
-     * @param int : iSourceIndex    Number of voltage sources in the circuit
-     * @param double : time         Used in transient simulation
-     * @param double : deltaT       Time step between two transient solves
+     * @param SparseMatrix : A       The MNA system matrix, stamped through the
+     *                               slots kept by compile
+     * @param RealVector : z         Contains the values of the independent 
+     *                               voltage and current sources
+     * @param RealVector : result    The result of the previous Newton-Raphson
+     *                               iteration
      * @since 1.0.0
      * @version 1.0.0
      * @exception
      */
-    public abstract void stampMatrixDC(Complex[][] G,
-                                       Complex[][] B,
-                                       Complex[][] C,
-                                       Complex[][] D,
-                                       Complex[][] z,
-				       Complex[][] result,
-                                       int iSourceIndex);
+    public abstract void stampMatrixDC(SparseMatrix A,
+                                       RealVector z,
+				       RealVector result);
 
     /**
      * @brief Stamps the complex admittances of the concerned
@@ -187,69 +434,280 @@ public abstract class SElement {
      *        stamped here. (Must be implemented by derived classes)
      * 
      * @author 1sand0s
-     * @param Complex[][] : G       The admittance matrix (determined by the 
-     *                              interconnections between the passive circuit 
-     *                              elements and linearized equivalent passive 
-     *                              models of active circuit elements)
-     * @param Complex[][] : B       Source mapping matrix (determined by the 
-     *                              interconnections of the voltage sources)
-     * @param Complex[][] : C       Source mapping matrix (determined by the 
-     *                              interconnections of the voltage sources)
-     * @param Complex[][] : D       Source mapping matrix (determined by the 
-     *                              interconnections of the voltage sources)
-     * @param Complex[][] : z       Contains the values of the independent 
-     *                              voltage and current sources
-     * @param Complex[][] : result  The result of the previous Newton-Raphson
-     *                              iteration
-     * @param int : iSourceIndex    Number of voltage sources in the circuit
-     * @param double : time         Used in transient simulation
-     * @param double : deltaT       Time step between two transient solves
+     * @param ComplexSparseMatrix : A The MNA system matrix, stamped through
+     *                                the slots kept by compile
+     * @param ComplexVector : z       Contains the values of the independent 
+     *                                voltage and current sources
+     * @param ComplexVector : result  The result of the previous Newton-Raphson
+     *                                iteration
+     * @param double : frequency      Frequency of the analysis
      * @since 1.0.0
      * @version 1.0.0
      * @exception
      */
-    public abstract void stampMatrixAC(Complex[][] G,
-                                       Complex[][] B,
-                                       Complex[][] C,
-                                       Complex[][] D,
-                                       Complex[][] z,
-				       Complex[][] result,
-                                       int iSourceIndex,
+    public abstract void stampMatrixAC(ComplexSparseMatrix A,
+                                       ComplexVector z,
+				       ComplexVector result,
                                        double frequency);
     /**
-     * @brief Stamps the complex admittances of the concerned
+     * @brief Stamps the real admittances of the concerned
      *        SElement. The value of independent sources are also
      *        stamped here. (Must be implemented by derived classes)
      * 
      * @author 1sand0s
-     * @param Complex[][] : G       The admittance matrix (determined by the 
-     *                              interconnections between the passive circuit 
-     *                              elements and linearized equivalent passive 
-     *                              models of active circuit elements)
-     * @param Complex[][] : B       Source mapping matrix (determined by the 
-     *                              interconnections of the voltage sources)
-     * @param Complex[][] : C       Source mapping matrix (determined by the 
-     *                              interconnections of the voltage sources)
-     * @param Complex[][] : D       Source mapping matrix (determined by the 
-     *                              interconnections of the voltage sources)
-     * @param Complex[][] : z       Contains the values of the independent 
-     *                              voltage and current sources
-     * @param Complex[][] : result  The result of the previous Newton-Raphson
-     *                              iteration
-     * @param int : iSourceIndex    Number of voltage sources in the circuit
-     * @param double : time         Used in transient simulation
-     * @param double : deltaT       Time step between two transient solves
+     * @param SparseMatrix : A       The MNA system matrix, stamped through the
+     *                               slots kept by compile
+     * @param RealVector : z         Contains the values of the independent 
+     *                               voltage and current sources
+     * @param RealVector : result    The result of the previous Newton-Raphson
+     *                               iteration
+     * @param double : time          Used in transient simulation
+     * @param double : deltaT        Time step between two transient solves
      * @since 1.0.0
      * @version 1.0.0
      * @exception
      */
-    public abstract void stampMatrixTransient(Complex[][] G,
-					      Complex[][] B,
-					      Complex[][] C,
-					      Complex[][] D,
-					      Complex[][] z,
-					      Complex[][] result,
-					      int iSourceIndex,
+    public abstract void stampMatrixTransient(SparseMatrix A,
+					      RealVector z,
+					      RealVector result,
 					      double time,
 					      double deltaT);
+
+    /**
+     * @brief Local truncation error over tolerance of the integration of a
+     *        charge or flux, estimated from its divided differences over
+     *        the time point being checked and the history. The error is
+     *        deltaT^2 / 2 * q'' for backward Euler, deltaT^3 / 12 * q''' for
+     *        the trapezoidal rule and 2 / 9 * deltaT^3 * q''' for Gear-2
+     * 
+     * @author 1sand0s
+     * @param IntegrationMethod : method Integration method of the step
+     * @param double : value             Voltage or current at the time point
+     * @param double : history[]         Same at the last accepted time
+     *                                   points (index 0 the latest)
+     * @param double : stepHistory[]     Time steps between them
+     * @param int : historyLength        Number of accepted time points held
+     * @param double : scale             Capacitance or inductance, turns the
+     *                                   values into charge or flux
+     * @param double : deltaT            Time step that led to the time point
+     * @param double : reltol            Relative tolerance
+     * @param double : chgtol            Absolute tolerance on charge or flux
+     * @return double : Error over tolerance (0 while the history is too
+     *                  short for the order of the method)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected static double estimateTruncationError(IntegrationMethod method,
+						    double value,
+						    double history[],
+						    double stepHistory[],
+						    int historyLength,
+						    double scale,
+						    double deltaT,
+						    double reltol,
+						    double chgtol) {
+	int order = method == IntegrationMethod.BACKWARD_EULER ? 1 : 2;
+	if (historyLength < order + 1)
+	    return 0;
+
+	/* Divided differences of the charge over t, t - deltaT, ... */
+	double times[] = new double[order + 2];
+	double differences[] = new double[order + 2];
+	differences[0] = scale * value;
+	times[1] = -deltaT;
+	for (int j = 1; j <= order + 1; j++) {
+	    differences[j] = scale * history[j - 1];
+	    if (j > 1)
+		times[j] = times[j - 1] - stepHistory[j - 2];
+	}
+	for (int k = 1; k <= order + 1; k++)
+	    for (int j = order + 1; j >= k; j--)
+		differences[j] = (differences[j - 1] - differences[j]) / (times[j - k] - times[j]);
+
+	/* q'' = 2 * DD2, q''' = 6 * DD3 */
+	double error;
+	if (method == IntegrationMethod.BACKWARD_EULER)
+	    error = deltaT * deltaT * Math.abs(differences[2]);
+	else if (method == IntegrationMethod.TRAPEZOIDAL)
+	    error = 0.5 * deltaT * deltaT * deltaT * Math.abs(differences[3]);
+	else
+	    error = 4.0 / 3 * deltaT * deltaT * deltaT * Math.abs(differences[3]);
+
+	return error / (reltol * Math.max(Math.abs(scale * value), Math.abs(scale * history[0])) + chgtol);
+    }
+
+    /**
+     * @brief Allocates the bypass state of a nonlinear element and forgets
+     *        the last evaluation and the counters. Called from compile
+     * 
+     * @author 1sand0s
+     * @param int : size Number of cached stamp values
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected void resetBypassState(int size) {
+	bypassState = new double[size];
+	bypassVoltage = Double.NaN;
+	evaluations = 0;
+	bypasses = 0;
+    }
+
+    /**
+     * @brief Tells whether the stamp values in bypassState can be reused
+     *        for a controlling voltage, that is whether it is within
+     *        reltol * max(|voltage|, |last voltage|) + vntol of the voltage
+     *        they were evaluated at and the cached stamp is accurate to
+     *        abstol there
+     * 
+     * @author 1sand0s
+     * @param double : voltage Controlling voltage of the current iterate
+     * @return boolean : true if the device evaluation can be skipped
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected boolean isBypassed(double voltage) {
+	double deltaV = voltage - bypassVoltage;
+
+	if (bypass && !Double.isNaN(bypassVoltage)
+	    && Math.abs(deltaV) <= bypassReltol * Math.max(Math.abs(voltage), Math.abs(bypassVoltage)) + bypassVntol
+	    && getBypassError(deltaV) <= bypassAbstol) {
+	    bypasses++;
+	    return true;
+	}
+	return false;
+    }
+
+    /**
+     * @brief Estimates the error of the element current when the cached
+     *        stamp is used at a controlling voltage deltaV away from the
+     *        one it was evaluated at (the linearization error). Elements
+     *        with bypass override it
+     * 
+     * @author 1sand0s
+     * @param double : deltaV Change of the controlling voltage
+     * @return double : Estimated current error in Amperes
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected double getBypassError(double deltaV) {
+	return 0;
+    }
+
+    /**
+     * @brief Records that the stamp values in bypassState were evaluated
+     *        at a controlling voltage
+     * 
+     * @author 1sand0s
+     * @param double : voltage Controlling voltage of the evaluation
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected void updateBypassState(double voltage) {
+	bypassVoltage = voltage;
+	evaluations++;
+    }
+
+    /**
+     * @brief Declares the four entries of an admittance between nodes a and
+     *        b
+     * 
+     * @author 1sand0s
+     * @param SparsePattern : pattern Pattern of the MNA system
+     * @param int : a                 First node
+     * @param int : b                 Second node
+     * @return int[] : Slots of (a, a), (b, b), (a, b) and (b, a)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected static int[] compileAdmittance(SparsePattern pattern,
+					     int a,
+					     int b) {
+	return new int[] { pattern.slot(a, a), pattern.slot(b, b), pattern.slot(a, b), pattern.slot(b, a) };
+    }
+
+    /**
+     * @brief Declares the incidence entries of a branch current flowing from
+     *        node a to node b
+     * 
+     * @author 1sand0s
+     * @param SparsePattern : pattern Pattern of the MNA system
+     * @param int : a                 Positive node
+     * @param int : b                 Negative node
+     * @param int : branch            Branch row/column
+     * @return int[] : Slots of (a, branch), (b, branch), (branch, a) and
+     *         (branch, b)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected static int[] compileBranch(SparsePattern pattern,
+					 int a,
+					 int b,
+					 int branch) {
+	return new int[] { pattern.slot(a, branch), pattern.slot(b, branch), pattern.slot(branch, a), pattern.slot(branch, b) };
+    }
+
+    /**
+     * @brief Stamps a conductance g through the slots of compileAdmittance
+     * 
+     * @author 1sand0s
+     * @param double[] : values Values of the system matrix
+     * @param int[] : slots     Slots from compileAdmittance
+     * @param double : g        Conductance
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected static void stampAdmittance(double values[],
+					  int slots[],
+					  double g) {
+	values[slots[0]] += g;
+	values[slots[1]] += g;
+	values[slots[2]] -= g;
+	values[slots[3]] -= g;
+    }
+
+    /**
+     * @brief Stamps an admittance g + j * b through the slots of
+     *        compileAdmittance
+     * 
+     * @author 1sand0s
+     * @param double[] : real      Real parts of the system matrix
+     * @param double[] : imaginary Imaginary parts of the system matrix
+     * @param int[] : slots        Slots from compileAdmittance
+     * @param double : g           Conductance
+     * @param double : b           Susceptance
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected static void stampAdmittance(double real[],
+					  double imaginary[],
+					  int slots[],
+					  double g,
+					  double b) {
+	stampAdmittance(real, slots, g);
+	stampAdmittance(imaginary, slots, b);
+    }
+
+    /**
+     * @brief Stamps the +1 / -1 incidence of a branch through the slots of
+     *        compileBranch. Only the node rows are stamped when
+     *        withBranchRow is false
+     * 
+     * @author 1sand0s
+     * @param double[] : values         Values (or real parts) of the system
+     *                                  matrix
+     * @param int[] : slots             Slots from compileBranch
+     * @param boolean : withBranchRow   Also stamp (branch, a) and (branch, b)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected static void stampBranch(double values[],
+				      int slots[],
+				      boolean withBranchRow) {
+	values[slots[0]] += 1;
+	values[slots[1]] -= 1;
+	if (withBranchRow) {
+	    values[slots[2]] += 1;
+	    values[slots[3]] -= 1;
+	}
+    }
 }
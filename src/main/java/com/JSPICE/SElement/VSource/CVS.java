@@ -1,6 +1,7 @@
 package com.JSPICE.SElement.VSource;
 
 import com.JSPICE.SMath.Complex;
+import com.JSPICE.SMath.SparsePattern;
 import com.JSPICE.Util.ComponentDenominations;
 import com.JSPICE.Util.ComponentTerminals;
 import com.JSPICE.SElement.SElement;
@@ -16,6 +17,9 @@ public abstract class CVS extends VSource {
     protected double gain;
     protected Wire dependentPositiveRef;
     protected Wire dependentNegativeRef;
+
+    /* Slots of the controlling entries kept by compile */
+    protected int dependentSlots[];
     
     public CVS() {
 	super();
@@ -63,4 +67,39 @@ public abstract class CVS extends VSource {
     public void setNegativeReference(Wire dependentNegativeRef){
 	this.dependentNegativeRef = dependentNegativeRef;
     }
+
+    @Override
+    public void compile(SparsePattern pattern,
+			int branchIndex) {
+	super.compile(pattern, branchIndex);
+	compileDependence(pattern);
+    }
+
+    /**
+     * @brief Declares the controlling entries of the branch row, on the
+     *        columns of the positive and negative reference nodes
+     * 
+     * @author 1sand0s
+     * @param SparsePattern : pattern Pattern of the MNA system
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected void compileDependence(SparsePattern pattern){
+	dependentSlots = new int[] { pattern.slot(branchIndex, dependentPositiveRef.getNodeIndex()),
+				     pattern.slot(branchIndex, dependentNegativeRef.getNodeIndex()) };
+    }
+
+    /**
+     * @brief Stamps -gain / +gain on the controlling entries of the branch
+     *        row (see compileDependence)
+     * 
+     * @author 1sand0s
+     * @param double[] : values Values (or real parts) of the system matrix
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected void stampDependence(double values[]){
+	values[dependentSlots[0]] -= gain;
+	values[dependentSlots[1]] += gain;
+    }
 }
@@ -1,6 +1,10 @@
 package com.JSPICE.SElement.VSource;
 
 import com.JSPICE.SMath.Complex;
+import com.JSPICE.SMath.ComplexSparseMatrix;
+import com.JSPICE.SMath.ComplexVector;
+import com.JSPICE.SMath.SparseMatrix;
+import com.JSPICE.SMath.RealVector;
 import com.JSPICE.Util.ComponentDenominations;
 import com.JSPICE.Util.ComponentTerminals;
 import com.JSPICE.SElement.SElement;
@@ -18,57 +22,31 @@ public class DCVoltage extends VSource {
     }
 
     @Override
-    public void stampMatrixDC(Complex[][] G,
-                              Complex[][] B,
-                              Complex[][] C,
-                              Complex[][] D,
-                              Complex[][] z,
-			      Complex[][] result,
-                              int iSourceIndex) {
-        int posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
-        int negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
+    public void stampMatrixDC(SparseMatrix A,
+                              RealVector z,
+			      RealVector result) {
+	stampBranch(A.getValues(), branchSlots, true);
 
-        B[posNode][iSourceIndex].add(new Complex(1, 0));
-        B[negNode][iSourceIndex].add(new Complex(-1, 0));
-
-        C[iSourceIndex][posNode].add(new Complex(1, 0));
-        C[iSourceIndex][negNode].add(new Complex(-1, 0));
-
-        z[G.length + iSourceIndex][0].add(new Complex(voltage, 0));
+        z.add(branchIndex, voltage);
     }
 
     @Override
-    public void stampMatrixAC(Complex[][] G,
-                              Complex[][] B,
-                              Complex[][] C,
-                              Complex[][] D,
-                              Complex[][] z,
-			      Complex[][] result,
-                              int iSourceIndex,
+    public void stampMatrixAC(ComplexSparseMatrix A,
+                              ComplexVector z,
+			      ComplexVector result,
                               double frequency) {
-        int posNode = terminals.getTerminal(ComponentTerminals.POS_NODE);
-        int negNode = terminals.getTerminal(ComponentTerminals.NEG_NODE);
-
-        B[posNode][iSourceIndex].add(new Complex(1, 0));
-        B[negNode][iSourceIndex].add(new Complex(-1, 0));
-	
-        C[iSourceIndex][posNode].add(new Complex(1, 0));
-        C[iSourceIndex][negNode].add(new Complex(-1, 0));
+	stampBranch(A.getReal(), branchSlots, true);
 	
         /* DC sources turned off during AC analysis */
-        z[G.length + iSourceIndex][0].add(new Complex(voltage * 0, 0));
+        z.add(branchIndex, voltage * 0, 0);
     }
     
     @Override
-    public void stampMatrixTransient(Complex[][] G,
-				     Complex[][] B,
-				     Complex[][] C,
-				     Complex[][] D,
-				     Complex[][] z,
-				     Complex[][] result,
-				     int iSourceIndex,
+    public void stampMatrixTransient(SparseMatrix A,
+				     RealVector z,
+				     RealVector result,
 				     double time,
 				     double deltaT) {
-        stampMatrixDC(G, B, C, D, z, result, iSourceIndex);
+        stampMatrixDC(A, z, result);
     }   
 }
@@ -1,6 +1,11 @@
 package com.JSPICE.SElement.VSource;
 
 import com.JSPICE.SMath.Complex;
+import com.JSPICE.SMath.ComplexSparseMatrix;
+import com.JSPICE.SMath.ComplexVector;
+import com.JSPICE.SMath.SparseMatrix;
+import com.JSPICE.SMath.SparsePattern;
+import com.JSPICE.SMath.RealVector;
 import com.JSPICE.Util.ComponentDenominations;
 import com.JSPICE.Util.ComponentTerminals;
 import com.JSPICE.SElement.SElement;
@@ -29,50 +34,42 @@ public abstract class OpAmp extends CVS {
     }
     
     @Override
-    public void stampMatrixDC(Complex[][] G,
-			      Complex[][] B,
-			      Complex[][] C,
-			      Complex[][] D,
-			      Complex[][] z,
-			      Complex[][] result,
-			      int iSourceIndex){
-	int invertingNode = terminals.getTerminal(ComponentTerminals.OPAMP_INVERTING);
-        int nonInvertingNode = terminals.getTerminal(ComponentTerminals.OPAMP_NONINVERTING);
-	int outputNode = terminals.getTerminal(ComponentTerminals.OPAMP_OUTPUT);
-	
-        B[nonInvertingNode][iSourceIndex].add(new Complex(1, 0));
-        B[invertingNode][iSourceIndex].add(new Complex(-1, 0));
-	
-        C[iSourceIndex][nonInvertingNode].add(new Complex(1, 0));
-        C[iSourceIndex][invertingNode].add(new Complex(-1, 0));
-	C[iSourceIndex][dependentPositiveRef.getNodeIndex()].add(new Complex(-gain, 0));
-        C[iSourceIndex][dependentNegativeRef.getNodeIndex()].add(new Complex(gain, 0));
+    public void compile(SparsePattern pattern,
+			int branchIndex){
+	posNode = terminals.getTerminal(ComponentTerminals.OPAMP_NONINVERTING);
+	negNode = terminals.getTerminal(ComponentTerminals.OPAMP_INVERTING);
+	this.branchIndex = branchIndex;
+	branchSlots = compileBranch(pattern, posNode, negNode, branchIndex);
+	compileDependence(pattern);
+    }
+    
+    @Override
+    public void stampMatrixDC(SparseMatrix A,
+			      RealVector z,
+			      RealVector result){
+	stampBranch(A.getValues(), branchSlots, true);
+	stampDependence(A.getValues());
 	
-        z[G.length + iSourceIndex][0].add(new Complex(0, 0));
+        z.add(branchIndex, 0);
     }
 
     @Override
-    public void stampMatrixAC(Complex[][] G,
-			      Complex[][] B,
-			      Complex[][] C,
-			      Complex[][] D,
-			      Complex[][] z,
-			      Complex[][] result,
-			      int iSourceIndex,
+    public void stampMatrixAC(ComplexSparseMatrix A,
+			      ComplexVector z,
+			      ComplexVector result,
 			      double frequency){
-	stampMatrixDC(G, B, C, D, z, result, iSourceIndex);
+	stampBranch(A.getReal(), branchSlots, true);
+	stampDependence(A.getReal());
+	
+        z.add(branchIndex, 0, 0);
     }
     
     @Override
-    public void stampMatrixTransient(Complex[][] G,
-				     Complex[][] B,
-				     Complex[][] C,
-				     Complex[][] D,
-				     Complex[][] z,
-				     Complex[][] result,
-				     int iSourceIndex,
+    public void stampMatrixTransient(SparseMatrix A,
+				     RealVector z,
+				     RealVector result,
 				     double time,
 				     double deltaT){
-	stampMatrixDC(G, B, C, D, z, result, iSourceIndex);
+	stampMatrixDC(A, z, result);
     }
 }
@@ -0,0 +1,179 @@
+package com.JSPICE.SElement.VSource;
+
+import com.JSPICE.SMath.ComplexSparseMatrix;
+import com.JSPICE.SMath.ComplexVector;
+import com.JSPICE.SMath.SparseMatrix;
+import com.JSPICE.SMath.RealVector;
+import com.JSPICE.Util.StampType;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class PulseVoltage extends VSource {
+
+    /* Pulse as SPICE PULSE(V1 V2 TD TR TF PW PER), the pulsed value V2 being
+     * the value of the source */
+    private double initialVoltage;
+    private double delay;
+    private double riseTime;
+    private double fallTime;
+    private double pulseWidth;
+    private double period;
+
+    public PulseVoltage() {
+        super();
+	initialVoltage = 0;
+	delay = 0;
+	riseTime = 0;
+	fallTime = 0;
+	pulseWidth = 0;
+	period = 0;
+    }
+
+    @Override
+    public StampType getStampType() {
+	/* The source value follows time during transient analysis */
+        return StampType.TIME_DEPENDENT;
+    }
+
+    @Override
+    public void stampMatrixDC(SparseMatrix A,
+                              RealVector z,
+			      RealVector result) {
+	stampBranch(A.getValues(), branchSlots, true);
+
+	/* Value at time 0 during DC analysis */
+        z.add(branchIndex, getVoltage(0));
+    }
+
+    @Override
+    public void stampMatrixAC(ComplexSparseMatrix A,
+                              ComplexVector z,
+			      ComplexVector result,
+                              double frequency) {
+	stampBranch(A.getReal(), branchSlots, true);
+
+	/* Transient Sources turned off during AC analysis */
+        z.add(branchIndex, 0, 0);
+    }
+
+    @Override
+    public void stampMatrixTransient(SparseMatrix A,
+				     RealVector z,
+				     RealVector result,
+				     double time,
+				     double deltaT) {
+	stampBranch(A.getValues(), branchSlots, true);
+
+        z.add(branchIndex, getVoltage(time));
+    }
+
+    @Override
+    public double getNextBreakpoint(double time) {
+	if (time < delay)
+	    return delay;
+
+	/* Corners of the period holding time and of the next one */
+	double corners[] = { 0, riseTime, riseTime + pulseWidth, riseTime + pulseWidth + fallTime };
+	double start = delay;
+	if (period > 0)
+	    start = delay + Math.floor((time - delay) / period) * period;
+	for (int k = 0; k < 2; k++) {
+	    for (int j = 0; j < corners.length; j++)
+		if (start + corners[j] > time)
+		    return start + corners[j];
+	    if (period <= 0)
+		break;
+	    start = start + period;
+	}
+	return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @brief Value of the pulse at a time : initial value until the delay,
+     *        linear rise to the pulsed value, pulsed value for the pulse
+     *        width, linear fall back to the initial value, repeated every
+     *        period (a single pulse if the period is 0)
+     * 
+     * @author 1sand0s
+     * @param time Time in seconds
+     * @return double : Voltage of the source
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double getVoltage(double time) {
+	double tau = time - delay;
+	if (tau < 0)
+	    return initialVoltage;
+	if (period > 0)
+	    tau = tau - Math.floor(tau / period) * period;
+
+	if (tau < riseTime)
+	    return initialVoltage + (voltage - initialVoltage) * tau / riseTime;
+	tau = tau - riseTime;
+	if (tau < pulseWidth)
+	    return voltage;
+	tau = tau - pulseWidth;
+	if (tau < fallTime)
+	    return voltage + (initialVoltage - voltage) * tau / fallTime;
+	return initialVoltage;
+    }
+
+    /**
+     * @brief Sets the value of the source outside the pulse (V1), the
+     *        pulsed value (V2) being set by setValue
+     * 
+     * @author 1sand0s
+     * @param initialVoltage Voltage before and between pulses
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setInitialValue(double initialVoltage) {
+	this.initialVoltage = initialVoltage;
+    }
+
+    /**
+     * @brief Sets the time of the start of the first pulse (TD)
+     * 
+     * @author 1sand0s
+     * @param delay Delay in seconds
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setDelay(double delay) {
+	this.delay = delay;
+    }
+
+    /**
+     * @brief Sets the rise (TR) and fall (TF) times of the pulse, 0 for an
+     *        ideal step
+     * 
+     * @author 1sand0s
+     * @param riseTime Rise time in seconds
+     * @param fallTime Fall time in seconds
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setEdges(double riseTime,
+			 double fallTime) {
+	this.riseTime = riseTime;
+	this.fallTime = fallTime;
+    }
+
+    /**
+     * @brief Sets the time the pulsed value is held (PW) and the period the
+     *        pulse repeats with (PER, 0 for a single pulse)
+     * 
+     * @author 1sand0s
+     * @param pulseWidth Pulse width in seconds
+     * @param period     Period in seconds
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setPulseWidth(double pulseWidth,
+			      double period) {
+	this.pulseWidth = pulseWidth;
+	this.period = period;
+    }
+}
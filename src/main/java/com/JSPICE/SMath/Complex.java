@@ -119,4 +119,183 @@ public class Complex {
         this.real += value.real;
         this.imaginary += value.imaginary;
     }
+
+    /**
+     * @brief Overwrites this number, in place
+     * 
+     * @author 1sand0s
+     * @param real      Real part
+     * @param imaginary Imaginary part
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void set(double real,
+                    double imaginary) {
+        this.real = real;
+        this.imaginary = imaginary;
+    }
+
+    /**
+     * @brief Overwrites this number with a copy of value, in place
+     * 
+     * @author 1sand0s
+     * @param value Number to copy
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void set(Complex value) {
+        this.real = value.real;
+        this.imaginary = value.imaginary;
+    }
+
+    /**
+     * @brief this = this + (real + j * imaginary), in place
+     * 
+     * @author 1sand0s
+     * @param real      Real part of the addend
+     * @param imaginary Imaginary part of the addend
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void add(double real,
+                    double imaginary) {
+        this.real += real;
+        this.imaginary += imaginary;
+    }
+
+    /**
+     * @brief this = this - value, in place
+     * 
+     * @author 1sand0s
+     * @param value Subtrahend
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void subtract(Complex value) {
+        this.real -= value.real;
+        this.imaginary -= value.imaginary;
+    }
+
+    /**
+     * @brief this = this * value, in place
+     * 
+     * @author 1sand0s
+     * @param value Multiplier
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void multiply(Complex value) {
+        multiply(value.real, value.imaginary);
+    }
+
+    /**
+     * @brief this = this * (real + j * imaginary), in place
+     * 
+     * @author 1sand0s
+     * @param real      Real part of the multiplier
+     * @param imaginary Imaginary part of the multiplier
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void multiply(double real,
+                         double imaginary) {
+        double re = this.real * real - this.imaginary * imaginary;
+        this.imaginary = this.real * imaginary + this.imaginary * real;
+        this.real = re;
+    }
+
+    /**
+     * @brief this = this * scalar, in place
+     * 
+     * @author 1sand0s
+     * @param scalar Real multiplier
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void scale(double scalar) {
+        this.real *= scalar;
+        this.imaginary *= scalar;
+    }
+
+    /**
+     * @brief this = this / value, in place. Uses Smith's algorithm so that
+     *        |value|^2 is never formed and cannot overflow
+     * 
+     * @author 1sand0s
+     * @param value Divisor
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void divide(Complex value) {
+        divide(value.real, value.imaginary);
+    }
+
+    /**
+     * @brief this = this / (real + j * imaginary), in place
+     * 
+     * @author 1sand0s
+     * @param real      Real part of the divisor
+     * @param imaginary Imaginary part of the divisor
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void divide(double real,
+                       double imaginary) {
+        double re;
+        double im;
+        if (Math.abs(real) >= Math.abs(imaginary)) {
+            double ratio = imaginary / real;
+            double denominator = real + imaginary * ratio;
+            re = (this.real + this.imaginary * ratio) / denominator;
+            im = (this.imaginary - this.real * ratio) / denominator;
+        } else {
+            double ratio = real / imaginary;
+            double denominator = real * ratio + imaginary;
+            re = (this.real * ratio + this.imaginary) / denominator;
+            im = (this.imaginary * ratio - this.real) / denominator;
+        }
+        this.real = re;
+        this.imaginary = im;
+    }
+
+    /**
+     * @brief this = conj(this), in place
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void conjugate() {
+        this.imaginary = -this.imaginary;
+    }
+
+    /**
+     * @brief Accumulator, this = this + a * b, in place
+     * 
+     * @author 1sand0s
+     * @param a First factor
+     * @param b Second factor
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void addProduct(Complex a,
+                           Complex b) {
+        this.real += a.real * b.real - a.imaginary * b.imaginary;
+        this.imaginary += a.real * b.imaginary + a.imaginary * b.real;
+    }
+
+    /**
+     * @brief Accumulator, this = this - a * b, in place
+     * 
+     * @author 1sand0s
+     * @param a First factor
+     * @param b Second factor
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void subtractProduct(Complex a,
+                                Complex b) {
+        this.real -= a.real * b.real - a.imaginary * b.imaginary;
+        this.imaginary -= a.real * b.imaginary + a.imaginary * b.real;
+    }
 }
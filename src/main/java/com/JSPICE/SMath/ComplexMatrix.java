@@ -0,0 +1,236 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+import java.util.Arrays;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class ComplexMatrix {
+    private int rows;
+    private int columns;
+    private double real[];
+    private double imaginary[];
+
+    /**
+     * @brief Creates a zero matrix. Real and imaginary parts are held in two
+     *        flat row-major arrays, entry (i, j) is at index i * columns + j
+     * 
+     * @author 1sand0s
+     * @param rows    Number of rows
+     * @param columns Number of columns
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public ComplexMatrix(int rows,
+                         int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        real = new double[rows * columns];
+        imaginary = new double[rows * columns];
+    }
+
+    /**
+     * @brief Copies a Complex[][] into a new matrix
+     * 
+     * @author 1sand0s
+     * @param A Matrix of Complex objects
+     * @return ComplexMatrix : Copy of A
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static ComplexMatrix fromArray(Complex A[][]) {
+        ComplexMatrix matrix = new ComplexMatrix(A.length, A.length == 0 ? 0 : A[0].length);
+        for (int i = 0; i < matrix.rows; i++)
+            for (int j = 0; j < matrix.columns; j++)
+                matrix.set(i, j, A[i][j].getReal(), A[i][j].getImaginary());
+        return matrix;
+    }
+
+    /**
+     * @brief Copies this matrix into a new Complex[][]
+     * 
+     * @author 1sand0s
+     * @return Complex[][] : Copy of this matrix
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public Complex[][] toArray() {
+        Complex A[][] = new Complex[rows][columns];
+        for (int i = 0; i < rows; i++)
+            for (int j = 0; j < columns; j++)
+                A[i][j] = new Complex(getReal(i, j), getImaginary(i, j));
+        return A;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of rows
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of columns
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double : Real part of entry (i, j)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double getReal(int i,
+                          int j) {
+        return real[i * columns + j];
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double : Imaginary part of entry (i, j)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double getImaginary(int i,
+                               int j) {
+        return imaginary[i * columns + j];
+    }
+
+    /**
+     * @brief Returns entry (i, j) as a new Complex. Prefer getReal and
+     *        getImaginary in loops since this allocates
+     * 
+     * @author 1sand0s
+     * @return Complex : Entry (i, j)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public Complex get(int i,
+                       int j) {
+        return new Complex(real[i * columns + j], imaginary[i * columns + j]);
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @param i         Row
+     * @param j         Column
+     * @param real      Real part
+     * @param imaginary Imaginary part
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void set(int i,
+                    int j,
+                    double real,
+                    double imaginary) {
+        this.real[i * columns + j] = real;
+        this.imaginary[i * columns + j] = imaginary;
+    }
+
+    /**
+     * @brief Adds (real + j * imaginary) to entry (i, j) in place
+     * 
+     * @author 1sand0s
+     * @param i         Row
+     * @param j         Column
+     * @param real      Real part
+     * @param imaginary Imaginary part
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void add(int i,
+                    int j,
+                    double real,
+                    double imaginary) {
+        this.real[i * columns + j] += real;
+        this.imaginary[i * columns + j] += imaginary;
+    }
+
+    /**
+     * @brief Adds another matrix of the same size to this one in place
+     * 
+     * @author 1sand0s
+     * @param A Matrix to add
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void add(ComplexMatrix A) {
+        for (int k = 0; k < real.length; k++) {
+            real[k] += A.real[k];
+            imaginary[k] += A.imaginary[k];
+        }
+    }
+
+    /**
+     * @brief Multiplies every entry by a real scalar in place
+     * 
+     * @author 1sand0s
+     * @param scalar Scale factor
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void scale(double scalar) {
+        for (int k = 0; k < real.length; k++) {
+            real[k] *= scalar;
+            imaginary[k] *= scalar;
+        }
+    }
+
+    /**
+     * @brief Sets every entry to 0 without reallocating
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void clear() {
+        Arrays.fill(real, 0);
+        Arrays.fill(imaginary, 0);
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double[] : Backing array of real parts (row-major)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double[] getRealArray() {
+        return real;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double[] : Backing array of imaginary parts (row-major)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double[] getImaginaryArray() {
+        return imaginary;
+    }
+}
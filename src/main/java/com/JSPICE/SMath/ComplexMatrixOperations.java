@@ -312,11 +312,13 @@ public class ComplexMatrixOperations {
      */
     public static Complex dotProduct(Complex num1[],
                                      Complex num2[]) {
-        Complex num = new Complex(0, 0);
+        double real = 0;
+        double imaginary = 0;
         for (int i = 0; i < num1.length; i++) {
-            num = Add(num, Multiply(num1[i], conjugate(num2[i])));
+            real += num1[i].getReal() * num2[i].getReal() + num1[i].getImaginary() * num2[i].getImaginary();
+            imaginary += num1[i].getImaginary() * num2[i].getReal() - num1[i].getReal() * num2[i].getImaginary();
         }
-        return num;
+        return new Complex(real, imaginary);
     }
 
     /**
@@ -330,36 +332,223 @@ public class ComplexMatrixOperations {
      * @exception
      */
     public static Complex[][][] computeQR(Complex A1[][]) {
-        Complex[][] Q, R, A;
-        Q = new Complex[A1.length][A1.length];
-        R = new Complex[A1.length][A1.length];
-        A = new Complex[A1.length][A1.length];
-        for (int i = 0; i < A.length; i++) {
-            for (int j = 0; j < A[i].length; j++) {
-                A[j][i] = new Complex(0, 0);
-                A[j][i].setReal(A1[i][j].getReal());
-                A[j][i].setImaginary(A1[i][j].getImaginary());
+        ComplexMatrix Q = new ComplexMatrix(A1.length, A1.length);
+        ComplexMatrix R = new ComplexMatrix(A1.length, A1.length);
+        computeQR(ComplexMatrix.fromArray(A1), Q, R);
+        return new Complex[][][] { Q.toArray(), R.toArray() };
+    }
+
+    /**
+     * @brief QR factorization of a square matrix by modified Gram-Schmidt,
+     *        written into caller-provided storage. Row j of Q holds the j-th
+     *        orthonormal basis vector (so A = transpose(Q) * R) and R is
+     *        upper triangular. Nothing is allocated per entry, Q and R can be
+     *        kept and refilled across calls
+     * 
+     * @author 1sand0s
+     * @param A Square matrix
+     * @param Q Basis vectors, one per row (output, same size as A)
+     * @param R Upper triangular factor (output, same size as A)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void computeQR(ComplexMatrix A,
+                                 ComplexMatrix Q,
+                                 ComplexMatrix R) {
+        int n = A.getRows();
+        double aReal[] = A.getRealArray();
+        double aImaginary[] = A.getImaginaryArray();
+        double qReal[] = Q.getRealArray();
+        double qImaginary[] = Q.getImaginaryArray();
+        double rReal[] = R.getRealArray();
+        double rImaginary[] = R.getImaginaryArray();
+        Complex r = new Complex(0, 0);
+
+        /* Columns of A become the rows of Q */
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                qReal[j * n + i] = aReal[i * n + j];
+                qImaginary[j * n + i] = aImaginary[i * n + j];
             }
         }
-        Complex u[] = new Complex[A[0].length];
-        Complex e[] = ScalarMultiply(A[0], 1 / computeNorm(A[0]));
-        Q[0] = e;
-        for (int j = 1; j < A.length; j++) {
-            System.arraycopy(A[j], 0, u, 0, A[j].length);
-            for (int i = j - 1; i >= 0; i--) {
-                u = SubArrays(u, Multiply(Q[i], dotProduct(A[j], Q[i])));
+        R.clear();
+
+        for (int j = 0; j < n; j++) {
+            /* Remove the components along the basis vectors found so far */
+            for (int i = 0; i < j; i++) {
+                dotProduct(qReal, qImaginary, j * n, qReal, qImaginary, i * n, n, r);
+                rReal[i * n + j] = r.getReal();
+                rImaginary[i * n + j] = r.getImaginary();
+                axpy(-r.getReal(), -r.getImaginary(), qReal, qImaginary, i * n, qReal, qImaginary, j * n, n);
             }
-            e = ScalarMultiply(u, 1 / computeNorm(u));
-            Q[j] = e;
+            double norm = computeNorm(qReal, qImaginary, j * n, n);
+            rReal[j * n + j] = norm;
+            scale(1 / norm, qReal, qImaginary, j * n, n);
         }
-        for (int j = 0; j < Q.length; j++) {
-            for (int i = 0; i < j; i++)
-                R[j][i] = new Complex(0, 0);
-            for (int i = j; i < Q.length; i++) {
-                R[j][i] = dotProduct(A[i], Q[j]);
+    }
+
+    /**
+     * @brief Solves A * x = z from the factors of computeQR, x = R \ (Q^H * z)
+     *        by back substitution. x is overwritten with the solution
+     * 
+     * @author 1sand0s
+     * @param Q Basis vectors, one per row
+     * @param R Upper triangular factor
+     * @param z Right hand side
+     * @param x Solution (output)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void solveQR(ComplexMatrix Q,
+                               ComplexMatrix R,
+                               ComplexVector z,
+                               ComplexVector x) {
+        int n = Q.getRows();
+        double qReal[] = Q.getRealArray();
+        double qImaginary[] = Q.getImaginaryArray();
+        double rReal[] = R.getRealArray();
+        double rImaginary[] = R.getImaginaryArray();
+        double xReal[] = x.getRealArray();
+        double xImaginary[] = x.getImaginaryArray();
+        Complex sum = new Complex(0, 0);
+
+        /* x = Q^H * z, entry i is <z, q_i> */
+        for (int i = 0; i < n; i++) {
+            dotProduct(z.getRealArray(), z.getImaginaryArray(), 0, qReal, qImaginary, i * n, n, sum);
+            xReal[i] = sum.getReal();
+            xImaginary[i] = sum.getImaginary();
+        }
+
+        /* x = R \ x, in place from the last row up */
+        for (int i = n - 1; i >= 0; i--) {
+            sum.set(xReal[i], xImaginary[i]);
+            for (int j = i + 1; j < n; j++) {
+                double re = rReal[i * n + j];
+                double im = rImaginary[i * n + j];
+                sum.add(-(re * xReal[j] - im * xImaginary[j]), -(re * xImaginary[j] + im * xReal[j]));
             }
+            sum.divide(rReal[i * n + i], rImaginary[i * n + i]);
+            xReal[i] = sum.getReal();
+            xImaginary[i] = sum.getImaginary();
+        }
+    }
+
+    /**
+     * @brief result = sum over k of x[k] * conj(y[k]) for length entries of
+     *        two vectors in split real / imaginary storage
+     * 
+     * @author 1sand0s
+     * @param xReal      Real parts of x
+     * @param xImaginary Imaginary parts of x
+     * @param offsetX    Index of the first entry of x
+     * @param yReal      Real parts of y
+     * @param yImaginary Imaginary parts of y
+     * @param offsetY    Index of the first entry of y
+     * @param length     Number of entries
+     * @param result     Inner product (output)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void dotProduct(double xReal[],
+                                  double xImaginary[],
+                                  int offsetX,
+                                  double yReal[],
+                                  double yImaginary[],
+                                  int offsetY,
+                                  int length,
+                                  Complex result) {
+        double real = 0;
+        double imaginary = 0;
+        for (int k = 0; k < length; k++) {
+            double a = xReal[offsetX + k];
+            double b = xImaginary[offsetX + k];
+            double c = yReal[offsetY + k];
+            double d = yImaginary[offsetY + k];
+            real += a * c + b * d;
+            imaginary += b * c - a * d;
         }
-        return new Complex[][][] { Q, R };
+        result.set(real, imaginary);
+    }
+
+    /**
+     * @brief y = y + alpha * x, in place, for length entries of two vectors
+     *        in split real / imaginary storage
+     * 
+     * @author 1sand0s
+     * @param alphaReal      Real part of alpha
+     * @param alphaImaginary Imaginary part of alpha
+     * @param xReal          Real parts of x
+     * @param xImaginary     Imaginary parts of x
+     * @param offsetX        Index of the first entry of x
+     * @param yReal          Real parts of y (updated)
+     * @param yImaginary     Imaginary parts of y (updated)
+     * @param offsetY        Index of the first entry of y
+     * @param length         Number of entries
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void axpy(double alphaReal,
+                            double alphaImaginary,
+                            double xReal[],
+                            double xImaginary[],
+                            int offsetX,
+                            double yReal[],
+                            double yImaginary[],
+                            int offsetY,
+                            int length) {
+        for (int k = 0; k < length; k++) {
+            double a = xReal[offsetX + k];
+            double b = xImaginary[offsetX + k];
+            yReal[offsetY + k] += alphaReal * a - alphaImaginary * b;
+            yImaginary[offsetY + k] += alphaReal * b + alphaImaginary * a;
+        }
+    }
+
+    /**
+     * @brief x = scalar * x, in place, for length entries in split real /
+     *        imaginary storage
+     * 
+     * @author 1sand0s
+     * @param scalar     Real multiplier
+     * @param xReal      Real parts of x (updated)
+     * @param xImaginary Imaginary parts of x (updated)
+     * @param offset     Index of the first entry
+     * @param length     Number of entries
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void scale(double scalar,
+                             double xReal[],
+                             double xImaginary[],
+                             int offset,
+                             int length) {
+        for (int k = offset; k < offset + length; k++) {
+            xReal[k] *= scalar;
+            xImaginary[k] *= scalar;
+        }
+    }
+
+    /**
+     * @brief Euclidean norm of length entries in split real / imaginary
+     *        storage
+     * 
+     * @author 1sand0s
+     * @param xReal      Real parts of x
+     * @param xImaginary Imaginary parts of x
+     * @param offset     Index of the first entry
+     * @param length     Number of entries
+     * @return double : ||x||
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static double computeNorm(double xReal[],
+                                     double xImaginary[],
+                                     int offset,
+                                     int length) {
+        double d = 0;
+        for (int k = offset; k < offset + length; k++)
+            d += xReal[k] * xReal[k] + xImaginary[k] * xImaginary[k];
+        return Math.sqrt(d);
     }
 
     /**
@@ -396,9 +585,8 @@ public class ComplexMatrixOperations {
     public static Complex multiply(Complex num1[],
                                    Complex num2[]) {
         Complex num = new Complex(0, 0);
-        for (int i = 0; i < num1.length; i++) {
-            num = Add(num, Multiply(num1[i], num2[i]));
-        }
+        for (int i = 0; i < num1.length; i++)
+            num.addProduct(num1[i], num2[i]);
         return num;
     }
 
@@ -414,7 +602,9 @@ public class ComplexMatrixOperations {
      */
     public static Complex divideComplex(Complex num1,
                                         Complex num2) {
-        return Multiply(num1, ScalarMultiply(conjugate(num2), 1 / Math.pow(Abs(num2), 2)));
+        Complex num = new Complex(num1);
+        num.divide(num2);
+        return num;
     }
 
     /**
@@ -429,25 +619,146 @@ public class ComplexMatrixOperations {
      */
     public static Complex[][] computeLinearEquation(Complex A1[][],
                                                     Complex z[][]) {
-        Complex[][][] QR = computeQR(A1);
-        Complex[][] Q = conjugate(QR[0]);
-        Complex[][] R = QR[1];
+        return computeLinearEquation(A1, z, LinearSolverType.SPARSE_LU);
+    }
+
+    /**
+     * @brief Solves A1 * x = z for every column of z using the requested
+     *        factorization
+     * 
+     * @author 1sand0s
+     * @param A1   Square system matrix
+     * @param z    Right hand side(s), one per column
+     * @param type QR (dense Gram-Schmidt) or SPARSE_LU
+     * @return Complex[][] : x
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static Complex[][] computeLinearEquation(Complex A1[][],
+                                                    Complex z[][],
+                                                    LinearSolverType type) {
+        if (type == LinearSolverType.SPARSE_LU)
+            return computeSparseLinearEquation(A1, z);
+        if (type != LinearSolverType.QR)
+            throw new UnsupportedOperationException("Error : " + type + " is only available for real systems (DC and transient analysis)");
+
+        ComplexMatrix Q = new ComplexMatrix(A1.length, A1.length);
+        ComplexMatrix R = new ComplexMatrix(A1.length, A1.length);
+        computeQR(ComplexMatrix.fromArray(A1), Q, R);
+
         Complex x[][] = new Complex[z.length][z[0].length];
-        initializeMatrices(x);
-        Complex Y[][] = multiplyMatrix(Q, transpose(z));
-        for (int k = 0; k < x[0].length; k++) {
-            for (int i = x.length - 1; i >= 0; i--) {
-                Complex u = new Complex(0, 0);
-                for (int j = i; j < x.length; j++) {
-                    u = Sub(u, Multiply(R[i][j], x[j][k]));
-                }
-                x[i][k] = divideComplex(Add(Y[i][k], u), R[i][i]);
-                x[i][k] = removeRedundancy(x[i][k]);
+        ComplexVector b = new ComplexVector(z.length);
+        ComplexVector solution = new ComplexVector(z.length);
+        for (int k = 0; k < z[0].length; k++) {
+            for (int i = 0; i < z.length; i++)
+                b.set(i, z[i][k].getReal(), z[i][k].getImaginary());
+            solveQR(Q, R, b, solution);
+            removeRedundancy(solution);
+            for (int i = 0; i < z.length; i++)
+                x[i][k] = solution.get(i);
+        }
+        return x;
+    }
+
+    /**
+     * @brief Solves A1 * x = z for every column of z with a sparse LU
+     *        factorization (see ComplexSparseLU)
+     * 
+     * @author 1sand0s
+     * @param A1 Square system matrix
+     * @param z  Right hand side(s), one per column
+     * @return Complex[][] : x
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static Complex[][] computeSparseLinearEquation(Complex A1[][],
+                                                          Complex z[][]) {
+        ComplexSparseLU lu = new ComplexSparseLU();
+        lu.factor(ComplexSparseMatrix.fromDense(A1));
+
+        Complex x[][] = new Complex[z.length][z[0].length];
+        double bReal[] = new double[z.length];
+        double bImaginary[] = new double[z.length];
+        double real[] = new double[z.length];
+        double imaginary[] = new double[z.length];
+
+        for (int k = 0; k < z[0].length; k++) {
+            for (int i = 0; i < z.length; i++) {
+                bReal[i] = z[i][k].getReal();
+                bImaginary[i] = z[i][k].getImaginary();
             }
+            lu.solve(bReal, bImaginary, real, imaginary);
+            for (int i = 0; i < z.length; i++)
+                x[i][k] = removeRedundancy(new Complex(real[i], imaginary[i]));
         }
         return x;
     }
 
+    /**
+     * @brief Solves A * x = z in place on flat complex storage. x is
+     *        overwritten with the solution
+     * 
+     * @author 1sand0s
+     * @param A    Square system matrix
+     * @param z    Right hand side
+     * @param x    Solution (output)
+     * @param type QR (dense Gram-Schmidt) or SPARSE_LU
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void computeLinearEquation(ComplexMatrix A,
+                                             ComplexVector z,
+                                             ComplexVector x,
+                                             LinearSolverType type) {
+        if (type == LinearSolverType.SPARSE_LU) {
+            ComplexSparseLU lu = new ComplexSparseLU();
+            lu.factor(ComplexSparseMatrix.fromDense(A));
+            lu.solve(z.getRealArray(), z.getImaginaryArray(), x.getRealArray(), x.getImaginaryArray());
+            removeRedundancy(x);
+            return;
+        }
+        if (type != LinearSolverType.QR)
+            throw new UnsupportedOperationException("Error : " + type + " is only available for real systems (DC and transient analysis)");
+
+        ComplexMatrix Q = new ComplexMatrix(A.getRows(), A.getColumns());
+        ComplexMatrix R = new ComplexMatrix(A.getRows(), A.getColumns());
+        computeQR(A, Q, R);
+        solveQR(Q, R, z, x);
+        removeRedundancy(x);
+    }
+
+    /**
+     * @brief Solves A * x = z in place on a matrix stamped directly in
+     *        compressed-column storage. The QR path expands A into a dense
+     *        matrix first
+     * 
+     * @author 1sand0s
+     * @param A    Square system matrix
+     * @param z    Right hand side
+     * @param x    Solution (output)
+     * @param type QR (dense Gram-Schmidt) or SPARSE_LU
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void computeLinearEquation(ComplexSparseMatrix A,
+                                             ComplexVector z,
+                                             ComplexVector x,
+                                             LinearSolverType type) {
+        if (type == LinearSolverType.SPARSE_LU) {
+            ComplexSparseLU lu = new ComplexSparseLU();
+            lu.factor(A);
+            lu.solve(z.getRealArray(), z.getImaginaryArray(), x.getRealArray(), x.getImaginaryArray());
+            removeRedundancy(x);
+            return;
+        }
+        if (type != LinearSolverType.QR)
+            throw new UnsupportedOperationException("Error : " + type + " is only available for real systems (DC and transient analysis)");
+
+        ComplexMatrix dense = new ComplexMatrix(A.getRows(), A.getColumns());
+        A.toDense(dense);
+        computeLinearEquation(dense, z, x, type);
+    }
+
     /**
      * regular
      * 
@@ -488,6 +799,26 @@ public class ComplexMatrixOperations {
         return d1;
     }
 
+    /**
+     * @brief Zeroes entries of x whose real or imaginary part is below
+     *        1e-10, in place
+     * 
+     * @author 1sand0s
+     * @param x Vector to clean up
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void removeRedundancy(ComplexVector x) {
+        double real[] = x.getRealArray();
+        double imaginary[] = x.getImaginaryArray();
+        for (int i = 0; i < x.getLength(); i++) {
+            if (Math.abs(real[i]) < 1e-10)
+                real[i] = 0;
+            if (Math.abs(imaginary[i]) < 1e-10)
+                imaginary[i] = 0;
+        }
+    }
+
     /**
      * regular
      * 
@@ -546,4 +877,26 @@ public class ComplexMatrixOperations {
                 }
         return flag;
     }
+
+    /**
+     * @brief Checks whether every entry of A and B differs by less than tol
+     *        in both the real and imaginary parts
+     * 
+     * @author 1sand0s
+     * @param A   First vector
+     * @param B   Second vector
+     * @param tol Absolute tolerance
+     * @return boolean : true if A and B match
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static boolean compareVectors(ComplexVector A,
+                                         ComplexVector B,
+                                         double tol) {
+        for (int i = 0; i < A.getLength(); i++)
+            if (!(Math.abs(A.getReal(i) - B.getReal(i)) < tol
+                    && Math.abs(A.getImaginary(i) - B.getImaginary(i)) < tol))
+                return false;
+        return true;
+    }
 }
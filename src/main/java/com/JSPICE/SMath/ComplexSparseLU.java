@@ -0,0 +1,380 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+import java.util.Arrays;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class ComplexSparseLU {
+
+    /* Relative size a diagonal entry must have to be preferred as pivot */
+    private double pivotTolerance;
+    private OrderingType ordering;
+    private int nonZerosA;
+
+    private int n;
+    private int q[];
+    private int pinv[];
+
+    private int lColumnPointers[];
+    private int lRowIndices[];
+    private double lReal[];
+    private double lImaginary[];
+
+    private int uColumnPointers[];
+    private int uRowIndices[];
+    private double uReal[];
+    private double uImaginary[];
+
+    /* Work arrays */
+    private double xReal[];
+    private double xImaginary[];
+    private int reach[];
+    private int stack[];
+    private int pstack[];
+    private int mark[];
+    private int markGeneration;
+
+    public ComplexSparseLU() {
+        pivotTolerance = 1e-3;
+        ordering = OrderingType.APPROXIMATE_MINIMUM_DEGREE;
+    }
+
+    /**
+     * @brief Selects the fill-reducing column order computed on the next full
+     *        factorization
+     * 
+     * @author 1sand0s
+     * @param ordering NATURAL, MINIMUM_DEGREE,
+     *                 APPROXIMATE_MINIMUM_DEGREE (default) or
+     *                 REVERSE_CUTHILL_MCKEE
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setOrdering(OrderingType ordering) {
+        this.ordering = ordering;
+    }
+
+    /**
+     * @brief Sets the threshold for partial pivoting. A diagonal entry is
+     *        kept as pivot when its magnitude is at least pivotTolerance
+     *        times the largest candidate in its column (1 gives classical
+     *        partial pivoting)
+     * 
+     * @author 1sand0s
+     * @param pivotTolerance Threshold in (0, 1]
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setPivotTolerance(double pivotTolerance) {
+        this.pivotTolerance = pivotTolerance;
+    }
+
+    /**
+     * @brief Computes P * A * Q = L * U with a fill-reducing column order Q
+     *        and threshold partial pivoting P (left-looking, Gilbert-Peierls)
+     * 
+     * @author 1sand0s
+     * @param A Square matrix in compressed-column storage
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception ArithmeticException if A is structurally or numerically singular
+     */
+    public void factor(ComplexSparseMatrix A) {
+        n = A.getColumns();
+        q = SparseOrdering.order(ordering, n, A.getColumnPointers(), A.getRowIndices());
+        nonZerosA = A.getNonZeros();
+        pinv = new int[n];
+        xReal = new double[n];
+        xImaginary = new double[n];
+        reach = new int[n];
+        stack = new int[n];
+        pstack = new int[n];
+        mark = new int[n];
+        markGeneration = 0;
+
+        int capacity = 4 * A.getNonZeros() + n;
+        lColumnPointers = new int[n + 1];
+        lRowIndices = new int[capacity];
+        lReal = new double[capacity];
+        lImaginary = new double[capacity];
+        uColumnPointers = new int[n + 1];
+        uRowIndices = new int[capacity];
+        uReal = new double[capacity];
+        uImaginary = new double[capacity];
+
+        int columnPointers[] = A.getColumnPointers();
+        int rowIndices[] = A.getRowIndices();
+        double real[] = A.getReal();
+        double imaginary[] = A.getImaginary();
+        double tolerance2 = pivotTolerance * pivotTolerance;
+        int lnz = 0;
+        int unz = 0;
+
+        for (int j = 0; j < n; j++)
+            pinv[j] = -1;
+
+        for (int k = 0; k < n; k++) {
+            lColumnPointers[k] = lnz;
+            uColumnPointers[k] = unz;
+
+            if (lnz + n > lRowIndices.length)
+                growL(2 * lRowIndices.length + n);
+            if (unz + n > uRowIndices.length)
+                growU(2 * uRowIndices.length + n);
+
+            /* x = L \ A(:, col) restricted to the reach of A(:, col) */
+            int col = q[k];
+            int top = computeReach(columnPointers, rowIndices, col);
+
+            for (int p = top; p < n; p++) {
+                xReal[reach[p]] = 0;
+                xImaginary[reach[p]] = 0;
+            }
+            for (int p = columnPointers[col]; p < columnPointers[col + 1]; p++) {
+                xReal[rowIndices[p]] = real[p];
+                xImaginary[rowIndices[p]] = imaginary[p];
+            }
+            for (int px = top; px < n; px++) {
+                int j = reach[px];
+                int J = pinv[j];
+                if (J < 0)
+                    continue;
+                double re = xReal[j];
+                double im = xImaginary[j];
+                for (int p = lColumnPointers[J] + 1; p < lColumnPointers[J + 1]; p++) {
+                    int i = lRowIndices[p];
+                    xReal[i] -= lReal[p] * re - lImaginary[p] * im;
+                    xImaginary[i] -= lReal[p] * im + lImaginary[p] * re;
+                }
+            }
+
+            /* Choose the pivot among rows that are not yet pivotal */
+            int ipiv = -1;
+            double largest = -1;
+            for (int p = top; p < n; p++) {
+                int i = reach[p];
+                if (pinv[i] < 0) {
+                    double magnitude = xReal[i] * xReal[i] + xImaginary[i] * xImaginary[i];
+                    if (magnitude > largest) {
+                        largest = magnitude;
+                        ipiv = i;
+                    }
+                } else {
+                    uRowIndices[unz] = pinv[i];
+                    uReal[unz] = xReal[i];
+                    uImaginary[unz] = xImaginary[i];
+                    unz++;
+                }
+            }
+            if (ipiv == -1 || largest <= 0)
+                throw new ArithmeticException("Error : Matrix is singular at column " + col);
+
+            if (pinv[col] < 0
+                    && xReal[col] * xReal[col] + xImaginary[col] * xImaginary[col] >= largest * tolerance2)
+                ipiv = col;
+
+            double pivotReal = xReal[ipiv];
+            double pivotImaginary = xImaginary[ipiv];
+            double pivotMagnitude = pivotReal * pivotReal + pivotImaginary * pivotImaginary;
+
+            uRowIndices[unz] = k;
+            uReal[unz] = pivotReal;
+            uImaginary[unz] = pivotImaginary;
+            unz++;
+
+            pinv[ipiv] = k;
+            lRowIndices[lnz] = ipiv;
+            lReal[lnz] = 1;
+            lImaginary[lnz] = 0;
+            lnz++;
+
+            /* L(k+1:n, k) = x / pivot */
+            for (int p = top; p < n; p++) {
+                int i = reach[p];
+                if (pinv[i] < 0) {
+                    lRowIndices[lnz] = i;
+                    lReal[lnz] = (xReal[i] * pivotReal + xImaginary[i] * pivotImaginary) / pivotMagnitude;
+                    lImaginary[lnz] = (xImaginary[i] * pivotReal - xReal[i] * pivotImaginary) / pivotMagnitude;
+                    lnz++;
+                }
+                xReal[i] = 0;
+                xImaginary[i] = 0;
+            }
+        }
+        lColumnPointers[n] = lnz;
+        uColumnPointers[n] = unz;
+
+        /* Row indices of L were saved unpermuted, map them to pivot order */
+        for (int p = 0; p < lnz; p++)
+            lRowIndices[p] = pinv[lRowIndices[p]];
+    }
+
+    /**
+     * @brief Solves A * x = b using the factors from the last call to factor
+     * 
+     * @author 1sand0s
+     * @param bReal      Real part of the right hand side
+     * @param bImaginary Imaginary part of the right hand side
+     * @param real       Real part of the solution (output)
+     * @param imaginary  Imaginary part of the solution (output)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void solve(double bReal[],
+                      double bImaginary[],
+                      double real[],
+                      double imaginary[]) {
+        /* x = P * b */
+        for (int k = 0; k < n; k++) {
+            xReal[pinv[k]] = bReal[k];
+            xImaginary[pinv[k]] = bImaginary[k];
+        }
+
+        /* x = L \ x (unit diagonal stored first in each column) */
+        for (int j = 0; j < n; j++) {
+            double re = xReal[j];
+            double im = xImaginary[j];
+            for (int p = lColumnPointers[j] + 1; p < lColumnPointers[j + 1]; p++) {
+                int i = lRowIndices[p];
+                xReal[i] -= lReal[p] * re - lImaginary[p] * im;
+                xImaginary[i] -= lReal[p] * im + lImaginary[p] * re;
+            }
+        }
+
+        /* x = U \ x (diagonal stored last in each column) */
+        for (int j = n - 1; j >= 0; j--) {
+            int d = uColumnPointers[j + 1] - 1;
+            double magnitude = uReal[d] * uReal[d] + uImaginary[d] * uImaginary[d];
+            double re = (xReal[j] * uReal[d] + xImaginary[j] * uImaginary[d]) / magnitude;
+            double im = (xImaginary[j] * uReal[d] - xReal[j] * uImaginary[d]) / magnitude;
+            xReal[j] = re;
+            xImaginary[j] = im;
+            for (int p = uColumnPointers[j]; p < d; p++) {
+                int i = uRowIndices[p];
+                xReal[i] -= uReal[p] * re - uImaginary[p] * im;
+                xImaginary[i] -= uReal[p] * im + uImaginary[p] * re;
+            }
+        }
+
+        /* solution = Q * x */
+        for (int k = 0; k < n; k++) {
+            real[q[k]] = xReal[k];
+            imaginary[q[k]] = xImaginary[k];
+        }
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of entries in L (including the unit diagonal)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getNonZerosL() {
+        return lColumnPointers[n];
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of entries in U (including the diagonal)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getNonZerosU() {
+        return uColumnPointers[n];
+    }
+
+    /**
+     * @brief Number of entries of L + U that are not in A, the fill-in
+     *        caused by the column order and pivoting of the last full
+     *        factorization
+     * 
+     * @author 1sand0s
+     * @return int : nnz(L) + nnz(U) - n - nnz(A)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getFillIn() {
+        return getNonZerosL() + getNonZerosU() - n - nonZerosA;
+    }
+
+    /**
+     * @brief Depth-first search through the graph of L from every row of
+     *        A(:, col). On return reach[top..n-1] holds the rows that become
+     *        non-zero in L \ A(:, col), in topological order
+     * 
+     * @author 1sand0s
+     * @return int : top
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private int computeReach(int columnPointers[],
+                             int rowIndices[],
+                             int col) {
+        int top = n;
+
+        markGeneration++;
+        for (int p = columnPointers[col]; p < columnPointers[col + 1]; p++)
+            if (!isMarked(rowIndices[p]))
+                top = depthFirstSearch(rowIndices[p], top);
+        return top;
+    }
+
+    private int depthFirstSearch(int start,
+                                 int top) {
+        int head = 0;
+
+        stack[0] = start;
+        while (head >= 0) {
+            int j = stack[head];
+            int J = pinv[j];
+
+            if (!isMarked(j)) {
+                mark[j] = markGeneration;
+                /* Resume scanning L(:, J) just after the diagonal */
+                pstack[head] = J < 0 ? 0 : lColumnPointers[J] + 1;
+            }
+
+            boolean done = true;
+            int end = J < 0 ? 0 : lColumnPointers[J + 1];
+            for (int p = pstack[head]; p < end; p++) {
+                int i = lRowIndices[p];
+                if (isMarked(i))
+                    continue;
+                pstack[head] = p;
+                stack[++head] = i;
+                done = false;
+                break;
+            }
+            if (done) {
+                head--;
+                reach[--top] = j;
+            }
+        }
+        return top;
+    }
+
+    private boolean isMarked(int j) {
+        return mark[j] == markGeneration;
+    }
+
+    private void growL(int capacity) {
+        lRowIndices = Arrays.copyOf(lRowIndices, capacity);
+        lReal = Arrays.copyOf(lReal, capacity);
+        lImaginary = Arrays.copyOf(lImaginary, capacity);
+    }
+
+    private void growU(int capacity) {
+        uRowIndices = Arrays.copyOf(uRowIndices, capacity);
+        uReal = Arrays.copyOf(uReal, capacity);
+        uImaginary = Arrays.copyOf(uImaginary, capacity);
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+import java.util.Arrays;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class ComplexSparseMatrix {
+    private int rows;
+    private int columns;
+    private int columnPointers[];
+    private int rowIndices[];
+    private double real[];
+    private double imaginary[];
+
+    /**
+     * @brief Creates a complex matrix in compressed-column storage. Entries of
+     *        column j are held in [columnPointers[j], columnPointers[j + 1])
+     * 
+     * @author 1sand0s
+     * @param rows           Number of rows
+     * @param columns        Number of columns
+     * @param columnPointers Start of each column (length columns + 1)
+     * @param rowIndices     Row index of each stored entry
+     * @param real           Real part of each stored entry
+     * @param imaginary      Imaginary part of each stored entry
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public ComplexSparseMatrix(int rows,
+                               int columns,
+                               int columnPointers[],
+                               int rowIndices[],
+                               double real[],
+                               double imaginary[]) {
+        this.rows = rows;
+        this.columns = columns;
+        this.columnPointers = columnPointers;
+        this.rowIndices = rowIndices;
+        this.real = real;
+        this.imaginary = imaginary;
+    }
+
+    /**
+     * @brief Compresses a dense matrix, dropping entries that are exactly zero
+     * 
+     * @author 1sand0s
+     * @param A Dense matrix
+     * @return ComplexSparseMatrix : A in compressed-column storage
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static ComplexSparseMatrix fromDense(Complex A[][]) {
+        int rows = A.length;
+        int columns = rows == 0 ? 0 : A[0].length;
+        int nonZeros = 0;
+
+        for (int i = 0; i < rows; i++)
+            for (int j = 0; j < columns; j++)
+                if (A[i][j].getReal() != 0 || A[i][j].getImaginary() != 0)
+                    nonZeros++;
+
+        int columnPointers[] = new int[columns + 1];
+        int rowIndices[] = new int[nonZeros];
+        double real[] = new double[nonZeros];
+        double imaginary[] = new double[nonZeros];
+        int p = 0;
+
+        for (int j = 0; j < columns; j++) {
+            columnPointers[j] = p;
+            for (int i = 0; i < rows; i++) {
+                if (A[i][j].getReal() != 0 || A[i][j].getImaginary() != 0) {
+                    rowIndices[p] = i;
+                    real[p] = A[i][j].getReal();
+                    imaginary[p] = A[i][j].getImaginary();
+                    p++;
+                }
+            }
+        }
+        columnPointers[columns] = p;
+        return new ComplexSparseMatrix(rows, columns, columnPointers, rowIndices, real, imaginary);
+    }
+
+    /**
+     * @brief Compresses a dense matrix, dropping entries that are exactly zero
+     * 
+     * @author 1sand0s
+     * @param A Dense matrix
+     * @return ComplexSparseMatrix : A in compressed-column storage
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static ComplexSparseMatrix fromDense(ComplexMatrix A) {
+        int rows = A.getRows();
+        int columns = A.getColumns();
+        double denseReal[] = A.getRealArray();
+        double denseImaginary[] = A.getImaginaryArray();
+        int nonZeros = 0;
+
+        for (int k = 0; k < denseReal.length; k++)
+            if (denseReal[k] != 0 || denseImaginary[k] != 0)
+                nonZeros++;
+
+        int columnPointers[] = new int[columns + 1];
+        int rowIndices[] = new int[nonZeros];
+        double real[] = new double[nonZeros];
+        double imaginary[] = new double[nonZeros];
+        int p = 0;
+
+        for (int j = 0; j < columns; j++) {
+            columnPointers[j] = p;
+            for (int i = 0; i < rows; i++) {
+                int k = i * columns + j;
+                if (denseReal[k] != 0 || denseImaginary[k] != 0) {
+                    rowIndices[p] = i;
+                    real[p] = denseReal[k];
+                    imaginary[p] = denseImaginary[k];
+                    p++;
+                }
+            }
+        }
+        columnPointers[columns] = p;
+        return new ComplexSparseMatrix(rows, columns, columnPointers, rowIndices, real, imaginary);
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of rows
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of columns
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of stored entries
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getNonZeros() {
+        return columnPointers[columns];
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int[] : Column pointers (length columns + 1)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int[] getColumnPointers() {
+        return columnPointers;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int[] : Row index of each stored entry
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int[] getRowIndices() {
+        return rowIndices;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double[] : Real part of each stored entry
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double[] getReal() {
+        return real;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double[] : Imaginary part of each stored entry
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double[] getImaginary() {
+        return imaginary;
+    }
+
+    /**
+     * @brief Sets every stored value to 0, keeping the pattern
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void clear() {
+        Arrays.fill(real, 0);
+        Arrays.fill(imaginary, 0);
+    }
+
+    /**
+     * @brief Expands the stored entries into a dense matrix of the same size
+     * 
+     * @author 1sand0s
+     * @param out Dense matrix, overwritten (output)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void toDense(ComplexMatrix out) {
+        double denseReal[] = out.getRealArray();
+        double denseImaginary[] = out.getImaginaryArray();
+        Arrays.fill(denseReal, 0);
+        Arrays.fill(denseImaginary, 0);
+        for (int j = 0; j < columns; j++)
+            for (int p = columnPointers[j]; p < columnPointers[j + 1]; p++) {
+                denseReal[rowIndices[p] * columns + j] = real[p];
+                denseImaginary[rowIndices[p] * columns + j] = imaginary[p];
+            }
+    }
+}
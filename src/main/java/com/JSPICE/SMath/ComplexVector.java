@@ -0,0 +1,215 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+import java.util.Arrays;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class ComplexVector {
+    private int length;
+    private double real[];
+    private double imaginary[];
+
+    /**
+     * @brief Creates a zero vector with real and imaginary parts held in two
+     *        flat arrays
+     * 
+     * @author 1sand0s
+     * @param length Number of entries
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public ComplexVector(int length) {
+        this.length = length;
+        real = new double[length];
+        imaginary = new double[length];
+    }
+
+    /**
+     * @brief Copies the first column of a Complex[][] into a new vector
+     * 
+     * @author 1sand0s
+     * @param x Column vector of Complex objects
+     * @return ComplexVector : Copy of x
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static ComplexVector fromArray(Complex x[][]) {
+        ComplexVector vector = new ComplexVector(x.length);
+        for (int i = 0; i < x.length; i++)
+            vector.set(i, x[i][0].getReal(), x[i][0].getImaginary());
+        return vector;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of entries
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double : Real part of entry i
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double getReal(int i) {
+        return real[i];
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double : Imaginary part of entry i
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double getImaginary(int i) {
+        return imaginary[i];
+    }
+
+    /**
+     * @brief Returns entry i as a new Complex. Prefer getReal and
+     *        getImaginary in loops since this allocates
+     * 
+     * @author 1sand0s
+     * @return Complex : Entry i
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public Complex get(int i) {
+        return new Complex(real[i], imaginary[i]);
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @param i         Index
+     * @param real      Real part
+     * @param imaginary Imaginary part
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void set(int i,
+                    double real,
+                    double imaginary) {
+        this.real[i] = real;
+        this.imaginary[i] = imaginary;
+    }
+
+    /**
+     * @brief Adds (real + j * imaginary) to entry i in place
+     * 
+     * @author 1sand0s
+     * @param i         Index
+     * @param real      Real part
+     * @param imaginary Imaginary part
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void add(int i,
+                    double real,
+                    double imaginary) {
+        this.real[i] += real;
+        this.imaginary[i] += imaginary;
+    }
+
+    /**
+     * @brief Adds another vector of the same length to this one in place
+     * 
+     * @author 1sand0s
+     * @param x Vector to add
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void add(ComplexVector x) {
+        for (int i = 0; i < length; i++) {
+            real[i] += x.real[i];
+            imaginary[i] += x.imaginary[i];
+        }
+    }
+
+    /**
+     * @brief Multiplies every entry by a real scalar in place
+     * 
+     * @author 1sand0s
+     * @param scalar Scale factor
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void scale(double scalar) {
+        for (int i = 0; i < length; i++) {
+            real[i] *= scalar;
+            imaginary[i] *= scalar;
+        }
+    }
+
+    /**
+     * @brief Sets every entry to 0 without reallocating
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void clear() {
+        Arrays.fill(real, 0);
+        Arrays.fill(imaginary, 0);
+    }
+
+    /**
+     * @brief Copies a range of x into this vector
+     * 
+     * @author 1sand0s
+     * @param x     Source vector
+     * @param from  First index in x
+     * @param to    First index in this vector
+     * @param count Number of entries to copy
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void copyRange(ComplexVector x,
+                          int from,
+                          int to,
+                          int count) {
+        System.arraycopy(x.real, from, real, to, count);
+        System.arraycopy(x.imaginary, from, imaginary, to, count);
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double[] : Backing array of real parts
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double[] getRealArray() {
+        return real;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double[] : Backing array of imaginary parts
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double[] getImaginaryArray() {
+        return imaginary;
+    }
+}
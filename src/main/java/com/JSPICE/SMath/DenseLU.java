@@ -0,0 +1,282 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class DenseLU {
+
+    /* Shared by every instance that does not set its own parallelism */
+    private static ForkJoinPool sharedPool;
+
+    /* Entries of the trailing matrix a single task updates before splitting */
+    private static final int GRAIN = 16384;
+    /* Columns of the trailing matrix updated together so U12 stays in cache */
+    private static final int COLUMN_TILE = 256;
+
+    private int blockSize;
+    private ForkJoinPool pool;
+
+    private int n;
+    private double lu[];
+    private int perm[];
+    private double y[];
+
+    public DenseLU() {
+        blockSize = 64;
+    }
+
+    /**
+     * @brief Sets the number of columns factored per panel
+     * 
+     * @author 1sand0s
+     * @param blockSize Panel width (1 gives the unblocked algorithm)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * @brief Sets the number of worker threads used for the trailing matrix
+     *        update. By default a pool shared by all instances with one
+     *        worker per available processor is used
+     * 
+     * @author 1sand0s
+     * @param parallelism Number of worker threads
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setParallelism(int parallelism) {
+        if (pool != null)
+            pool.shutdown();
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * @brief Computes P * A = L * U with partial pivoting using a blocked
+     *        right-looking algorithm on a row-major copy of A. Each panel of
+     *        blockSize columns is factored, the matching block row of U is
+     *        solved for and the trailing matrix is updated by row blocks in
+     *        parallel on a ForkJoinPool
+     * 
+     * @author 1sand0s
+     * @param A Square matrix (left unchanged)
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception ArithmeticException if A is numerically singular
+     */
+    public void factor(RealMatrix A) {
+        if (lu == null || n != A.getRows()) {
+            n = A.getRows();
+            lu = new double[n * n];
+            perm = new int[n];
+            y = new double[n];
+        }
+        System.arraycopy(A.getArray(), 0, lu, 0, n * n);
+        for (int i = 0; i < n; i++)
+            perm[i] = i;
+
+        for (int k0 = 0; k0 < n; k0 += blockSize) {
+            int k1 = Math.min(k0 + blockSize, n);
+
+            factorPanel(k0, k1);
+            if (k1 < n) {
+                solveBlockRow(k0, k1);
+                updateTrailingMatrix(k0, k1);
+            }
+        }
+    }
+
+    /**
+     * @brief Solves A * x = b using the factors from the last call to factor
+     * 
+     * @author 1sand0s
+     * @param b        Right hand side
+     * @param solution Solution (output)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void solve(double b[],
+                      double solution[]) {
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            double sum = b[perm[i]];
+            for (int j = 0; j < i; j++)
+                sum -= lu[row + j] * y[j];
+            y[i] = sum;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            int row = i * n;
+            double sum = y[i];
+            for (int j = i + 1; j < n; j++)
+                sum -= lu[row + j] * y[j];
+            y[i] = sum / lu[row + i];
+        }
+        System.arraycopy(y, 0, solution, 0, n);
+    }
+
+    /**
+     * @brief Unblocked LU with partial pivoting of columns [k0, k1) over rows
+     *        [k0, n). Row swaps are applied to the full rows
+     * 
+     * @author 1sand0s
+     * @param k0 First column of the panel
+     * @param k1 One past the last column of the panel
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception ArithmeticException if a column has no non-zero pivot
+     */
+    private void factorPanel(int k0,
+                             int k1) {
+        for (int j = k0; j < k1; j++) {
+            int ipiv = j;
+            double largest = Math.abs(lu[j * n + j]);
+            for (int i = j + 1; i < n; i++) {
+                double magnitude = Math.abs(lu[i * n + j]);
+                if (magnitude > largest) {
+                    largest = magnitude;
+                    ipiv = i;
+                }
+            }
+            if (largest == 0)
+                throw new ArithmeticException("Error : Matrix is singular at column " + j);
+            if (ipiv != j)
+                swapRows(j, ipiv);
+
+            int pivotRow = j * n;
+            double pivot = lu[pivotRow + j];
+            for (int i = j + 1; i < n; i++) {
+                int row = i * n;
+                double l = lu[row + j] / pivot;
+                lu[row + j] = l;
+                if (l != 0)
+                    for (int c = j + 1; c < k1; c++)
+                        lu[row + c] -= l * lu[pivotRow + c];
+            }
+        }
+    }
+
+    /**
+     * @brief U12 = L11 \ A12 for the rows of the current panel
+     * 
+     * @author 1sand0s
+     * @param k0 First column of the panel
+     * @param k1 One past the last column of the panel
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void solveBlockRow(int k0,
+                               int k1) {
+        for (int j = k0; j < k1; j++) {
+            int pivotRow = j * n;
+            for (int i = j + 1; i < k1; i++) {
+                int row = i * n;
+                double l = lu[row + j];
+                if (l != 0)
+                    for (int c = k1; c < n; c++)
+                        lu[row + c] -= l * lu[pivotRow + c];
+            }
+        }
+    }
+
+    /**
+     * @brief A22 = A22 - L21 * U12. Runs on the calling thread when the
+     *        trailing matrix is too small to be worth splitting
+     * 
+     * @author 1sand0s
+     * @param k0 First column of the panel
+     * @param k1 One past the last column of the panel
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void updateTrailingMatrix(int k0,
+                                      int k1) {
+        TrailingUpdate task = new TrailingUpdate(k0, k1, k1, n);
+        if ((long) (n - k1) * (n - k1) <= GRAIN)
+            task.compute();
+        else
+            getPool().invoke(task);
+    }
+
+    private void swapRows(int i,
+                          int j) {
+        int rowI = i * n;
+        int rowJ = j * n;
+        for (int c = 0; c < n; c++) {
+            double t = lu[rowI + c];
+            lu[rowI + c] = lu[rowJ + c];
+            lu[rowJ + c] = t;
+        }
+        int t = perm[i];
+        perm[i] = perm[j];
+        perm[j] = t;
+    }
+
+    private ForkJoinPool getPool() {
+        if (pool != null)
+            return pool;
+        synchronized (DenseLU.class) {
+            if (sharedPool == null)
+                sharedPool = new ForkJoinPool();
+            return sharedPool;
+        }
+    }
+
+    /**
+     * @brief Updates the rows [rowStart, rowEnd) of the trailing matrix,
+     *        splitting the rows in half until a block is below GRAIN entries
+     * 
+     * @author 1sand0s
+     */
+    private class TrailingUpdate extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int k0;
+        private int k1;
+        private int rowStart;
+        private int rowEnd;
+
+        TrailingUpdate(int k0,
+                       int k1,
+                       int rowStart,
+                       int rowEnd) {
+            this.k0 = k0;
+            this.k1 = k1;
+            this.rowStart = rowStart;
+            this.rowEnd = rowEnd;
+        }
+
+        @Override
+        protected void compute() {
+            if (rowEnd - rowStart > 1 && (long) (rowEnd - rowStart) * (n - k1) > GRAIN) {
+                int middle = (rowStart + rowEnd) >>> 1;
+                invokeAll(new TrailingUpdate(k0, k1, rowStart, middle),
+                          new TrailingUpdate(k0, k1, middle, rowEnd));
+                return;
+            }
+
+            for (int c0 = k1; c0 < n; c0 += COLUMN_TILE) {
+                int c1 = Math.min(c0 + COLUMN_TILE, n);
+                for (int i = rowStart; i < rowEnd; i++) {
+                    int row = i * n;
+                    for (int j = k0; j < k1; j++) {
+                        double l = lu[row + j];
+                        if (l == 0)
+                            continue;
+                        int pivotRow = j * n;
+                        for (int c = c0; c < c1; c++)
+                            lu[row + c] -= l * lu[pivotRow + c];
+                    }
+                }
+            }
+        }
+    }
+}
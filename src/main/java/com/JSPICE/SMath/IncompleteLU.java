@@ -0,0 +1,317 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class IncompleteLU {
+
+    private int n;
+
+    /* L by rows without the unit diagonal */
+    private int lRowPointers[];
+    private int lColumns[];
+    private double lValues[];
+
+    /* U by rows, diagonal stored first */
+    private int uRowPointers[];
+    private int uColumns[];
+    private double uValues[];
+
+    /* Work arrays */
+    private double w[];
+    private int position[];
+    private int nonZeros[];
+    private boolean pattern[];
+
+    /**
+     * @brief ILU(0) : incomplete LU that only keeps entries in the pattern of A
+     *        (plus the diagonal, so the branch rows of an MNA system get a
+     *        pivot from elimination)
+     * 
+     * @author 1sand0s
+     * @param A Square matrix in compressed-column storage
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void factorILU0(SparseMatrix A) {
+        factor(A, true, 0, 0);
+    }
+
+    /**
+     * @brief ILUT : incomplete LU with threshold dropping. Entries smaller
+     *        than dropTolerance times the norm of their row are dropped, and
+     *        at most fill entries are kept in each row of L and of U on top
+     *        of the pattern of A
+     * 
+     * @author 1sand0s
+     * @param A             Square matrix in compressed-column storage
+     * @param dropTolerance Relative drop tolerance
+     * @param fill          Extra entries kept per row of L and U
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void factorILUT(SparseMatrix A,
+                           double dropTolerance,
+                           int fill) {
+        factor(A, false, dropTolerance, fill);
+    }
+
+    /**
+     * @brief Applies the preconditioner, z = U \ (L \ r)
+     * 
+     * @author 1sand0s
+     * @param r Vector to precondition
+     * @param z Result (output), may be the same array as r
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void solve(double r[],
+                      double z[]) {
+        for (int i = 0; i < n; i++) {
+            double sum = r[i];
+            for (int p = lRowPointers[i]; p < lRowPointers[i + 1]; p++)
+                sum -= lValues[p] * z[lColumns[p]];
+            z[i] = sum;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            int d = uRowPointers[i];
+            double sum = z[i];
+            for (int p = d + 1; p < uRowPointers[i + 1]; p++)
+                sum -= uValues[p] * z[uColumns[p]];
+            z[i] = sum / uValues[d];
+        }
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of entries in L and U (including the diagonal)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getNonZeros() {
+        return lRowPointers[n] + uRowPointers[n];
+    }
+
+    /**
+     * @brief Row-wise (IKJ) incomplete elimination. Each row of A is
+     *        scattered into w, eliminated against the rows of U above it in
+     *        increasing column order and then split into L and U after
+     *        dropping
+     * 
+     * @author 1sand0s
+     * @param A             Square matrix in compressed-column storage
+     * @param levelZero     true for ILU(0), false for ILUT
+     * @param dropTolerance Relative drop tolerance (ILUT)
+     * @param fill          Extra entries kept per row of L and U (ILUT)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void factor(SparseMatrix A,
+                        boolean levelZero,
+                        double dropTolerance,
+                        int fill) {
+        n = A.getColumns();
+
+        /* Rows of A, obtained by transposing the compressed columns */
+        int columnPointers[] = A.getColumnPointers();
+        int rowIndices[] = A.getRowIndices();
+        double values[] = A.getValues();
+        int rowPointers[] = new int[n + 1];
+        int columns[] = new int[A.getNonZeros()];
+        double rowValues[] = new double[A.getNonZeros()];
+
+        for (int p = 0; p < A.getNonZeros(); p++)
+            rowPointers[rowIndices[p] + 1]++;
+        for (int i = 0; i < n; i++)
+            rowPointers[i + 1] += rowPointers[i];
+        int next[] = Arrays.copyOf(rowPointers, n);
+        for (int j = 0; j < n; j++) {
+            for (int p = columnPointers[j]; p < columnPointers[j + 1]; p++) {
+                int q = next[rowIndices[p]]++;
+                columns[q] = j;
+                rowValues[q] = values[p];
+            }
+        }
+
+        int capacity = A.getNonZeros() + n + (levelZero ? 0 : 2 * fill * n);
+        lRowPointers = new int[n + 1];
+        lColumns = new int[capacity];
+        lValues = new double[capacity];
+        uRowPointers = new int[n + 1];
+        uColumns = new int[capacity];
+        uValues = new double[capacity];
+
+        w = new double[n];
+        position = new int[n];
+        nonZeros = new int[n];
+        pattern = new boolean[n];
+        Arrays.fill(position, -1);
+
+        PriorityQueue<Integer> lower = new PriorityQueue<Integer>();
+        int lnz = 0;
+        int unz = 0;
+
+        for (int i = 0; i < n; i++) {
+            int count = 0;
+            double norm = 0;
+
+            /* Scatter row i, the diagonal is always part of the pattern */
+            position[i] = count;
+            nonZeros[count++] = i;
+            pattern[i] = true;
+            for (int p = rowPointers[i]; p < rowPointers[i + 1]; p++) {
+                int j = columns[p];
+                w[j] += rowValues[p];
+                norm += rowValues[p] * rowValues[p];
+                if (position[j] < 0) {
+                    position[j] = count;
+                    nonZeros[count++] = j;
+                    pattern[j] = true;
+                }
+                if (j < i)
+                    lower.add(j);
+            }
+            norm = Math.sqrt(norm);
+            double threshold = dropTolerance * norm;
+
+            /* Eliminate against the rows of U above, in increasing order */
+            while (!lower.isEmpty()) {
+                int k = lower.poll();
+                while (!lower.isEmpty() && lower.peek() == k)
+                    lower.poll();
+
+                double wk = w[k] / uValues[uRowPointers[k]];
+                w[k] = wk;
+                if (!levelZero && Math.abs(wk) < threshold) {
+                    w[k] = 0;
+                    continue;
+                }
+                for (int p = uRowPointers[k] + 1; p < uRowPointers[k + 1]; p++) {
+                    int j = uColumns[p];
+                    if (position[j] < 0) {
+                        if (levelZero)
+                            continue;
+                        position[j] = count;
+                        nonZeros[count++] = j;
+                        if (j < i)
+                            lower.add(j);
+                    }
+                    w[j] -= wk * uValues[p];
+                }
+            }
+
+            /* Split into L and U */
+            if (lnz + count > lColumns.length)
+                growL(2 * lColumns.length + count);
+            if (unz + count > uColumns.length)
+                growU(2 * uColumns.length + count);
+
+            /* Without pivoting a zero can reach the diagonal, replace it
+             * by a small multiple of the row norm (as in Saad's ILUT) */
+            double pivot = w[i];
+            if (pivot == 0)
+                pivot = (norm > 0 ? norm : 1) * (1e-4 + dropTolerance);
+            uColumns[unz] = i;
+            uValues[unz] = pivot;
+            unz++;
+
+            if (levelZero) {
+                for (int t = 0; t < count; t++) {
+                    int j = nonZeros[t];
+                    if (j < i && w[j] != 0) {
+                        lColumns[lnz] = j;
+                        lValues[lnz++] = w[j];
+                    } else if (j > i && w[j] != 0) {
+                        uColumns[unz] = j;
+                        uValues[unz++] = w[j];
+                    }
+                }
+            } else {
+                lnz = keepLargest(i, count, true, threshold, fill, lnz);
+                unz = keepLargest(i, count, false, threshold, fill, unz);
+            }
+            lRowPointers[i + 1] = lnz;
+            uRowPointers[i + 1] = unz;
+
+            for (int t = 0; t < count; t++) {
+                int j = nonZeros[t];
+                w[j] = 0;
+                position[j] = -1;
+                pattern[j] = false;
+            }
+        }
+    }
+
+    /**
+     * @brief Copies the entries of the strictly lower (or upper) part of the
+     *        work row that pass the drop tolerance into L (or U). Entries of
+     *        the pattern of A are kept, fill-in is limited to the fill
+     *        largest ones
+     * 
+     * @author 1sand0s
+     * @return int : New number of entries in L (or U)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private int keepLargest(int i,
+                            int count,
+                            boolean lowerPart,
+                            double threshold,
+                            int fill,
+                            int nz) {
+        int numFill = 0;
+        double magnitudes[] = new double[count];
+
+        for (int t = 0; t < count; t++) {
+            int j = nonZeros[t];
+            if ((lowerPart ? j < i : j > i) && !pattern[j] && Math.abs(w[j]) >= threshold)
+                magnitudes[numFill++] = Math.abs(w[j]);
+        }
+        double smallest = 0;
+        if (numFill > fill) {
+            Arrays.sort(magnitudes, 0, numFill);
+            smallest = fill > 0 ? magnitudes[numFill - fill] : Double.POSITIVE_INFINITY;
+        }
+
+        int kept = 0;
+        for (int t = 0; t < count; t++) {
+            int j = nonZeros[t];
+            if (!(lowerPart ? j < i : j > i) || w[j] == 0)
+                continue;
+            double magnitude = Math.abs(w[j]);
+            boolean keep = pattern[j] ? magnitude >= threshold
+                                      : magnitude >= threshold && magnitude >= smallest && kept < fill;
+            if (!keep)
+                continue;
+            if (!pattern[j])
+                kept++;
+            if (lowerPart) {
+                lColumns[nz] = j;
+                lValues[nz++] = w[j];
+            } else {
+                uColumns[nz] = j;
+                uValues[nz++] = w[j];
+            }
+        }
+        return nz;
+    }
+
+    private void growL(int capacity) {
+        lColumns = Arrays.copyOf(lColumns, capacity);
+        lValues = Arrays.copyOf(lValues, capacity);
+    }
+
+    private void growU(int capacity) {
+        uColumns = Arrays.copyOf(uColumns, capacity);
+        uValues = Arrays.copyOf(uValues, capacity);
+    }
+}
@@ -0,0 +1,405 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+import java.util.Arrays;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class IterativeSolver {
+
+    private PreconditionerType preconditionerType;
+    private double tolerance;
+    private int maxIterations;
+    private int restart;
+    private double dropTolerance;
+    private int fill;
+
+    private IncompleteLU preconditioner;
+
+    /* Statistics of the last solve and of all solves so far */
+    private int iterations;
+    private double residual;
+    private int totalIterations;
+
+    public IterativeSolver() {
+        preconditionerType = PreconditionerType.ILU0;
+        tolerance = 1e-10;
+        maxIterations = 1000;
+        restart = 30;
+        dropTolerance = 1e-4;
+        fill = 10;
+    }
+
+    /**
+     * @brief Selects the preconditioner built on every call to solve
+     * 
+     * @author 1sand0s
+     * @param preconditionerType NONE, ILU0 (default) or ILUT
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setPreconditioner(PreconditionerType preconditionerType) {
+        this.preconditionerType = preconditionerType;
+    }
+
+    /**
+     * @brief Sets the relative residual ||b - A * x|| / ||b|| at which the
+     *        iteration stops
+     * 
+     * @author 1sand0s
+     * @param tolerance Relative residual tolerance (default 1e-10)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * @brief Sets the iteration limit of one solve
+     * 
+     * @author 1sand0s
+     * @param maxIterations Maximum number of iterations (default 1000)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @brief Sets the size of the Krylov subspace after which GMRES restarts
+     * 
+     * @author 1sand0s
+     * @param restart Restart length (default 30)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setRestart(int restart) {
+        this.restart = restart;
+    }
+
+    /**
+     * @brief Sets the dropping parameters of the ILUT preconditioner
+     * 
+     * @author 1sand0s
+     * @param dropTolerance Relative drop tolerance (default 1e-4)
+     * @param fill          Extra entries kept per row of L and U (default 10)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setILUTParameters(double dropTolerance,
+                                  int fill) {
+        this.dropTolerance = dropTolerance;
+        this.fill = fill;
+    }
+
+    /**
+     * @brief Solves A * x = b with the requested Krylov method. x holds the
+     *        initial guess on entry (the previous Newton-Raphson iterate
+     *        makes a good one) and the solution on return
+     * 
+     * @author 1sand0s
+     * @param type GMRES or BICGSTAB
+     * @param A    Square matrix in compressed-column storage
+     * @param b    Right hand side
+     * @param x    Initial guess and solution
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception ArithmeticException if the method breaks down or does not
+     *            reach the tolerance within maxIterations
+     */
+    public void solve(LinearSolverType type,
+                      SparseMatrix A,
+                      double b[],
+                      double x[]) {
+        buildPreconditioner(A);
+        iterations = 0;
+
+        if (type == LinearSolverType.GMRES)
+            solveGMRES(A, b, x);
+        else if (type == LinearSolverType.BICGSTAB)
+            solveBiCGSTAB(A, b, x);
+        else
+            throw new UnsupportedOperationException("Error : " + type + " is not an iterative method");
+
+        totalIterations += iterations;
+        if (!(residual <= tolerance))
+            throw new ArithmeticException("Error : " + type + " did not converge after " + iterations
+                                          + " iterations (relative residual " + residual + ")");
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of iterations of the last solve
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double : Relative residual ||b - A * x|| / ||b|| reached by the
+     *         last solve
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double getResidual() {
+        return residual;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of iterations summed over every solve
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getTotalIterations() {
+        return totalIterations;
+    }
+
+    /**
+     * @brief Restarted GMRES(m) with right preconditioning, so the residual
+     *        that is monitored is the residual of the unpreconditioned
+     *        system. The Hessenberg matrix is reduced with Givens rotations
+     *        as the Arnoldi basis is built (modified Gram-Schmidt)
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void solveGMRES(SparseMatrix A,
+                            double b[],
+                            double x[]) {
+        int n = b.length;
+        int m = Math.min(restart, n);
+        double bNorm = norm(b);
+        double r[] = new double[n];
+        double w[] = new double[n];
+        double V[][] = new double[m + 1][n];
+        double Z[][] = new double[m][n];
+        double H[][] = new double[m + 1][m];
+        double cs[] = new double[m];
+        double sn[] = new double[m];
+        double g[] = new double[m + 1];
+        double y[] = new double[m];
+
+        if (bNorm == 0) {
+            Arrays.fill(x, 0);
+            residual = 0;
+            return;
+        }
+
+        while (true) {
+            computeResidual(A, b, x, r);
+            double beta = norm(r);
+            residual = beta / bNorm;
+            if (residual <= tolerance || iterations >= maxIterations)
+                return;
+
+            for (int i = 0; i < n; i++)
+                V[0][i] = r[i] / beta;
+            Arrays.fill(g, 0);
+            g[0] = beta;
+
+            int k = 0;
+            while (k < m && iterations < maxIterations) {
+                applyPreconditioner(V[k], Z[k]);
+                A.multiply(Z[k], w);
+
+                for (int i = 0; i <= k; i++) {
+                    H[i][k] = dot(w, V[i]);
+                    axpy(-H[i][k], V[i], w);
+                }
+                H[k + 1][k] = norm(w);
+                if (H[k + 1][k] != 0)
+                    for (int i = 0; i < n; i++)
+                        V[k + 1][i] = w[i] / H[k + 1][k];
+
+                /* Apply the previous rotations, then annihilate H(k + 1, k) */
+                for (int i = 0; i < k; i++) {
+                    double t = cs[i] * H[i][k] + sn[i] * H[i + 1][k];
+                    H[i + 1][k] = -sn[i] * H[i][k] + cs[i] * H[i + 1][k];
+                    H[i][k] = t;
+                }
+                double d = Math.hypot(H[k][k], H[k + 1][k]);
+                cs[k] = d == 0 ? 1 : H[k][k] / d;
+                sn[k] = d == 0 ? 0 : H[k + 1][k] / d;
+                H[k][k] = d;
+                H[k + 1][k] = 0;
+                g[k + 1] = -sn[k] * g[k];
+                g[k] = cs[k] * g[k];
+
+                k++;
+                iterations++;
+                if (Math.abs(g[k]) / bNorm <= tolerance || d == 0)
+                    break;
+            }
+
+            /* x = x + Z * y with H(0:k, 0:k) * y = g(0:k) */
+            for (int i = k - 1; i >= 0; i--) {
+                double sum = g[i];
+                for (int j = i + 1; j < k; j++)
+                    sum -= H[i][j] * y[j];
+                if (H[i][i] == 0)
+                    throw new ArithmeticException("Error : GMRES breakdown, singular Hessenberg matrix");
+                y[i] = sum / H[i][i];
+            }
+            for (int j = 0; j < k; j++)
+                axpy(y[j], Z[j], x);
+        }
+    }
+
+    /**
+     * @brief BiCGSTAB with right preconditioning. Unpreconditioned, it can
+     *        break down on MNA systems whose branch rows have a zero diagonal,
+     *        ILU0 or ILUT avoid that
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void solveBiCGSTAB(SparseMatrix A,
+                               double b[],
+                               double x[]) {
+        int n = b.length;
+        double bNorm = norm(b);
+        double r[] = new double[n];
+        double rHat[] = new double[n];
+        double p[] = new double[n];
+        double v[] = new double[n];
+        double s[] = new double[n];
+        double t[] = new double[n];
+        double pHat[] = new double[n];
+        double sHat[] = new double[n];
+        double rho = 1;
+        double alpha = 1;
+        double omega = 1;
+
+        if (bNorm == 0) {
+            Arrays.fill(x, 0);
+            residual = 0;
+            return;
+        }
+
+        computeResidual(A, b, x, r);
+        residual = norm(r) / bNorm;
+
+        while (residual > tolerance && iterations < maxIterations) {
+            /* (Re)start from the true residual */
+            System.arraycopy(r, 0, rHat, 0, n);
+            Arrays.fill(p, 0);
+            Arrays.fill(v, 0);
+            rho = 1;
+            alpha = 1;
+            omega = 1;
+
+            while (iterations < maxIterations) {
+                double rhoNext = dot(rHat, r);
+                if (rhoNext == 0)
+                    throw new ArithmeticException("Error : BICGSTAB breakdown, rho = 0");
+
+                double beta = (rhoNext / rho) * (alpha / omega);
+                for (int i = 0; i < n; i++)
+                    p[i] = r[i] + beta * (p[i] - omega * v[i]);
+                rho = rhoNext;
+
+                applyPreconditioner(p, pHat);
+                A.multiply(pHat, v);
+                double rHatV = dot(rHat, v);
+                if (rHatV == 0)
+                    throw new ArithmeticException("Error : BICGSTAB breakdown, shadow residual orthogonal to A * p");
+                alpha = rho / rHatV;
+                for (int i = 0; i < n; i++)
+                    s[i] = r[i] - alpha * v[i];
+
+                iterations++;
+                if (norm(s) / bNorm <= tolerance) {
+                    axpy(alpha, pHat, x);
+                    break;
+                }
+
+                applyPreconditioner(s, sHat);
+                A.multiply(sHat, t);
+                omega = dot(t, s) / dot(t, t);
+                if (omega == 0)
+                    throw new ArithmeticException("Error : BICGSTAB breakdown, omega = 0");
+
+                for (int i = 0; i < n; i++) {
+                    x[i] += alpha * pHat[i] + omega * sHat[i];
+                    r[i] = s[i] - omega * t[i];
+                }
+                if (norm(r) / bNorm <= tolerance)
+                    break;
+            }
+
+            /* The recursively updated residual drifts on badly scaled
+             * systems, only the true residual decides convergence */
+            computeResidual(A, b, x, r);
+            residual = norm(r) / bNorm;
+        }
+    }
+
+    private void buildPreconditioner(SparseMatrix A) {
+        switch (preconditionerType) {
+        case ILU0:
+            preconditioner = new IncompleteLU();
+            preconditioner.factorILU0(A);
+            break;
+        case ILUT:
+            preconditioner = new IncompleteLU();
+            preconditioner.factorILUT(A, dropTolerance, fill);
+            break;
+        default:
+            preconditioner = null;
+        }
+    }
+
+    private void applyPreconditioner(double r[],
+                                     double z[]) {
+        if (preconditioner == null)
+            System.arraycopy(r, 0, z, 0, r.length);
+        else
+            preconditioner.solve(r, z);
+    }
+
+    private static void computeResidual(SparseMatrix A,
+                                        double b[],
+                                        double x[],
+                                        double r[]) {
+        A.multiply(x, r);
+        for (int i = 0; i < r.length; i++)
+            r[i] = b[i] - r[i];
+    }
+
+    private static double dot(double a[],
+                              double b[]) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++)
+            sum += a[i] * b[i];
+        return sum;
+    }
+
+    private static double norm(double a[]) {
+        return Math.sqrt(dot(a, a));
+    }
+
+    private static void axpy(double alpha,
+                             double x[],
+                             double y[]) {
+        for (int i = 0; i < x.length; i++)
+            y[i] += alpha * x[i];
+    }
+}
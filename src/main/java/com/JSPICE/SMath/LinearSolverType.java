@@ -0,0 +1,16 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+/**
+ * @author 1sand0s
+ *
+ */
+public enum LinearSolverType {
+    QR,
+    SPARSE_LU,
+    DENSE_LU,
+    GMRES,
+    BICGSTAB
+}
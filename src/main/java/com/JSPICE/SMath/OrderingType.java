@@ -0,0 +1,15 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public enum OrderingType {
+    NATURAL,
+    MINIMUM_DEGREE,
+    APPROXIMATE_MINIMUM_DEGREE,
+    REVERSE_CUTHILL_MCKEE
+}
@@ -0,0 +1,14 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public enum PreconditionerType {
+    NONE,
+    ILU0,
+    ILUT
+}
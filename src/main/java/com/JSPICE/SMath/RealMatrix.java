@@ -0,0 +1,168 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+import java.util.Arrays;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class RealMatrix {
+    private int rows;
+    private int columns;
+    private double values[];
+
+    /**
+     * @brief Creates a zero matrix held in one flat row-major array, entry
+     *        (i, j) is at index i * columns + j
+     * 
+     * @author 1sand0s
+     * @param rows    Number of rows
+     * @param columns Number of columns
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public RealMatrix(int rows,
+                      int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        values = new double[rows * columns];
+    }
+
+    /**
+     * @brief Copies this matrix into a new Complex[][] with zero imaginary
+     *        parts
+     * 
+     * @author 1sand0s
+     * @return Complex[][] : Copy of this matrix
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public Complex[][] toComplexArray() {
+        Complex A[][] = new Complex[rows][columns];
+        for (int i = 0; i < rows; i++)
+            for (int j = 0; j < columns; j++)
+                A[i][j] = new Complex(get(i, j), 0);
+        return A;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of rows
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of columns
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double : Entry (i, j)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double get(int i,
+                      int j) {
+        return values[i * columns + j];
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @param i     Row
+     * @param j     Column
+     * @param value Value
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void set(int i,
+                    int j,
+                    double value) {
+        values[i * columns + j] = value;
+    }
+
+    /**
+     * @brief Adds value to entry (i, j) in place
+     * 
+     * @author 1sand0s
+     * @param i     Row
+     * @param j     Column
+     * @param value Value
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void add(int i,
+                    int j,
+                    double value) {
+        values[i * columns + j] += value;
+    }
+
+    /**
+     * @brief Adds another matrix of the same size to this one in place
+     * 
+     * @author 1sand0s
+     * @param A Matrix to add
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void add(RealMatrix A) {
+        for (int k = 0; k < values.length; k++)
+            values[k] += A.values[k];
+    }
+
+    /**
+     * @brief Multiplies every entry by a scalar in place
+     * 
+     * @author 1sand0s
+     * @param scalar Scale factor
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void scale(double scalar) {
+        for (int k = 0; k < values.length; k++)
+            values[k] *= scalar;
+    }
+
+    /**
+     * @brief Sets every entry to 0 without reallocating
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void clear() {
+        Arrays.fill(values, 0);
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double[] : Backing array (row-major)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double[] getArray() {
+        return values;
+    }
+}
@@ -0,0 +1,221 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class RealMatrixOperations {
+
+    /**
+     * @brief Solves A * x = z in place on real storage. x is overwritten with
+     *        the solution. The QR path has no real implementation and goes
+     *        through the complex Gram-Schmidt solver
+     * 
+     * @author 1sand0s
+     * @param A    Square system matrix
+     * @param z    Right hand side
+     * @param x    Solution (output)
+     * @param type QR (dense Gram-Schmidt), SPARSE_LU, DENSE_LU, GMRES or
+     *             BICGSTAB
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void computeLinearEquation(RealMatrix A,
+                                             RealVector z,
+                                             RealVector x,
+                                             LinearSolverType type) {
+        if (type == LinearSolverType.SPARSE_LU) {
+            SparseLU lu = new SparseLU();
+            lu.factor(SparseMatrix.fromDense(A));
+            lu.solve(z.getArray(), x.getArray());
+            removeRedundancy(x);
+            return;
+        }
+        if (type == LinearSolverType.DENSE_LU) {
+            computeLinearEquation(new DenseLU(), A, z, x);
+            return;
+        }
+        if (type == LinearSolverType.GMRES || type == LinearSolverType.BICGSTAB) {
+            x.clear();
+            computeLinearEquation(new IterativeSolver(), type, A, z, x);
+            return;
+        }
+
+        Complex z1[][] = new Complex[z.getLength()][1];
+        for (int i = 0; i < z1.length; i++)
+            z1[i][0] = new Complex(z.get(i), 0);
+
+        Complex x1[][] = ComplexMatrixOperations.computeLinearEquation(A.toComplexArray(), z1, type);
+        for (int i = 0; i < x1.length; i++)
+            x.set(i, x1[i][0].getReal());
+    }
+
+    /**
+     * @brief Solves A * x = z in place with a factorization object that is
+     *        kept between calls. When A has the same pattern as on the
+     *        previous call only a numeric refactorization is done and
+     *        nothing is allocated
+     * 
+     * @author 1sand0s
+     * @param lu Factorization reused across calls
+     * @param A  Square system matrix
+     * @param z  Right hand side
+     * @param x  Solution (output)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void computeLinearEquation(SparseLU lu,
+                                             RealMatrix A,
+                                             RealVector z,
+                                             RealVector x) {
+        lu.refactor(A);
+        lu.solve(z.getArray(), x.getArray());
+        removeRedundancy(x);
+    }
+
+    /**
+     * @brief Solves A * x = z in place on a matrix stamped directly in
+     *        compressed-column storage. While the pattern of A does not
+     *        change only a numeric refactorization is done
+     * 
+     * @author 1sand0s
+     * @param lu Factorization reused across calls
+     * @param A  Square system matrix
+     * @param z  Right hand side
+     * @param x  Solution (output)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void computeLinearEquation(SparseLU lu,
+                                             SparseMatrix A,
+                                             RealVector z,
+                                             RealVector x) {
+        lu.refactor(A);
+        lu.solve(z.getArray(), x.getArray());
+        removeRedundancy(x);
+    }
+
+    /**
+     * @brief Solves A * x = z in place with the factors kept by an earlier
+     *        call, for a matrix that has not changed since : forward and
+     *        back substitution only
+     * 
+     * @author 1sand0s
+     * @param lu Factorization of A
+     * @param z  Right hand side
+     * @param x  Solution (output)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void computeLinearEquation(SparseLU lu,
+                                             RealVector z,
+                                             RealVector x) {
+        lu.solve(z.getArray(), x.getArray());
+        removeRedundancy(x);
+    }
+
+    /**
+     * @brief Solves A * x = z in place with a blocked, multithreaded dense
+     *        LU. The factorization object keeps its buffers between calls
+     * 
+     * @author 1sand0s
+     * @param lu Dense factorization reused across calls
+     * @param A  Square system matrix
+     * @param z  Right hand side
+     * @param x  Solution (output)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void computeLinearEquation(DenseLU lu,
+                                             RealMatrix A,
+                                             RealVector z,
+                                             RealVector x) {
+        lu.factor(A);
+        lu.solve(z.getArray(), x.getArray());
+        removeRedundancy(x);
+    }
+
+    /**
+     * @brief Solves A * x = z with a preconditioned Krylov method, starting
+     *        from the value x holds on entry. Iteration counts and residuals
+     *        are kept by the solver object
+     * 
+     * @author 1sand0s
+     * @param solver Iterative solver (preconditioner choice and statistics)
+     * @param type   GMRES or BICGSTAB
+     * @param A      Square system matrix
+     * @param z      Right hand side
+     * @param x      Initial guess and solution
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void computeLinearEquation(IterativeSolver solver,
+                                             LinearSolverType type,
+                                             RealMatrix A,
+                                             RealVector z,
+                                             RealVector x) {
+        solver.solve(type, SparseMatrix.fromDense(A), z.getArray(), x.getArray());
+        removeRedundancy(x);
+    }
+
+    /**
+     * @brief Solves A * x = z with a preconditioned Krylov method on a matrix
+     *        stamped directly in compressed-column storage, starting from
+     *        the value x holds on entry
+     * 
+     * @author 1sand0s
+     * @param solver Iterative solver (preconditioner choice and statistics)
+     * @param type   GMRES or BICGSTAB
+     * @param A      Square system matrix
+     * @param z      Right hand side
+     * @param x      Initial guess and solution
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void computeLinearEquation(IterativeSolver solver,
+                                             LinearSolverType type,
+                                             SparseMatrix A,
+                                             RealVector z,
+                                             RealVector x) {
+        solver.solve(type, A, z.getArray(), x.getArray());
+        removeRedundancy(x);
+    }
+
+    /**
+     * @brief Zeroes entries of x whose magnitude is below 1e-10, in place
+     * 
+     * @author 1sand0s
+     * @param x Vector to clean up
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static void removeRedundancy(RealVector x) {
+        double values[] = x.getArray();
+        for (int i = 0; i < x.getLength(); i++)
+            if (Math.abs(values[i]) < 1e-10)
+                values[i] = 0;
+    }
+
+    /**
+     * @brief Checks whether every entry of A and B differs by less than tol
+     * 
+     * @author 1sand0s
+     * @param A   First vector
+     * @param B   Second vector
+     * @param tol Absolute tolerance
+     * @return boolean : true if A and B match
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static boolean compareVectors(RealVector A,
+                                         RealVector B,
+                                         double tol) {
+        for (int i = 0; i < A.getLength(); i++)
+            if (!(Math.abs(A.get(i) - B.get(i)) < tol))
+                return false;
+        return true;
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+import java.util.Arrays;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class RealVector {
+    private int length;
+    private double values[];
+
+    /**
+     * @brief Creates a zero vector
+     * 
+     * @author 1sand0s
+     * @param length Number of entries
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public RealVector(int length) {
+        this.length = length;
+        values = new double[length];
+    }
+
+    /**
+     * @brief Wraps an existing array without copying it
+     * 
+     * @author 1sand0s
+     * @param values Entries of the vector
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public RealVector(double values[]) {
+        this.length = values.length;
+        this.values = values;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of entries
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double : Entry i
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double get(int i) {
+        return values[i];
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @param i     Index
+     * @param value Value
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void set(int i,
+                    double value) {
+        values[i] = value;
+    }
+
+    /**
+     * @brief Adds value to entry i in place
+     * 
+     * @author 1sand0s
+     * @param i     Index
+     * @param value Value
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void add(int i,
+                    double value) {
+        values[i] += value;
+    }
+
+    /**
+     * @brief Adds another vector of the same length to this one in place
+     * 
+     * @author 1sand0s
+     * @param x Vector to add
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void add(RealVector x) {
+        for (int i = 0; i < length; i++)
+            values[i] += x.values[i];
+    }
+
+    /**
+     * @brief Multiplies every entry by a scalar in place
+     * 
+     * @author 1sand0s
+     * @param scalar Scale factor
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void scale(double scalar) {
+        for (int i = 0; i < length; i++)
+            values[i] *= scalar;
+    }
+
+    /**
+     * @brief Sets every entry to 0 without reallocating
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void clear() {
+        Arrays.fill(values, 0);
+    }
+
+    /**
+     * @brief Copies a range of x into this vector
+     * 
+     * @author 1sand0s
+     * @param x     Source vector
+     * @param from  First index in x
+     * @param to    First index in this vector
+     * @param count Number of entries to copy
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void copyRange(RealVector x,
+                          int from,
+                          int to,
+                          int count) {
+        System.arraycopy(x.values, from, values, to, count);
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double[] : Backing array
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double[] getArray() {
+        return values;
+    }
+}
@@ -0,0 +1,458 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+import java.util.Arrays;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class SparseLU {
+
+    /* Relative size a diagonal entry must have to be preferred as pivot */
+    private double pivotTolerance;
+    private OrderingType ordering;
+    private int nonZerosA;
+
+    private int n;
+    private int q[];
+    private int pinv[];
+
+    private int lColumnPointers[];
+    private int lRowIndices[];
+    private double lValues[];
+
+    private int uColumnPointers[];
+    private int uRowIndices[];
+    private double uValues[];
+
+    /* Work arrays */
+    private double x[];
+    private int reach[];
+    private int stack[];
+    private int pstack[];
+    private int mark[];
+    private int markGeneration;
+
+    /* Pattern of the matrix the current pivot order was computed for */
+    private int patternColumnPointers[];
+    private int patternRowIndices[];
+
+    /* Compressed copy of the last dense matrix, refilled in place */
+    private SparseMatrix matrix;
+
+    private int numFactorizations;
+    private int numRefactorizations;
+
+    public SparseLU() {
+        pivotTolerance = 1e-3;
+        ordering = OrderingType.APPROXIMATE_MINIMUM_DEGREE;
+    }
+
+    /**
+     * @brief Selects the fill-reducing column order computed on the next full
+     *        factorization
+     * 
+     * @author 1sand0s
+     * @param ordering NATURAL, MINIMUM_DEGREE,
+     *                 APPROXIMATE_MINIMUM_DEGREE (default) or
+     *                 REVERSE_CUTHILL_MCKEE
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setOrdering(OrderingType ordering) {
+        this.ordering = ordering;
+    }
+
+    /**
+     * @brief Sets the threshold for partial pivoting. A diagonal entry is
+     *        kept as pivot when its magnitude is at least pivotTolerance
+     *        times the largest candidate in its column (1 gives classical
+     *        partial pivoting)
+     * 
+     * @author 1sand0s
+     * @param pivotTolerance Threshold in (0, 1]
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setPivotTolerance(double pivotTolerance) {
+        this.pivotTolerance = pivotTolerance;
+    }
+
+    /**
+     * @brief Computes P * A * Q = L * U with a fill-reducing column order Q
+     *        and threshold partial pivoting P (left-looking, Gilbert-Peierls).
+     *        Real counterpart of ComplexSparseLU
+     * 
+     * @author 1sand0s
+     * @param A Square matrix in compressed-column storage
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception ArithmeticException if A is structurally or numerically singular
+     */
+    public void factor(SparseMatrix A) {
+        numFactorizations++;
+        n = A.getColumns();
+        q = SparseOrdering.order(ordering, n, A.getColumnPointers(), A.getRowIndices());
+        nonZerosA = A.getNonZeros();
+        pinv = new int[n];
+        x = new double[n];
+        reach = new int[n];
+        stack = new int[n];
+        pstack = new int[n];
+        mark = new int[n];
+        markGeneration = 0;
+
+        int capacity = 4 * A.getNonZeros() + n;
+        lColumnPointers = new int[n + 1];
+        lRowIndices = new int[capacity];
+        lValues = new double[capacity];
+        uColumnPointers = new int[n + 1];
+        uRowIndices = new int[capacity];
+        uValues = new double[capacity];
+
+        int columnPointers[] = A.getColumnPointers();
+        int rowIndices[] = A.getRowIndices();
+        double values[] = A.getValues();
+        int lnz = 0;
+        int unz = 0;
+
+        for (int j = 0; j < n; j++)
+            pinv[j] = -1;
+
+        for (int k = 0; k < n; k++) {
+            lColumnPointers[k] = lnz;
+            uColumnPointers[k] = unz;
+
+            if (lnz + n > lRowIndices.length)
+                growL(2 * lRowIndices.length + n);
+            if (unz + n > uRowIndices.length)
+                growU(2 * uRowIndices.length + n);
+
+            /* x = L \ A(:, col) restricted to the reach of A(:, col) */
+            int col = q[k];
+            int top = computeReach(columnPointers, rowIndices, col);
+
+            for (int p = top; p < n; p++)
+                x[reach[p]] = 0;
+            for (int p = columnPointers[col]; p < columnPointers[col + 1]; p++)
+                x[rowIndices[p]] = values[p];
+            for (int px = top; px < n; px++) {
+                int j = reach[px];
+                int J = pinv[j];
+                if (J < 0)
+                    continue;
+                double xj = x[j];
+                for (int p = lColumnPointers[J] + 1; p < lColumnPointers[J + 1]; p++)
+                    x[lRowIndices[p]] -= lValues[p] * xj;
+            }
+
+            /* Choose the pivot among rows that are not yet pivotal */
+            int ipiv = -1;
+            double largest = -1;
+            for (int p = top; p < n; p++) {
+                int i = reach[p];
+                if (pinv[i] < 0) {
+                    double magnitude = Math.abs(x[i]);
+                    if (magnitude > largest) {
+                        largest = magnitude;
+                        ipiv = i;
+                    }
+                } else {
+                    uRowIndices[unz] = pinv[i];
+                    uValues[unz] = x[i];
+                    unz++;
+                }
+            }
+            if (ipiv == -1 || largest <= 0)
+                throw new ArithmeticException("Error : Matrix is singular at column " + col);
+
+            if (pinv[col] < 0 && Math.abs(x[col]) >= largest * pivotTolerance)
+                ipiv = col;
+
+            double pivot = x[ipiv];
+
+            uRowIndices[unz] = k;
+            uValues[unz] = pivot;
+            unz++;
+
+            pinv[ipiv] = k;
+            lRowIndices[lnz] = ipiv;
+            lValues[lnz] = 1;
+            lnz++;
+
+            /* L(k+1:n, k) = x / pivot */
+            for (int p = top; p < n; p++) {
+                int i = reach[p];
+                if (pinv[i] < 0) {
+                    lRowIndices[lnz] = i;
+                    lValues[lnz] = x[i] / pivot;
+                    lnz++;
+                }
+                x[i] = 0;
+            }
+        }
+        lColumnPointers[n] = lnz;
+        uColumnPointers[n] = unz;
+
+        /* Row indices of L were saved unpermuted, map them to pivot order */
+        for (int p = 0; p < lnz; p++)
+            lRowIndices[p] = pinv[lRowIndices[p]];
+
+        patternColumnPointers = columnPointers.clone();
+        patternRowIndices = rowIndices.clone();
+    }
+
+    /**
+     * @brief Numeric refactorization of a matrix with the same pattern as the
+     *        one last passed to factor. The column order, pivot order and the
+     *        patterns of L and U are reused, so only the values are
+     *        recomputed. Falls back to a full factor (with fresh ordering and
+     *        pivoting) when there is no previous factorization, the pattern
+     *        has changed or a pivot drops below pivotTolerance times the
+     *        largest entry in its column
+     * 
+     * @author 1sand0s
+     * @param A Square matrix in compressed-column storage
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception ArithmeticException if A is structurally or numerically singular
+     */
+    public void refactor(SparseMatrix A) {
+        if (patternColumnPointers == null
+            || !Arrays.equals(patternColumnPointers, A.getColumnPointers())
+            || !Arrays.equals(patternRowIndices, A.getRowIndices())) {
+            factor(A);
+            return;
+        }
+
+        int columnPointers[] = A.getColumnPointers();
+        int rowIndices[] = A.getRowIndices();
+        double values[] = A.getValues();
+
+        /* x is indexed in pivot order here */
+        Arrays.fill(x, 0);
+        for (int k = 0; k < n; k++) {
+            int col = q[k];
+            for (int p = columnPointers[col]; p < columnPointers[col + 1]; p++)
+                x[pinv[rowIndices[p]]] = values[p];
+
+            /* U(:, k) is stored in topological order, diagonal last */
+            int d = uColumnPointers[k + 1] - 1;
+            for (int p = uColumnPointers[k]; p < d; p++) {
+                int J = uRowIndices[p];
+                double xj = x[J];
+                uValues[p] = xj;
+                x[J] = 0;
+                for (int pl = lColumnPointers[J] + 1; pl < lColumnPointers[J + 1]; pl++)
+                    x[lRowIndices[pl]] -= lValues[pl] * xj;
+            }
+
+            double pivot = x[k];
+            double largest = Math.abs(pivot);
+            for (int p = lColumnPointers[k] + 1; p < lColumnPointers[k + 1]; p++)
+                largest = Math.max(largest, Math.abs(x[lRowIndices[p]]));
+            if (pivot == 0 || Math.abs(pivot) < largest * pivotTolerance) {
+                /* The cached pivot order is no longer stable for these values */
+                factor(A);
+                return;
+            }
+
+            uValues[d] = pivot;
+            x[k] = 0;
+            for (int p = lColumnPointers[k] + 1; p < lColumnPointers[k + 1]; p++) {
+                int i = lRowIndices[p];
+                lValues[p] = x[i] / pivot;
+                x[i] = 0;
+            }
+        }
+        numRefactorizations++;
+    }
+
+    /**
+     * @brief Compresses A into storage kept from the previous call and
+     *        refactors it (see refactor(SparseMatrix)). While the pattern of A
+     *        does not change nothing is allocated
+     * 
+     * @author 1sand0s
+     * @param A Square dense matrix
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception ArithmeticException if A is structurally or numerically singular
+     */
+    public void refactor(RealMatrix A) {
+        matrix = SparseMatrix.fromDense(A, matrix);
+        refactor(matrix);
+    }
+
+    /**
+     * @brief Solves A * x = b using the factors from the last call to factor
+     * 
+     * @author 1sand0s
+     * @param b        Right hand side
+     * @param solution Solution (output)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void solve(double b[],
+                      double solution[]) {
+        /* x = P * b */
+        for (int k = 0; k < n; k++)
+            x[pinv[k]] = b[k];
+
+        /* x = L \ x (unit diagonal stored first in each column) */
+        for (int j = 0; j < n; j++) {
+            double xj = x[j];
+            for (int p = lColumnPointers[j] + 1; p < lColumnPointers[j + 1]; p++)
+                x[lRowIndices[p]] -= lValues[p] * xj;
+        }
+
+        /* x = U \ x (diagonal stored last in each column) */
+        for (int j = n - 1; j >= 0; j--) {
+            int d = uColumnPointers[j + 1] - 1;
+            double xj = x[j] / uValues[d];
+            x[j] = xj;
+            for (int p = uColumnPointers[j]; p < d; p++)
+                x[uRowIndices[p]] -= uValues[p] * xj;
+        }
+
+        /* solution = Q * x */
+        for (int k = 0; k < n; k++)
+            solution[q[k]] = x[k];
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of entries in L (including the unit diagonal)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getNonZerosL() {
+        return lColumnPointers[n];
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of entries in U (including the diagonal)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getNonZerosU() {
+        return uColumnPointers[n];
+    }
+
+    /**
+     * @brief Number of entries of L + U that are not in A, the fill-in
+     *        caused by the column order and pivoting of the last full
+     *        factorization
+     * 
+     * @author 1sand0s
+     * @return int : nnz(L) + nnz(U) - n - nnz(A)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getFillIn() {
+        return getNonZerosL() + getNonZerosU() - n - nonZerosA;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of full factorizations (ordering and pivoting)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getNumFactorizations() {
+        return numFactorizations;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of numeric refactorizations that reused the
+     *         previous pivot order
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getNumRefactorizations() {
+        return numRefactorizations;
+    }
+
+    /**
+     * @brief Depth-first search through the graph of L from every row of
+     *        A(:, col). On return reach[top..n-1] holds the rows that become
+     *        non-zero in L \ A(:, col), in topological order
+     * 
+     * @author 1sand0s
+     * @return int : top
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private int computeReach(int columnPointers[],
+                             int rowIndices[],
+                             int col) {
+        int top = n;
+
+        markGeneration++;
+        for (int p = columnPointers[col]; p < columnPointers[col + 1]; p++)
+            if (!isMarked(rowIndices[p]))
+                top = depthFirstSearch(rowIndices[p], top);
+        return top;
+    }
+
+    private int depthFirstSearch(int start,
+                                 int top) {
+        int head = 0;
+
+        stack[0] = start;
+        while (head >= 0) {
+            int j = stack[head];
+            int J = pinv[j];
+
+            if (!isMarked(j)) {
+                mark[j] = markGeneration;
+                /* Resume scanning L(:, J) just after the diagonal */
+                pstack[head] = J < 0 ? 0 : lColumnPointers[J] + 1;
+            }
+
+            boolean done = true;
+            int end = J < 0 ? 0 : lColumnPointers[J + 1];
+            for (int p = pstack[head]; p < end; p++) {
+                int i = lRowIndices[p];
+                if (isMarked(i))
+                    continue;
+                pstack[head] = p;
+                stack[++head] = i;
+                done = false;
+                break;
+            }
+            if (done) {
+                head--;
+                reach[--top] = j;
+            }
+        }
+        return top;
+    }
+
+    private boolean isMarked(int j) {
+        return mark[j] == markGeneration;
+    }
+
+    private void growL(int capacity) {
+        lRowIndices = Arrays.copyOf(lRowIndices, capacity);
+        lValues = Arrays.copyOf(lValues, capacity);
+    }
+
+    private void growU(int capacity) {
+        uRowIndices = Arrays.copyOf(uRowIndices, capacity);
+        uValues = Arrays.copyOf(uValues, capacity);
+    }
+}
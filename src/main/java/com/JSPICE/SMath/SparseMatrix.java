@@ -0,0 +1,242 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+import java.util.Arrays;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class SparseMatrix {
+    private int rows;
+    private int columns;
+    private int columnPointers[];
+    private int rowIndices[];
+    private double values[];
+
+    /**
+     * @brief Creates a real matrix in compressed-column storage. Entries of
+     *        column j are held in [columnPointers[j], columnPointers[j + 1])
+     * 
+     * @author 1sand0s
+     * @param rows           Number of rows
+     * @param columns        Number of columns
+     * @param columnPointers Start of each column (length columns + 1)
+     * @param rowIndices     Row index of each stored entry
+     * @param values         Value of each stored entry
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public SparseMatrix(int rows,
+                        int columns,
+                        int columnPointers[],
+                        int rowIndices[],
+                        double values[]) {
+        this.rows = rows;
+        this.columns = columns;
+        this.columnPointers = columnPointers;
+        this.rowIndices = rowIndices;
+        this.values = values;
+    }
+
+    /**
+     * @brief Compresses a dense matrix, dropping entries that are exactly zero
+     * 
+     * @author 1sand0s
+     * @param A Dense matrix
+     * @return SparseMatrix : A in compressed-column storage
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static SparseMatrix fromDense(RealMatrix A) {
+        int rows = A.getRows();
+        int columns = A.getColumns();
+        double dense[] = A.getArray();
+        int nonZeros = 0;
+
+        for (int k = 0; k < dense.length; k++)
+            if (dense[k] != 0)
+                nonZeros++;
+
+        int columnPointers[] = new int[columns + 1];
+        int rowIndices[] = new int[nonZeros];
+        double values[] = new double[nonZeros];
+        int p = 0;
+
+        for (int j = 0; j < columns; j++) {
+            columnPointers[j] = p;
+            for (int i = 0; i < rows; i++) {
+                double value = dense[i * columns + j];
+                if (value != 0) {
+                    rowIndices[p] = i;
+                    values[p] = value;
+                    p++;
+                }
+            }
+        }
+        columnPointers[columns] = p;
+        return new SparseMatrix(rows, columns, columnPointers, rowIndices, values);
+    }
+
+    /**
+     * @brief Compresses a dense matrix into the storage of reuse when A has
+     *        exactly the pattern of reuse, so repeated solves of a system
+     *        whose pattern does not change allocate nothing. Otherwise a new
+     *        matrix is returned and reuse is left in an undefined state
+     * 
+     * @author 1sand0s
+     * @param A     Dense matrix
+     * @param reuse Matrix from a previous call (may be null)
+     * @return SparseMatrix : A in compressed-column storage, reuse if the
+     *         pattern matched
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static SparseMatrix fromDense(RealMatrix A,
+                                         SparseMatrix reuse) {
+        if (reuse == null || reuse.rows != A.getRows() || reuse.columns != A.getColumns())
+            return fromDense(A);
+
+        int rows = reuse.rows;
+        int columns = reuse.columns;
+        double dense[] = A.getArray();
+        int p = 0;
+
+        for (int j = 0; j < columns; j++) {
+            int end = reuse.columnPointers[j + 1];
+            for (int i = 0; i < rows; i++) {
+                double value = dense[i * columns + j];
+                if (value != 0) {
+                    if (p == end || reuse.rowIndices[p] != i)
+                        return fromDense(A);
+                    reuse.values[p++] = value;
+                }
+            }
+            if (p != end)
+                return fromDense(A);
+        }
+        return reuse;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of rows
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of columns
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of stored entries
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getNonZeros() {
+        return columnPointers[columns];
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int[] : Column pointers (length columns + 1)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int[] getColumnPointers() {
+        return columnPointers;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int[] : Row index of each stored entry
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int[] getRowIndices() {
+        return rowIndices;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double[] : Value of each stored entry
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * @brief Computes y = A * x
+     * 
+     * @author 1sand0s
+     * @param x Vector of length columns
+     * @param y Result of length rows (output)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void multiply(double x[],
+                         double y[]) {
+        Arrays.fill(y, 0, rows, 0);
+        for (int j = 0; j < columns; j++) {
+            double xj = x[j];
+            if (xj == 0)
+                continue;
+            for (int p = columnPointers[j]; p < columnPointers[j + 1]; p++)
+                y[rowIndices[p]] += values[p] * xj;
+        }
+    }
+
+    /**
+     * @brief Sets every stored value to 0, keeping the pattern
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void clear() {
+        Arrays.fill(values, 0);
+    }
+
+    /**
+     * @brief Expands the stored entries into a dense matrix of the same size
+     * 
+     * @author 1sand0s
+     * @param out Dense matrix, overwritten (output)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void toDense(RealMatrix out) {
+        double dense[] = out.getArray();
+        Arrays.fill(dense, 0);
+        for (int j = 0; j < columns; j++)
+            for (int p = columnPointers[j]; p < columnPointers[j + 1]; p++)
+                dense[rowIndices[p] * columns + j] = values[p];
+    }
+}
@@ -0,0 +1,433 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.TreeSet;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class SparseOrdering {
+
+    /**
+     * @brief Computes the column order used by the sparse LU factorizations
+     * 
+     * @author 1sand0s
+     * @param type           Ordering heuristic
+     * @param n              Order of the matrix
+     * @param columnPointers Column pointers of A (compressed-column)
+     * @param rowIndices     Row indices of A (compressed-column)
+     * @return int[] : q such that column q[k] of A is eliminated at step k
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static int[] order(OrderingType type,
+                              int n,
+                              int columnPointers[],
+                              int rowIndices[]) {
+        switch (type) {
+        case NATURAL:
+            return natural(n);
+        case APPROXIMATE_MINIMUM_DEGREE:
+            return approximateMinimumDegree(n, columnPointers, rowIndices);
+        case REVERSE_CUTHILL_MCKEE:
+            return reverseCuthillMcKee(n, columnPointers, rowIndices);
+        default:
+            return minimumDegree(n, columnPointers, rowIndices);
+        }
+    }
+
+    /**
+     * @brief Identity permutation, columns are eliminated in node number order
+     * 
+     * @author 1sand0s
+     * @param n Order of the matrix
+     * @return int[] : q[k] = k
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static int[] natural(int n) {
+        int q[] = new int[n];
+        for (int k = 0; k < n; k++)
+            q[k] = k;
+        return q;
+    }
+
+    /**
+     * @brief Computes a fill-reducing permutation using the minimum degree
+     *        heuristic on the pattern of A + A^T. At each step the node with
+     *        the fewest neighbours in the elimination graph is eliminated and
+     *        its neighbours are joined into a clique
+     * 
+     * @author 1sand0s
+     * @param n              Order of the matrix
+     * @param columnPointers Column pointers of A (compressed-column)
+     * @param rowIndices     Row indices of A (compressed-column)
+     * @return int[] : q such that column q[k] of A is eliminated at step k
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static int[] minimumDegree(int n,
+                                      int columnPointers[],
+                                      int rowIndices[]) {
+        ArrayList<HashSet<Integer>> adjacency = symmetricAdjacency(n, columnPointers, rowIndices);
+        boolean eliminated[] = new boolean[n];
+        int q[] = new int[n];
+
+        /* Nodes keyed by (degree, index) so the minimum is always first */
+        TreeSet<Long> degrees = new TreeSet<Long>();
+        for (int j = 0; j < n; j++)
+            degrees.add(degreeKey(adjacency.get(j).size(), j));
+
+        for (int k = 0; k < n; k++) {
+            int v = (int) (degrees.pollFirst() & 0xffffffffL);
+            HashSet<Integer> neighbours = adjacency.get(v);
+
+            eliminated[v] = true;
+            q[k] = v;
+
+            for (Integer u : neighbours) {
+                HashSet<Integer> adjacent = adjacency.get(u);
+                degrees.remove(degreeKey(adjacent.size(), u));
+                adjacent.remove(v);
+                for (Integer w : neighbours)
+                    if (w.intValue() != u.intValue())
+                        adjacent.add(w);
+                degrees.add(degreeKey(adjacent.size(), u));
+            }
+            neighbours.clear();
+        }
+        return q;
+    }
+
+    /**
+     * @brief Computes a fill-reducing permutation using approximate minimum
+     *        degree on the pattern of A + A^T. Eliminated nodes are kept as
+     *        elements of a quotient graph instead of forming explicit
+     *        cliques, and the degree of each neighbour of the pivot is only
+     *        updated to an upper bound (Amestoy, Davis and Duff) built from
+     *        |Le \ Lp| of its adjacent elements. Cheaper than minimumDegree
+     *        with comparable fill
+     * 
+     * @author 1sand0s
+     * @param n              Order of the matrix
+     * @param columnPointers Column pointers of A (compressed-column)
+     * @param rowIndices     Row indices of A (compressed-column)
+     * @return int[] : q such that column q[k] of A is eliminated at step k
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static int[] approximateMinimumDegree(int n,
+                                                 int columnPointers[],
+                                                 int rowIndices[]) {
+        ArrayList<HashSet<Integer>> adjacency = symmetricAdjacency(n, columnPointers, rowIndices);
+        int variables[][] = new int[n][];
+        int numVariables[] = new int[n];
+        int elements[][] = new int[n][];
+        int numElements[] = new int[n];
+        int members[][] = new int[n][];
+        boolean eliminated[] = new boolean[n];
+        boolean absorbed[] = new boolean[n];
+        int degree[] = new int[n];
+        int external[] = new int[n];
+        int mark[] = new int[n];
+        int lp[] = new int[n];
+        int q[] = new int[n];
+
+        /* Nodes are kept in doubly linked lists, one per degree */
+        int head[] = new int[n];
+        int next[] = new int[n];
+        int previous[] = new int[n];
+        int minDegree = 0;
+
+        Arrays.fill(head, -1);
+        Arrays.fill(external, -1);
+        for (int j = 0; j < n; j++) {
+            int k = 0;
+            variables[j] = new int[adjacency.get(j).size()];
+            for (Integer i : adjacency.get(j))
+                variables[j][k++] = i;
+            numVariables[j] = k;
+            elements[j] = new int[4];
+            degree[j] = k;
+            insertDegree(head, next, previous, degree[j], j);
+        }
+
+        for (int k = 0; k < n; k++) {
+            while (head[minDegree] < 0)
+                minDegree++;
+            int p = head[minDegree];
+            removeDegree(head, next, previous, degree[p], p);
+            eliminated[p] = true;
+            q[k] = p;
+
+            /* Lp = (Ap U union of Le over the elements adjacent to p) \ {p} */
+            int generation = k + 1;
+            int numLp = 0;
+            mark[p] = generation;
+            for (int t = 0; t < numVariables[p]; t++) {
+                int i = variables[p][t];
+                if (!eliminated[i] && mark[i] != generation) {
+                    mark[i] = generation;
+                    lp[numLp++] = i;
+                }
+            }
+            for (int t = 0; t < numElements[p]; t++) {
+                int e = elements[p][t];
+                if (absorbed[e])
+                    continue;
+                for (int i : members[e])
+                    if (mark[i] != generation) {
+                        mark[i] = generation;
+                        lp[numLp++] = i;
+                    }
+                /* e is absorbed into p */
+                absorbed[e] = true;
+                members[e] = null;
+            }
+            members[p] = Arrays.copyOf(lp, numLp);
+            variables[p] = null;
+            elements[p] = null;
+
+            /* |Le \ Lp| for every element adjacent to a node of Lp */
+            for (int t = 0; t < numLp; t++) {
+                int i = lp[t];
+                for (int s = 0; s < numElements[i]; s++) {
+                    int e = elements[i][s];
+                    if (!absorbed[e]) {
+                        if (external[e] < 0)
+                            external[e] = members[e].length;
+                        external[e]--;
+                    }
+                }
+            }
+
+            for (int t = 0; t < numLp; t++) {
+                int i = lp[t];
+
+                /* Edges covered by the new element (and to p) are dropped */
+                int count = 0;
+                for (int s = 0; s < numVariables[i]; s++) {
+                    int j = variables[i][s];
+                    if (!eliminated[j] && mark[j] != generation)
+                        variables[i][count++] = j;
+                }
+                numVariables[i] = count;
+
+                int bound = count + numLp - 1;
+                count = 0;
+                for (int s = 0; s < numElements[i]; s++) {
+                    int e = elements[i][s];
+                    if (!absorbed[e]) {
+                        elements[i][count++] = e;
+                        bound += external[e];
+                    }
+                }
+                if (count == elements[i].length)
+                    elements[i] = Arrays.copyOf(elements[i], 2 * count);
+                elements[i][count++] = p;
+                numElements[i] = count;
+
+                removeDegree(head, next, previous, degree[i], i);
+                degree[i] = Math.min(Math.min(n - k - 1, degree[i] + numLp - 1), bound);
+                insertDegree(head, next, previous, degree[i], i);
+                minDegree = Math.min(minDegree, degree[i]);
+            }
+
+            for (int t = 0; t < numLp; t++) {
+                int i = lp[t];
+                for (int s = 0; s < numElements[i]; s++)
+                    external[elements[i][s]] = -1;
+            }
+        }
+        return q;
+    }
+
+    /**
+     * @brief Computes a bandwidth-reducing permutation using reverse
+     *        Cuthill-McKee on the pattern of A + A^T. Each connected
+     *        component is traversed breadth first from a pseudo-peripheral
+     *        node, visiting neighbours in order of increasing degree, and the
+     *        resulting order is reversed
+     * 
+     * @author 1sand0s
+     * @param n              Order of the matrix
+     * @param columnPointers Column pointers of A (compressed-column)
+     * @param rowIndices     Row indices of A (compressed-column)
+     * @return int[] : q such that column q[k] of A is eliminated at step k
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public static int[] reverseCuthillMcKee(int n,
+                                            int columnPointers[],
+                                            int rowIndices[]) {
+        final ArrayList<HashSet<Integer>> adjacency = symmetricAdjacency(n, columnPointers, rowIndices);
+        Comparator<Integer> byDegree = new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a,
+                               Integer b) {
+                int da = adjacency.get(a).size();
+                int db = adjacency.get(b).size();
+                return da != db ? (da < db ? -1 : 1) : a.compareTo(b);
+            }
+        };
+        boolean visited[] = new boolean[n];
+        int q[] = new int[n];
+        int k = 0;
+
+        for (int start = 0; start < n; start++) {
+            if (visited[start])
+                continue;
+
+            int root = pseudoPeripheralNode(adjacency, start, n);
+            ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+            ArrayList<Integer> neighbours = new ArrayList<Integer>();
+
+            visited[root] = true;
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                q[k++] = v;
+
+                neighbours.clear();
+                for (Integer u : adjacency.get(v))
+                    if (!visited[u])
+                        neighbours.add(u);
+                Collections.sort(neighbours, byDegree);
+                for (Integer u : neighbours) {
+                    visited[u] = true;
+                    queue.add(u);
+                }
+            }
+        }
+
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            int t = q[i];
+            q[i] = q[j];
+            q[j] = t;
+        }
+        return q;
+    }
+
+    /**
+     * @brief Finds a node of (nearly) maximal eccentricity in the component
+     *        of start by repeated breadth-first searches, restarting from the
+     *        lowest degree node of the last level until the depth stops
+     *        growing
+     * 
+     * @author 1sand0s
+     * @param adjacency Neighbours of each node
+     * @param start     Any node of the component
+     * @param n         Order of the matrix
+     * @return int : Pseudo-peripheral node
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private static int pseudoPeripheralNode(ArrayList<HashSet<Integer>> adjacency,
+                                            int start,
+                                            int n) {
+        int level[] = new int[n];
+        int root = start;
+        int depth = -1;
+
+        while (true) {
+            Arrays.fill(level, -1);
+            ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+            int last = root;
+
+            level[root] = 0;
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                for (Integer u : adjacency.get(v))
+                    if (level[u] < 0) {
+                        level[u] = level[v] + 1;
+                        queue.add(u);
+                        last = u;
+                    }
+            }
+
+            int eccentricity = level[last];
+            if (eccentricity <= depth)
+                return root;
+            depth = eccentricity;
+
+            /* Restart from the lowest degree node of the deepest level */
+            int next = last;
+            for (int v = 0; v < n; v++)
+                if (level[v] == eccentricity && adjacency.get(v).size() < adjacency.get(next).size())
+                    next = v;
+            root = next;
+        }
+    }
+
+    /**
+     * @brief Builds the adjacency of the undirected graph of A + A^T,
+     *        ignoring the diagonal
+     * 
+     * @author 1sand0s
+     * @param n              Order of the matrix
+     * @param columnPointers Column pointers of A (compressed-column)
+     * @param rowIndices     Row indices of A (compressed-column)
+     * @return ArrayList<HashSet<Integer>> : Neighbours of each node
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private static ArrayList<HashSet<Integer>> symmetricAdjacency(int n,
+                                                                  int columnPointers[],
+                                                                  int rowIndices[]) {
+        ArrayList<HashSet<Integer>> adjacency = new ArrayList<HashSet<Integer>>(n);
+
+        for (int j = 0; j < n; j++)
+            adjacency.add(new HashSet<Integer>());
+
+        for (int j = 0; j < n; j++) {
+            for (int p = columnPointers[j]; p < columnPointers[j + 1]; p++) {
+                int i = rowIndices[p];
+                if (i != j) {
+                    adjacency.get(i).add(j);
+                    adjacency.get(j).add(i);
+                }
+            }
+        }
+        return adjacency;
+    }
+
+    private static void insertDegree(int head[],
+                                     int next[],
+                                     int previous[],
+                                     int degree,
+                                     int node) {
+        next[node] = head[degree];
+        previous[node] = -1;
+        if (head[degree] >= 0)
+            previous[head[degree]] = node;
+        head[degree] = node;
+    }
+
+    private static void removeDegree(int head[],
+                                     int next[],
+                                     int previous[],
+                                     int degree,
+                                     int node) {
+        if (previous[node] >= 0)
+            next[previous[node]] = next[node];
+        else
+            head[degree] = next[node];
+        if (next[node] >= 0)
+            previous[next[node]] = previous[node];
+    }
+
+    private static long degreeKey(int degree,
+                                  int node) {
+        return ((long) degree << 32) | node;
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * 
+ */
+package com.JSPICE.SMath;
+
+import java.util.Arrays;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public class SparsePattern {
+    private int size;
+    private int sink;
+    private boolean compiled;
+
+    /* Entries recorded before compile */
+    private int recordedRows[];
+    private int recordedColumns[];
+    private int numRecorded;
+
+    /* Compressed-column pattern after compile */
+    private int columnPointers[];
+    private int rowIndices[];
+
+    /**
+     * @brief Creates an empty pattern for a square system. Every entry in the
+     *        row or column of sink is redirected to one extra slot past the
+     *        stored entries, so stamps to it land somewhere harmless and are
+     *        never seen by a factorization. Only the diagonal entry of sink
+     *        is stored (see getSinkDiagonal)
+     * 
+     * @author 1sand0s
+     * @param size Number of rows and columns
+     * @param sink Row and column whose entries are discarded (GND)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public SparsePattern(int size,
+                         int sink) {
+        this.size = size;
+        this.sink = sink;
+        recordedRows = new int[4 * size + 1];
+        recordedColumns = new int[4 * size + 1];
+        recordedRows[0] = sink;
+        recordedColumns[0] = sink;
+        numRecorded = 1;
+    }
+
+    /**
+     * @brief Declares entry (row, column) before compile and returns its
+     *        offset in the values of the compiled matrix afterwards. A
+     *        circuit is compiled by running the same declarations twice,
+     *        once to record the entries and once, after compile, to look up
+     *        their offsets
+     * 
+     * @author 1sand0s
+     * @param row    Row of the entry
+     * @param column Column of the entry
+     * @return int : Offset of the entry in the values array (the sink slot
+     *         for entries in the row or column of sink), -1 before compile
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int slot(int row,
+                    int column) {
+        if (row == sink || column == sink)
+            return compiled ? getSinkSlot() : -1;
+
+        if (!compiled) {
+            if (numRecorded == recordedRows.length) {
+                recordedRows = Arrays.copyOf(recordedRows, 2 * numRecorded);
+                recordedColumns = Arrays.copyOf(recordedColumns, 2 * numRecorded);
+            }
+            recordedRows[numRecorded] = row;
+            recordedColumns[numRecorded] = column;
+            numRecorded++;
+            return -1;
+        }
+
+        int p = Arrays.binarySearch(rowIndices, columnPointers[column], columnPointers[column + 1], row);
+        if (p < 0)
+            throw new IllegalArgumentException("Error : entry (" + row + ", " + column + ") was not declared before compile");
+        return p;
+    }
+
+    /**
+     * @brief Sorts and merges the recorded entries into compressed-column
+     *        form. Offsets returned by slot are valid from here on
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void compile() {
+        columnPointers = new int[size + 1];
+        for (int k = 0; k < numRecorded; k++)
+            columnPointers[recordedColumns[k] + 1]++;
+        for (int j = 0; j < size; j++)
+            columnPointers[j + 1] += columnPointers[j];
+
+        int next[] = Arrays.copyOf(columnPointers, size);
+        int rows[] = new int[numRecorded];
+        for (int k = 0; k < numRecorded; k++)
+            rows[next[recordedColumns[k]]++] = recordedRows[k];
+
+        /* Sort each column and drop duplicates */
+        int nonZeros = 0;
+        for (int j = 0; j < size; j++) {
+            int start = columnPointers[j];
+            int end = columnPointers[j + 1];
+            Arrays.sort(rows, start, end);
+            columnPointers[j] = nonZeros;
+            for (int p = start; p < end; p++)
+                if (p == start || rows[p] != rows[p - 1])
+                    rows[nonZeros++] = rows[p];
+        }
+        columnPointers[size] = nonZeros;
+        rowIndices = Arrays.copyOf(rows, nonZeros);
+
+        recordedRows = null;
+        recordedColumns = null;
+        compiled = true;
+    }
+
+    /**
+     * @brief Creates a real matrix with this pattern. Its values array has
+     *        one extra entry at the end, the sink slot
+     * 
+     * @author 1sand0s
+     * @return SparseMatrix : Matrix with all stored entries 0
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public SparseMatrix createMatrix() {
+        return new SparseMatrix(size, size, columnPointers, rowIndices, new double[getSinkSlot() + 1]);
+    }
+
+    /**
+     * @brief Creates a complex matrix with this pattern. Its value arrays
+     *        have one extra entry at the end, the sink slot
+     * 
+     * @author 1sand0s
+     * @return ComplexSparseMatrix : Matrix with all stored entries 0
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public ComplexSparseMatrix createComplexMatrix() {
+        return new ComplexSparseMatrix(size, size, columnPointers, rowIndices,
+                                       new double[getSinkSlot() + 1], new double[getSinkSlot() + 1]);
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Offset every entry in the row or column of sink maps to
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getSinkSlot() {
+        return columnPointers[size];
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Offset of the (sink, sink) entry, set to 1 by the solver
+     *         so the sink unknown is decoupled and solves to 0
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getSinkDiagonal() {
+        return Arrays.binarySearch(rowIndices, columnPointers[sink], columnPointers[sink + 1], sink);
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of stored entries
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getNonZeros() {
+        return columnPointers[size];
+    }
+}
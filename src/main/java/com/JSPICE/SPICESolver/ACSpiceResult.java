@@ -3,8 +3,10 @@
  */
 package com.JSPICE.SPICESolver;
 
+import java.io.File;
+
 import com.JSPICE.SMath.Complex;
-import com.JSPICE.SMath.ComplexMatrixOperations;
+import com.JSPICE.SMath.ComplexVector;
 import com.JSPICE.SElement.SElement;
 import com.JSPICE.Util.ComponentTerminals;
 
@@ -13,15 +15,125 @@ import com.JSPICE.Util.ComponentTerminals;
  *
  */
 public class ACSpiceResult extends AbstractSpiceResult {
-    Complex x[];
+    /* Node voltages and branch currents (x[index][unknown]) at each
+     * frequency of the sweep */
+    Complex x[][];
+    double frequencies[];
 
     @Override
     public void updateResult(Complex x[][]){
-	this.x = new Complex[x.length];
+	this.x = new Complex[1][x.length];
+	frequencies = new double[1];
 	
 	for(int j = 0; j < x.length; j++){
-	    this.x[j] = new Complex(x[j][0]);
+	    this.x[0][j] = new Complex(x[j][0]);
+	}
+    }
+
+    @Override
+    public void updateResult(ComplexVector x){
+	frequencies = new double[1];
+	this.x = new Complex[1][];
+	updateResult(0, x);
+    }
+
+    /**
+     * @brief Allocates the solutions of a frequency sweep, set one by one
+     *        through updateResult(index, x)
+     * 
+     * @author 1sand0s
+     * @param double : frequencies[] Frequencies of the sweep in Hz
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setFrequencies(double frequencies[]){
+	this.frequencies = frequencies.clone();
+	x = new Complex[frequencies.length][];
+    }
+
+    /**
+     * @brief Sets the solution at one frequency of the sweep. Points are set
+     *        concurrently by the sweep tasks, each writing its own index
+     * 
+     * @author 1sand0s
+     * @param int : index            Index of the frequency
+     * @param ComplexVector : x      Node voltages and branch currents
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void updateResult(int index,
+			     ComplexVector x){
+	Complex point[] = new Complex[x.getLength()];
+
+	for(int j = 0; j < x.getLength(); j++){
+	    point[j] = x.get(j);
 	}
+	this.x[index] = point;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of frequencies of the sweep
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getNumFrequencies(){
+	return frequencies.length;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @param int : index Index of the frequency
+     * @return double : Frequency in Hz
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double getFrequency(int index){
+	return frequencies[index];
+    }
+
+    /**
+     * @brief Writes the solutions to a columnar result file (see
+     *        ColumnarResultWriter) over a frequency axis. Every unknown but
+     *        GND gives two signals, Re(name) and Im(name)
+     * 
+     * @author 1sand0s
+     * @param File : file File to write
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void writeColumnar(File file){
+	int numSignals = x[0].length - 1;
+	int numPoints = x.length;
+	String names[] = new String[2 * numSignals];
+	String units[] = new String[2 * numSignals];
+
+	for(int k = 0; k < numSignals; k++){
+	    String name = signalNames == null ? "x(" + (k + 1) + ")" : signalNames[k + 1];
+	    String unit = signalUnits == null ? "" : signalUnits[k + 1];
+	    names[2 * k] = "Re(" + name + ")";
+	    names[2 * k + 1] = "Im(" + name + ")";
+	    units[2 * k] = unit;
+	    units[2 * k + 1] = unit;
+	}
+
+	ColumnarResultWriter writer = new ColumnarResultWriter(file, "frequency", "Hz", names, units, numPoints);
+	writer.writeAxis(0, frequencies, numPoints);
+	double real[] = new double[numPoints];
+	double imaginary[] = new double[numPoints];
+	for(int k = 0; k < numSignals; k++){
+	    for(int i = 0; i < numPoints; i++){
+		real[i] = x[i][k + 1].getReal();
+		imaginary[i] = x[i][k + 1].getImaginary();
+	    }
+	    writer.writeSignal(2 * k, 0, real, numPoints);
+	    writer.writeSignal(2 * k + 1, 0, imaginary, numPoints);
+	}
+	writer.close();
     }
 
     public Complex getElementVoltage(int index,
@@ -31,8 +143,9 @@ public class ACSpiceResult extends AbstractSpiceResult {
 	int terminalIndex1 = element.getTerminalIndex(terminal1);
 	int terminalIndex2 = element.getTerminalIndex(terminal2);
 	
-	return (ComplexMatrixOperations.Sub(x[terminalIndex1],
-					    x[terminalIndex2]));
+	Complex voltage = new Complex(x[index][terminalIndex1]);
+	voltage.subtract(x[index][terminalIndex2]);
+	return voltage;
     }
 
     public Complex getElementCurrent(int index, SElement element){
@@ -49,15 +162,39 @@ public class ACSpiceResult extends AbstractSpiceResult {
 	if(result.x.length != x.length)
 	    return false;
 	
+	for(int i = 0; i < x.length; i++){
+	    if(!resultMatch(x[i], result.x[i], tol))
+		return false;
+	}
+	return true;
+    }
+
+    /**
+     * @brief Compares the solutions at one frequency, entry by entry
+     * 
+     * @author 1sand0s
+     * @param Complex : x[]      Solution of this result
+     * @param Complex : other[]  Solution of the result compared to
+     * @param double : tol       Relative tolerance
+     * @return boolean : Whether every entry matches
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private boolean resultMatch(Complex x[],
+				Complex other[],
+				double tol){
+	if(other.length != x.length)
+	    return false;
+	
 	for(int j = 0; j < x.length; j++){
-	    if(!(x[j].getReal() == 0 && result.x[j].getReal() == 0)){
-		if(!(Math.abs(result.x[j].getReal() - x[j].getReal()) / Math.abs(result.x[j].getReal() + x[j].getReal()) < tol)){
+	    if(!(x[j].getReal() == 0 && other[j].getReal() == 0)){
+		if(!(Math.abs(other[j].getReal() - x[j].getReal()) / Math.abs(other[j].getReal() + x[j].getReal()) < tol)){
 		    return false;
 		}
 	    }
 	    
-	    if(!(x[j].getImaginary() == 0 && result.x[j].getImaginary() == 0)){
-		if(!(Math.abs(result.x[j].getImaginary() - x[j].getImaginary()) / Math.abs(result.x[j].getImaginary() + x[j].getImaginary()) < tol)){
+	    if(!(x[j].getImaginary() == 0 && other[j].getImaginary() == 0)){
+		if(!(Math.abs(other[j].getImaginary() - x[j].getImaginary()) / Math.abs(other[j].getImaginary() + x[j].getImaginary()) < tol)){
 		    return false;
 		}
 	    }
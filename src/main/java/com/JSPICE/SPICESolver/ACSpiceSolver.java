@@ -4,11 +4,14 @@
 package com.JSPICE.SPICESolver;
 
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import com.JSPICE.SElement.*;
-import com.JSPICE.SMath.Complex;
 import com.JSPICE.SMath.ComplexMatrixOperations;
-import com.JSPICE.SElement.VSource.VSource;
+import com.JSPICE.SMath.ComplexSparseMatrix;
+import com.JSPICE.SMath.ComplexVector;
+import com.JSPICE.SMath.SparsePattern;
 
 /**
  * @author 1sand0s
@@ -17,6 +20,16 @@ import com.JSPICE.SElement.VSource.VSource;
 public class ACSpiceSolver extends AbstractSpiceSolver {
 
     private double frequency = 0;
+    /* Frequencies of the sweep, null to solve at frequency only */
+    private double frequencies[];
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /* Shared read-only by the sweep tasks : the matrix and right hand side
+     * stamped by every element but the frequency dependent ones, which are
+     * restamped at each frequency (see SElement.isFrequencyDependent) */
+    private ComplexSparseMatrix baseMatrix;
+    private ComplexVector baseRHS;
+    private ArrayList<SElement> reactiveElements;
 
     /**
      * 
@@ -30,6 +43,52 @@ public class ACSpiceSolver extends AbstractSpiceSolver {
     @Override
     public void setFrequency(double frequency) {
         this.frequency = frequency;
+	frequencies = null;
+    }
+
+    @Override
+    public void setFrequencySweep(double fStart,
+				  double fStop,
+				  int numPoints,
+				  FrequencySweepType type) {
+	if (numPoints < 1 || fStop < fStart)
+	    throw new IllegalArgumentException("Error : frequency sweep needs fStart <= fStop and at least one point");
+
+	switch (type) {
+	case LINEAR:
+	    frequencies = new double[numPoints];
+	    for (int i = 0; i < numPoints; i++)
+		frequencies[i] = numPoints == 1 ? fStart : fStart + (fStop - fStart) * i / (numPoints - 1);
+	    break;
+	case DECADE:
+	case OCTAVE:
+	    if (fStart <= 0)
+		throw new IllegalArgumentException("Error : " + type + " frequency sweep needs fStart > 0");
+
+	    /* numPoints per decade (octave) from fStart, up to fStop */
+	    double base = type == FrequencySweepType.DECADE ? 10 : 2;
+	    double span = Math.log(fStop / fStart) / Math.log(base);
+	    frequencies = new double[(int) Math.floor(span * numPoints + 1e-9) + 1];
+	    for (int i = 0; i < frequencies.length; i++)
+		frequencies[i] = fStart * Math.pow(base, (double) i / numPoints);
+	    break;
+	default:
+	    throw new IllegalArgumentException("Error : LIST frequency sweep takes the frequencies, see setFrequencySweep(frequencies)");
+	}
+    }
+
+    @Override
+    public void setFrequencySweep(double frequencies[]) {
+	if (frequencies.length == 0)
+	    throw new IllegalArgumentException("Error : frequency sweep needs at least one point");
+	this.frequencies = frequencies.clone();
+    }
+
+    @Override
+    public void setParallelism(int parallelism) {
+	if (parallelism < 1)
+	    throw new IllegalArgumentException("Error : parallelism must be at least 1");
+	this.parallelism = parallelism;
     }
 
     @Override
@@ -37,41 +96,113 @@ public class ACSpiceSolver extends AbstractSpiceSolver {
 	solve(circuitElements,
 	      wires);
     }
-    
+
     @Override
     public void solve(ArrayList<SElement> circuitElements,
 		      ArrayList<Wire> wires) {
-        int vSourceIndex = 0;
-
-        G = new Complex[wires.size()][wires.size()];
-        B = new Complex[wires.size()][iVSource + iISource];
-        C = new Complex[iVSource + iISource][wires.size()];
-        D = new Complex[iVSource + iISource][iVSource + iISource];
-        z = new Complex[wires.size() + iVSource + iISource][numHarmonics];
-        x = new Complex[wires.size() + iVSource + iISource][numHarmonics];
+	int numSources = iVSource + iISource;
+	double sweep[] = frequencies == null ? new double[] { frequency } : frequencies;
 
         numberNodes();
+	numNodes = wires.size();
 
-        ComplexMatrixOperations.initializeMatrices(G);
-        ComplexMatrixOperations.initializeMatrices(B);
-        ComplexMatrixOperations.initializeMatrices(C);
-        ComplexMatrixOperations.initializeMatrices(D);
-        ComplexMatrixOperations.initializeMatrices(z);
-	ComplexMatrixOperations.initializeMatrices(x);
+	/* AC analysis stays on the complex MNA system, with the same
+	 * compiled pattern as DC and transient analysis */
+	SparsePattern pattern = compilePattern(circuitElements, numNodes + numSources);
+	baseMatrix = pattern.createComplexMatrix();
+	baseRHS = new ComplexVector(numNodes + numSources);
+	ComplexVector xac = new ComplexVector(numNodes + numSources);
+	nameSignals(circuitElements, numNodes + numSources);
 
+	/* Only capacitors and inductors depend on the frequency, the
+	 * sources are stamped once into the base right hand side */
+	reactiveElements = new ArrayList<SElement>();
         for (int j = 0; j < circuitElements.size(); j++) {
-            SElement element = circuitElements.get(j);
-            element.stampMatrixAC(G, B, C, D, z, x, vSourceIndex, frequency);
-
-            if (element instanceof VSource)
-                vSourceIndex++;
-        }
-
-	/* Exclude Row and Column corresponding to GND node to prevent singular matrix */
-	Complex A[][] = constructMNAMatrix(G, B, C, D);
-	
-	x = ComplexMatrixOperations.computeLinearEquation(A, removeGNDFromResult(z));
-	x = addGNDToResult(x);	
-	result.updateResult(x);
+	    SElement element = circuitElements.get(j);
+
+	    if (element.isFrequencyDependent())
+		reactiveElements.add(element);
+	    else
+		element.stampMatrixAC(baseMatrix, baseRHS, xac, sweep[0]);
+	}
+
+	/* GND (node 0) is the sink of every stamp to ground, see clearMatrices */
+	baseMatrix.getReal()[pattern.getSinkDiagonal()] = 1;
+	baseRHS.set(0, 0, 0);
+
+	((ACSpiceResult) result).setFrequencies(sweep);
+	/* About four leaves per thread, for load balancing */
+	int grain = parallelism == 1 ? sweep.length : Math.max(1, sweep.length / (4 * parallelism));
+	SweepTask task = new SweepTask(sweep, 0, sweep.length, grain);
+	if (grain >= sweep.length) {
+	    task.compute();
+	} else {
+	    ForkJoinPool pool = new ForkJoinPool(parallelism);
+	    try {
+		pool.invoke(task);
+	    } finally {
+		pool.shutdown();
+	    }
+	}
+
+	baseMatrix = null;
+	baseRHS = null;
+	reactiveElements = null;
+    }
+
+    /**
+     * @author 1sand0s
+     * 
+     * @brief Solves the points [first, last) of a sweep, halving the range
+     *        until at most grain points are left. Each leaf copies the base
+     *        system into a matrix and right hand side of its own and
+     *        restamps the frequency dependent elements at every point
+     */
+    private class SweepTask extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+
+	private double sweep[];
+	private int first;
+	private int last;
+	private int grain;
+
+	SweepTask(double sweep[],
+		  int first,
+		  int last,
+		  int grain) {
+	    this.sweep = sweep;
+	    this.first = first;
+	    this.last = last;
+	    this.grain = grain;
+	}
+
+	@Override
+	protected void compute() {
+	    if (last - first > grain) {
+		int middle = (first + last) >>> 1;
+		invokeAll(new SweepTask(sweep, first, middle, grain),
+			  new SweepTask(sweep, middle, last, grain));
+		return;
+	    }
+
+	    double real[] = baseMatrix.getReal();
+	    double imaginary[] = baseMatrix.getImaginary();
+	    ComplexSparseMatrix A = new ComplexSparseMatrix(baseMatrix.getRows(), baseMatrix.getColumns(),
+							    baseMatrix.getColumnPointers(), baseMatrix.getRowIndices(),
+							    new double[real.length], new double[imaginary.length]);
+	    ComplexVector z = new ComplexVector(baseRHS.getLength());
+
+	    for (int i = first; i < last; i++) {
+		System.arraycopy(real, 0, A.getReal(), 0, real.length);
+		System.arraycopy(imaginary, 0, A.getImaginary(), 0, imaginary.length);
+		z.copyRange(baseRHS, 0, 0, z.getLength());
+		ComplexVector x = new ComplexVector(baseRHS.getLength());
+
+		for (int j = 0; j < reactiveElements.size(); j++)
+		    reactiveElements.get(j).stampMatrixAC(A, z, x, sweep[i]);
+		ComplexMatrixOperations.computeLinearEquation(A, z, x, linearSolverType);
+		((ACSpiceResult) result).updateResult(i, x);
+	    }
+	}
     }
 }
@@ -5,6 +5,8 @@ package com.JSPICE.SPICESolver;
 
 import com.JSPICE.SElement.SElement;
 import com.JSPICE.SMath.Complex;
+import com.JSPICE.SMath.ComplexVector;
+import com.JSPICE.SMath.RealVector;
 import com.JSPICE.Util.ComponentTerminals;
 
 /**
@@ -13,12 +15,177 @@ import com.JSPICE.Util.ComponentTerminals;
  */
 public abstract class AbstractSpiceResult {
 
+    /* Newton-Raphson statistics, summed over the solves of one analysis
+     * (one per time point in transient analysis), reset by clearResult */
+    protected int newtonIterations;
+    protected int maxNewtonIterations;
+    protected double newtonResidual;
+    /* Nonlinear device evaluations and stamps that bypassed them over one
+     * analysis, reset by clearResult */
+    protected long deviceEvaluations;
+    protected long deviceBypasses;
+    /* Name and unit of every unknown of the MNA system, given by the
+     * solver (see AbstractSpiceSolver.nameSignals) */
+    protected String signalNames[];
+    protected String signalUnits[];
+
     public abstract void updateResult(Complex x[][]);
 
+    public void updateResult(ComplexVector x){
+	throw new UnsupportedOperationException("Error : Complex result not supported by instance of " + this.getClass().toString());
+    }
+
+    public void updateResult(RealVector x){
+	throw new UnsupportedOperationException("Error : Real result not supported by instance of " + this.getClass().toString());
+    }
+
     public abstract boolean resultMatch(AbstractSpiceResult result, double tol);
 
     public boolean resultMatch(int index, AbstractSpiceResult result, double tol){ return false;}
 
-    public void clearResult(){}
+    /**
+     * @brief Drops the result of the previous analysis, with its
+     *        statistics, before the solver runs a new one
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void clearResult(){
+	newtonIterations = 0;
+	maxNewtonIterations = 0;
+	newtonResidual = 0;
+	deviceEvaluations = 0;
+	deviceBypasses = 0;
+    }
+
+    /**
+     * @brief Restricts the unknowns kept from every solution to a save list
+     *        (see AbstractSpiceSolver.saveVoltage). Results holding a
+     *        single solution keep all of them
+     * 
+     * @author 1sand0s
+     * @param int : savedUnknowns[] Rows of the MNA system to keep, in
+     *                              increasing order (null for all)
+     * @param int : numUnknowns     Number of rows of the MNA system
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setSavedUnknowns(int savedUnknowns[],
+				 int numUnknowns){
+    }
+
+    /**
+     * @brief Names the unknowns of the MNA system, for files written from
+     *        the result
+     * 
+     * @author 1sand0s
+     * @param String : names[] Name of every unknown, V(n) for node n and
+     *                         I(b) for the branch current of branch row b
+     * @param String : units[] Unit of every unknown
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setSignalNames(String names[],
+			       String units[]){
+	signalNames = names;
+	signalUnits = units;
+    }
+
+    /**
+     * @brief Records the Newton-Raphson statistics of one solve
+     * 
+     * @author 1sand0s
+     * @param int : iterations  Iterations the solve took
+     * @param double : residual Largest KCL/KVL residual of the last
+     *                          iteration
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void updateNewtonStatistics(int iterations,
+				       double residual){
+	newtonIterations += iterations;
+	maxNewtonIterations = Math.max(maxNewtonIterations, iterations);
+	newtonResidual = residual;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Newton-Raphson iterations summed over the solves of
+     *               the last analysis
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getNewtonIterations(){
+	return newtonIterations;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Largest number of Newton-Raphson iterations of one
+     *               solve of the last analysis
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getMaxNewtonIterations(){
+	return maxNewtonIterations;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double : Largest KCL/KVL residual of the last Newton-Raphson
+     *                  iteration of the last solve (0 for linear circuits,
+     *                  which are not checked)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double getNewtonResidual(){
+	return newtonResidual;
+    }
+
+    /**
+     * @brief Records the device bypass statistics of one analysis
+     * 
+     * @author 1sand0s
+     * @param long : evaluations Nonlinear device evaluations
+     * @param long : bypasses    Stamps that reused the last evaluation
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void updateBypassStatistics(long evaluations,
+				       long bypasses){
+	deviceEvaluations += evaluations;
+	deviceBypasses += bypasses;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return long : Nonlinear device evaluations of the last analysis
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public long getDeviceEvaluations(){
+	return deviceEvaluations;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return long : Nonlinear device stamps that reused the last
+     *                evaluation (bypass hits) in the last analysis
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public long getDeviceBypasses(){
+	return deviceBypasses;
+    }
 }
-    
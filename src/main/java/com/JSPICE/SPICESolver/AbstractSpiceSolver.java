@@ -4,11 +4,24 @@
 package com.JSPICE.SPICESolver;
 
 import com.JSPICE.SElement.SElement;
-import com.JSPICE.SMath.Complex;
-import com.JSPICE.SMath.ComplexMatrixOperations;
+import com.JSPICE.SMath.DenseLU;
+import com.JSPICE.SMath.IterativeSolver;
+import com.JSPICE.SMath.RealMatrix;
+import com.JSPICE.SMath.RealMatrixOperations;
+import com.JSPICE.SMath.RealVector;
+import com.JSPICE.SMath.SparseLU;
+import com.JSPICE.SMath.SparseMatrix;
+import com.JSPICE.SMath.SparsePattern;
+import com.JSPICE.SMath.LinearSolverType;
+import com.JSPICE.SMath.OrderingType;
+import com.JSPICE.SMath.PreconditionerType;
 import com.JSPICE.SElement.Wire;
 import com.JSPICE.SElement.VSource.VSource;
 import com.JSPICE.SElement.ISource.ISource;
+import com.JSPICE.Util.ComponentTerminals;
+import com.JSPICE.Util.IntegrationMethod;
+import com.JSPICE.Util.NewtonType;
+import com.JSPICE.Util.StampType;
 
 import java.util.ArrayList;
 
@@ -19,23 +32,90 @@ import java.util.ArrayList;
 public abstract class AbstractSpiceSolver {
     protected ArrayList<SElement> circuitElements;
     protected ArrayList<Wire> wires;
-    protected Complex G[][];
-    protected Complex B[][];
-    protected Complex C[][];
-    protected Complex D[][];
-    protected Complex x[][];
-    protected Complex z[][];
+    /* DC and transient analysis only stamp real values. Node rows come
+     * first (GND is node 0) followed by one branch row per source. The
+     * pattern is fixed by compileCircuit and elements stamp straight into
+     * the values of A through the slots it gave them */
+    protected SparseMatrix A;
+    protected int sinkDiagonal;
+    /* Slots of the node diagonals, always stored so a shunt conductance
+     * can be added to every node (gmin stepping) */
+    protected int nodeDiagonals[];
+    /* Dense copy of A for the DENSE_LU and QR solvers */
+    protected RealMatrix denseA;
+    /* Elements split by how often they must be stamped (see
+     * SElement.getStampType) and the system holding the stamps that do not
+     * change between Newton-Raphson iterations */
+    protected ArrayList<SElement> linearElements = new ArrayList<SElement>();
+    protected ArrayList<SElement> timeDependentElements = new ArrayList<SElement>();
+    protected ArrayList<SElement> nonlinearElements = new ArrayList<SElement>();
+    protected StampCache baseStamps;
+    protected RealVector x;
+    protected RealVector z;
+    protected int numNodes;
+    /* Result of the previous Newton-Raphson iteration */
+    protected RealVector xPrevious;
+    /* Pivot order and L/U pattern are kept across iterations and time steps */
+    protected SparseLU factorization;
+    protected DenseLU denseFactorization;
+    protected IterativeSolver iterativeSolver = new IterativeSolver();
     protected int iVSource = 0;
     protected int iISource = 0;
     protected int numHarmonics = 1;
     protected AbstractSpiceResult result;
-    protected double tol;
+    /* Newton-Raphson controls. An update converges when, for every
+     * unknown, |x - xPrevious| <= reltol * max(|x|, |xPrevious|) + vntol
+     * (node voltages) or + abstol (branch currents) */
+    protected int maxIterations = 100;
+    protected double reltol = 1e-3;
+    protected double vntol = 1e-6;
+    protected double abstol = 1e-12;
+    protected boolean residualCheck = true;
+    protected double maxStep = Double.POSITIVE_INFINITY;
+    /* Nonlinear elements reuse their last evaluation while their
+     * controlling voltage stays within reltol/vntol of it and the reused
+     * stamp is accurate to abstol */
+    protected boolean bypass = true;
+    /* Newton variant. CHORD and BROYDEN keep the factors of A from the
+     * first iteration of a solve and refactor when an update is not at
+     * least chordContraction times smaller than the one before it, or
+     * after maxBroydenUpdates rank-1 updates */
+    protected NewtonType newtonType = NewtonType.FULL;
+    protected double chordContraction = 0.5;
+    protected int maxBroydenUpdates = 20;
+    private boolean refactorNext;
+    private double lastUpdateNorm;
+    private double newtonStep[];
+    private double newtonDirection[];
+    private double broydenSteps[][];
+    private double broydenVectors[][];
+    private int broydenUpdates;
+    /* Statistics of the Newton-Raphson solve in progress */
+    protected int newtonIterations;
+    protected double newtonResidual;
+    protected boolean residualConverged;
+    private double rowResidual[];
+    private double rowScale[];
+    protected LinearSolverType linearSolverType = LinearSolverType.SPARSE_LU;
+    protected OrderingType ordering = OrderingType.APPROXIMATE_MINIMUM_DEGREE;
+    /* Save list (see saveVoltage and saveCurrent) : element and terminal of
+     * every node voltage, terminal null for the branch current of a
+     * source. Empty to keep every unknown */
+    protected ArrayList<SElement> savedElements = new ArrayList<SElement>();
+    protected ArrayList<ComponentTerminals> savedTerminals = new ArrayList<ComponentTerminals>();
     
     public enum TimeStepType{
 	LINEAR,
 	LOGARITHMIC,
 	PWL
     };
+
+    public enum FrequencySweepType{
+	LINEAR,
+	DECADE,
+	OCTAVE,
+	LIST
+    };
     
     /**
      * @brief Adds a circuit element to the circuit
@@ -188,6 +268,57 @@ public abstract class AbstractSpiceSolver {
     public void setFrequency(double frequency) {
 	throw new UnsupportedOperationException("Error: Must be invoked for ACSpiceSolver");
     }
+
+    /**
+     * @brief Sets a frequency sweep for the AC analysis, replacing the
+     *        frequency of setFrequency
+     * 
+     * @author 1sand0s
+     * @param fStart    First frequency of the sweep
+     * @param fStop     Last frequency of the sweep
+     * @param numPoints Number of points in [fStart, fStop] for LINEAR, per
+     *                  decade for DECADE and per octave for OCTAVE
+     * @param type      LINEAR, DECADE or OCTAVE (LIST takes the frequencies,
+     *                  see setFrequencySweep(frequencies))
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception UnsupportedOperationException
+     */
+    public void setFrequencySweep(double fStart,
+				  double fStop,
+				  int numPoints,
+				  FrequencySweepType type) {
+	throw new UnsupportedOperationException("Error: Must be invoked for ACSpiceSolver");
+    }
+
+    /**
+     * @brief Sets a LIST frequency sweep for the AC analysis, replacing the
+     *        frequency of setFrequency
+     * 
+     * @author 1sand0s
+     * @param frequencies Frequencies to solve for during AC analysis
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception UnsupportedOperationException
+     */
+    public void setFrequencySweep(double frequencies[]) {
+	throw new UnsupportedOperationException("Error: Must be invoked for ACSpiceSolver");
+    }
+
+    /**
+     * @brief Sets the number of threads solving the points of a frequency
+     *        sweep
+     * 
+     * @author 1sand0s
+     * @param parallelism Number of threads, the number of processors by
+     *                    default
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception UnsupportedOperationException
+     */
+    public void setParallelism(int parallelism) {
+	throw new UnsupportedOperationException("Error: Must be invoked for ACSpiceSolver");
+    }
     
     /**
      * @brief Sets the time step for transient solver (may not be respected if
@@ -197,7 +328,8 @@ public abstract class AbstractSpiceSolver {
      * @param tMin Minimum of time range for transient solver
      * @param tMax Maximum of time range for transient solver
      * @param numPoints Number of points to solve for in the interval [tMin, tMax]
-     * @param type Time step in [tMin, tMax] can either be LINEAR, LOGARITHMIC or PWL
+     * @param type Time step in [tMin, tMax] can either be LINEAR or LOGARITHMIC
+     *             (PWL takes a schedule, see setTimeStep(tMin, tMax, times, steps))
      * @since 1.0.0
      * @version 1.0.0
      * @exception UnsupportedOperationException
@@ -227,6 +359,78 @@ public abstract class AbstractSpiceSolver {
 	throw new UnsupportedOperationException("Error: Must be invoked for TransientSpiceSolver");
     }
 
+    /**
+     * @brief Sets a piecewise-linear time step schedule for the transient
+     *        solver (PWL) : the time step at time t is interpolated linearly
+     *        between the steps given at the schedule times and is constant
+     *        before the first and after the last of them
+     * 
+     * @author 1sand0s
+     * @param tMin  Minimum of time range for transient solver
+     * @param tMax  Maximum of time range for transient solver
+     * @param times Schedule times in increasing order
+     * @param steps Time step at each schedule time
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception UnsupportedOperationException
+     */
+    public void setTimeStep(double tMin,
+			    double tMax,
+			    double times[],
+			    double steps[]) {
+	throw new UnsupportedOperationException("Error: Must be invoked for TransientSpiceSolver");
+    }
+
+    /**
+     * @brief Enables adaptive time steps for the transient solver : the
+     *        time step set by setTimeStep is only the first one, each
+     *        following one is chosen from the local truncation error of the
+     *        reactive elements, shrunk and retried when it is too large and
+     *        grown where the circuit is quiet
+     * 
+     * @author 1sand0s
+     * @param minStep Smallest time step in seconds
+     * @param maxStep Largest time step in seconds
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception UnsupportedOperationException
+     */
+    public void setAdaptiveTimeStep(double minStep,
+				    double maxStep) {
+	throw new UnsupportedOperationException("Error: Must be invoked for TransientSpiceSolver");
+    }
+
+    /**
+     * @brief Selects how capacitors and inductors integrate in the transient
+     *        solver : backward Euler (default, first order and damped),
+     *        trapezoidal (second order, may ring on stiff circuits) or Gear-2
+     *        (second order, damped)
+     * 
+     * @author 1sand0s
+     * @param integrationMethod Integration method
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception UnsupportedOperationException
+     */
+    public void setIntegrationMethod(IntegrationMethod integrationMethod) {
+	throw new UnsupportedOperationException("Error: Must be invoked for TransientSpiceSolver");
+    }
+
+    /**
+     * @brief Selects where the transient solver keeps its time points : in
+     *        memory (MemoryResultSink, the default) or streamed to a file
+     *        with bounded memory (StreamingResultSink)
+     * 
+     * @author 1sand0s
+     * @param sink Storage of the time points
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception UnsupportedOperationException
+     */
+    public void setResultSink(TransientResultSink sink) {
+	throw new UnsupportedOperationException("Error: Must be invoked for TransientSpiceSolver");
+    }
+
     /**
      * @brief Populates simulation time vector. Valid only
      *        for Transient simulation
@@ -240,6 +444,19 @@ public abstract class AbstractSpiceSolver {
 	throw new UnsupportedOperationException("Error: Must be invoked for TransientSpiceSolver");
     }
 
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return double[] : Time points populated by expandTime
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception UnsupportedOperationException
+     */
+    public double[] getTime() {
+	throw new UnsupportedOperationException("Error: Must be invoked for TransientSpiceSolver");
+    }
+
     /**
      * @brief Assigns each circuit node an Id/number
      * 
@@ -269,78 +486,704 @@ public abstract class AbstractSpiceSolver {
     }
     
     /**
-     * @brief Constructs the MNA matrix and also excludes columns and rows
-     *        corresponding to the GND node to prevent a singular matrix
+     * @brief Allocates the real MNA system for the current circuit. It is
+     *        cleared and re-stamped in place on every Newton-Raphson iteration
+     *        instead of being reallocated
      * 
      * @author 1sand0s
-     * @param
-     * @return
-     * @since
+     * @param wires List of wires connecting the circuit elements
+     * @since 1.0.0
      * @version 1.0.0
-     * @exception
      */
-    public Complex[][] constructMNAMatrix(Complex g[][],
-					  Complex b[][],
-					  Complex c[][],
-					  Complex d[][]) {
-        Complex x[][] = new Complex[g.length + c.length - 1][g.length + c.length - 1];
-	for (int i = 1; i < g.length; i++) {
-            System.arraycopy(g[i], 1, x[i - 1], 0, g.length - 1);
-            System.arraycopy(b[i], 0, x[i - 1], g.length - 1, c.length);
-        }
-        for (int i = 0; i < c.length; i++) {
-            System.arraycopy(c[i], 1, x[i + g.length - 1], 0, b.length - 1);
-            System.arraycopy(d[i], 0, x[i + g.length - 1], b.length - 1, d.length);
-        }
-        return x;
+    public void allocateMatrices(ArrayList<Wire> wires) {
+	int numSources = iVSource + iISource;
+
+	numNodes = wires.size();
+	z = new RealVector(numNodes + numSources);
+	x = new RealVector(numNodes + numSources);
+	xPrevious = new RealVector(numNodes + numSources);
+
+	factorization = new SparseLU();
+	factorization.setOrdering(ordering);
+	if (linearSolverType == LinearSolverType.DENSE_LU)
+	    denseFactorization = new DenseLU();
+	if (linearSolverType == LinearSolverType.DENSE_LU || linearSolverType == LinearSolverType.QR)
+	    denseA = new RealMatrix(numNodes + numSources, numNodes + numSources);
     }
 
     /**
-     * @brief Adds GND row back to solver result
+     * @brief Compiles the stamps of every element against the pattern of
+     *        the MNA system (see SElement.compile). The elements are
+     *        declared twice with the same branch rows : once to record the
+     *        entries they stamp and once, after the pattern is compiled, to
+     *        look up their slots. The node diagonals are declared as well
+     *        (see nodeDiagonals)
      * 
      * @author 1sand0s
-     * @param
-     * @return
-     * @since
+     * @param circuitElements List of elements in the circuit
+     * @param size            Number of rows/columns of the MNA system
+     * @return SparsePattern : Compiled pattern, GND (node 0) is its sink
+     * @since 1.0.0
      * @version 1.0.0
-     * @exception
      */
-    public Complex[][] addGNDToResult(Complex x[][]) {
-	Complex x1[][] = new Complex[x.length + 1][numHarmonics];
-	ComplexMatrixOperations.initializeMatrices(x1);
-	
-	for(int j = 0; j < x.length; j++){
-	    for(int k = 0; k < x[j].length; k++){
-		x1[j + 1][k] = x[j][k];
+    protected SparsePattern compilePattern(ArrayList<SElement> circuitElements,
+					   int size) {
+	SparsePattern pattern = new SparsePattern(size, 0);
+
+	nodeDiagonals = new int[numNodes];
+	for (int pass = 0; pass < 2; pass++) {
+	    for (int i = 1; i < numNodes; i++)
+		nodeDiagonals[i] = pattern.slot(i, i);
+
+	    int branchIndex = numNodes;
+	    for (int j = 0; j < circuitElements.size(); j++) {
+		SElement element = circuitElements.get(j);
+
+		element.compile(pattern, branchIndex);
+		branchIndex = nextBranchIndex(element, branchIndex);
 	    }
+	    if (pass == 0)
+		pattern.compile();
 	}
-        return x1;
+	return pattern;
     }
 
     /**
-     * @brief Removes GND row back to solver result
+     * @brief Compiles the circuit after numberNodes and allocateMatrices and
+     *        allocates A with the compiled pattern. Stamping is then one
+     *        addition per entry into the values of A. The elements are also
+     *        split into linear, time dependent and nonlinear ones
      * 
      * @author 1sand0s
-     * @param x MNA matrix with GND/referenced terminal column and row
-     * @return x1 MNA matrix with GND/referenced terminal column and row removed
+     * @param circuitElements List of elements in the circuit
      * @since 1.0.0
      * @version 1.0.0
-     * @exception
      */
-    public Complex[][] removeGNDFromResult(Complex x[][]) {
-	Complex x1[][] = new Complex[x.length - 1][numHarmonics];
-	ComplexMatrixOperations.initializeMatrices(x1);
-	
-	for(int j = 0; j < (x.length - 1); j++){
-	    for(int k = 0; k < x[j].length; k++){
-		x1[j][k] = x[j + 1][k];
+    public void compileCircuit(ArrayList<SElement> circuitElements) {
+	SparsePattern pattern = compilePattern(circuitElements, z.getLength());
+
+	A = pattern.createMatrix();
+	sinkDiagonal = pattern.getSinkDiagonal();
+	baseStamps = new StampCache(A, z);
+
+	linearElements.clear();
+	timeDependentElements.clear();
+	nonlinearElements.clear();
+	for (int j = 0; j < circuitElements.size(); j++) {
+	    SElement element = circuitElements.get(j);
+	    StampType type = element.getStampType();
+
+	    if (type == StampType.NONLINEAR) {
+		element.setBypass(bypass, reltol, vntol, abstol);
+		nonlinearElements.add(element);
 	    }
+	    else if (type == StampType.TIME_DEPENDENT)
+		timeDependentElements.add(element);
+	    else
+		linearElements.add(element);
 	}
-        return x1;
+	result.setSavedUnknowns(getSavedUnknowns(), x.getLength());
+	nameSignals(circuitElements, x.getLength());
     }
-    
+
+    /**
+     * @brief Names every unknown of the MNA system for the result : V(n) for
+     *        node n (SElement.getTerminalIndex), I(b) for the branch current
+     *        of the source of branch row b (SElement.getBranchIndex)
+     * 
+     * @author 1sand0s
+     * @param circuitElements List of elements in the circuit
+     * @param size            Number of rows of the MNA system
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected void nameSignals(ArrayList<SElement> circuitElements,
+			       int size) {
+	String names[] = new String[size];
+	String units[] = new String[size];
+
+	for (int i = 0; i < numNodes; i++) {
+	    names[i] = "V(" + i + ")";
+	    units[i] = "V";
+	}
+	int branchIndex = numNodes;
+	for (int j = 0; j < circuitElements.size(); j++) {
+	    SElement element = circuitElements.get(j);
+	    int next = nextBranchIndex(element, branchIndex);
+
+	    if (next != branchIndex) {
+		names[branchIndex] = "I(" + branchIndex + ")";
+		units[branchIndex] = "A";
+	    }
+	    branchIndex = next;
+	}
+	result.setSignalNames(names, units);
+    }
+
+    /**
+     * @brief Adds the voltage of the node at a terminal of an element to the
+     *        save list. Once the list holds anything, results that store a
+     *        solution per time point keep only the unknowns on it (like
+     *        SPICE .save) and drop the others after each time point
+     * 
+     * @author 1sand0s
+     * @param element  Element connected to the node
+     * @param terminal Terminal of the element on the node
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void saveVoltage(SElement element,
+			    ComponentTerminals terminal) {
+	savedElements.add(element);
+	savedTerminals.add(terminal);
+    }
+
+    /**
+     * @brief Adds the branch current of a voltage or current source to the
+     *        save list (see saveVoltage)
+     * 
+     * @author 1sand0s
+     * @param source Source whose branch current is kept
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void saveCurrent(SElement source) {
+	if (!(source instanceof VSource || source instanceof ISource))
+	    throw new IllegalArgumentException("Error : " + source.getClass().getSimpleName() + " has no branch current");
+	savedElements.add(source);
+	savedTerminals.add(null);
+    }
+
+    /**
+     * @brief Empties the save list, every unknown is kept again
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void saveAll() {
+	savedElements.clear();
+	savedTerminals.clear();
+    }
+
+    /**
+     * @brief Rows of the MNA system on the save list, after compile has
+     *        numbered the nodes and branches. GND is never stored, it is 0
+     * 
+     * @author 1sand0s
+     * @return int[] : Rows in increasing order, null if the list is empty
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected int[] getSavedUnknowns() {
+	if (savedElements.isEmpty())
+	    return null;
+
+	boolean saved[] = new boolean[x.getLength()];
+	int numSaved = 0;
+	for (int j = 0; j < savedElements.size(); j++) {
+	    SElement element = savedElements.get(j);
+	    int unknown = savedTerminals.get(j) == null ? element.getBranchIndex()
+		: element.getTerminalIndex(savedTerminals.get(j));
+	    if (unknown > 0 && !saved[unknown]) {
+		saved[unknown] = true;
+		numSaved++;
+	    }
+	}
+
+	int savedUnknowns[] = new int[numSaved];
+	for (int i = 0, k = 0; i < saved.length; i++)
+	    if (saved[i])
+		savedUnknowns[k++] = i;
+	return savedUnknowns;
+    }
+
+    /**
+     * @brief Clears A and z before the circuit elements are stamped. GND
+     *        is the sink of every stamp to node 0, its only stored entry is
+     *        the diagonal which is set to 1 so V(GND) solves to z(0) = 0
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void clearMatrices() {
+	A.clear();
+	A.getValues()[sinkDiagonal] = 1;
+	z.clear();
+    }
+
+    /**
+     * @brief Resets the Newton-Raphson statistics before a solve
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected void startNewtonRaphson() {
+	newtonIterations = 0;
+	refactorNext = false;
+	newtonResidual = 0;
+	residualConverged = true;
+    }
+
+    /**
+     * @brief Solves one Newton-Raphson iteration of the system stamped about
+     *        the previous iterate (held in both x and xPrevious). The KCL/KVL
+     *        residual of the stamped system at that iterate is measured
+     *        first, then the update is limited to maxStep volts on any node.
+     *        With a CHORD or BROYDEN Newton type only the first iteration of
+     *        a solve, and those after convergence slowed down, factor A
+     *        (see solveQuasiNewton)
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected void solveNewtonIteration() {
+	boolean reuseFactors = isReusingFactors();
+
+	if ((!nonlinearElements.isEmpty() && residualCheck) || reuseFactors)
+	    computeResidual();
+
+	/* A diverging chord or Broyden step is replaced by a full one */
+	if (reuseFactors && !solveQuasiNewton())
+	    reuseFactors = false;
+	if (!reuseFactors) {
+	    solveMNASystem();
+	    if (newtonType == NewtonType.BROYDEN && !nonlinearElements.isEmpty())
+		startBroyden();
+	}
+	newtonIterations++;
+
+	if (!nonlinearElements.isEmpty() && maxStep != Double.POSITIVE_INFINITY)
+	    limitStep();
+
+	if (newtonType != NewtonType.FULL && !nonlinearElements.isEmpty())
+	    updateContraction(reuseFactors);
+    }
+
+    /**
+     * @brief Tells whether the next iteration solves with the factors of A
+     *        from an earlier iteration of the solve in progress
+     * 
+     * @author 1sand0s
+     * @return boolean : true for a chord or Broyden iteration
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private boolean isReusingFactors() {
+	/* A limited stamp is not linearized about the previous iterate, its
+	 * residual says little about the Newton step */
+	return newtonType != NewtonType.FULL && linearSolverType == LinearSolverType.SPARSE_LU
+	    && !nonlinearElements.isEmpty() && newtonIterations > 0 && !refactorNext && !isLimiting();
+    }
+
+    /**
+     * @brief Newton step with the factors J0 of an earlier iteration
+     *        instead of those of A : x = xPrevious - H * r with r = A *
+     *        xPrevious - z the residual of the stamped system (see
+     *        computeResidual). For CHORD H = inv(J0), for BROYDEN H is
+     *        inv(J0) with one rank-1 update per iteration since the last
+     *        factorization, H = (I + u_k * s_k') * ... * (I + u_0 * s_0') *
+     *        inv(J0), s_k being the steps taken, so H * (r - rPrevious) =
+     *        s_k holds for the last step (good Broyden update, Sherman
+     *        Morrison form)
+     * 
+     * @author 1sand0s
+     * @return boolean : false if the step is not smaller than the one
+     *         before it (x is then to be solved with A factored)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private boolean solveQuasiNewton() {
+	int n = x.getLength();
+	double previous[] = xPrevious.getArray();
+	double current[] = x.getArray();
+
+	/* Row 0 is GND, decoupled from the system */
+	rowResidual[0] = 0;
+	factorization.solve(rowResidual, current);
+
+	if (newtonType == NewtonType.BROYDEN) {
+	    for (int k = 0; k < broydenUpdates; k++)
+		addRankOne(current, broydenVectors[k], broydenSteps[k]);
+
+	    /* H * (r - rPrevious) = H * r - newtonDirection */
+	    double numerator[] = broydenVectors[broydenUpdates];
+	    double denominator = 0;
+	    for (int i = 0; i < n; i++) {
+		double hy = current[i] - newtonDirection[i];
+		numerator[i] = newtonStep[i] - hy;
+		denominator += newtonStep[i] * hy;
+	    }
+	    if (denominator != 0 && broydenUpdates < maxBroydenUpdates) {
+		for (int i = 0; i < n; i++)
+		    numerator[i] /= denominator;
+		System.arraycopy(newtonStep, 0, broydenSteps[broydenUpdates], 0, n);
+		addRankOne(current, numerator, newtonStep);
+		broydenUpdates++;
+	    } else
+		refactorNext = true;
+	    System.arraycopy(current, 0, newtonDirection, 0, n);
+	}
+
+	double updateNorm = 0;
+	for (int i = 0; i < n; i++)
+	    updateNorm = Math.max(updateNorm, Math.abs(current[i]));
+	if (!(updateNorm < lastUpdateNorm))
+	    return false;
+
+	for (int i = 0; i < n; i++)
+	    current[i] = previous[i] - current[i];
+	RealMatrixOperations.removeRedundancy(x);
+	return true;
+    }
+
     /**
-     * @brief Sets the tolerance for NR convergence
+     * @brief v = (I + u * s') * v, in place
+     * 
+     * @author 1sand0s
+     * @param v Vector to update
+     * @param u First vector of the rank-1 term
+     * @param s Second vector of the rank-1 term
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private static void addRankOne(double v[],
+				   double u[],
+				   double s[]) {
+	double dot = 0;
+	for (int i = 0; i < v.length; i++)
+	    dot += s[i] * v[i];
+	for (int i = 0; i < v.length; i++)
+	    v[i] += u[i] * dot;
+    }
+
+    /**
+     * @brief Drops the Broyden updates after A was factored and keeps
+     *        inv(A) * r = xPrevious - x, the direction of the full Newton
+     *        step, for the first update
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void startBroyden() {
+	int n = x.getLength();
+
+	if (newtonDirection == null || newtonDirection.length != n) {
+	    newtonDirection = new double[n];
+	    broydenSteps = new double[maxBroydenUpdates][n];
+	    broydenVectors = new double[maxBroydenUpdates + 1][n];
+	}
+	for (int i = 0; i < n; i++)
+	    newtonDirection[i] = xPrevious.get(i) - x.get(i);
+	broydenUpdates = 0;
+    }
+
+    /**
+     * @brief Keeps the step just taken and decides whether the next
+     *        iteration factors A again : a step taken with reused factors
+     *        that is not at least chordContraction times smaller than the
+     *        one before it means the factors no longer describe the circuit
+     * 
+     * @author 1sand0s
+     * @param reusedFactors true if the step was a chord or Broyden one
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void updateContraction(boolean reusedFactors) {
+	int n = x.getLength();
+	double updateNorm = 0;
+
+	if (newtonStep == null || newtonStep.length != n)
+	    newtonStep = new double[n];
+	for (int i = 0; i < n; i++) {
+	    newtonStep[i] = x.get(i) - xPrevious.get(i);
+	    updateNorm = Math.max(updateNorm, Math.abs(newtonStep[i]));
+	}
+
+	if (!reusedFactors)
+	    refactorNext = false;
+	else if (updateNorm > chordContraction * lastUpdateNorm)
+	    refactorNext = true;
+	lastUpdateNorm = updateNorm;
+    }
+
+    /**
+     * @brief Tells whether another Newton-Raphson iteration is needed. A
+     *        circuit without nonlinear elements is solved exactly by the
+     *        first iteration, the stamps of the next one would be the same
+     * 
+     * @author 1sand0s
+     * @return boolean : true while x has not converged
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception ArithmeticException if x has not converged after
+     *            maxIterations iterations
+     */
+    protected boolean isIterating() {
+	if (isConverged())
+	    return false;
+	if (newtonIterations >= maxIterations)
+	    throw new ArithmeticException("Error : Newton-Raphson did not converge after " + newtonIterations
+					  + " iterations (residual " + newtonResidual + ")");
+	return true;
+    }
+
+    /**
+     * @brief Tells whether the last Newton-Raphson iteration converged. A
+     *        circuit without nonlinear elements is solved exactly by the
+     *        first iteration
+     * 
+     * @author 1sand0s
+     * @return boolean : true if no element is limiting and the update (and
+     *         the residual, with residualCheck) is within the tolerances
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected boolean isConverged() {
+	return nonlinearElements.isEmpty()
+	    || (!isLimiting() && isUpdateConverged() && (!residualCheck || residualConverged));
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return boolean : true if a nonlinear element limited its last stamp
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private boolean isLimiting() {
+	for (int j = 0; j < nonlinearElements.size(); j++)
+	    if (nonlinearElements.get(j).isLimiting())
+		return true;
+	return false;
+    }
+
+    /**
+     * @brief Resets the limiting and bypass state of the nonlinear elements
+     *        (see SElement.resetLimiting) after x was cleared or rolled back
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected void resetLimiting() {
+	for (int j = 0; j < nonlinearElements.size(); j++)
+	    nonlinearElements.get(j).resetLimiting();
+    }
+
+    /**
+     * @brief Checks the last update against reltol and vntol (node voltages)
+     *        or abstol (branch currents)
+     * 
+     * @author 1sand0s
+     * @return boolean : true if every unknown has converged
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private boolean isUpdateConverged() {
+	double current[] = x.getArray();
+	double previous[] = xPrevious.getArray();
+
+	for (int i = 0; i < current.length; i++) {
+	    double limit = reltol * Math.max(Math.abs(current[i]), Math.abs(previous[i]))
+		+ (i < numNodes ? vntol : abstol);
+	    if (!(Math.abs(current[i] - previous[i]) <= limit))
+		return false;
+	}
+	return true;
+    }
+
+    /**
+     * @brief Computes r = A * x - z for the stamped system. Node rows are KCL
+     *        equations checked against abstol, branch rows are KVL equations
+     *        checked against vntol, both relative to the largest term of the
+     *        row
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void computeResidual() {
+	int n = z.getLength();
+	int columnPointers[] = A.getColumnPointers();
+	int rowIndices[] = A.getRowIndices();
+	double values[] = A.getValues();
+	double solution[] = x.getArray();
+
+	if (rowResidual == null || rowResidual.length != n) {
+	    rowResidual = new double[n];
+	    rowScale = new double[n];
+	}
+	for (int i = 0; i < n; i++) {
+	    rowResidual[i] = -z.get(i);
+	    rowScale[i] = Math.abs(z.get(i));
+	}
+	for (int j = 0; j < n; j++)
+	    for (int p = columnPointers[j]; p < columnPointers[j + 1]; p++) {
+		double term = values[p] * solution[j];
+		rowResidual[rowIndices[p]] += term;
+		rowScale[rowIndices[p]] = Math.max(rowScale[rowIndices[p]], Math.abs(term));
+	    }
+
+	newtonResidual = 0;
+	residualConverged = true;
+	/* Row 0 is GND, decoupled from the system */
+	for (int i = 1; i < n; i++) {
+	    double r = Math.abs(rowResidual[i]);
+	    newtonResidual = Math.max(newtonResidual, r);
+	    if (!(r <= reltol * rowScale[i] + (i < numNodes ? abstol : vntol)))
+		residualConverged = false;
+	}
+    }
+
+    /**
+     * @brief Scales the update x - xPrevious so no node voltage moves by more
+     *        than maxStep in one iteration (step damping)
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void limitStep() {
+	double current[] = x.getArray();
+	double previous[] = xPrevious.getArray();
+	double largest = 0;
+
+	for (int i = 1; i < numNodes; i++)
+	    largest = Math.max(largest, Math.abs(current[i] - previous[i]));
+	if (largest <= maxStep)
+	    return;
+
+	double scale = maxStep / largest;
+	for (int i = 0; i < current.length; i++)
+	    current[i] = previous[i] + scale * (current[i] - previous[i]);
+    }
+
+    /**
+     * @brief Gives the sources their branch rows. Every independent source
+     *        (voltage or current) owns one, numbered in the order the
+     *        elements were added
+     * 
+     * @author 1sand0s
+     * @param element     Element about to be stamped
+     * @param branchIndex Branch row the next source gets
+     * @return int : Branch row of the source after element
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected static int nextBranchIndex(SElement element,
+					 int branchIndex) {
+	if (element instanceof VSource || element instanceof ISource)
+	    return branchIndex + 1;
+	return branchIndex;
+    }
+
+    /**
+     * @brief Solves the MNA system currently stamped in A and z
+     *        and stores the solution in x
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void solveMNASystem() {
+	/* Stamps to GND landed in the sink slot, dropping its source entry
+	 * solves V(GND) = 0 (see clearMatrices) */
+	z.set(0, 0);
+
+	if (linearSolverType == LinearSolverType.SPARSE_LU)
+	    RealMatrixOperations.computeLinearEquation(factorization, A, z, x);
+	else if (linearSolverType == LinearSolverType.GMRES || linearSolverType == LinearSolverType.BICGSTAB)
+	    /* x still holds the previous solution, used as initial guess */
+	    RealMatrixOperations.computeLinearEquation(iterativeSolver, linearSolverType, A, z, x);
+	else {
+	    A.toDense(denseA);
+	    if (linearSolverType == LinearSolverType.DENSE_LU)
+		RealMatrixOperations.computeLinearEquation(denseFactorization, denseA, z, x);
+	    else
+		RealMatrixOperations.computeLinearEquation(denseA, z, x, linearSolverType);
+	}
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return SparseLU : Factorization reused by the last solve, for its
+     *         factorization counts
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public SparseLU getFactorization() {
+	return factorization;
+    }
+
+    /**
+     * @brief Selects the factorization used to solve the MNA system
+     * 
+     * @author 1sand0s
+     * @param linearSolverType SPARSE_LU (default), QR, DENSE_LU (blocked,
+     *                         multithreaded) or GMRES / BICGSTAB (iterative,
+     *                         see setPreconditioner). The last three are for
+     *                         DC and transient analysis only
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setLinearSolver(LinearSolverType linearSolverType) {
+	this.linearSolverType = linearSolverType;
+    }
+
+    /**
+     * @brief Selects the preconditioner of the GMRES and BICGSTAB solvers
+     * 
+     * @author 1sand0s
+     * @param preconditionerType NONE, ILU0 (default) or ILUT
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setPreconditioner(PreconditionerType preconditionerType) {
+	iterativeSolver.setPreconditioner(preconditionerType);
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return IterativeSolver : Solver used for GMRES and BICGSTAB, for its
+     *         iteration counts and residuals
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public IterativeSolver getIterativeSolver() {
+	return iterativeSolver;
+    }
+
+    /**
+     * @brief Selects the fill-reducing order applied to the numbered nodes
+     *        before the MNA system is factored. It is computed on the first
+     *        factorization after numberNodes and kept while the pattern of
+     *        the system does not change. The resulting fill-in is reported
+     *        by getFactorization().getFillIn()
+     * 
+     * @author 1sand0s
+     * @param ordering NATURAL, MINIMUM_DEGREE,
+     *                 APPROXIMATE_MINIMUM_DEGREE (default) or
+     *                 REVERSE_CUTHILL_MCKEE
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setOrdering(OrderingType ordering) {
+	this.ordering = ordering;
+    }
+
+    /**
+     * @brief Sets one absolute tolerance for NR convergence of every
+     *        unknown (vntol = abstol = tol, reltol = 0)
      * 
      * @author 1sand0s
      * @param tol tolerance for convergence
@@ -348,6 +1191,126 @@ public abstract class AbstractSpiceSolver {
      * @version 1.0.0
      */
     public void setTolerance(double tol) {
-	this.tol = tol;
+	this.reltol = 0;
+	this.vntol = tol;
+	this.abstol = tol;
+    }
+
+    /**
+     * @brief Sets the NR convergence tolerances. An iteration has converged
+     *        when every unknown moved by less than reltol times its
+     *        magnitude plus vntol (node voltages) or abstol (branch
+     *        currents), and, with the residual check on, every KCL row is
+     *        satisfied within reltol times its largest term plus abstol and
+     *        every KVL (branch) row within reltol times its largest term
+     *        plus vntol
+     * 
+     * @author 1sand0s
+     * @param reltol Relative tolerance (default 1e-3)
+     * @param vntol  Absolute voltage tolerance in Volts (default 1e-6)
+     * @param abstol Absolute current tolerance in Amperes (default 1e-12)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setTolerances(double reltol,
+			      double vntol,
+			      double abstol) {
+	this.reltol = reltol;
+	this.vntol = vntol;
+	this.abstol = abstol;
+    }
+
+    /**
+     * @brief Bounds the work of one NR solve. A solve that has not converged
+     *        after maxIterations iterations throws ArithmeticException
+     * 
+     * @author 1sand0s
+     * @param maxIterations Iteration limit of one solve (default 100)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setMaxIterations(int maxIterations) {
+	this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @brief Enables or disables device bypass (enabled by default) : a
+     *        nonlinear element whose controlling voltage changed by less
+     *        than the Newton-Raphson tolerances since its last evaluation,
+     *        and whose cached linearization is still accurate to abstol,
+     *        stamps it instead of evaluating again
+     * 
+     * @author 1sand0s
+     * @param bypass true to bypass idle nonlinear elements
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setBypass(boolean bypass) {
+	this.bypass = bypass;
+    }
+
+    /**
+     * @brief Adds the device evaluations and bypasses of the nonlinear
+     *        elements since they were compiled to the result
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    protected void updateBypassStatistics() {
+	long evaluations = 0;
+	long bypasses = 0;
+
+	for (int j = 0; j < nonlinearElements.size(); j++) {
+	    evaluations += nonlinearElements.get(j).getEvaluationCount();
+	    bypasses += nonlinearElements.get(j).getBypassCount();
+	}
+	result.updateBypassStatistics(evaluations, bypasses);
+    }
+
+    /**
+     * @brief Enables the residual check, which also requires the KCL/KVL
+     *        residual of the system to be within tolerance before an NR
+     *        solve is declared converged
+     * 
+     * @author 1sand0s
+     * @param residualCheck true (default) to check the residual
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setResidualCheck(boolean residualCheck) {
+	this.residualCheck = residualCheck;
+    }
+
+    /**
+     * @brief Sets the step damping of NR : the update of an iteration is
+     *        scaled down so that no node voltage changes by more than
+     *        maxStep
+     * 
+     * @author 1sand0s
+     * @param maxStep Largest node voltage change per iteration in Volts
+     *                (default infinite, no damping)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setMaximumStep(double maxStep) {
+	this.maxStep = maxStep;
+    }
+
+    /**
+     * @brief Selects the Newton variant. CHORD reuses the factors of A from
+     *        the first iteration of every solve (time point) and only
+     *        restamps the right hand side, BROYDEN also applies one rank-1
+     *        update of the inverse Jacobian per iteration. Both refactor when
+     *        convergence slows down and converge to the same tolerances as
+     *        FULL. Only used with the SPARSE_LU linear solver
+     * 
+     * @author 1sand0s
+     * @param newtonType FULL (default), CHORD or BROYDEN
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setNewtonType(NewtonType newtonType) {
+	this.newtonType = newtonType;
     }
 }
@@ -0,0 +1,255 @@
+/**
+ * 
+ */
+package com.JSPICE.SPICESolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @brief Reads a columnar result file (see ColumnarResultWriter for its
+ *        layout). Only the header is read on open, every waveform is a view
+ *        of its own memory-mapped block, so reading one signal does not
+ *        touch the others
+ * 
+ * @author 1sand0s
+ * 
+ */
+public class ColumnarResultReader {
+    private File file;
+    private FileChannel channel;
+    private int numSignals;
+    private long numPoints;
+    private long dataOffset;
+    private String axisName;
+    private String axisUnit;
+    private String names[];
+    private String units[];
+
+    /**
+     * @brief Opens a file and reads its header
+     * 
+     * @author 1sand0s
+     * @param file File written by ColumnarResultWriter
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception IllegalArgumentException if the file is not a columnar
+     *            result file
+     */
+    public ColumnarResultReader(File file) {
+	this.file = file;
+	try {
+	    channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+	    ByteBuffer fixed = channel.map(FileChannel.MapMode.READ_ONLY, 0, 32).order(ByteOrder.LITTLE_ENDIAN);
+	    if (fixed.getLong() != ColumnarResultWriter.MAGIC || fixed.getInt() != ColumnarResultWriter.VERSION)
+		throw new IllegalArgumentException("Error : " + file + " is not a columnar result file");
+	    numSignals = fixed.getInt();
+	    numPoints = fixed.getLong();
+	    dataOffset = fixed.getLong();
+
+	    ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 32, dataOffset - 32).order(ByteOrder.LITTLE_ENDIAN);
+	    axisName = readString(header);
+	    axisUnit = readString(header);
+	    names = new String[numSignals];
+	    units = new String[numSignals];
+	    for (int k = 0; k < numSignals; k++) {
+		names[k] = readString(header);
+		units[k] = readString(header);
+	    }
+	} catch (IOException e) {
+	    throw new IllegalStateException("Error : Cannot read columnar result file " + file, e);
+	}
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of signals
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getNumSignals() {
+	return numSignals;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return long : Number of points of the axis and of every signal
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public long getNumPoints() {
+	return numPoints;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return String : Name of the axis
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public String getAxisName() {
+	return axisName;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return String : Unit of the axis
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public String getAxisUnit() {
+	return axisUnit;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @param signal Index of the signal
+     * @return String : Name of the signal
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public String getSignalName(int signal) {
+	return names[signal];
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @param signal Index of the signal
+     * @return String : Unit of the signal
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public String getSignalUnit(int signal) {
+	return units[signal];
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @param name Name of a signal
+     * @return int : Index of the signal, -1 if there is none of that name
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getSignalIndex(String name) {
+	for (int k = 0; k < numSignals; k++)
+	    if (names[k].equals(name))
+		return k;
+	return -1;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return DoubleBuffer : View of the mapped axis block
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public DoubleBuffer getAxis() {
+	return mapBlock(0);
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @param signal Index of the signal
+     * @return DoubleBuffer : View of the mapped block of the signal
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public DoubleBuffer getSignal(int signal) {
+	if (signal < 0 || signal >= numSignals)
+	    throw new IndexOutOfBoundsException("Error : Signal " + signal + " of " + numSignals);
+	return mapBlock(signal + 1);
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @param name Name of the signal
+     * @return DoubleBuffer : View of the mapped block of the signal
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception IllegalArgumentException if there is no signal of that name
+     */
+    public DoubleBuffer getSignal(String name) {
+	int signal = getSignalIndex(name);
+	if (signal < 0)
+	    throw new IllegalArgumentException("Error : No signal " + name + " in " + file);
+	return getSignal(signal);
+    }
+
+    /**
+     * @brief Closes the file. Views already returned stay valid until they
+     *        are garbage collected
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void close() {
+	try {
+	    channel.close();
+	} catch (IOException e) {
+	    throw new IllegalStateException("Error : Cannot close columnar result file " + file, e);
+	}
+    }
+
+    /**
+     * @brief Maps one block of the file
+     * 
+     * @author 1sand0s
+     * @param block Index of the block (0 the axis, 1 + k signal k)
+     * @return DoubleBuffer : View of the block
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception UnsupportedOperationException if the block is 2GB or more,
+     *            beyond what a single mapping holds
+     */
+    private DoubleBuffer mapBlock(int block) {
+	if (8 * numPoints > Integer.MAX_VALUE)
+	    throw new UnsupportedOperationException("Error : Blocks of " + numPoints + " points cannot be mapped at once");
+	try {
+	    return channel.map(FileChannel.MapMode.READ_ONLY, dataOffset + 8 * numPoints * block, 8 * numPoints)
+		.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+	} catch (IOException e) {
+	    throw new IllegalStateException("Error : Cannot map columnar result file " + file, e);
+	}
+    }
+
+    /**
+     * @brief Reads an int length and that many UTF-8 bytes
+     * 
+     * @author 1sand0s
+     * @param header Header, positioned on the string
+     * @return String : String read
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private static String readString(ByteBuffer header) {
+	byte bytes[] = new byte[header.getInt()];
+	header.get(bytes);
+	return new String(bytes, ColumnarResultWriter.UTF8);
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * 
+ */
+package com.JSPICE.SPICESolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @brief Writes a columnar result file : a header naming the axis (time or
+ *        frequency) and the signals with their units, followed by one block
+ *        of numPoints doubles for the axis and one per signal, so a reader
+ *        can map any single waveform (see ColumnarResultReader). Blocks may
+ *        be written in any order, in slices
+ * 
+ *        Layout, little-endian :
+ *        0  long   MAGIC
+ *        8  int    VERSION
+ *        12 int    numSignals
+ *        16 long   numPoints
+ *        24 long   dataOffset, a multiple of 8
+ *        32        axis name, axis unit, then the name and unit of every
+ *                  signal, each an int length and UTF-8 bytes
+ *        dataOffset + 8 * numPoints * b, block b (0 the axis, 1 + k signal k)
+ * 
+ * @author 1sand0s
+ * 
+ */
+public class ColumnarResultWriter {
+    /* "JSPICECR" */
+    public static final long MAGIC = 0x4A53504943454352L;
+    public static final int VERSION = 1;
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private File file;
+    private FileChannel channel;
+    private int numSignals;
+    private long numPoints;
+    private long dataOffset;
+    /* Staging buffer of the positional writes. Its clear and limit are
+     * called through Buffer, as in StreamingResultSink */
+    private ByteBuffer buffer;
+
+    /**
+     * @brief Creates the file, replacing any file of the same name, and
+     *        writes its header
+     * 
+     * @author 1sand0s
+     * @param file      File to write
+     * @param axisName  Name of the axis (time, frequency)
+     * @param axisUnit  Unit of the axis
+     * @param names     Name of every signal
+     * @param units     Unit of every signal
+     * @param numPoints Number of points of the axis and of every signal
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public ColumnarResultWriter(File file,
+				String axisName,
+				String axisUnit,
+				String names[],
+				String units[],
+				long numPoints) {
+	if (names.length != units.length)
+	    throw new IllegalArgumentException("Error : " + names.length + " signal names for " + units.length + " units");
+	this.file = file;
+	this.numSignals = names.length;
+	this.numPoints = numPoints;
+
+	byte strings[][] = new byte[2 * numSignals + 2][];
+	strings[0] = axisName.getBytes(UTF8);
+	strings[1] = axisUnit.getBytes(UTF8);
+	for (int k = 0; k < numSignals; k++) {
+	    strings[2 * k + 2] = names[k].getBytes(UTF8);
+	    strings[2 * k + 3] = units[k].getBytes(UTF8);
+	}
+	long headerBytes = 32;
+	for (int k = 0; k < strings.length; k++)
+	    headerBytes += 4 + strings[k].length;
+	dataOffset = (headerBytes + 7) / 8 * 8;
+
+	ByteBuffer header = ByteBuffer.allocate((int) dataOffset).order(ByteOrder.LITTLE_ENDIAN);
+	header.putLong(MAGIC).putInt(VERSION).putInt(numSignals).putLong(numPoints).putLong(dataOffset);
+	for (int k = 0; k < strings.length; k++)
+	    header.putInt(strings[k].length).put(strings[k]);
+	((Buffer) header).clear();
+
+	try {
+	    channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				       StandardOpenOption.TRUNCATE_EXISTING);
+	    write(header, 0);
+	} catch (IOException e) {
+	    throw new IllegalStateException("Error : Cannot write columnar result file " + file, e);
+	}
+	buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @brief Writes a slice of the axis
+     * 
+     * @author 1sand0s
+     * @param first  Index of the first point of the slice
+     * @param values Axis values
+     * @param length Number of values of the slice
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void writeAxis(long first,
+			  double values[],
+			  int length) {
+	writeBlock(0, first, values, length);
+    }
+
+    /**
+     * @brief Writes a slice of a signal
+     * 
+     * @author 1sand0s
+     * @param signal Index of the signal
+     * @param first  Index of the first point of the slice
+     * @param values Signal values
+     * @param length Number of values of the slice
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void writeSignal(int signal,
+			    long first,
+			    double values[],
+			    int length) {
+	if (signal < 0 || signal >= numSignals)
+	    throw new IndexOutOfBoundsException("Error : Signal " + signal + " of " + numSignals);
+	writeBlock(signal + 1, first, values, length);
+    }
+
+    /**
+     * @brief Closes the file
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void close() {
+	long size = dataOffset + 8 * numPoints * (numSignals + 1);
+	try {
+	    /* Slices never written read as 0 */
+	    if (channel.size() < size)
+		write(ByteBuffer.allocate(1), size - 1);
+	    channel.close();
+	} catch (IOException e) {
+	    throw new IllegalStateException("Error : Cannot write columnar result file " + file, e);
+	}
+    }
+
+    /**
+     * @brief Writes a slice of a block at its place in the file, through a
+     *        buffer of bounded size
+     * 
+     * @author 1sand0s
+     * @param block  Index of the block (0 the axis, 1 + k signal k)
+     * @param first  Index of the first point of the slice
+     * @param values Values
+     * @param length Number of values of the slice
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void writeBlock(int block,
+			    long first,
+			    double values[],
+			    int length) {
+	if (first < 0 || first + length > numPoints)
+	    throw new IndexOutOfBoundsException("Error : Points [" + first + ", " + (first + length) + ") of " + numPoints);
+
+	long position = dataOffset + 8 * (numPoints * block + first);
+	int perBuffer = buffer.capacity() / 8;
+	try {
+	    for (int j = 0; j < length; j += perBuffer) {
+		int count = Math.min(perBuffer, length - j);
+		((Buffer) buffer).clear();
+		buffer.asDoubleBuffer().put(values, j, count);
+		((Buffer) buffer).limit(8 * count);
+		write(buffer, position + 8L * j);
+	    }
+	} catch (IOException e) {
+	    throw new IllegalStateException("Error : Cannot write columnar result file " + file, e);
+	}
+    }
+
+    /**
+     * @brief Writes a buffer at a position of the file
+     * 
+     * @author 1sand0s
+     * @param source   Bytes to write, from position to limit
+     * @param position Offset in the file
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void write(ByteBuffer source,
+		       long position) throws IOException {
+	while (source.hasRemaining())
+	    position += channel.write(source, position);
+    }
+}
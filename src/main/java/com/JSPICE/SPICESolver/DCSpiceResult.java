@@ -4,6 +4,7 @@
 package com.JSPICE.SPICESolver;
 
 import com.JSPICE.SMath.Complex;
+import com.JSPICE.SMath.RealVector;
 import com.JSPICE.SElement.SElement;
 import com.JSPICE.Util.ComponentTerminals;
 
@@ -21,6 +22,14 @@ public class DCSpiceResult extends AbstractSpiceResult {
 	for(int j = 0; j < x.length; j++)
 	    this.x[j] = x[j][0].getReal();
     }
+
+    @Override
+    public void updateResult(RealVector x){
+	this.x = new double[x.getLength()];
+
+	for(int j = 0; j < x.getLength(); j++)
+	    this.x[j] = x.get(j);
+    }
     
     public double getElementVoltage(SElement element,
 				    ComponentTerminals terminal1,
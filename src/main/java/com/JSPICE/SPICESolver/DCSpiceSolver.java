@@ -4,17 +4,35 @@
 package com.JSPICE.SPICESolver;
 
 import com.JSPICE.SElement.*;
-import com.JSPICE.SMath.ComplexMatrixOperations;
-import com.JSPICE.SMath.Complex;
-import com.JSPICE.SElement.VSource.VSource;
+import com.JSPICE.SMath.RealMatrixOperations;
+import com.JSPICE.SMath.RealVector;
+import com.JSPICE.Util.OperatingPointStage;
 
 import java.util.ArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * @author 1sand0s
  *
  */
 public class DCSpiceSolver extends AbstractSpiceSolver {
+    private static final Logger LOGGER = Logger.getLogger(DCSpiceSolver.class.getName());
+
+    /* Homotopies tried, in order, when plain Newton-Raphson does not
+     * converge. Gmin stepping shunts every node to GND with a conductance
+     * going from gminStart down to gminStop a decade at a time (less after
+     * a step that fails), source stepping ramps every independent source
+     * from 0 to its value */
+    private boolean gminStepping = true;
+    private boolean sourceStepping = true;
+    private double gminStart = 1;
+    private double gminStop = 1e-12;
+    private double minimumGminDecades = 1.0 / 16;
+    private double sourceStep = 0.1;
+    private double minimumSourceStep = 1e-4;
+    private OperatingPointStage operatingPointStage;
+    private int operatingPointIterations;
 
     /**
      * 
@@ -23,8 +41,6 @@ public class DCSpiceSolver extends AbstractSpiceSolver {
         circuitElements = new ArrayList<SElement>();
         wires = new ArrayList<Wire>();
 	result = new DCSpiceResult();
-	/* Default tolerance for testing convergence of Newton-Raphson */
-	tol = 1e-5;
     }
     
     @Override
@@ -37,53 +53,229 @@ public class DCSpiceSolver extends AbstractSpiceSolver {
     public void solve(ArrayList<SElement> circuitElements,
 		      ArrayList<Wire> wires) {
 
-	G = new Complex[wires.size()][wires.size()];
-        B = new Complex[wires.size()][iVSource + iISource];
-        C = new Complex[iVSource + iISource][wires.size()];
-        D = new Complex[iVSource + iISource][iVSource + iISource];
-        z = new Complex[wires.size() + iVSource + iISource][numHarmonics];
-	x = new Complex[wires.size() + iVSource + iISource][numHarmonics];
+	/* Clear existing result */
+	result.clearResult();
 
 	/* Number Circuit nodes */
         numberNodes();
 
 	/* Initial guess for all node voltages and branch currents are 0's*/
-	ComplexMatrixOperations.initializeMatrices(x);
-
-	/* Holds result after each Newton-Raphson iteration */
-	Complex xSolved[][];
-	
-	do{
-	    xSolved = x;
-	    int vSourceIndex = 0;
-
-	    /* Re-initialize all matrices to 0's
-	     * [+] TODO : Optimize since only 'x' changes between 
-	     *            Newton-Raphson iterations
-	     */
-	    ComplexMatrixOperations.initializeMatrices(G);
-	    ComplexMatrixOperations.initializeMatrices(B);
-	    ComplexMatrixOperations.initializeMatrices(C);
-	    ComplexMatrixOperations.initializeMatrices(D);
-	    ComplexMatrixOperations.initializeMatrices(z);
-
-	    /* Stamp each circuit element into the MNA matrix */
-	    for (int j = 0; j < circuitElements.size(); j++) {
-		SElement element = circuitElements.get(j);
-		
-		element.stampMatrixDC(G, B, C, D, z, x, vSourceIndex); 
-		
-		if (element instanceof VSource)
-		    vSourceIndex++;
-	    }
-	    
-	    /* Exclude Row and Column corresponding to GND node to prevent singular matrix */
-	    Complex A[][] = constructMNAMatrix(G, B, C, D);
-
-	    x = ComplexMatrixOperations.computeLinearEquation(A, removeGNDFromResult(z));
-	    x = addGNDToResult(x);	
-	    
-	} while(!ComplexMatrixOperations.compareMatrices(x, xSolved, tol));
+	allocateMatrices(wires);
+	compileCircuit(circuitElements);
+
+	/* Linear stamps do not change between Newton-Raphson iterations
+	 * (time dependent ones are constant in DC analysis), stamp them once */
+	clearMatrices();
+	stampElementsDC(linearElements);
+	stampElementsDC(timeDependentElements);
+	baseStamps.save(A, z);
+
+	operatingPointIterations = 0;
+	if (solveNewtonRaphson())
+	    operatingPointStage = OperatingPointStage.NEWTON_RAPHSON;
+	else if (gminStepping && solveGminStepping())
+	    operatingPointStage = OperatingPointStage.GMIN_STEPPING;
+	else if (sourceStepping && solveSourceStepping())
+	    operatingPointStage = OperatingPointStage.SOURCE_STEPPING;
+	else
+	    throw new ArithmeticException("Error : DC operating point did not converge with Newton-Raphson, gmin stepping or source stepping after "
+					  + operatingPointIterations + " iterations");
+	LOGGER.log(operatingPointStage == OperatingPointStage.NEWTON_RAPHSON ? Level.FINE : Level.INFO,
+		   "DC operating point converged with " + operatingPointStage + " after " + operatingPointIterations + " iterations");
+
+	result.updateNewtonStatistics(operatingPointIterations, newtonResidual);
+	updateBypassStatistics();
 	result.updateResult(x);
     }
+
+    /**
+     * @brief Plain Newton-Raphson from the current x, which is all 0's
+     *        for a fresh solve
+     * 
+     * @author 1sand0s
+     * @return boolean : true if it converged, x is left at the last
+     *         iterate otherwise
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private boolean solveNewtonRaphson() {
+	return solveNewtonRaphson(0, 1);
+    }
+
+    /**
+     * @brief Gmin stepping, tried when plain Newton-Raphson fails. Starts
+     *        from all 0's with gminStart from every node to GND, which
+     *        keeps the nonlinear elements from driving the nodes far away,
+     *        and lowers it a decade at a time down to gminStop and then to
+     *        0. Each step is warm-started from the solution of the previous
+     *        one, a step that fails is retried from there with half as many
+     *        decades
+     * 
+     * @author 1sand0s
+     * @return boolean : true if the final step (no shunt) converged
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private boolean solveGminStepping() {
+	LOGGER.info("Newton-Raphson did not converge, trying gmin stepping");
+	RealVector xConverged = new RealVector(x.getLength());
+	double gminConverged = Double.POSITIVE_INFINITY;
+	double gmin = gminStart;
+	double decades = 1;
+
+	x.clear();
+	resetLimiting();
+	while (true) {
+	    if (solveNewtonRaphson(gmin, 1)) {
+		if (gmin == 0)
+		    return true;
+		gminConverged = gmin;
+		xConverged.copyRange(x, 0, 0, x.getLength());
+	    } else {
+		decades *= 0.5;
+		if (decades < minimumGminDecades || gminConverged == Double.POSITIVE_INFINITY)
+		    return false;
+		x.copyRange(xConverged, 0, 0, x.getLength());
+		resetLimiting();
+	    }
+	    gmin = gminConverged * Math.pow(10, -decades);
+	    if (gmin < gminStop)
+		gmin = 0;
+	}
+    }
+
+    /**
+     * @brief Source stepping, tried when gmin stepping fails. Every
+     *        independent source is scaled by a factor going from 0, where
+     *        the solution is all 0's, to 1. The factor advances by a step
+     *        that doubles after each converged point and halves, restarting
+     *        from the last converged solution, after each failure
+     * 
+     * @author 1sand0s
+     * @return boolean : true if the factor reached 1
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private boolean solveSourceStepping() {
+	LOGGER.info("Gmin stepping did not converge, trying source stepping");
+	RealVector xConverged = new RealVector(x.getLength());
+	double factor = 0;
+	double step = sourceStep;
+
+	x.clear();
+	resetLimiting();
+	while (factor < 1) {
+	    double next = Math.min(1, factor + step);
+
+	    if (solveNewtonRaphson(0, next)) {
+		factor = next;
+		step *= 2;
+		xConverged.copyRange(x, 0, 0, x.getLength());
+	    } else {
+		step *= 0.5;
+		if (step < minimumSourceStep)
+		    return false;
+		x.copyRange(xConverged, 0, 0, x.getLength());
+		resetLimiting();
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * @brief Newton-Raphson from the current x with a shunt conductance
+     *        from every node to GND and every independent source scaled
+     *        by a factor. Iterations are added to operatingPointIterations
+     * 
+     * @author 1sand0s
+     * @param gmin         Conductance from every node to GND
+     * @param sourceFactor Factor every independent source is scaled by
+     * @return boolean : true if it converged within maxIterations
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception ArithmeticException if the MNA system is singular
+     */
+    private boolean solveNewtonRaphson(double gmin,
+				       double sourceFactor) {
+	double values[] = A.getValues();
+	boolean converged;
+
+	startNewtonRaphson();
+	try {
+	    do{
+		xPrevious.copyRange(x, 0, 0, x.getLength());
+
+		/* Start from the linear stamps and add the nonlinear ones
+		 * about the previous iterate. Only the independent sources
+		 * are in z before the nonlinear elements are stamped */
+		baseStamps.restore(A, z);
+		if (sourceFactor != 1)
+		    z.scale(sourceFactor);
+		if (gmin != 0)
+		    for (int i = 1; i < numNodes; i++)
+			values[nodeDiagonals[i]] += gmin;
+		stampElementsDC(nonlinearElements);
+
+		solveNewtonIteration();
+		converged = isConverged();
+
+	    } while(!converged && newtonIterations < maxIterations);
+	} finally {
+	    operatingPointIterations += newtonIterations;
+	}
+	return converged;
+    }
+
+    /**
+     * @brief Stamps the DC contributions of a list of elements about the
+     *        current iterate x
+     * 
+     * @author 1sand0s
+     * @param elements Elements to stamp
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void stampElementsDC(ArrayList<SElement> elements) {
+	for (int j = 0; j < elements.size(); j++)
+	    elements.get(j).stampMatrixDC(A, z, x);
+    }
+
+    /**
+     * @brief Stage the last DC operating point converged in
+     * 
+     * @author 1sand0s
+     * @return OperatingPointStage : NEWTON_RAPHSON, GMIN_STEPPING or
+     *         SOURCE_STEPPING
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public OperatingPointStage getOperatingPointStage() {
+	return operatingPointStage;
+    }
+
+    /**
+     * @brief Enables or disables gmin stepping when plain Newton-Raphson
+     *        does not converge (enabled by default)
+     * 
+     * @author 1sand0s
+     * @param gminStepping true to try gmin stepping
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setGminStepping(boolean gminStepping) {
+	this.gminStepping = gminStepping;
+    }
+
+    /**
+     * @brief Enables or disables source stepping when gmin stepping does
+     *        not converge (enabled by default)
+     * 
+     * @author 1sand0s
+     * @param sourceStepping true to try source stepping
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setSourceStepping(boolean sourceStepping) {
+	this.sourceStepping = sourceStepping;
+    }
 }
@@ -0,0 +1,57 @@
+/**
+ * 
+ */
+package com.JSPICE.SPICESolver;
+
+import java.util.ArrayList;
+
+/**
+ * @brief Transient result kept in memory, one array per time point (the
+ *        default sink)
+ * 
+ * @author 1sand0s
+ * 
+ */
+public class MemoryResultSink extends TransientResultSink {
+    private ArrayList<double[]> x;
+    private ArrayList<Double> time;
+
+    public MemoryResultSink() {
+	x = new ArrayList<double[]>();
+	time = new ArrayList<Double>();
+    }
+
+    @Override
+    public void append(double time,
+		       double x[]) {
+	this.time.add(time);
+	this.x.add(x.clone());
+    }
+
+    @Override
+    public int getNumTimePoints() {
+	return x.size();
+    }
+
+    @Override
+    public int getNumUnknowns() {
+	return x.isEmpty() ? 0 : x.get(0).length;
+    }
+
+    @Override
+    public double getTime(int index) {
+	return time.get(index);
+    }
+
+    @Override
+    public double get(int index,
+		      int unknown) {
+	return x.get(index)[unknown];
+    }
+
+    @Override
+    public void clear() {
+	x.clear();
+	time.clear();
+    }
+}
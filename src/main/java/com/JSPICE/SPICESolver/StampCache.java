@@ -0,0 +1,80 @@
+/**
+ * 
+ */
+package com.JSPICE.SPICESolver;
+
+import com.JSPICE.SMath.RealVector;
+import com.JSPICE.SMath.SparseMatrix;
+
+import java.util.Arrays;
+
+/**
+ * @brief Copy of the values of a stamped MNA system (A and z). Restoring it
+ *        replaces clearing the system and stamping again every element that
+ *        contributed to it
+ * 
+ * @author 1sand0s
+ * 
+ */
+public class StampCache {
+    private double values[];
+    private double sources[];
+
+    /**
+     * @brief Creates a cache for the system A * x = z
+     * 
+     * @author 1sand0s
+     * @param A System matrix (only the size of its values is used)
+     * @param z Right hand side (only its length is used)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public StampCache(SparseMatrix A,
+		      RealVector z) {
+	values = new double[A.getValues().length];
+	sources = new double[z.getLength()];
+    }
+
+    /**
+     * @brief Copies the values of A and z into the cache
+     * 
+     * @author 1sand0s
+     * @param A System matrix
+     * @param z Right hand side
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void save(SparseMatrix A,
+		     RealVector z) {
+	System.arraycopy(A.getValues(), 0, values, 0, values.length);
+	System.arraycopy(z.getArray(), 0, sources, 0, sources.length);
+    }
+
+    /**
+     * @brief Tells whether A holds the cached values
+     * 
+     * @author 1sand0s
+     * @param A System matrix
+     * @return boolean : true if every value of A equals the cached one
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public boolean matches(SparseMatrix A) {
+	return Arrays.equals(values, A.getValues());
+    }
+
+    /**
+     * @brief Overwrites the values of A and z with the cached ones
+     * 
+     * @author 1sand0s
+     * @param A System matrix (output)
+     * @param z Right hand side (output)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void restore(SparseMatrix A,
+			RealVector z) {
+	System.arraycopy(values, 0, A.getValues(), 0, values.length);
+	System.arraycopy(sources, 0, z.getArray(), 0, sources.length);
+    }
+}
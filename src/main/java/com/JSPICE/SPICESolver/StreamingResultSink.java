@@ -0,0 +1,263 @@
+/**
+ * 
+ */
+package com.JSPICE.SPICESolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @brief Transient result streamed to a file, for runs whose time points do
+ *        not fit in memory. Time points are buffered and written through a
+ *        FileChannel, then read back through memory-mapped windows of the
+ *        file, so memory stays bounded by the buffer and one window
+ * 
+ *        File layout : a header of HEADER_BYTES (MAGIC as a long, the
+ *        layout version and the number of unknowns per time point as ints)
+ *        followed by one record per time point, the time then the unknowns,
+ *        all little-endian. Unknown k of every time point is the double at
+ *        k + 1 of each record of numUnknowns + 1 doubles
+ * 
+ * @author 1sand0s
+ * 
+ */
+public class StreamingResultSink extends TransientResultSink {
+    /* "JSPICETR" */
+    public static final long MAGIC = 0x4A53504943455452L;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+
+    private File file;
+    private FileChannel channel;
+    /* Time points not written yet. Its clear and flip are called through
+     * Buffer, which links against the Java 7 signatures rather than the
+     * ByteBuffer overrides added in Java 9 */
+    private ByteBuffer buffer;
+    private int numUnknowns;
+    private int numTimePoints;
+    private int numWritten;
+
+    /* Mapped window of records [windowStart, windowStart + windowLength) */
+    private int windowBytes;
+    private DoubleBuffer window;
+    private int windowStart;
+    private int windowLength;
+
+    /**
+     * @brief Creates the file, replacing any file of the same name, with a
+     *        1MB write buffer and 64MB read windows
+     * 
+     * @author 1sand0s
+     * @param file File the time points are written to
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public StreamingResultSink(File file) {
+	this(file, 1 << 20, 1 << 26);
+    }
+
+    /**
+     * @brief Creates the file, replacing any file of the same name
+     * 
+     * @author 1sand0s
+     * @param file        File the time points are written to
+     * @param bufferBytes Size of the write buffer (grown to one time point
+     *                    if smaller)
+     * @param windowBytes Size of the mapped read windows (grown to one time
+     *                    point if smaller)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public StreamingResultSink(File file,
+			       int bufferBytes,
+			       int windowBytes) {
+	this.file = file;
+	this.windowBytes = windowBytes;
+	buffer = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+	try {
+	    channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				       StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+	} catch (IOException e) {
+	    throw new IllegalStateException("Error : Cannot create transient result file " + file, e);
+	}
+	clear();
+    }
+
+    @Override
+    public void append(double time,
+		       double x[]) {
+	if (numTimePoints == 0) {
+	    numUnknowns = x.length;
+	    writeHeader();
+	} else if (x.length != numUnknowns)
+	    throw new IllegalArgumentException("Error : Time point has " + x.length + " unknowns, the result " + numUnknowns);
+
+	int recordBytes = getRecordBytes();
+	if (buffer.capacity() < recordBytes)
+	    buffer = ByteBuffer.allocateDirect(recordBytes).order(ByteOrder.LITTLE_ENDIAN);
+	if (buffer.remaining() < recordBytes)
+	    flush();
+
+	buffer.putDouble(time);
+	for (int k = 0; k < numUnknowns; k++)
+	    buffer.putDouble(x[k]);
+	numTimePoints++;
+    }
+
+    @Override
+    public int getNumTimePoints() {
+	return numTimePoints;
+    }
+
+    @Override
+    public int getNumUnknowns() {
+	return numUnknowns;
+    }
+
+    @Override
+    public double getTime(int index) {
+	return read(index, 0);
+    }
+
+    @Override
+    public double get(int index,
+		      int unknown) {
+	if (unknown < 0 || unknown >= numUnknowns)
+	    throw new IndexOutOfBoundsException("Error : Unknown " + unknown + " of " + numUnknowns);
+	return read(index, unknown + 1);
+    }
+
+    @Override
+    public void clear() {
+	try {
+	    channel.truncate(0);
+	    channel.position(HEADER_BYTES);
+	} catch (IOException e) {
+	    throw new IllegalStateException("Error : Cannot write transient result file " + file, e);
+	}
+	((Buffer) buffer).clear();
+	numUnknowns = 0;
+	numTimePoints = 0;
+	numWritten = 0;
+	window = null;
+    }
+
+    @Override
+    public void flush() {
+	((Buffer) buffer).flip();
+	try {
+	    while (buffer.hasRemaining())
+		channel.write(buffer);
+	} catch (IOException e) {
+	    throw new IllegalStateException("Error : Cannot write transient result file " + file, e);
+	}
+	((Buffer) buffer).clear();
+	numWritten = numTimePoints;
+    }
+
+    @Override
+    public void close() {
+	flush();
+	window = null;
+	try {
+	    channel.close();
+	} catch (IOException e) {
+	    throw new IllegalStateException("Error : Cannot close transient result file " + file, e);
+	}
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return File : File the time points are written to
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public File getFile() {
+	return file;
+    }
+
+    /**
+     * @brief Reads one double of a record through the mapped window holding
+     *        it, writing out the buffer and mapping a new window first if
+     *        needed
+     * 
+     * @author 1sand0s
+     * @param index  Index of the time point
+     * @param offset Offset of the double in its record
+     * @return double : Value read
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private double read(int index,
+			int offset) {
+	if (index < 0 || index >= numTimePoints)
+	    throw new IndexOutOfBoundsException("Error : Time point " + index + " of " + numTimePoints);
+	if (index >= numWritten)
+	    flush();
+	if (window == null || index < windowStart || index >= windowStart + windowLength)
+	    map(index);
+	return window.get((index - windowStart) * (numUnknowns + 1) + offset);
+    }
+
+    /**
+     * @brief Maps the window of records holding a time point. Windows are
+     *        aligned on a multiple of the records they hold
+     * 
+     * @author 1sand0s
+     * @param index Index of the time point
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void map(int index) {
+	int recordBytes = getRecordBytes();
+	int recordsPerWindow = Math.max(1, windowBytes / recordBytes);
+
+	windowStart = index - index % recordsPerWindow;
+	windowLength = Math.min(recordsPerWindow, numWritten - windowStart);
+	try {
+	    window = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + (long) windowStart * recordBytes,
+				 (long) windowLength * recordBytes).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+	} catch (IOException e) {
+	    throw new IllegalStateException("Error : Cannot map transient result file " + file, e);
+	}
+    }
+
+    /**
+     * @brief Writes the header once the number of unknowns is known
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void writeHeader() {
+	ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+	header.putLong(MAGIC).putInt(VERSION).putInt(numUnknowns);
+	((Buffer) header).flip();
+	try {
+	    while (header.hasRemaining())
+		channel.write(header, HEADER_BYTES - header.remaining());
+	} catch (IOException e) {
+	    throw new IllegalStateException("Error : Cannot write transient result file " + file, e);
+	}
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Bytes of one record
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private int getRecordBytes() {
+	return 8 * (numUnknowns + 1);
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * 
+ */
+package com.JSPICE.SPICESolver;
+
+/**
+ * @brief Storage of the solutions of a transient analysis, one record per
+ *        accepted time point : its time and every unknown of the MNA system
+ *        (node voltages then branch currents)
+ * 
+ * @author 1sand0s
+ * 
+ */
+public abstract class TransientResultSink {
+
+    /**
+     * @brief Adds the solution at a time point
+     * 
+     * @author 1sand0s
+     * @param time Time point (NaN if the solution has none)
+     * @param x    Unknowns at the time point, copied
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public abstract void append(double time,
+				double x[]);
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of time points added
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public abstract int getNumTimePoints();
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of unknowns per time point (0 before the first)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public abstract int getNumUnknowns();
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @param index Index of the time point
+     * @return double : Time of the time point
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public abstract double getTime(int index);
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @param index   Index of the time point
+     * @param unknown Row of the unknown in the MNA system
+     * @return double : Value of the unknown at the time point
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public abstract double get(int index,
+			       int unknown);
+
+    /**
+     * @brief Drops every time point
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public abstract void clear();
+
+    /**
+     * @brief Called by the solver once the last time point is added : makes
+     *        every time point durable. Sinks kept in memory ignore it
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void flush() {
+    }
+
+    /**
+     * @brief Releases the resources held by the sink, which cannot be read
+     *        afterwards. Sinks kept in memory ignore it
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void close() {
+    }
+}
@@ -3,9 +3,11 @@
  */
 package com.JSPICE.SPICESolver;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.util.Arrays;
 
 import com.JSPICE.SMath.Complex;
+import com.JSPICE.SMath.RealVector;
 import com.JSPICE.SElement.SElement;
 import com.JSPICE.Util.ComponentTerminals;
 
@@ -14,10 +16,20 @@ import com.JSPICE.Util.ComponentTerminals;
  *
  */
 public class TransientSpiceResult extends AbstractSpiceResult {
-    ArrayList<double[]> x;
+    /* Time point of every solution, not evenly spaced with adaptive time
+     * steps, and the solution */
+    private TransientResultSink sink;
+    /* Time steps rejected by the adaptive time step control */
+    protected int rejectedTimeSteps;
+    /* Unknowns kept from every solution (null for all of them), the column
+     * of the sink each unknown is kept in (-1 if dropped) and the values
+     * of the kept ones */
+    private int savedUnknowns[];
+    private int columns[];
+    private double savedValues[];
 
     TransientSpiceResult(){
-	x = new ArrayList<double[]>();
+	sink = new MemoryResultSink();
     }
 
     @Override
@@ -26,12 +38,192 @@ public class TransientSpiceResult extends AbstractSpiceResult {
 	
 	for(int j = 0; j < x.length; j++)
 	    x1[j] = x[j][0].getReal();
-	this.x.add(x1);
+	sink.append(Double.NaN, x1);
+    }
+
+    @Override
+    public void updateResult(RealVector x){
+	updateResult(Double.NaN, x);
+    }
+
+    /**
+     * @brief Adds the solution at a time point
+     * 
+     * @author 1sand0s
+     * @param double : t         Time point
+     * @param RealVector : x     Node voltages and branch currents at t
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void updateResult(double t,
+			     RealVector x){
+	if (savedUnknowns == null) {
+	    sink.append(t, x.getArray());
+	    return;
+	}
+	for (int k = 0; k < savedUnknowns.length; k++)
+	    savedValues[k] = x.get(savedUnknowns[k]);
+	sink.append(t, savedValues);
+    }
+
+    @Override
+    public void setSavedUnknowns(int savedUnknowns[],
+				 int numUnknowns){
+	this.savedUnknowns = savedUnknowns;
+	if (savedUnknowns == null) {
+	    columns = null;
+	    savedValues = null;
+	    return;
+	}
+	columns = new int[numUnknowns];
+	Arrays.fill(columns, -1);
+	for (int k = 0; k < savedUnknowns.length; k++)
+	    columns[savedUnknowns[k]] = k;
+	savedValues = new double[savedUnknowns.length];
     }
 
     @Override
     public void clearResult(){
-	x.clear();
+	super.clearResult();
+	sink.clear();
+	rejectedTimeSteps = 0;
+    }
+
+    /**
+     * @brief Selects where the time points are kept : in memory
+     *        (MemoryResultSink, the default) or streamed to a file
+     *        (StreamingResultSink). Drops the time points of the previous
+     *        sink
+     * 
+     * @author 1sand0s
+     * @param TransientResultSink : sink Storage of the time points
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void setResultSink(TransientResultSink sink){
+	this.sink.clear();
+	this.sink = sink;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return TransientResultSink : Storage of the time points
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public TransientResultSink getResultSink(){
+	return sink;
+    }
+
+    /**
+     * @brief Called by the solver after the last time point (see
+     *        TransientResultSink.flush)
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void flush(){
+	sink.flush();
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Number of time points solved
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getNumTimePoints(){
+	return sink.getNumTimePoints();
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @param int : index Index of the time point
+     * @return double : Time of the solution at index
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public double getTime(int index){
+	return sink.getTime(index);
+    }
+
+    /**
+     * @brief Writes the time points to a columnar result file (see
+     *        ColumnarResultWriter) over a time axis, one signal per unknown
+     *        kept but GND. The time points are transposed a block at a time,
+     *        with at most about 8M values in memory
+     * 
+     * @author 1sand0s
+     * @param File : file File to write
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void writeColumnar(File file){
+	/* Rows of the unknowns kept and their columns in the sink */
+	int numUnknowns = savedUnknowns == null ? sink.getNumUnknowns() - 1 : savedUnknowns.length;
+	int unknowns[] = new int[numUnknowns];
+	int sinkColumns[] = new int[numUnknowns];
+	for(int k = 0; k < numUnknowns; k++){
+	    unknowns[k] = savedUnknowns == null ? k + 1 : savedUnknowns[k];
+	    sinkColumns[k] = savedUnknowns == null ? k + 1 : k;
+	}
+
+	String names[] = new String[numUnknowns];
+	String units[] = new String[numUnknowns];
+	for(int k = 0; k < numUnknowns; k++){
+	    names[k] = signalNames == null ? "x(" + unknowns[k] + ")" : signalNames[unknowns[k]];
+	    units[k] = signalUnits == null ? "" : signalUnits[unknowns[k]];
+	}
+
+	int numPoints = sink.getNumTimePoints();
+	ColumnarResultWriter writer = new ColumnarResultWriter(file, "time", "s", names, units, numPoints);
+	int blockLength = Math.max(1, Math.min(numPoints, (1 << 23) / (numUnknowns + 1)));
+	double axis[] = new double[blockLength];
+	double block[][] = new double[numUnknowns][blockLength];
+	for(int first = 0; first < numPoints; first += blockLength){
+	    int length = Math.min(blockLength, numPoints - first);
+	    for(int j = 0; j < length; j++){
+		axis[j] = sink.getTime(first + j);
+		for(int k = 0; k < numUnknowns; k++)
+		    block[k][j] = sink.get(first + j, sinkColumns[k]);
+	    }
+	    writer.writeAxis(first, axis, length);
+	    for(int k = 0; k < numUnknowns; k++)
+		writer.writeSignal(k, first, block[k], length);
+	}
+	writer.close();
+    }
+
+    /**
+     * @brief Counts one time step rejected by the adaptive time step control
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void rejectTimeStep(){
+	rejectedTimeSteps++;
+    }
+
+    /**
+     * regular
+     * 
+     * @author 1sand0s
+     * @return int : Time steps rejected by the adaptive time step control
+     *               (local truncation error too large or Newton-Raphson
+     *               not converged)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public int getRejectedTimeSteps(){
+	return rejectedTimeSteps;
     }
     
     public double getElementVoltage(int index,
@@ -41,12 +233,49 @@ public class TransientSpiceResult extends AbstractSpiceResult {
 	int terminalIndex1 = element.getTerminalIndex(terminal1);
 	int terminalIndex2 = element.getTerminalIndex(terminal2);
 
-	return (x.get(index)[terminalIndex1] - x.get(index)[terminalIndex2]);
+	return (getUnknown(index, terminalIndex1) - getUnknown(index, terminalIndex2));
     }
     
+    /**
+     * @brief Branch current of a voltage or current source
+     * 
+     * @author 1sand0s
+     * @param int : index          Index of the time point
+     * @param SElement : element   Source
+     * @return double : Branch current of the source (0 for elements
+     *                  without one)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
     public double getElementCurrent(int index,
 				    SElement element){
-	return 0.0;
+	if (element.getBranchIndex() < 0)
+	    return 0.0;
+	return getUnknown(index, element.getBranchIndex());
+    }
+
+    /**
+     * @brief Value of an unknown of the MNA system at a time point
+     * 
+     * @author 1sand0s
+     * @param int : index   Index of the time point
+     * @param int : unknown Row of the unknown
+     * @return double : Value of the unknown
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception IllegalArgumentException if the unknown is not on the
+     *            save list
+     */
+    private double getUnknown(int index,
+			      int unknown){
+	if (columns == null)
+	    return sink.get(index, unknown);
+	if (columns[unknown] >= 0)
+	    return sink.get(index, columns[unknown]);
+	/* GND */
+	if (unknown == 0)
+	    return 0.0;
+	throw new IllegalArgumentException("Error : Unknown " + unknown + " is not on the save list");
     }
 
     @Override
@@ -56,20 +285,12 @@ public class TransientSpiceResult extends AbstractSpiceResult {
 
 	TransientSpiceResult result = (TransientSpiceResult) result1;
 	
-	if(result.x.size() != x.size())
+	if(result.sink.getNumTimePoints() != sink.getNumTimePoints())
 	    return false;
 	
-	for(int j = 0; j < x.size(); j++){
-	    if(x.get(j).length != result.x.get(j).length)
+	for(int j = 0; j < sink.getNumTimePoints(); j++){
+	    if(!resultMatch(j, result, j, tol))
 		return false;
-
-	    for(int k = 0; k < x.get(j).length; k++){
-		if(!(x.get(j)[k] == 0 && result.x.get(j)[k] == 0)){
-		    if(!(Math.abs(result.x.get(j)[k] - x.get(j)[k]) / Math.abs(result.x.get(j)[k] + x.get(j)[k]) < tol)){
-			return false;
-		    }
-		}
-	    }
 	}
 	return true;
     }
@@ -79,14 +300,31 @@ public class TransientSpiceResult extends AbstractSpiceResult {
 	if(!(result1 instanceof TransientSpiceResult))
 	    return false;
 
-	TransientSpiceResult result = (TransientSpiceResult) result1;
-	
-        if(x.get(j).length != result.x.get(0).length)
+	return resultMatch(j, (TransientSpiceResult) result1, 0, tol);
+    }
+
+    /**
+     * @brief Compares the solution at time point j with the one at time
+     *        point i of another result
+     * 
+     * @author 1sand0s
+     * @param int : j                         Index of the time point
+     * @param TransientSpiceResult : result   Result to compare with
+     * @param int : i                         Index of its time point
+     * @param double : tol                    Relative tolerance
+     * @return boolean : true if every unknown matches
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private boolean resultMatch(int j, TransientSpiceResult result, int i, double tol){
+        if(sink.getNumUnknowns() != result.sink.getNumUnknowns())
 	    return false;
 	
-	for(int k = 0; k < x.get(j).length; k++){
-	    if(!(x.get(j)[k] == 0 && result.x.get(0)[k] == 0)){
-		if(!(Math.abs(result.x.get(0)[k] - x.get(j)[k]) / Math.abs(result.x.get(0)[k] + x.get(j)[k]) < tol)){
+	for(int k = 0; k < sink.getNumUnknowns(); k++){
+	    double value = sink.get(j, k);
+	    double expected = result.sink.get(i, k);
+	    if(!(value == 0 && expected == 0)){
+		if(!(Math.abs(expected - value) / Math.abs(expected + value) < tol)){
 		    return false;
 		}
 	    }
@@ -4,11 +4,13 @@
 package com.JSPICE.SPICESolver;
 
 import com.JSPICE.SElement.*;
-import com.JSPICE.SMath.ComplexMatrixOperations;
-import com.JSPICE.SMath.Complex;
-import com.JSPICE.SElement.VSource.VSource;
+import com.JSPICE.SMath.LinearSolverType;
+import com.JSPICE.SMath.RealMatrixOperations;
+import com.JSPICE.SMath.RealVector;
+import com.JSPICE.Util.IntegrationMethod;
 
 import java.util.ArrayList;
+import java.util.PriorityQueue;
 
 /**
  * @author 1sand0s
@@ -21,7 +23,29 @@ public class TransientSpiceSolver extends AbstractSpiceSolver {
     private double tStep = 0;
     private int numPoints = 0;
     private double time[];
+    /* Piecewise-linear time step schedule (PWL) */
+    private double pwlTimes[];
+    private double pwlSteps[];
     private AbstractSpiceSolver.TimeStepType type;
+    /* Linear stamps plus the time dependent ones of the current time step */
+    private StampCache stepStamps;
+    /* System last factored, for linear circuits (null before the first
+     * time point) */
+    private StampCache factoredStamps;
+    /* Adaptive time steps (see setAdaptiveTimeStep) : limits of the step,
+     * tolerance factor of the local truncation error (SPICE trtol) and
+     * absolute charge/flux tolerance (SPICE chgtol) */
+    private boolean adaptive = false;
+    private double minTimeStep;
+    private double maxTimeStep;
+    private double trtol = 7;
+    private double chgtol = 1e-14;
+    private IntegrationMethod integrationMethod = IntegrationMethod.BACKWARD_EULER;
+    /* Solution of the last accepted time point */
+    private RealVector xAccepted;
+    /* Breakpoints of the time dependent sources within (tMin, tMax) not
+     * reached yet, earliest first */
+    private PriorityQueue<Double> breakpoints;
     
     /**
      * 
@@ -30,7 +54,6 @@ public class TransientSpiceSolver extends AbstractSpiceSolver {
         circuitElements = new ArrayList<SElement>();
         wires = new ArrayList<Wire>();
 	result = new TransientSpiceResult();
-	tol = 1e-5;
     }
 
     @Override
@@ -38,6 +61,8 @@ public class TransientSpiceSolver extends AbstractSpiceSolver {
 			    double tMax,
 			    int numPoints,
 			    AbstractSpiceSolver.TimeStepType type) {
+	if (type == AbstractSpiceSolver.TimeStepType.PWL)
+	    throw new IllegalArgumentException("Error : PWL time steps need a schedule, see setTimeStep(tMin, tMax, times, steps)");
 	this.tMin = tMin;
 	this.tMax = tMax;
 	this.type = type;
@@ -54,6 +79,44 @@ public class TransientSpiceSolver extends AbstractSpiceSolver {
 	this.type = AbstractSpiceSolver.TimeStepType.LINEAR;
     }
 
+    @Override
+    public void setTimeStep(double tMin,
+			    double tMax,
+			    double times[],
+			    double steps[]) {
+	if (times.length == 0 || times.length != steps.length)
+	    throw new IllegalArgumentException("Error : PWL schedule needs as many steps as times, at least one");
+	for (int j = 0; j < times.length; j++) {
+	    if (steps[j] <= 0)
+		throw new IllegalArgumentException("Error : PWL time step " + steps[j] + " at " + times[j] + " is not positive");
+	    if (j > 0 && times[j] <= times[j - 1])
+		throw new IllegalArgumentException("Error : PWL schedule times must be increasing");
+	}
+	this.tMin = tMin;
+	this.tMax = tMax;
+	this.pwlTimes = times.clone();
+	this.pwlSteps = steps.clone();
+	this.type = AbstractSpiceSolver.TimeStepType.PWL;
+    }
+
+    @Override
+    public void setAdaptiveTimeStep(double minStep,
+				    double maxStep) {
+	this.adaptive = true;
+	this.minTimeStep = minStep;
+	this.maxTimeStep = maxStep;
+    }
+
+    @Override
+    public void setIntegrationMethod(IntegrationMethod integrationMethod) {
+	this.integrationMethod = integrationMethod;
+    }
+
+    @Override
+    public void setResultSink(TransientResultSink sink) {
+	((TransientSpiceResult) result).setResultSink(sink);
+    }
+
     @Override
     public void expandTime() {
 	switch(type){
@@ -70,11 +133,59 @@ public class TransientSpiceSolver extends AbstractSpiceSolver {
 	    }
 	    break;
 	case LOGARITHMIC:
+	    /* Evenly spaced on a log scale of t - tMin + offset, the steps
+	     * growing geometrically from tMin to tMax. The offset sets the
+	     * spread : the last step is about numPoints^2 times the first */
+	    double offset = (tMax - tMin) / ((double) numPoints * numPoints);
+	    double span = Math.log((tMax - tMin + offset) / offset);
+	    time = new double[numPoints + 1];
+	    for(int j = 0; j < (numPoints + 1); j++){
+		time[j] = tMin + offset * (Math.exp(span * j / numPoints) - 1);
+	    }
+	    time[numPoints] = tMax;
 	    break;
 	case PWL:
+	    ArrayList<Double> points = new ArrayList<Double>();
+	    double t = tMin;
+	    points.add(t);
+	    while (t < tMax) {
+		double step = getScheduledStep(t);
+		/* Do not leave a sliver shorter than a tenth of a step
+		 * before tMax */
+		t = tMax - (t + step) < 0.1 * step ? tMax : t + step;
+		points.add(t);
+	    }
+	    time = new double[points.size()];
+	    for(int j = 0; j < time.length; j++){
+		time[j] = points.get(j);
+	    }
 	    break;
 	}
     }
+
+    @Override
+    public double[] getTime() {
+	return time;
+    }
+
+    /**
+     * @brief Time step of the PWL schedule at a time, interpolated linearly
+     *        between the schedule times
+     * 
+     * @author 1sand0s
+     * @param t Time in seconds
+     * @return double : Time step in seconds
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private double getScheduledStep(double t) {
+	if (t <= pwlTimes[0])
+	    return pwlSteps[0];
+	for (int k = 1; k < pwlTimes.length; k++)
+	    if (t < pwlTimes[k])
+		return pwlSteps[k - 1] + (pwlSteps[k] - pwlSteps[k - 1]) * (t - pwlTimes[k - 1]) / (pwlTimes[k] - pwlTimes[k - 1]);
+	return pwlSteps[pwlTimes.length - 1];
+    }
     
     @Override
     public void solve() {
@@ -103,14 +214,48 @@ public class TransientSpiceSolver extends AbstractSpiceSolver {
 	dcSolver.addElements(circuitElements);
 	dcSolver.addWires(wires);
 	dcSolver.solve();
-	x = dcSolver.x;
 
-	for(int j = 0; j < (time.length - 1); j++){
-	    solve(circuitElements,
-		  wires,
-		  time[j],
-		  time[j + 1] - time[j]);
+	numberNodes();
+	allocateMatrices(wires);
+	compileCircuit(circuitElements);
+	x.copyRange(dcSolver.x, 0, 0, x.getLength());
+
+	/* Linear stamps depend neither on time nor on x, stamp them once for
+	 * the whole simulation */
+	clearMatrices();
+	stampElementsTransient(linearElements, time[0], 0);
+	baseStamps.save(A, z);
+	stepStamps = new StampCache(A, z);
+	factoredStamps = null;
+
+	/* Reactive elements integrate from the DC operating point */
+	xAccepted = new RealVector(x.getLength());
+	xAccepted.copyRange(x, 0, 0, x.getLength());
+	for (int j = 0; j < timeDependentElements.size(); j++) {
+	    timeDependentElements.get(j).setIntegrationMethod(integrationMethod);
+	    timeDependentElements.get(j).startTransient(x);
+	}
+
+	if (adaptive) {
+	    queueBreakpoints();
+	    solveAdaptive();
+	}
+	else {
+	    double deltaT = 0;
+	    for(int j = 0; j < (time.length - 1); j++){
+		/* Steps of a uniform grid differ by rounding only, keep them
+		 * equal so the matrix of a linear circuit does not change */
+		double step = time[j + 1] - time[j];
+		if (Math.abs(step - deltaT) > 1e-9 * step)
+		    deltaT = step;
+		solve(circuitElements,
+		      wires,
+		      time[j],
+		      deltaT);
+	    }
 	}
+	updateBypassStatistics();
+	((TransientSpiceResult) result).flush();
     }
     
     @Override
@@ -118,50 +263,229 @@ public class TransientSpiceSolver extends AbstractSpiceSolver {
 		      ArrayList<Wire> wires,
 		      double t,
 		      double deltaT){
-	
-        G = new Complex[wires.size()][wires.size()];
-        B = new Complex[wires.size()][iVSource + iISource];
-        C = new Complex[iVSource + iISource][wires.size()];
-        D = new Complex[iVSource + iISource][iVSource + iISource];
-        z = new Complex[wires.size() + iVSource + iISource][numHarmonics];
-	
-        numberNodes();
-	
-	/* Holds result after each Newton-Raphson iteration */
-	Complex xSolved[][];
-	
-	do{
-	    xSolved = x;
-	    int vSourceIndex = 0;
-
-	    /* Re-initialize all matrices to 0's
-	     * [+] TODO : Optimize since only 'x' changes between 
-	     *            Newton-Raphson iterations
-	     */
-	    ComplexMatrixOperations.initializeMatrices(G);
-	    ComplexMatrixOperations.initializeMatrices(B);
-	    ComplexMatrixOperations.initializeMatrices(C);
-	    ComplexMatrixOperations.initializeMatrices(D);
-	    ComplexMatrixOperations.initializeMatrices(z);
-
-	    /* Stamp each circuit element into the MNA matrix */
-	    for (int j = 0; j < circuitElements.size(); j++) {
-		SElement element = circuitElements.get(j);
-		
-		element.stampMatrixTransient(G, B, C, D, z, x, vSourceIndex, t, deltaT); 
-		
-		if (element instanceof VSource)
-		    vSourceIndex++;
+	solveTimePoint(t, deltaT);
+	acceptTimePoint(t, deltaT);
+    }
+
+    /**
+     * @brief Adaptive time stepping from tMin to tMax. The first time point
+     *        is solved at tMin with the step set by setTimeStep like on a
+     *        fixed grid. Every following step is checked against the local
+     *        truncation error of the reactive elements (see
+     *        SElement.getTruncationError) : a step whose error is above
+     *        trtol times the tolerance is rejected and retried shorter, an
+     *        accepted one sets the next step from the error, which grows as
+     *        deltaT^(order + 1) for a method of that order. A step where
+     *        Newton-Raphson does not converge is retried 8 times shorter.
+     *        Steps stay within [minTimeStep, maxTimeStep] and are cut to
+     *        land exactly on the breakpoints of the sources, after which
+     *        stepping restarts with a tenth of the step or of the time to
+     *        the next breakpoint
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     * @exception ArithmeticException if a step shorter than minTimeStep
+     *            would be needed
+     */
+    private void solveAdaptive() {
+	TransientSpiceResult transientResult = (TransientSpiceResult) result;
+	/* First step of the grid, the whole span if the grid has a single
+	 * point (a step longer than the span or tMax == tMin) */
+	double deltaT = time.length > 1 ? time[1] - time[0] : tMax - tMin;
+	deltaT = deltaT > 0 ? Math.min(deltaT, maxTimeStep) : maxTimeStep;
+	double t = tMin;
+	double exponent = integrationMethod == IntegrationMethod.BACKWARD_EULER ? 1.0 / 2 : 1.0 / 3;
+
+	solve(circuitElements, wires, t, deltaT);
+
+	/* Start short, there is no error estimate before two time points */
+	deltaT = Math.max(0.1 * Math.min(deltaT, getNextBreakpoint(t) - t), minTimeStep);
+	while (t < tMax) {
+	    /* Land on the next breakpoint (tMax being the last one) without
+	     * leaving a sliver before it */
+	    double breakpoint = getNextBreakpoint(t);
+	    boolean landing = false;
+	    if (t + deltaT > breakpoint || breakpoint - (t + deltaT) < minTimeStep) {
+		deltaT = breakpoint - t;
+		landing = true;
 	    }
-	    
-	    /* Exclude Row and Column corresponding to GND node to prevent singular matrix */
-	    Complex A[][] = constructMNAMatrix(G, B, C, D);
 
-	    x = ComplexMatrixOperations.computeLinearEquation(A, removeGNDFromResult(z));
-	    x = addGNDToResult(x);
+	    double error;
+	    try {
+		solveTimePoint(t + deltaT, deltaT);
+		error = getTruncationError(deltaT) / trtol;
+	    } catch (ArithmeticException e) {
+		error = Double.POSITIVE_INFINITY;
+	    }
+
+	    if (error > 1) {
+		transientResult.rejectTimeStep();
+		if (deltaT <= minTimeStep)
+		    throw new ArithmeticException("Error : Time step too small at t = " + t);
+		/* Retry from the last accepted time point, without the device
+		 * state the rejected step left in the nonlinear elements */
+		x.copyRange(xAccepted, 0, 0, x.getLength());
+		resetLimiting();
+		deltaT = Math.max(minTimeStep,
+				  error == Double.POSITIVE_INFINITY ? deltaT / 8 : deltaT * Math.max(0.25, 0.9 / Math.pow(error, exponent)));
+		continue;
+	    }
+
+	    t = landing ? breakpoint : t + deltaT;
+	    acceptTimePoint(t, deltaT);
+	    if (landing && t < tMax)
+		deltaT = Math.max(minTimeStep, 0.1 * Math.min(deltaT, getNextBreakpoint(t) - t));
+	    else
+		deltaT = Math.min(maxTimeStep, Math.max(minTimeStep, deltaT * Math.min(2, 0.9 / Math.pow(error, exponent))));
+	}
+    }
+
+    /**
+     * @brief Queues the breakpoints of the time dependent elements within
+     *        (tMin, tMax)
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void queueBreakpoints() {
+	breakpoints = new PriorityQueue<Double>();
+	for (int j = 0; j < timeDependentElements.size(); j++) {
+	    double breakpoint = timeDependentElements.get(j).getNextBreakpoint(tMin);
+	    while (breakpoint < tMax) {
+		breakpoints.add(breakpoint);
+		breakpoint = timeDependentElements.get(j).getNextBreakpoint(breakpoint);
+	    }
+	}
+    }
+
+    /**
+     * @brief Drops the breakpoints already reached and returns the next one
+     * 
+     * @author 1sand0s
+     * @param t Last accepted time point
+     * @return double : First breakpoint more than minTimeStep after t, tMax
+     *         if there is none
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private double getNextBreakpoint(double t) {
+	while (!breakpoints.isEmpty() && breakpoints.peek() <= t + minTimeStep)
+	    breakpoints.poll();
+	return breakpoints.isEmpty() ? tMax : breakpoints.peek();
+    }
+
+    /**
+     * @brief Solves the circuit at one time point from the last accepted one
+     * 
+     * @author 1sand0s
+     * @param t      Time point being solved
+     * @param deltaT Time step from the last accepted time point
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void solveTimePoint(double t,
+				double deltaT) {
+	/* Time dependent stamps use the history of the last accepted time
+	 * point and are fixed for the whole time step */
+	baseStamps.restore(A, z);
+	stampElementsTransient(timeDependentElements, t, deltaT);
+	stepStamps.save(A, z);
+
+	startNewtonRaphson();
+	do{
+	    xPrevious.copyRange(x, 0, 0, x.getLength());
+
+	    /* Only nonlinear elements are restamped about the previous iterate */
+	    stepStamps.restore(A, z);
+	    stampElementsTransient(nonlinearElements, t, deltaT);
+
+	    if (nonlinearElements.isEmpty() && linearSolverType == LinearSolverType.SPARSE_LU)
+		solveLinearTimePoint();
+	    else
+		solveNewtonIteration();
 	    
-	} while(!ComplexMatrixOperations.compareMatrices(x, xSolved, tol));
+	} while(isIterating());
+	result.updateNewtonStatistics(newtonIterations, newtonResidual);
+    }
+
+    /**
+     * @brief Solves a time point of a linear circuit. Its matrix only changes
+     *        with the time step (C/dt, dt/L) : while it equals the one last
+     *        factored, as on a fixed grid, only the right hand side is
+     *        substituted through the factors
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void solveLinearTimePoint() {
+	if (factoredStamps != null && factoredStamps.matches(A)) {
+	    /* Stamps to GND landed in the sink slot (see solveMNASystem) */
+	    z.set(0, 0);
+	    RealMatrixOperations.computeLinearEquation(factorization, z, x);
+	} else {
+	    solveMNASystem();
+	    if (factoredStamps == null)
+		factoredStamps = new StampCache(A, z);
+	    factoredStamps.save(A, z);
+	}
+	newtonIterations++;
+    }
+
+    /**
+     * @brief Keeps the solution of a time point : adds it to the history of
+     *        the reactive elements and to the result
+     * 
+     * @author 1sand0s
+     * @param t      Time point solved
+     * @param deltaT Time step that led to it
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void acceptTimePoint(double t,
+				 double deltaT) {
+	for (int j = 0; j < timeDependentElements.size(); j++)
+	    timeDependentElements.get(j).acceptTimeStep(x, deltaT);
+	xAccepted.copyRange(x, 0, 0, x.getLength());
+	((TransientSpiceResult) result).updateResult(t, x);
+    }
+
+    /**
+     * @brief Largest local truncation error over tolerance of the reactive
+     *        elements for the time point just solved
+     * 
+     * @author 1sand0s
+     * @param deltaT Time step that led to it
+     * @return double : Error over tolerance (see
+     *         SElement.getTruncationError)
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private double getTruncationError(double deltaT) {
+	double error = 0;
+
+	for (int j = 0; j < timeDependentElements.size(); j++)
+	    error = Math.max(error, timeDependentElements.get(j).getTruncationError(x, deltaT, reltol, chgtol));
+	return error;
+    }
 
-	result.updateResult(x);
+    /**
+     * @brief Stamps the transient contributions of a list of elements about
+     *        the current iterate x
+     * 
+     * @author 1sand0s
+     * @param elements Elements to stamp
+     * @param t        Time point being solved
+     * @param deltaT   Time step from the previous time point
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void stampElementsTransient(ArrayList<SElement> elements,
+					double t,
+					double deltaT) {
+	for (int j = 0; j < elements.size(); j++)
+	    elements.get(j).stampMatrixTransient(A, z, x, t, deltaT);
     }
 }
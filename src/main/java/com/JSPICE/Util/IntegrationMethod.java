@@ -0,0 +1,14 @@
+/**
+ * 
+ */
+package com.JSPICE.Util;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public enum IntegrationMethod {
+    BACKWARD_EULER,
+    TRAPEZOIDAL,
+    GEAR2
+}
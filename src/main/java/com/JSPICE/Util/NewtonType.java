@@ -0,0 +1,14 @@
+/**
+ * 
+ */
+package com.JSPICE.Util;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public enum NewtonType {
+    FULL,
+    CHORD,
+    BROYDEN
+}
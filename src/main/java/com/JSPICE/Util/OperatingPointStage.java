@@ -0,0 +1,14 @@
+/**
+ * 
+ */
+package com.JSPICE.Util;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public enum OperatingPointStage {
+    NEWTON_RAPHSON,
+    GMIN_STEPPING,
+    SOURCE_STEPPING
+}
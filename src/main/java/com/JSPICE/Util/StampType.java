@@ -0,0 +1,14 @@
+/**
+ * 
+ */
+package com.JSPICE.Util;
+
+/**
+ * @author 1sand0s
+ * 
+ */
+public enum StampType {
+    LINEAR,
+    TIME_DEPENDENT,
+    NONLINEAR
+}
@@ -0,0 +1,128 @@
+/**
+ * 
+ */
+package com.JSPICE.Benchmark;
+
+import com.JSPICE.SMath.RealMatrix;
+import com.JSPICE.SMath.RealVector;
+import com.JSPICE.SMath.SparseLU;
+import com.JSPICE.SMath.SparseMatrix;
+import com.JSPICE.SMath.SparsePattern;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @brief One Newton-Raphson iteration (clear, stamp, factor, solve) of a
+ *        resistor ladder driven by a voltage source, node 0 being GND :
+ *        stamping through slots compiled by SparsePattern straight into the
+ *        compressed-column values against stamping a dense matrix that is
+ *        compressed before every refactorization
+ * 
+ * @author 1sand0s
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledStampBenchmark {
+
+    @Param({ "50", "200", "1000" })
+    public int numNodes;
+
+    private int size;
+    private RealVector z;
+    private RealVector x;
+
+    private SparseMatrix A;
+    private int slots[][];
+    private int branchSlots[];
+    private int sinkDiagonal;
+    private SparseLU compiledLU;
+
+    private RealMatrix dense;
+    private SparseLU denseLU;
+
+    @Setup
+    public void setup() {
+        size = numNodes + 1;
+        z = new RealVector(size);
+        x = new RealVector(size);
+
+        SparsePattern pattern = new SparsePattern(size, 0);
+        for (int pass = 0; pass < 2; pass++) {
+            slots = new int[numNodes][];
+            for (int k = 1; k < numNodes; k++)
+                slots[k] = new int[] { pattern.slot(k, k), pattern.slot(k - 1, k - 1),
+                                       pattern.slot(k, k - 1), pattern.slot(k - 1, k) };
+            branchSlots = new int[] { pattern.slot(numNodes - 1, numNodes), pattern.slot(numNodes, numNodes - 1) };
+            if (pass == 0)
+                pattern.compile();
+        }
+        A = pattern.createMatrix();
+        sinkDiagonal = pattern.getSinkDiagonal();
+        compiledLU = new SparseLU();
+
+        dense = new RealMatrix(size, size);
+        denseLU = new SparseLU();
+    }
+
+    @Benchmark
+    public double compiledSlots() {
+        double values[] = A.getValues();
+        A.clear();
+        values[sinkDiagonal] = 1;
+        for (int k = 1; k < numNodes; k++) {
+            values[slots[k][0]] += 1e-2;
+            values[slots[k][1]] += 1e-2;
+            values[slots[k][2]] -= 1e-2;
+            values[slots[k][3]] -= 1e-2;
+        }
+        values[branchSlots[0]] += 1;
+        values[branchSlots[1]] += 1;
+        z.set(numNodes, 10);
+
+        compiledLU.refactor(A);
+        compiledLU.solve(z.getArray(), x.getArray());
+        return x.get(1);
+    }
+
+    @Benchmark
+    public double denseThenCompress() {
+        dense.clear();
+        for (int k = 1; k < numNodes; k++) {
+            dense.add(k, k, 1e-2);
+            dense.add(k - 1, k - 1, 1e-2);
+            dense.add(k, k - 1, -1e-2);
+            dense.add(k - 1, k, -1e-2);
+        }
+        dense.add(numNodes - 1, numNodes, 1);
+        dense.add(numNodes, numNodes - 1, 1);
+        z.set(numNodes, 10);
+
+        /* Drop GND as the solver used to */
+        for (int i = 0; i < size; i++) {
+            dense.set(i, 0, 0);
+            dense.set(0, i, 0);
+        }
+        dense.set(0, 0, 1);
+
+        denseLU.refactor(dense);
+        denseLU.solve(z.getArray(), x.getArray());
+        return x.get(1);
+    }
+}
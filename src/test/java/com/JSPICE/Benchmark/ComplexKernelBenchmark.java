@@ -0,0 +1,143 @@
+/**
+ * 
+ */
+package com.JSPICE.Benchmark;
+
+import com.JSPICE.SMath.Complex;
+import com.JSPICE.SMath.ComplexMatrix;
+import com.JSPICE.SMath.ComplexMatrixOperations;
+import com.JSPICE.SMath.ComplexVector;
+import com.JSPICE.SMath.LinearSolverType;
+import com.JSPICE.SMath.RealMatrix;
+import com.JSPICE.SMath.RealMatrixOperations;
+import com.JSPICE.SMath.RealVector;
+import com.JSPICE.SMath.SparseLU;
+import com.JSPICE.SMath.SparseMatrix;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @brief Allocation of the complex kernels and of a Newton-Raphson solve.
+ *        Meant to be run with -prof gc and compared on gc.alloc.rate.norm
+ *        (bytes per operation) : the flat QR into caller-provided buffers
+ *        against the Complex[][] entry point, and a refactorization from
+ *        the dense MNA matrix that reuses its compressed copy against one
+ *        that compresses it again on every call
+ * 
+ * @author 1sand0s
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComplexKernelBenchmark {
+
+    @Param({ "20", "100" })
+    public int n;
+
+    private ComplexMatrix A;
+    private ComplexMatrix Q;
+    private ComplexMatrix R;
+    private ComplexVector z;
+    private ComplexVector x;
+    private Complex A1[][];
+    private Complex z1[][];
+
+    private RealMatrix G;
+    private RealVector zReal;
+    private RealVector xReal;
+    private SparseLU lu;
+
+    private Complex accumulator;
+    private Complex divisor;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+
+        A = new ComplexMatrix(n, n);
+        Q = new ComplexMatrix(n, n);
+        R = new ComplexMatrix(n, n);
+        z = new ComplexVector(n);
+        x = new ComplexVector(n);
+        for (int i = 0; i < n; i++) {
+            z.set(i, random.nextDouble(), random.nextDouble());
+            for (int j = 0; j < n; j++)
+                A.set(i, j, random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+        }
+        A1 = A.toArray();
+        z1 = new Complex[n][1];
+        for (int i = 0; i < n; i++)
+            z1[i][0] = z.get(i);
+
+        /* Resistor ladder driven by one voltage source */
+        G = new RealMatrix(n + 1, n + 1);
+        for (int k = 0; k < n; k++) {
+            G.add(k, k, 1e-3);
+            if (k > 0) {
+                G.add(k, k, 1e-2);
+                G.add(k - 1, k - 1, 1e-2);
+                G.add(k, k - 1, -1e-2);
+                G.add(k - 1, k, -1e-2);
+            }
+        }
+        G.set(0, n, 1);
+        G.set(n, 0, 1);
+        zReal = new RealVector(n + 1);
+        xReal = new RealVector(n + 1);
+        zReal.set(n, 10);
+        lu = new SparseLU();
+        lu.factor(SparseMatrix.fromDense(G));
+
+        accumulator = new Complex(1, 1);
+        divisor = new Complex(1.000001, 1e-7);
+    }
+
+    @Benchmark
+    public double flatQRSolve() {
+        ComplexMatrixOperations.computeQR(A, Q, R);
+        ComplexMatrixOperations.solveQR(Q, R, z, x);
+        return x.getReal(n - 1);
+    }
+
+    @Benchmark
+    public double arrayQRSolve() {
+        Complex x1[][] = ComplexMatrixOperations.computeLinearEquation(A1, z1, LinearSolverType.QR);
+        return x1[n - 1][0].getReal();
+    }
+
+    @Benchmark
+    public double realRefactorReusingMatrix() {
+        RealMatrixOperations.computeLinearEquation(lu, G, zReal, xReal);
+        return xReal.get(n - 1);
+    }
+
+    @Benchmark
+    public double realRefactorFromDense() {
+        lu.refactor(SparseMatrix.fromDense(G));
+        lu.solve(zReal.getArray(), xReal.getArray());
+        return xReal.get(n - 1);
+    }
+
+    @Benchmark
+    public double divideInPlace() {
+        accumulator.divide(divisor);
+        return accumulator.getReal();
+    }
+}
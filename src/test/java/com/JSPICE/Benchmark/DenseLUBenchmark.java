@@ -0,0 +1,79 @@
+/**
+ * 
+ */
+package com.JSPICE.Benchmark;
+
+import com.JSPICE.SMath.DenseLU;
+import com.JSPICE.SMath.RealMatrix;
+import com.JSPICE.SMath.SparseLU;
+import com.JSPICE.SMath.SparseMatrix;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @brief Blocked dense LU factorization of a strongly coupled system
+ *        (every unknown touches about 10% of the others) at several worker
+ *        counts, against the sparse LU on the same matrix
+ * 
+ * @author 1sand0s
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class DenseLUBenchmark {
+
+    @Param({ "500", "1500" })
+    public int n;
+
+    @Param({ "1", "2", "4" })
+    public int parallelism;
+
+    private RealMatrix A;
+    private SparseMatrix sparse;
+    private DenseLU lu;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        A = new RealMatrix(n, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++)
+                if (i != j && random.nextDouble() < 0.1)
+                    A.add(i, j, -random.nextDouble());
+            A.add(i, i, n);
+        }
+        sparse = SparseMatrix.fromDense(A);
+        lu = new DenseLU();
+        lu.setParallelism(parallelism);
+    }
+
+    @Benchmark
+    public DenseLU denseFactor() {
+        lu.factor(A);
+        return lu;
+    }
+
+    @Benchmark
+    public SparseLU sparseFactor() {
+        SparseLU sparseLU = new SparseLU();
+        sparseLU.factor(sparse);
+        return sparseLU;
+    }
+}
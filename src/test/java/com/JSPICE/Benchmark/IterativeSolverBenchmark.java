@@ -0,0 +1,128 @@
+/**
+ * 
+ */
+package com.JSPICE.Benchmark;
+
+import com.JSPICE.SMath.IterativeSolver;
+import com.JSPICE.SMath.LinearSolverType;
+import com.JSPICE.SMath.PreconditionerType;
+import com.JSPICE.SMath.SparseLU;
+import com.JSPICE.SMath.SparseMatrix;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @brief Solve of a power-grid style resistor mesh (side x side nodes, each
+ *        tied to GND through a load, driven by one current injection)
+ *        assembled directly in compressed-column storage. Compares the
+ *        sparse LU with GMRES and BiCGSTAB under ILU0 and ILUT
+ * 
+ * @author 1sand0s
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class IterativeSolverBenchmark {
+
+    @Param({ "100", "300" })
+    public int side;
+
+    @Param({ "ILU0", "ILUT" })
+    public PreconditionerType preconditioner;
+
+    private SparseMatrix mesh;
+    private double b[];
+    private double x[];
+    private IterativeSolver solver;
+
+    @Setup
+    public void setup() {
+        int n = side * side;
+        int columnPointers[] = new int[n + 1];
+        int rowIndices[] = new int[5 * n];
+        double values[] = new double[5 * n];
+        int p = 0;
+
+        /* Column k of the 1 Ohm mesh with 100 Ohm loads, rows in increasing order */
+        for (int k = 0; k < n; k++) {
+            int i = k / side;
+            int j = k % side;
+            int neighbours = (i > 0 ? 1 : 0) + (i + 1 < side ? 1 : 0) + (j > 0 ? 1 : 0) + (j + 1 < side ? 1 : 0);
+
+            columnPointers[k] = p;
+            if (i > 0) {
+                rowIndices[p] = k - side;
+                values[p++] = -1;
+            }
+            if (j > 0) {
+                rowIndices[p] = k - 1;
+                values[p++] = -1;
+            }
+            rowIndices[p] = k;
+            values[p++] = neighbours + 0.01;
+            if (j + 1 < side) {
+                rowIndices[p] = k + 1;
+                values[p++] = -1;
+            }
+            if (i + 1 < side) {
+                rowIndices[p] = k + side;
+                values[p++] = -1;
+            }
+        }
+        columnPointers[n] = p;
+        mesh = new SparseMatrix(n, n, columnPointers, Arrays.copyOf(rowIndices, p), Arrays.copyOf(values, p));
+
+        b = new double[n];
+        x = new double[n];
+        b[n / 2 + side / 2] = 1;
+        solver = new IterativeSolver();
+        solver.setPreconditioner(preconditioner);
+        solver.setMaxIterations(10000);
+    }
+
+    @Benchmark
+    public double gmres() {
+        Arrays.fill(x, 0);
+        solver.solve(LinearSolverType.GMRES, mesh, b, x);
+        return x[0];
+    }
+
+    @Benchmark
+    public double bicgstab() {
+        Arrays.fill(x, 0);
+        solver.solve(LinearSolverType.BICGSTAB, mesh, b, x);
+        return x[0];
+    }
+
+    @Benchmark
+    public double sparseLU() {
+        SparseLU lu = new SparseLU();
+        lu.factor(mesh);
+        lu.solve(b, x);
+        return x[0];
+    }
+
+    @TearDown
+    public void reportIterations() {
+        System.out.println("\n" + side + "x" + side + " " + preconditioner + " : " + solver.getIterations()
+                           + " iterations, relative residual " + solver.getResidual());
+    }
+}
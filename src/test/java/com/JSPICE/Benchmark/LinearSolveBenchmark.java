@@ -0,0 +1,132 @@
+/**
+ * 
+ */
+package com.JSPICE.Benchmark;
+
+import com.JSPICE.SMath.ComplexMatrix;
+import com.JSPICE.SMath.ComplexSparseLU;
+import com.JSPICE.SMath.ComplexSparseMatrix;
+import com.JSPICE.SMath.RealMatrix;
+import com.JSPICE.SMath.SparseLU;
+import com.JSPICE.SMath.SparseMatrix;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @brief Factor and solve (and solve alone) of a resistor ladder MNA system (one voltage
+ *        source) on the complex sparse LU against the real one used by DC
+ *        and transient analysis, and the real numeric refactorization that
+ *        reuses the pivot order
+ * 
+ * @author 1sand0s
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinearSolveBenchmark {
+
+    @Param({ "50", "200", "1000" })
+    public int numNodes;
+
+    private ComplexSparseMatrix complexMatrix;
+    private SparseMatrix realMatrix;
+    private ComplexSparseLU complexLU;
+    private SparseLU realLU;
+    private double bReal[];
+    private double bImaginary[];
+    private double real[];
+    private double imaginary[];
+
+    @Setup
+    public void setup() {
+        int n = numNodes + 1;
+        ComplexMatrix A = new ComplexMatrix(n, n);
+        RealMatrix A1 = new RealMatrix(n, n);
+
+        /* Ladder of 100 Ohm series / 1 kOhm shunt resistors driven at node 0 */
+        for (int k = 0; k < numNodes; k++) {
+            double g = 1e-3;
+            A.add(k, k, g, 0);
+            A1.add(k, k, g);
+            if (k > 0) {
+                g = 1e-2;
+                A.add(k, k, g, 0);
+                A.add(k - 1, k - 1, g, 0);
+                A.add(k, k - 1, -g, 0);
+                A.add(k - 1, k, -g, 0);
+                A1.add(k, k, g);
+                A1.add(k - 1, k - 1, g);
+                A1.add(k, k - 1, -g);
+                A1.add(k - 1, k, -g);
+            }
+        }
+        A.set(0, numNodes, 1, 0);
+        A.set(numNodes, 0, 1, 0);
+        A1.set(0, numNodes, 1);
+        A1.set(numNodes, 0, 1);
+
+        complexMatrix = ComplexSparseMatrix.fromDense(A);
+        realMatrix = SparseMatrix.fromDense(A1);
+        bReal = new double[n];
+        bImaginary = new double[n];
+        real = new double[n];
+        imaginary = new double[n];
+        bReal[numNodes] = 10;
+
+        complexLU = new ComplexSparseLU();
+        complexLU.factor(complexMatrix);
+        realLU = new SparseLU();
+        realLU.factor(realMatrix);
+    }
+
+    @Benchmark
+    public double complexFactorAndSolve() {
+        ComplexSparseLU lu = new ComplexSparseLU();
+        lu.factor(complexMatrix);
+        lu.solve(bReal, bImaginary, real, imaginary);
+        return real[numNodes - 1];
+    }
+
+    @Benchmark
+    public double realFactorAndSolve() {
+        SparseLU lu = new SparseLU();
+        lu.factor(realMatrix);
+        lu.solve(bReal, real);
+        return real[numNodes - 1];
+    }
+
+    @Benchmark
+    public double realRefactorAndSolve() {
+        realLU.refactor(realMatrix);
+        realLU.solve(bReal, real);
+        return real[numNodes - 1];
+    }
+
+    @Benchmark
+    public double complexSolve() {
+        complexLU.solve(bReal, bImaginary, real, imaginary);
+        return real[numNodes - 1];
+    }
+
+    @Benchmark
+    public double realSolve() {
+        realLU.solve(bReal, real);
+        return real[numNodes - 1];
+    }
+}
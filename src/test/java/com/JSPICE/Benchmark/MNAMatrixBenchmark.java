@@ -0,0 +1,88 @@
+/**
+ * 
+ */
+package com.JSPICE.Benchmark;
+
+import com.JSPICE.SMath.Complex;
+import com.JSPICE.SMath.ComplexMatrix;
+import com.JSPICE.SMath.ComplexMatrixOperations;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @brief Compares one Newton-Raphson iteration worth of matrix work (clear,
+ *        stamp a resistor ladder, read every entry back during assembly) on
+ *        Complex[][] against the flat ComplexMatrix
+ * 
+ * @author 1sand0s
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MNAMatrixBenchmark {
+
+    @Param({ "10", "50", "200" })
+    public int numNodes;
+
+    private Complex G[][];
+    private ComplexMatrix GFlat;
+
+    @Setup
+    public void setup() {
+        G = new Complex[numNodes][numNodes];
+        GFlat = new ComplexMatrix(numNodes, numNodes);
+    }
+
+    @Benchmark
+    public double complexObjectArray() {
+        ComplexMatrixOperations.initializeMatrices(G);
+
+        for (int k = 1; k < numNodes; k++) {
+            G[k - 1][k - 1].add(new Complex(0.01, 0));
+            G[k][k].add(new Complex(0.01, 0));
+            G[k - 1][k].add(new Complex(-0.01, 0));
+            G[k][k - 1].add(new Complex(-0.01, 0));
+        }
+
+        double sum = 0;
+        for (int i = 0; i < numNodes; i++)
+            for (int j = 0; j < numNodes; j++)
+                sum += G[i][j].getReal() + G[i][j].getImaginary();
+        return sum;
+    }
+
+    @Benchmark
+    public double flatComplexMatrix() {
+        GFlat.clear();
+
+        for (int k = 1; k < numNodes; k++) {
+            GFlat.add(k - 1, k - 1, 0.01, 0);
+            GFlat.add(k, k, 0.01, 0);
+            GFlat.add(k - 1, k, -0.01, 0);
+            GFlat.add(k, k - 1, -0.01, 0);
+        }
+
+        double real[] = GFlat.getRealArray();
+        double imaginary[] = GFlat.getImaginaryArray();
+        double sum = 0;
+        for (int k = 0; k < real.length; k++)
+            sum += real[k] + imaginary[k];
+        return sum;
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * 
+ */
+package com.JSPICE.Benchmark;
+
+import com.JSPICE.SMath.OrderingType;
+import com.JSPICE.SMath.RealMatrix;
+import com.JSPICE.SMath.SparseLU;
+import com.JSPICE.SMath.SparseMatrix;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @brief Full factorization (ordering included) of a square resistor mesh
+ *        under each column ordering. The fill-in of each ordering is printed
+ *        at tear down
+ * 
+ * @author 1sand0s
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderingBenchmark {
+
+    @Param({ "10", "30" })
+    public int side;
+
+    @Param({ "NATURAL", "MINIMUM_DEGREE", "APPROXIMATE_MINIMUM_DEGREE", "REVERSE_CUTHILL_MCKEE" })
+    public OrderingType ordering;
+
+    private SparseMatrix mesh;
+    private SparseLU lu;
+
+    @Setup
+    public void setup() {
+        int n = side * side;
+        RealMatrix A = new RealMatrix(n, n);
+
+        /* 1 Ohm mesh with every node tied to GND through 10 Ohm */
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                int k = i * side + j;
+                A.add(k, k, 0.1);
+                if (j + 1 < side) {
+                    A.add(k, k, 1);
+                    A.add(k + 1, k + 1, 1);
+                    A.add(k, k + 1, -1);
+                    A.add(k + 1, k, -1);
+                }
+                if (i + 1 < side) {
+                    A.add(k, k, 1);
+                    A.add(k + side, k + side, 1);
+                    A.add(k, k + side, -1);
+                    A.add(k + side, k, -1);
+                }
+            }
+        }
+        mesh = SparseMatrix.fromDense(A);
+        lu = new SparseLU();
+        lu.setOrdering(ordering);
+    }
+
+    @Benchmark
+    public int factor() {
+        lu.factor(mesh);
+        return lu.getNonZerosU();
+    }
+
+    @TearDown
+    public void reportFillIn() {
+        System.out.println("\n" + ordering + " " + side + "x" + side
+                           + " : nnz(A) = " + mesh.getNonZeros()
+                           + ", nnz(L) = " + lu.getNonZerosL()
+                           + ", nnz(U) = " + lu.getNonZerosU()
+                           + ", fill-in = " + lu.getFillIn());
+    }
+}
@@ -5,8 +5,11 @@ package com.JSPICE.SMath;
 
 import com.JSPICE.SMath.ComplexMatrixOperations;
 
+import java.util.Random;
+
 import org.junit.Test;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertEquals;
 
 /**
  * @author 1sand0s
@@ -55,4 +58,358 @@ public class ComputeLinearEquation_Test {
 
         assertTrue(ComplexMatrixOperations.compareMatrices(x, xr, tol));
     }
+
+    /**
+    * @brief Identity system solved through both the QR and sparse LU paths
+    * @author 1sand0s
+    * @since 1.0.0
+    * @version 1.0.0
+    */
+    @Test
+    public void solveLinearEquation_3x3Matrix_QRandSparseLU() {
+        double tol = 1e-5;
+        Complex A[][] = ComplexMatrixOperations.eye(3);
+        Complex z[][] = { { new Complex(1, 0) }, { new Complex(2, 0) }, { new Complex(3, 0) } };
+        Complex xr[][] = { { new Complex(1, 0) }, { new Complex(2, 0) }, { new Complex(3, 0) } };
+
+        Complex xQR[][] = ComplexMatrixOperations.computeLinearEquation(A, z, LinearSolverType.QR);
+        Complex xLU[][] = ComplexMatrixOperations.computeLinearEquation(A, z, LinearSolverType.SPARSE_LU);
+
+        assertTrue(ComplexMatrixOperations.compareMatrices(xQR, xr, tol));
+        assertTrue(ComplexMatrixOperations.compareMatrices(xLU, xr, tol));
+    }
+
+    /**
+    * @brief MNA matrix of a voltage divider (zero on the diagonal of the
+    *        source row, so the sparse LU has to pivot)
+    * @author 1sand0s
+    * @since 1.0.0
+    * @version 1.0.0
+    */
+    @Test
+    public void solveLinearEquation_MNAMatrix_QRandSparseLU() {
+        double tol = 1e-5;
+        Complex A[][] = { { new Complex(0.01, 0), new Complex(-0.01, 0), new Complex(1, 0) },
+                          { new Complex(-0.01, 0), new Complex(0.02, 0), new Complex(0, 0) },
+                          { new Complex(1, 0), new Complex(0, 0), new Complex(0, 0) } };
+        Complex z[][] = { { new Complex(0, 0) }, { new Complex(0, 0) }, { new Complex(10, 0) } };
+        Complex xr[][] = { { new Complex(10, 0) }, { new Complex(5, 0) }, { new Complex(-0.05, 0) } };
+
+        Complex xQR[][] = ComplexMatrixOperations.computeLinearEquation(A, z, LinearSolverType.QR);
+        Complex xLU[][] = ComplexMatrixOperations.computeLinearEquation(A, z, LinearSolverType.SPARSE_LU);
+
+        assertTrue(ComplexMatrixOperations.compareMatrices(xQR, xr, tol));
+        assertTrue(ComplexMatrixOperations.compareMatrices(xLU, xr, tol));
+    }
+
+    /**
+    * @brief Complex system with a row permutation, x = [1 + j, 2 - j, -j]
+    * @author 1sand0s
+    * @since 1.0.0
+    * @version 1.0.0
+    */
+    @Test
+    public void solveLinearEquation_ComplexMatrix_SparseLU() {
+        double tol = 1e-9;
+        Complex A[][] = { { new Complex(0, 0), new Complex(2, 1), new Complex(0, 0) },
+                          { new Complex(1, -1), new Complex(0, 0), new Complex(3, 0) },
+                          { new Complex(0, 0), new Complex(1, 0), new Complex(0, 4) } };
+        Complex x0[][] = { { new Complex(1, 1) }, { new Complex(2, -1) }, { new Complex(0, -1) } };
+        Complex z[][] = ComplexMatrixOperations.multiplyMatrix(A, ComplexMatrixOperations.transpose(x0));
+
+        Complex xLU[][] = ComplexMatrixOperations.computeLinearEquation(A, z, LinearSolverType.SPARSE_LU);
+
+        assertTrue(ComplexMatrixOperations.compareMatrices(xLU, x0, tol));
+    }
+
+    /**
+    * @brief Same MNA system as above, stored in a flat ComplexMatrix and
+    *        solved in place on both paths
+    * @author 1sand0s
+    * @since 1.0.0
+    * @version 1.0.0
+    */
+    @Test
+    public void solveLinearEquation_FlatComplexMatrix_QRandSparseLU() {
+        double tol = 1e-5;
+        ComplexMatrix A = new ComplexMatrix(3, 3);
+        ComplexVector z = new ComplexVector(3);
+        ComplexVector xQR = new ComplexVector(3);
+        ComplexVector xLU = new ComplexVector(3);
+        Complex xr[][] = { { new Complex(10, 0) }, { new Complex(5, 0) }, { new Complex(-0.05, 0) } };
+
+        A.add(0, 0, 0.01, 0);
+        A.add(0, 1, -0.01, 0);
+        A.add(1, 0, -0.01, 0);
+        A.add(1, 1, 0.01, 0);
+        A.add(1, 1, 0.01, 0);
+        A.set(0, 2, 1, 0);
+        A.set(2, 0, 1, 0);
+        z.add(2, 10, 0);
+
+        ComplexMatrixOperations.computeLinearEquation(A, z, xQR, LinearSolverType.QR);
+        ComplexMatrixOperations.computeLinearEquation(A, z, xLU, LinearSolverType.SPARSE_LU);
+
+        assertTrue(ComplexMatrixOperations.compareVectors(xQR, ComplexVector.fromArray(xr), tol));
+        assertTrue(ComplexMatrixOperations.compareVectors(xLU, ComplexVector.fromArray(xr), tol));
+    }
+
+    /**
+    * @brief Same MNA system solved on the real-only path used by DC and
+    *        transient analysis
+    * @author 1sand0s
+    * @since 1.0.0
+    * @version 1.0.0
+    */
+    @Test
+    public void solveLinearEquation_RealMatrix_QRandSparseLU() {
+        double tol = 1e-5;
+        RealMatrix A = new RealMatrix(3, 3);
+        RealVector z = new RealVector(3);
+        RealVector xQR = new RealVector(3);
+        RealVector xLU = new RealVector(3);
+        RealVector xr = new RealVector(new double[] { 10, 5, -0.05 });
+
+        A.set(0, 0, 0.01);
+        A.set(0, 1, -0.01);
+        A.set(1, 0, -0.01);
+        A.set(1, 1, 0.02);
+        A.set(0, 2, 1);
+        A.set(2, 0, 1);
+        z.set(2, 10);
+
+        RealMatrixOperations.computeLinearEquation(A, z, xQR, LinearSolverType.QR);
+        RealMatrixOperations.computeLinearEquation(A, z, xLU, LinearSolverType.SPARSE_LU);
+
+        assertTrue(RealMatrixOperations.compareVectors(xQR, xr, tol));
+        assertTrue(RealMatrixOperations.compareVectors(xLU, xr, tol));
+    }
+
+    /**
+    * @brief Numeric refactorization on an unchanged pattern reuses the pivot
+    *        order, and a pivot that becomes too small forces a full re-pivot
+    * @author 1sand0s
+    * @since 1.0.0
+    * @version 1.0.0
+    */
+    @Test
+    public void refactor_SparseLU_ReusesPivotOrder() {
+        double tol = 1e-5;
+        SparseLU lu = new SparseLU();
+        RealMatrix A = new RealMatrix(2, 2);
+        RealVector x = new RealVector(2);
+
+        A.set(0, 0, 4);
+        A.set(0, 1, 1);
+        A.set(1, 0, 1);
+        A.set(1, 1, 3);
+        RealMatrixOperations.computeLinearEquation(lu, A, new RealVector(new double[] { 5, 4 }), x);
+        assertTrue(RealMatrixOperations.compareVectors(x, new RealVector(new double[] { 1, 1 }), tol));
+
+        /* Same pattern, new values */
+        A.set(0, 0, 2);
+        A.set(1, 1, 5);
+        RealMatrixOperations.computeLinearEquation(lu, A, new RealVector(new double[] { 3, 6 }), x);
+        assertTrue(RealMatrixOperations.compareVectors(x, new RealVector(new double[] { 1, 1 }), tol));
+        assertEquals(1, lu.getNumFactorizations());
+        assertEquals(1, lu.getNumRefactorizations());
+
+        /* Diagonal pivots collapse, the rows have to be swapped */
+        A.set(0, 0, 1e-9);
+        A.set(1, 1, 1e-9);
+        RealMatrixOperations.computeLinearEquation(lu, A, new RealVector(new double[] { 1, 2 }), x);
+        assertTrue(RealMatrixOperations.compareVectors(x, new RealVector(new double[] { 2, 1 }), tol));
+        assertEquals(2, lu.getNumFactorizations());
+        assertEquals(1, lu.getNumRefactorizations());
+    }
+
+    /**
+    * @brief Every ordering solves a resistor mesh to the same answer, and
+    *        the fill-reducing ones produce less fill-in than node order
+    * @author 1sand0s
+    * @since 1.0.0
+    * @version 1.0.0
+    */
+    @Test
+    public void solveLinearEquation_Orderings_SameSolution() {
+        double tol = 1e-5;
+        int side = 8;
+        int n = side * side;
+        RealMatrix A = new RealMatrix(n, n);
+        RealVector z = new RealVector(n);
+        RealVector xr = new RealVector(n);
+
+        /* 1 Ohm mesh, every node tied to GND through 10 Ohm, 1 A into node 0 */
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                int k = i * side + j;
+                A.add(k, k, 0.1);
+                if (j + 1 < side) {
+                    A.add(k, k, 1);
+                    A.add(k + 1, k + 1, 1);
+                    A.add(k, k + 1, -1);
+                    A.add(k + 1, k, -1);
+                }
+                if (i + 1 < side) {
+                    A.add(k, k, 1);
+                    A.add(k + side, k + side, 1);
+                    A.add(k, k + side, -1);
+                    A.add(k + side, k, -1);
+                }
+            }
+        }
+        z.set(0, 1);
+
+        SparseLU natural = new SparseLU();
+        natural.setOrdering(OrderingType.NATURAL);
+        RealMatrixOperations.computeLinearEquation(natural, A, z, xr);
+
+        for (OrderingType ordering : OrderingType.values()) {
+            SparseLU lu = new SparseLU();
+            RealVector x = new RealVector(n);
+
+            lu.setOrdering(ordering);
+            RealMatrixOperations.computeLinearEquation(lu, A, z, x);
+            assertTrue(RealMatrixOperations.compareVectors(x, xr, tol));
+            assertTrue(lu.getFillIn() <= natural.getFillIn());
+        }
+    }
+
+    /**
+    * @brief Blocked dense LU (several panels, trailing update split across
+    *        threads) agrees with the sparse LU on a system that needs row
+    *        pivoting
+    * @author 1sand0s
+    * @since 1.0.0
+    * @version 1.0.0
+    */
+    @Test
+    public void solveLinearEquation_DenseLU_MatchesSparseLU() {
+        double tol = 1e-5;
+        int n = 150;
+        Random random = new Random(1);
+        RealMatrix A = new RealMatrix(n, n);
+        RealVector z = new RealVector(n);
+        RealVector xDense = new RealVector(n);
+        RealVector xSparse = new RealVector(n);
+
+        for (int i = 0; i < n; i++) {
+            z.set(i, random.nextDouble());
+            for (int j = 0; j < n; j++)
+                if (i != j)
+                    A.set(i, j, random.nextDouble() - 0.5);
+        }
+
+        DenseLU lu = new DenseLU();
+        lu.setBlockSize(16);
+        lu.setParallelism(2);
+        RealMatrixOperations.computeLinearEquation(lu, A, z, xDense);
+        RealMatrixOperations.computeLinearEquation(A, z, xSparse, LinearSolverType.SPARSE_LU);
+        assertTrue(RealMatrixOperations.compareVectors(xDense, xSparse, tol));
+
+        RealMatrixOperations.computeLinearEquation(A, z, xDense, LinearSolverType.DENSE_LU);
+        assertTrue(RealMatrixOperations.compareVectors(xDense, xSparse, tol));
+    }
+
+    /**
+    * @brief GMRES and BiCGSTAB with their preconditioners reach the sparse LU
+    *        solution of a resistor mesh and of an MNA system with a voltage
+    *        source (zero diagonal in the branch row)
+    * @author 1sand0s
+    * @since 1.0.0
+    * @version 1.0.0
+    */
+    @Test
+    public void solveLinearEquation_Krylov_MatchesSparseLU() {
+        double tol = 1e-5;
+        int side = 12;
+        int n = side * side + 1;
+        RealMatrix A = new RealMatrix(n, n);
+        RealVector z = new RealVector(n);
+        RealVector xr = new RealVector(n);
+
+        /* 1 Ohm mesh, every node tied to GND through 10 Ohm, 1 V source on node 0 */
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                int k = i * side + j;
+                A.add(k, k, 0.1);
+                if (j + 1 < side) {
+                    A.add(k, k, 1);
+                    A.add(k + 1, k + 1, 1);
+                    A.add(k, k + 1, -1);
+                    A.add(k + 1, k, -1);
+                }
+                if (i + 1 < side) {
+                    A.add(k, k, 1);
+                    A.add(k + side, k + side, 1);
+                    A.add(k, k + side, -1);
+                    A.add(k + side, k, -1);
+                }
+            }
+        }
+        A.set(0, n - 1, 1);
+        A.set(n - 1, 0, 1);
+        z.set(n - 1, 1);
+        RealMatrixOperations.computeLinearEquation(A, z, xr, LinearSolverType.SPARSE_LU);
+
+        LinearSolverType types[] = { LinearSolverType.GMRES, LinearSolverType.BICGSTAB };
+        for (LinearSolverType type : types) {
+            for (PreconditionerType preconditioner : PreconditionerType.values()) {
+                /* Unpreconditioned BiCGSTAB breaks down on the zero diagonal */
+                if (type == LinearSolverType.BICGSTAB && preconditioner == PreconditionerType.NONE)
+                    continue;
+                IterativeSolver solver = new IterativeSolver();
+                RealVector x = new RealVector(n);
+
+                solver.setPreconditioner(preconditioner);
+                RealMatrixOperations.computeLinearEquation(solver, type, A, z, x);
+                assertTrue(RealMatrixOperations.compareVectors(x, xr, tol));
+                assertTrue(solver.getIterations() > 0);
+                assertTrue(solver.getResidual() <= 1e-10);
+            }
+        }
+    }
+
+    /**
+    * @brief The flat QR factorization and back substitution agree with the
+    *        sparse LU on a dense complex system, and the in-place Complex
+    *        division undoes the multiplication
+    * @author 1sand0s
+    * @since 1.0.0
+    * @version 1.0.0
+    */
+    @Test
+    public void solveLinearEquation_FlatQR_MatchesSparseLU() {
+        double tol = 1e-5;
+        int n = 40;
+        Random random = new Random(3);
+        ComplexMatrix A = new ComplexMatrix(n, n);
+        ComplexMatrix Q = new ComplexMatrix(n, n);
+        ComplexMatrix R = new ComplexMatrix(n, n);
+        ComplexVector z = new ComplexVector(n);
+        ComplexVector xQR = new ComplexVector(n);
+        ComplexVector xLU = new ComplexVector(n);
+
+        for (int i = 0; i < n; i++) {
+            z.set(i, random.nextDouble(), random.nextDouble());
+            for (int j = 0; j < n; j++)
+                A.set(i, j, random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+        }
+
+        ComplexMatrixOperations.computeQR(A, Q, R);
+        ComplexMatrixOperations.solveQR(Q, R, z, xQR);
+        ComplexMatrixOperations.computeLinearEquation(A, z, xLU, LinearSolverType.SPARSE_LU);
+        assertTrue(ComplexMatrixOperations.compareVectors(xQR, xLU, tol));
+
+        ComplexMatrixOperations.computeLinearEquation(A, z, xQR, LinearSolverType.QR);
+        assertTrue(ComplexMatrixOperations.compareVectors(xQR, xLU, tol));
+
+        Complex quotient = new Complex(3, -2);
+        quotient.divide(new Complex(1e-3, 4e5));
+        assertEquals(-4.99999998125e-6, quotient.getReal(), 1e-18);
+        assertEquals(-7.5000000125e-6, quotient.getImaginary(), 1e-18);
+        quotient.multiply(new Complex(1e-3, 4e5));
+        assertEquals(3, quotient.getReal(), 1e-9);
+        assertEquals(-2, quotient.getImaginary(), 1e-9);
+    }
 }
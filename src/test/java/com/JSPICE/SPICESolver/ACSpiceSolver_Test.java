@@ -568,4 +568,241 @@ public class ACSpiceSolver_Test {
 	/* Assert if solver result matches expected solution */
         assertTrue(actual.resultMatch(expectedResult, tol));
     }
+
+    /**
+     * @brief Test case for a decade frequency sweep of a series RLC low
+     *        pass filter solved on several threads
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testRLCLowPassFrequencySweep_AC() {
+	/* Tolerance for comparing solution */
+	double tol = 1e-9;
+	ACSpiceResult results[] = new ACSpiceResult[2];
+	Capacitor capacitors[] = new Capacitor[2];
+
+	for (int k = 0; k < results.length; k++) {
+	    /* Instantiate ACSpiceSolver */
+	    AbstractSpiceSolver solver = new ACSpiceSolver();
+
+	    /* Create an AC Source */
+	    ACVoltage source = new ACVoltage();
+
+	    /* Create resistor, inductor and capacitor */
+	    Resistor r1 = new Resistor();
+	    Inductor l1 = new Inductor();
+	    Capacitor c1 = new Capacitor();
+
+	    /* Create circuit GND element */
+	    GND g1 = new GND();
+
+	    /* Create wires to connect circuit elements*/
+	    Wire w1 = new Wire();
+	    Wire w2 = new Wire();
+	    Wire w3 = new Wire();
+	    Wire w4 = new Wire();
+
+	    /* 1V source, r1 1K Ohm, l1 10mH and c1 1uF */
+	    source.setValue(1);
+	    r1.setValue(1e3);
+	    l1.setValue(1e-2);
+	    c1.setValue(1e-6);
+
+	    /*                Circuit Topology
+	     *
+	     *        w1    r1 1K    w2   l1 10mH   w3
+	     *         ~---/\/\/\---~---UUUU---~
+	     *         |                         |
+	     *        ~~~                        |
+	     *       ~ + ~ source              ---- c1
+	     *       ~ - ~   1V                ---- 1uF
+	     *        ~ ~                        |
+	     *         |           w4            |
+	     *         ~-------------------------~
+	     *       -----
+	     *        --- g1
+	     *         -
+	     */
+	    w1.addTerminal(source, ComponentTerminals.POS_NODE);
+	    w1.addTerminal(r1, ComponentTerminals.POS_NODE);
+
+	    w2.addTerminal(r1, ComponentTerminals.NEG_NODE);
+	    w2.addTerminal(l1, ComponentTerminals.POS_NODE);
+
+	    w3.addTerminal(l1, ComponentTerminals.NEG_NODE);
+	    w3.addTerminal(c1, ComponentTerminals.POS_NODE);
+
+	    w4.addTerminal(c1, ComponentTerminals.NEG_NODE);
+	    w4.addTerminal(source, ComponentTerminals.NEG_NODE);
+	    w4.addTerminal(g1, ComponentTerminals.GND);
+
+	    solver.addElement(source);
+	    solver.addElement(r1);
+	    solver.addElement(l1);
+	    solver.addElement(c1);
+	    solver.addElement(g1);
+	    solver.addWire(w1);
+	    solver.addWire(w2);
+	    solver.addWire(w3);
+	    solver.addWire(w4);
+
+	    /* 10 points per decade from 10Hz to 100KHz, on one thread the
+	     * first time and four the second */
+	    solver.setFrequencySweep(10, 1e5, 10, AbstractSpiceSolver.FrequencySweepType.DECADE);
+	    solver.setParallelism(k == 0 ? 1 : 4);
+
+	    /* Solve for unknown node voltages and branch currents */
+	    solver.solve();
+
+	    results[k] = (ACSpiceResult) solver.getResult();
+	    capacitors[k] = c1;
+	}
+
+	ACSpiceResult expected = results[0];
+	ACSpiceResult actual = results[1];
+	assertEquals(41, actual.getNumFrequencies());
+	assertEquals(1e5, actual.getFrequency(40), 1e5 * tol);
+	assertTrue(actual.resultMatch(expected, tol));
+
+	/* v(c1) = 1 / (1 - w^2 * L * C - j * w * R * C), the reactances
+	 * being stamped as -w * C and 1 / (w * L) */
+	for (int i = 0; i < actual.getNumFrequencies(); i++) {
+	    double w = 2 * Math.PI * actual.getFrequency(i);
+	    Complex vc = new Complex(1, 0);
+	    vc.divide(1 - w * w * 1e-2 * 1e-6, -w * 1e3 * 1e-6);
+	    Complex voltage = actual.getElementVoltage(i, capacitors[1], ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE);
+	    assertEquals(vc.getReal(), voltage.getReal(), tol);
+	    assertEquals(vc.getImaginary(), voltage.getImaginary(), tol);
+	}
+    }
+
+    /**
+     * @brief Test case for a frequency sweep of a resistive divider driven
+     *        by a sinusoidal source, whose excitation must be stamped once
+     *        however many points and threads the sweep has
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testVoltageDividerSinusoidSourceFrequencySweep_AC() {
+	/* Tolerance for comparing solution */
+	double tol = 1e-9;
+
+	for (int k = 0; k < 2; k++) {
+	    /* Instantiate ACSpiceSolver */
+	    AbstractSpiceSolver solver = new ACSpiceSolver();
+
+	    /* Create a Sinusoidal Source */
+	    SinusoidVoltage source = new SinusoidVoltage();
+
+	    /* Create resistors */
+	    Resistor r1 = new Resistor();
+	    Resistor r2 = new Resistor();
+
+	    /* Create circuit GND element */
+	    GND g1 = new GND();
+
+	    /* Create wires to connect circuit elements*/
+	    Wire w1 = new Wire();
+	    Wire w2 = new Wire();
+	    Wire w3 = new Wire();
+
+	    /* 10V source, r1 and r2 100 Ohm each */
+	    source.setValue(10);
+	    r1.setValue(100);
+	    r2.setValue(100);
+
+	    w1.addTerminal(source, ComponentTerminals.POS_NODE);
+	    w1.addTerminal(r1, ComponentTerminals.POS_NODE);
+
+	    w2.addTerminal(r1, ComponentTerminals.NEG_NODE);
+	    w2.addTerminal(r2, ComponentTerminals.POS_NODE);
+
+	    w3.addTerminal(r2, ComponentTerminals.NEG_NODE);
+	    w3.addTerminal(source, ComponentTerminals.NEG_NODE);
+	    w3.addTerminal(g1, ComponentTerminals.GND);
+
+	    solver.addElement(source);
+	    solver.addElement(r1);
+	    solver.addElement(r2);
+	    solver.addElement(g1);
+	    solver.addWire(w1);
+	    solver.addWire(w2);
+	    solver.addWire(w3);
+
+	    /* 8 points from 1KHz to 8KHz, on one thread the first time and
+	     * four the second */
+	    solver.setFrequencySweep(1e3, 8e3, 8, AbstractSpiceSolver.FrequencySweepType.LINEAR);
+	    solver.setParallelism(k == 0 ? 1 : 4);
+
+	    /* Solve for unknown node voltages and branch currents */
+	    solver.solve();
+
+	    ACSpiceResult actual = (ACSpiceResult) solver.getResult();
+	    assertEquals(8, actual.getNumFrequencies());
+	    for (int i = 0; i < actual.getNumFrequencies(); i++) {
+		assertEquals(5, actual.getElementVoltage(i, r2, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE).magnitude(), tol);
+		assertEquals(10, actual.getElementVoltage(i, source, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE).magnitude(), tol);
+	    }
+	}
+    }
+
+    /**
+     * @brief Test case for the frequencies of LINEAR, OCTAVE and LIST sweeps
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testFrequencySweepPoints_AC() {
+	double tol = 1e-12;
+	double expected[][] = { { 1, 2, 3, 4, 5 },
+				{ 1, Math.sqrt(2), 2, 2 * Math.sqrt(2), 4, 4 * Math.sqrt(2), 8 },
+				{ 50, 60, 400 } };
+
+	for (int k = 0; k < expected.length; k++) {
+	    AbstractSpiceSolver solver = new ACSpiceSolver();
+	    ACVoltage source = new ACVoltage();
+	    Resistor r1 = new Resistor();
+	    GND g1 = new GND();
+	    Wire w1 = new Wire();
+	    Wire w2 = new Wire();
+
+	    source.setValue(1);
+	    r1.setValue(1e3);
+
+	    w1.addTerminal(source, ComponentTerminals.POS_NODE);
+	    w1.addTerminal(r1, ComponentTerminals.POS_NODE);
+	    w2.addTerminal(r1, ComponentTerminals.NEG_NODE);
+	    w2.addTerminal(source, ComponentTerminals.NEG_NODE);
+	    w2.addTerminal(g1, ComponentTerminals.GND);
+
+	    solver.addElement(source);
+	    solver.addElement(r1);
+	    solver.addElement(g1);
+	    solver.addWire(w1);
+	    solver.addWire(w2);
+
+	    if (k == 0)
+		solver.setFrequencySweep(1, 5, 5, AbstractSpiceSolver.FrequencySweepType.LINEAR);
+	    else if (k == 1)
+		solver.setFrequencySweep(1, 8, 2, AbstractSpiceSolver.FrequencySweepType.OCTAVE);
+	    else
+		solver.setFrequencySweep(expected[k]);
+	    solver.solve();
+
+	    ACSpiceResult actual = (ACSpiceResult) solver.getResult();
+	    assertEquals(expected[k].length, actual.getNumFrequencies());
+	    for (int i = 0; i < expected[k].length; i++) {
+		assertEquals(expected[k][i], actual.getFrequency(i), tol * expected[k][i]);
+		assertEquals(1, actual.getElementVoltage(i, r1, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE).getReal(), tol);
+	    }
+	}
+    }
 }
@@ -6,11 +6,13 @@ import com.JSPICE.SElement.VSource.*;
 import com.JSPICE.SElement.ISource.*;
 import com.JSPICE.SMath.ComplexMatrixOperations;
 import com.JSPICE.Util.ComponentTerminals;
+import com.JSPICE.Util.OperatingPointStage;
 import com.JSPICE.SMath.Complex;
 
 import org.junit.Test;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 /**
  * @author 1sand0s
@@ -113,6 +115,10 @@ public class DCSpiceSolver_Test {
 	assertEquals(expectedResult.getElementVoltage(r2, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE),
 		     actual.getElementVoltage(r2, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE),
 		     tol);
+
+	/* A linear circuit is solved by a single Newton-Raphson iteration */
+	assertEquals(1, solver.getFactorization().getNumFactorizations());
+	assertEquals(0, solver.getFactorization().getNumRefactorizations());
 	//assertEquals(0.05, r1.getCurrent(actual, 0)[0].magnitude(), tol);
 	//assertEquals(0.05, r2.getCurrent(actual, 0)[0].magnitude(), tol);
     }
@@ -254,7 +260,7 @@ public class DCSpiceSolver_Test {
 
 	/* Create resistor and Didoe */
 	Resistor r1 = new Resistor();
-        Diode d1 = new Diode();
+        Diode d1 = create1N4007();
 
 	/* Create circuit GND element */
 	GND g1 = new GND();
@@ -270,13 +276,6 @@ public class DCSpiceSolver_Test {
 	/* Set r1 resistance to 100 Ohm */
 	r1.setValue(100);
 
-	/* Diode parameters for 1N4007
-	 * See : https://www.mouser.com/datasheet/2/149/1N4007-888322.pdf
-	 */
-	d1.setReverseSaturationCurrent(5E-10);
-	d1.setCrystalFactor(1);
-	d1.setThermalVoltage(2.6E-2);
-
 	/*                Circuit Topology
 	 *
 	 *
@@ -330,10 +329,381 @@ public class DCSpiceSolver_Test {
 	assertEquals(expectedResult.getElementVoltage(d1, ComponentTerminals.ANODE, ComponentTerminals.CATHODE),
 		     actual.getElementVoltage(d1, ComponentTerminals.ANODE, ComponentTerminals.CATHODE),
 		     tol);
+
+	/* Newton-Raphson iterations after the first reuse the pivot order */
+	assertEquals(1, solver.getFactorization().getNumFactorizations());
+	assertTrue(solver.getFactorization().getNumRefactorizations() > 0);
+
+	/* Newton-Raphson statistics are reported with the result */
+	assertTrue(actual.getNewtonIterations() > 1);
+	assertEquals(actual.getNewtonIterations(), actual.getMaxNewtonIterations());
+	assertTrue(actual.getNewtonResidual() < 1e-9);
+
+	/* and are not carried over to the next solve */
+	int iterations = actual.getNewtonIterations();
+	solver.solve();
+	assertEquals(iterations, ((DCSpiceResult) solver.getResult()).getNewtonIterations());
 	//assertEquals(0.05, r1.getCurrent(actual, 0)[0].magnitude(), tol);
 	//assertEquals(0.05, r2.getCurrent(actual, 0)[0].magnitude(), tol);
     }
 
+    /**
+     * @brief Test case for a forward biased diode, stiff enough that the
+     *        first Newton-Raphson iterates need junction voltage limiting
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testDiodeForwardBiased_DC() {
+	/* Tolerance for comparing solution */
+	double tol = 1e-5;
+	
+	/* Instantiate DCSpiceSolver */
+	AbstractSpiceSolver solver = new DCSpiceSolver();
+
+	/* Create a DC Source*/
+	DCVoltage source = new DCVoltage();
+
+	/* Create resistor and Didoe */
+	Resistor r1 = new Resistor();
+        Diode d1 = create1N4007();
+
+	/* Create circuit GND element */
+	GND g1 = new GND();
+
+	/* Create wires to connect circuit elements */
+        Wire w1 = new Wire();
+        Wire w2 = new Wire();
+        Wire w3 = new Wire();
+
+	/* Set DC source voltage to 10V */
+        source.setValue(10);
+
+	/* Set r1 resistance to 100 Ohm */
+	r1.setValue(100);
+
+	/*                Circuit Topology
+	 * 
+	 * 
+	 *        w1       r1 100         w2
+	 *         ~-----^v^v^v^v^v---------~
+	 *         |                        |
+	 *         |                        |
+	 *        ~~~                       |                                   
+	 *       ~ + ~ source               |   d1
+	 *       ~ - ~   10V               ~~~
+	 *        ~ ~                      ~ ~
+	 *         |                      ~~~~~
+	 *         |                        |
+         *         |          w3            |
+	 *         ~------------------------~
+	 *       -----  
+	 *        --- g1
+	 *         -
+	 */
+
+	/* Use wires to connect the circuit elements as shown above */
+        w1.addTerminal(source, ComponentTerminals.POS_NODE);
+        w1.addTerminal(r1, ComponentTerminals.POS_NODE);
+
+        w2.addTerminal(r1, ComponentTerminals.NEG_NODE);
+        w2.addTerminal(d1, ComponentTerminals.ANODE);
+
+        w3.addTerminal(d1, ComponentTerminals.CATHODE);
+        w3.addTerminal(source, ComponentTerminals.NEG_NODE);
+        w3.addTerminal(g1, ComponentTerminals.GND);
+
+	/* Add circuit elements to the solver */
+        solver.addElement(source);
+        solver.addElement(r1);
+        solver.addElement(d1);
+        solver.addElement(g1);
+        solver.addWire(w1);
+        solver.addWire(w2);
+        solver.addWire(w3);
+
+	/* Solve for unknown node voltages and branch currents */
+        solver.solve();
+
+	DCSpiceResult actual = (DCSpiceResult) solver.getResult();
+	double vr = actual.getElementVoltage(r1, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE);
+	double vd = actual.getElementVoltage(d1, ComponentTerminals.ANODE, ComponentTerminals.CATHODE);
+
+	/* KCL at w2 : the resistor current flows through the diode */
+	assertEquals(vr / 100, d1.evaluateShockelyEquation(vd), 1e-9);
+	assertEquals(10, vr + vd, tol);
+	assertTrue(actual.getNewtonIterations() <= 10);
+	assertEquals(OperatingPointStage.NEWTON_RAPHSON, ((DCSpiceSolver) solver).getOperatingPointStage());
+    }
+
+    /**
+     * @brief Test case for gmin stepping : plain Newton-Raphson does not
+     *        converge on the diode clamp with positive feedback (see
+     *        createDiodeClamp)
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testDiodeClampGminStepping_DC() {
+	/* Instantiate DCSpiceSolver */
+	DCSpiceSolver solver = new DCSpiceSolver();
+	Diode d1 = createDiodeClamp(solver);
+
+	/* Solve for unknown node voltages and branch currents */
+        solver.solve();
+
+	assertDiodeClamp(solver, d1);
+	assertEquals(OperatingPointStage.GMIN_STEPPING, solver.getOperatingPointStage());
+    }
+
+    /**
+     * @brief Test case for source stepping : the diode clamp with positive
+     *        feedback (see createDiodeClamp) with gmin stepping disabled
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testDiodeClampSourceStepping_DC() {
+	/* Instantiate DCSpiceSolver */
+	DCSpiceSolver solver = new DCSpiceSolver();
+	Diode d1 = createDiodeClamp(solver);
+
+	solver.setGminStepping(false);
+
+	/* Solve for unknown node voltages and branch currents */
+        solver.solve();
+
+	assertDiodeClamp(solver, d1);
+	assertEquals(OperatingPointStage.SOURCE_STEPPING, solver.getOperatingPointStage());
+    }
+
+    /**
+     * @brief Test case for the rollback of source stepping : a 1000V source
+     *        drives a stack of four diodes through 0.1 Ohm and 4 iterations
+     *        are too few for some of the source steps. Each failed step is
+     *        retried from the last converged solution, which must not be
+     *        stamped about the junction voltages the failed step left in
+     *        the diodes
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testDiodeStackSourceSteppingRollback_DC() {
+	/* Tolerance for comparing solution */
+	double tol = 1e-5;
+	
+	/* Instantiate DCSpiceSolver */
+	DCSpiceSolver solver = new DCSpiceSolver();
+
+	/* Create a DC Source*/
+	DCVoltage source = new DCVoltage();
+
+	/* Create resistor and Diodes */
+	Resistor r1 = new Resistor();
+	Diode d[] = new Diode[4];
+
+	/* Create circuit GND element */
+	GND g1 = new GND();
+
+	/* Create wires to connect circuit elements, w[0] being the one to
+	 * GND */
+	Wire w[] = new Wire[6];
+	for (int i = 0; i < w.length; i++)
+	    w[i] = new Wire();
+
+	/* Set DC source voltage to 1000V */
+        source.setValue(1000);
+
+	/* Set r1 resistance to 0.1 Ohm */
+	r1.setValue(0.1);
+
+	/*                Circuit Topology
+	 * 
+	 * 
+	 *        w1       r1 0.1         w2
+	 *         ~-----^v^v^v^v^v---------~
+	 *         |                        |
+	 *         |                       ~~~ d1
+	 *        ~~~                      ~ ~
+	 *       ~ + ~ source             ~~~~~  w3 .. w5
+	 *       ~ - ~   1000V              :
+	 *        ~ ~                      ~~~ d4
+	 *         |                       ~ ~
+	 *         |                      ~~~~~
+	 *         |          w0            |
+	 *         ~------------------------~
+	 *       -----  
+	 *        --- g1
+	 *         -
+	 */
+
+	/* Use wires to connect the circuit elements as shown above */
+        w[1].addTerminal(source, ComponentTerminals.POS_NODE);
+        w[1].addTerminal(r1, ComponentTerminals.POS_NODE);
+
+        w[2].addTerminal(r1, ComponentTerminals.NEG_NODE);
+	for (int i = 0; i < d.length; i++) {
+	    d[i] = create1N4007();
+	    w[i + 2].addTerminal(d[i], ComponentTerminals.ANODE);
+	    w[i == d.length - 1 ? 0 : i + 3].addTerminal(d[i], ComponentTerminals.CATHODE);
+	}
+
+        w[0].addTerminal(source, ComponentTerminals.NEG_NODE);
+        w[0].addTerminal(g1, ComponentTerminals.GND);
+
+	/* Add circuit elements to the solver */
+        solver.addElement(source);
+        solver.addElement(r1);
+	for (int i = 0; i < d.length; i++)
+	    solver.addElement(d[i]);
+        solver.addElement(g1);
+	for (int i = 0; i < w.length; i++)
+	    solver.addWire(w[i]);
+
+	/* Too few iterations for plain Newton-Raphson and for the larger
+	 * source steps */
+	solver.setMaxIterations(4);
+	solver.setGminStepping(false);
+
+	/* Solve for unknown node voltages and branch currents */
+        solver.solve();
+
+	DCSpiceResult actual = (DCSpiceResult) solver.getResult();
+	double vr = actual.getElementVoltage(r1, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE);
+	double vd = 0;
+
+	/* KCL along the stack : the resistor current flows through every
+	 * diode, to the Newton-Raphson tolerances */
+	for (int i = 0; i < d.length; i++) {
+	    double v = actual.getElementVoltage(d[i], ComponentTerminals.ANODE, ComponentTerminals.CATHODE);
+	    assertEquals(1, d[i].evaluateShockelyEquation(v) / (vr / 0.1), 1e-3);
+	    vd += v;
+	}
+	assertEquals(1000, vr + vd, tol);
+	assertEquals(OperatingPointStage.SOURCE_STEPPING, solver.getOperatingPointStage());
+    }
+
+    /**
+     * @brief Test case for the Newton-Raphson iteration limit : plain
+     *        Newton-Raphson does not converge on the diode clamp with
+     *        positive feedback (see createDiodeClamp) and both fallbacks are
+     *        disabled
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test(expected = ArithmeticException.class)
+    public void testDiodeClampIterationLimit_DC() {
+	/* Instantiate DCSpiceSolver */
+	DCSpiceSolver solver = new DCSpiceSolver();
+	createDiodeClamp(solver);
+
+	solver.setGminStepping(false);
+	solver.setSourceStepping(false);
+
+	/* Solve for unknown node voltages and branch currents */
+        solver.solve();
+    }
+
+    /**
+     * @brief Test case for a singular MNA system in a nonlinear circuit :
+     *        two voltage sources in parallel make a loop of voltage sources.
+     *        The singular matrix is reported as it is, not as a DC operating
+     *        point that gmin and source stepping could not find
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testDiodeVoltageSourceLoop_DC() {
+	/* Instantiate DCSpiceSolver */
+	AbstractSpiceSolver solver = new DCSpiceSolver();
+
+	/* Create DC Sources*/
+	DCVoltage source1 = new DCVoltage();
+	DCVoltage source2 = new DCVoltage();
+
+	/* Create resistor and Diode */
+	Resistor r1 = new Resistor();
+        Diode d1 = create1N4007();
+
+	/* Create circuit GND element */
+	GND g1 = new GND();
+
+	/* Create wires to connect circuit elements */
+        Wire w1 = new Wire();
+        Wire w2 = new Wire();
+        Wire w3 = new Wire();
+
+	/* Set DC source voltages to 10V and 5V */
+        source1.setValue(10);
+        source2.setValue(5);
+
+	/* Set r1 resistance to 100 Ohm */
+	r1.setValue(100);
+
+	/*                Circuit Topology
+	 * 
+	 * 
+	 *        w1                  r1 100         w2
+	 *         ~---------~-----^v^v^v^v^v---------~
+	 *         |         |                        |
+	 *         |         |                        |
+	 *        ~~~       ~~~                       |
+	 *       ~ + ~     ~ + ~ source2              |   d1
+	 *       ~ - ~     ~ - ~   5V                ~~~
+	 *        ~ ~       ~ ~                      ~ ~
+	 *         | source1 |                      ~~~~~
+	 *         |   10V   |                        |
+         *         |         |          w3            |
+	 *         ~---------~------------------------~
+	 *       -----  
+	 *        --- g1
+	 *         -
+	 */
+
+	/* Use wires to connect the circuit elements as shown above */
+        w1.addTerminal(source1, ComponentTerminals.POS_NODE);
+        w1.addTerminal(source2, ComponentTerminals.POS_NODE);
+        w1.addTerminal(r1, ComponentTerminals.POS_NODE);
+
+        w2.addTerminal(r1, ComponentTerminals.NEG_NODE);
+        w2.addTerminal(d1, ComponentTerminals.ANODE);
+
+        w3.addTerminal(d1, ComponentTerminals.CATHODE);
+        w3.addTerminal(source1, ComponentTerminals.NEG_NODE);
+        w3.addTerminal(source2, ComponentTerminals.NEG_NODE);
+        w3.addTerminal(g1, ComponentTerminals.GND);
+
+	/* Add circuit elements to the solver */
+        solver.addElement(source1);
+        solver.addElement(source2);
+        solver.addElement(r1);
+        solver.addElement(d1);
+        solver.addElement(g1);
+        solver.addWire(w1);
+        solver.addWire(w2);
+        solver.addWire(w3);
+
+	/* Solve for unknown node voltages and branch currents */
+	try {
+	    solver.solve();
+	    fail("Error : singular MNA system was solved");
+	} catch (ArithmeticException e) {
+	    assertTrue(e.getMessage(), e.getMessage().contains("singular"));
+	}
+    }
+
     /**
      * @brief Test case for circuit with VCVS
      * 
@@ -653,4 +1023,260 @@ public class DCSpiceSolver_Test {
 	//assertEquals(0.05, r1.getCurrent(actual, 0)[0].magnitude(), tol);
 	//assertEquals(0.05, r2.getCurrent(actual, 0)[0].magnitude(), tol);
     }
- }
+
+    /**
+     * @brief Same circuit as testVoltageandCurrentSource_DC with the current
+     *        source added first. Every source owns a branch row in the order
+     *        it was added, so the branch currents swap places
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testCurrentSourceAddedFirst_DC() {
+	/* Tolerance for comparing solution */
+	double tol = 1e-5;
+
+	/* Solution after DC analysis */
+	Complex expected[][] = { { new Complex(0, 0) }, { new Complex(10, 0) }, { new Complex(-45, 0) }, { new Complex(100, 0) }, { new Complex(1, 0) }, { new Complex(-0.55, 0) } };
+	DCSpiceResult expectedResult = new DCSpiceResult();
+	expectedResult.updateResult(expected);
+	
+	/* Instantiate DCSpiceSolver */
+	AbstractSpiceSolver solver = new DCSpiceSolver();
+
+	/* Create a DC Source*/
+	DCVoltage source1 = new DCVoltage();
+	DCCurrent source2 = new DCCurrent();
+
+	/* Create resistors */
+	Resistor r1 = new Resistor();
+        Resistor r2 = new Resistor();
+	Resistor r3 = new Resistor();
+
+	/* Create circuit GND element */
+	GND g1 = new GND();
+
+	/* Create wires to connect circuit elements */
+        Wire w1 = new Wire();
+        Wire w2 = new Wire();
+	Wire w3 = new Wire();
+	Wire w4 = new Wire();
+
+	/* Set DC source1 current to 10V */
+        source1.setValue(10);
+	source2.setValue(1);
+
+	/* Set r1 and r2 resistances to 100 Ohm each */
+	r1.setValue(100);
+        r2.setValue(100);
+        r3.setValue(100);
+
+	/*                Circuit Topology
+	 * 
+	 *                                       source2 1A
+	 *         w1      r1 100          w2     ~ ~      
+	 *         ~-----^v^v^v^v^v---------~----~ <- ~---~ w3       
+	 *         |                        |     ~ ~     |
+	 *         |                        |             |
+	 *        ~~~                       >             >                        
+	 *       ~ + ~ source1              < r2          < r3
+	 *       ~ - ~   10V                > 100         > 100
+	 *        ~ ~                       <             <
+	 *         |                        >             >
+	 *         |                        |             |
+         *         |          w4            |             | 
+	 *         ~------------------------~-------------~
+	 *       -----  
+	 *        --- g1
+	 *         -
+	 */
+
+	/* Use wires to connect the circuit elements as shown above */
+        w1.addTerminal(source1, ComponentTerminals.POS_NODE);
+        w1.addTerminal(r1, ComponentTerminals.POS_NODE);
+
+	w2.addTerminal(r1, ComponentTerminals.NEG_NODE);
+        w2.addTerminal(r2, ComponentTerminals.POS_NODE);
+	w2.addTerminal(source2, ComponentTerminals.POS_NODE);
+
+	w3.addTerminal(source2, ComponentTerminals.NEG_NODE);
+	w3.addTerminal(r3, ComponentTerminals.POS_NODE);
+	
+        w4.addTerminal(g1, ComponentTerminals.GND);
+	w4.addTerminal(r3, ComponentTerminals.NEG_NODE);
+	w4.addTerminal(r2, ComponentTerminals.NEG_NODE);
+	w4.addTerminal(source1, ComponentTerminals.NEG_NODE);
+	
+	/* Add circuit elements to the solver */
+	solver.addElement(source2);
+        solver.addElement(source1);
+        solver.addElement(r1);
+        solver.addElement(r2);
+	solver.addElement(r3);
+        solver.addElement(g1);
+        solver.addWire(w1);
+        solver.addWire(w2);
+	solver.addWire(w3);
+	solver.addWire(w4);
+
+	/* Solve for unknown node voltages and branch currents */
+        solver.solve();
+
+	DCSpiceResult actual = (DCSpiceResult) solver.getResult();
+
+	/* Assert if solver result matches expected solution */
+        assertTrue(actual.resultMatch(expectedResult, tol));
+	assertEquals(expectedResult.getElementVoltage(r1, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE),
+		     actual.getElementVoltage(r1, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE),
+		     tol);
+	assertEquals(expectedResult.getElementVoltage(r2, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE),
+		     actual.getElementVoltage(r2, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE),
+		     tol);
+    }
+
+    /**
+     * @brief Adds a diode clamp with positive feedback to a solver : a
+     *        100V source drives an anti-parallel pair of 1N4007 diodes
+     *        through r1 and a VCVS feeds 10 times the clamp voltage back
+     *        through r2. Without the diodes the clamp node is a negative
+     *        resistance of -125 Ohm, on which plain Newton-Raphson from all
+     *        0's keeps switching the diodes and does not converge
+     * 
+     * @author 1sand0s
+     * @param DCSpiceSolver : solver Solver to add the circuit to
+     * @return Diode : d1, from the clamp node to GND
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private Diode createDiodeClamp(DCSpiceSolver solver) {
+	/* Create a DC Source*/
+	DCVoltage source = new DCVoltage();
+
+	/* Create a DC VCVS */
+	DCVCVS vcvs = new DCVCVS();
+
+	/* Create resistors and Diodes */
+	Resistor r1 = new Resistor();
+	Resistor r2 = new Resistor();
+	Diode d1 = create1N4007();
+	Diode d2 = create1N4007();
+
+	/* Create circuit GND element */
+	GND g1 = new GND();
+
+	/* Create wires to connect circuit elements */
+        Wire w1 = new Wire();
+        Wire w2 = new Wire();
+        Wire w3 = new Wire();
+        Wire w4 = new Wire();
+
+	/* Set DC source voltage to 100V */
+        source.setValue(100);
+
+	/* Set DC VCVS gain to 10 */
+	vcvs.setGain(10);
+
+	/* Set r1 and r2 resistances to 1k Ohm each */
+	r1.setValue(1000);
+	r2.setValue(1000);
+
+	/*                Circuit Topology
+	 * 
+	 * 
+	 *        w1     r1 1k       w2       r2 1k          w3
+	 *         ~---^v^v^v^v^v---~-------^v^v^v^v^v--------~
+	 *         |                |                         |
+	 *         |           ~----~----~                    |
+	 *        ~~~          |         |                   /+\
+	 *       ~ + ~ source ~~~ d1   ~~~~~ d2             /   \ 10xV(w2)
+	 *       ~ - ~  100V  ~ ~       ~ ~                 \   /
+	 *        ~ ~        ~~~~~      ~~~                  \-/
+	 *         |           |         |                    |
+	 *         |           ~----~----~                    |
+         *         |          w4    |                         |
+	 *         ~----------------~-------------------------~
+	 *       -----  
+	 *        --- g1
+	 *         -
+	 */
+
+	/* Use wires to connect the circuit elements as shown above */
+        w1.addTerminal(source, ComponentTerminals.POS_NODE);
+        w1.addTerminal(r1, ComponentTerminals.POS_NODE);
+
+        w2.addTerminal(r1, ComponentTerminals.NEG_NODE);
+        w2.addTerminal(r2, ComponentTerminals.NEG_NODE);
+        w2.addTerminal(d1, ComponentTerminals.ANODE);
+        w2.addTerminal(d2, ComponentTerminals.CATHODE);
+
+        w3.addTerminal(r2, ComponentTerminals.POS_NODE);
+	w3.addTerminal(vcvs, ComponentTerminals.POS_NODE);
+
+        w4.addTerminal(d1, ComponentTerminals.CATHODE);
+        w4.addTerminal(d2, ComponentTerminals.ANODE);
+        w4.addTerminal(source, ComponentTerminals.NEG_NODE);
+	w4.addTerminal(vcvs, ComponentTerminals.NEG_NODE);
+        w4.addTerminal(g1, ComponentTerminals.GND);
+
+	/* Add reference nodes for dependent voltage source*/
+	vcvs.setPositiveReference(w2);
+	vcvs.setNegativeReference(w4);
+
+	/* Add circuit elements to the solver */
+        solver.addElement(source);
+	solver.addElement(vcvs);
+        solver.addElement(r1);
+        solver.addElement(r2);
+        solver.addElement(d1);
+        solver.addElement(d2);
+        solver.addElement(g1);
+        solver.addWire(w1);
+        solver.addWire(w2);
+        solver.addWire(w3);
+        solver.addWire(w4);
+
+	return d1;
+    }
+
+    /**
+     * @brief Checks the DC operating point of the diode clamp (see
+     *        createDiodeClamp) : by KCL at w2 the currents through r1 and
+     *        r2, (100 - v) / 1k + (10 * v - v) / 1k, flow through the diodes
+     * 
+     * @author 1sand0s
+     * @param DCSpiceSolver : solver Solver the clamp was solved with
+     * @param Diode : d1             d1 of the clamp
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void assertDiodeClamp(DCSpiceSolver solver,
+				  Diode d1) {
+	DCSpiceResult actual = (DCSpiceResult) solver.getResult();
+	double v = actual.getElementVoltage(d1, ComponentTerminals.ANODE, ComponentTerminals.CATHODE);
+
+	/* To the Newton-Raphson tolerances since the solution is not
+	 * polished by further iterations */
+	assertEquals(1, (d1.evaluateShockelyEquation(v) - d1.evaluateShockelyEquation(-v)) / ((100 + 8 * v) / 1000), 1e-3);
+	assertTrue(v > 0);
+    }
+
+    /**
+     * @brief Creates a diode with the parameters of a 1N4007
+     *        See : https://www.mouser.com/datasheet/2/149/1N4007-888322.pdf
+     * 
+     * @author 1sand0s
+     * @return Diode : 1N4007 diode
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private Diode create1N4007() {
+	Diode d = new Diode();
+
+	d.setReverseSaturationCurrent(5E-10);
+	d.setCrystalFactor(1);
+	d.setThermalVoltage(2.6E-2);
+	return d;
+    }
+ }
\ No newline at end of file
@@ -42,6 +42,102 @@ public class TransientSpiceSolverExpandTime_Test {
 	/* Generate time steps linearly between tMin and tMax */
 	solver.expandTime();
 	
-	
+	double time[] = solver.getTime();
+	assertEquals(numPoints + 1, time.length);
+	for (int j = 0; j < time.length; j++)
+	    assertEquals(j * 0.1, time[j], 1e-12);
+    }
+
+    /**
+     * @brief Test case for logarithmically spaced time points
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testExpandTimeLogarithmic() {
+	/* Instantiate TransientSpiceSolver */
+	AbstractSpiceSolver solver = new TransientSpiceSolver();
+
+	/* Set Simulation time settings */
+	double tMin = 0.0;
+	double tMax = 1.0;
+	int numPoints = 20;
+	AbstractSpiceSolver.TimeStepType timeStepType = AbstractSpiceSolver.TimeStepType.LOGARITHMIC;
+
+	/* Add simulation time settings to solver */
+	solver.setTimeStep(tMin, tMax, numPoints, timeStepType);
+
+	/* Generate time steps logarithmically between tMin and tMax */
+	solver.expandTime();
+
+	double time[] = solver.getTime();
+	assertEquals(numPoints + 1, time.length);
+	assertEquals(tMin, time[0], 0);
+	assertEquals(tMax, time[numPoints], 0);
+
+	/* Steps grow by the same ratio, the last one about numPoints^2 times
+	 * the first */
+	double ratio = (time[2] - time[1]) / (time[1] - time[0]);
+	assertTrue(ratio > 1);
+	for (int j = 2; j < numPoints; j++)
+	    assertEquals(ratio, (time[j + 1] - time[j]) / (time[j] - time[j - 1]), 1e-9);
+	double spread = (time[numPoints] - time[numPoints - 1]) / (time[1] - time[0]);
+	assertTrue(spread > 0.5 * numPoints * numPoints && spread < numPoints * numPoints);
+    }
+
+    /**
+     * @brief Test case for a piecewise-linear time step schedule, dense
+     *        around 0.5 and sparse elsewhere
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testExpandTimePWL() {
+	/* Instantiate TransientSpiceSolver */
+	AbstractSpiceSolver solver = new TransientSpiceSolver();
+
+	/* Set Simulation time settings : 0.1 steps, 0.01 steps from 0.4 to
+	 * 0.6 */
+	double tMin = 0.0;
+	double tMax = 1.0;
+	double times[] = { 0.3, 0.4, 0.6, 0.7 };
+	double steps[] = { 0.1, 0.01, 0.01, 0.1 };
+
+	/* Add simulation time settings to solver */
+	solver.setTimeStep(tMin, tMax, times, steps);
+
+	/* Generate time steps following the schedule */
+	solver.expandTime();
+
+	double time[] = solver.getTime();
+	assertEquals(tMin, time[0], 0);
+	assertEquals(tMax, time[time.length - 1], 0);
+	for (int j = 1; j < time.length; j++) {
+	    double step = time[j] - time[j - 1];
+	    assertTrue(step > 0);
+	    if (time[j - 1] >= 0.4 && time[j - 1] < 0.6)
+		assertEquals(0.01, step, 1e-12);
+	    if (time[j - 1] < 0.3 || (time[j - 1] >= 0.7 && j < time.length - 1))
+		assertEquals(0.1, step, 1e-12);
+	}
+	assertTrue(time.length < 40);
+    }
+
+    /**
+     * @brief PWL needs a schedule
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testExpandTimePWLWithoutSchedule() {
+	AbstractSpiceSolver solver = new TransientSpiceSolver();
+
+	solver.setTimeStep(0.0, 1.0, 10, AbstractSpiceSolver.TimeStepType.PWL);
     }
 }
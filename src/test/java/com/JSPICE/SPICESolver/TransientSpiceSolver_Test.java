@@ -6,8 +6,16 @@ import com.JSPICE.SElement.VSource.*;
 import com.JSPICE.SElement.ISource.*;
 import com.JSPICE.SMath.ComplexMatrixOperations;
 import com.JSPICE.Util.ComponentTerminals;
+import com.JSPICE.Util.IntegrationMethod;
+import com.JSPICE.Util.NewtonType;
 import com.JSPICE.SMath.Complex;
 
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+
 import org.junit.Test;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
@@ -358,6 +366,370 @@ public class TransientSpiceSolver_Test {
 	//assertEquals(0.05, r2.getCurrent(actual, 0)[0].magnitude(), tol);
     }
 
+    /**
+     * @brief Test case for adaptive time steps on a RC low pass driven by a
+     *        sinusoid : the start-up transient (tau = 1ms) needs short
+     *        steps, the 10Hz steady state long ones. The solution must stay
+     *        close to the analytical one with far fewer time points than a
+     *        fixed grid of the same accuracy (about 300)
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testRCLowPassAdaptive_Transient() {
+	/* Tolerance for comparing solution */
+	double tol = 5e-2;
+
+	/* Instantiate TransientSpiceSolver */
+	AbstractSpiceSolver solver = new TransientSpiceSolver();
+	Capacitor c1 = createRCLowPass(solver, createSinusoidVoltage());
+
+	/* Set Simulation time settings, the first time step is 1ms */
+	double tMin = 0.0;
+	double tMax = 0.1;
+	int numPoints = 100;
+	AbstractSpiceSolver.TimeStepType timeStepType = AbstractSpiceSolver.TimeStepType.LINEAR;
+
+	/* Add simulation time settings to solver, steps between 1ns and 10ms */
+	solver.setTimeStep(tMin, tMax, numPoints, timeStepType);
+	solver.setAdaptiveTimeStep(1e-9, 1e-2);
+
+	/* Solve for unknown node voltages and branch currents */
+        solver.solve();
+
+	TransientSpiceResult actual = (TransientSpiceResult) solver.getResult();
+	assertRCLowPass(actual, c1, tol);
+	for (int j = 1; j < actual.getNumTimePoints(); j++)
+	    assertTrue(actual.getTime(j) > actual.getTime(j - 1));
+	assertEquals(tMax, actual.getTime(actual.getNumTimePoints() - 1), 0);
+	assertTrue(actual.getNumTimePoints() < 150);
+    }
+
+    /**
+     * @brief Test case for a simple RC low pass filter with adaptive time
+     *        steps whose grid has a single point : tMax == tMin, then a time
+     *        step longer than [tMin, tMax]
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testRCLowPassAdaptiveSinglePoint_Transient() {
+	/* Tolerance for comparing solution */
+	double tol = 5e-2;
+	double tMaxs[] = { 0.0, 0.01 };
+
+	for (int k = 0; k < tMaxs.length; k++) {
+	    /* Instantiate TransientSpiceSolver */
+	    AbstractSpiceSolver solver = new TransientSpiceSolver();
+	    Capacitor c1 = createRCLowPass(solver, createSinusoidVoltage());
+
+	    /* A 1s time step, longer than either span */
+	    solver.setTimeStep(0.0, tMaxs[k], 1.0);
+	    solver.setAdaptiveTimeStep(1e-9, 1e-3);
+
+	    /* Solve for unknown node voltages and branch currents */
+	    solver.solve();
+
+	    TransientSpiceResult actual = (TransientSpiceResult) solver.getResult();
+	    assertRCLowPass(actual, c1, tol);
+	    assertEquals(tMaxs[k], actual.getTime(actual.getNumTimePoints() - 1), 0);
+	    if (k == 0)
+		assertEquals(1, actual.getNumTimePoints());
+	}
+    }
+
+    /**
+     * @brief Test case for a simple RC low pass filter integrated with each
+     *        method, on a fixed grid of 0.1ms steps and with adaptive time
+     *        steps
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testRCLowPassIntegrationMethod_Transient() {
+	/* Tolerance for comparing solution on the fixed grid, per method :
+	 * backward Euler is first order, trapezoidal and Gear-2 second order */
+	IntegrationMethod methods[] = { IntegrationMethod.BACKWARD_EULER, IntegrationMethod.TRAPEZOIDAL, IntegrationMethod.GEAR2 };
+	double tol[] = { 2e-2, 5e-4, 2e-3 };
+	int adaptivePoints[] = new int[methods.length];
+
+	for (int k = 0; k < methods.length; k++) {
+	    for (int adaptive = 0; adaptive < 2; adaptive++) {
+		/* Instantiate TransientSpiceSolver */
+		AbstractSpiceSolver solver = new TransientSpiceSolver();
+		Capacitor c1 = createRCLowPass(solver, createSinusoidVoltage());
+
+		/* 1000 steps of 0.1ms over 0.1s, or steps between 1ns and 10ms */
+		solver.setTimeStep(0.0, 0.1, 1000, AbstractSpiceSolver.TimeStepType.LINEAR);
+		if (adaptive == 1)
+		    solver.setAdaptiveTimeStep(1e-9, 1e-2);
+		solver.setIntegrationMethod(methods[k]);
+
+		/* Solve for unknown node voltages and branch currents */
+		solver.solve();
+
+		TransientSpiceResult actual = (TransientSpiceResult) solver.getResult();
+		assertRCLowPass(actual, c1, adaptive == 1 ? 5e-2 : tol[k]);
+		if (adaptive == 1)
+		    adaptivePoints[k] = actual.getNumTimePoints();
+		else
+		    /* On the fixed grid the matrix only changes from DC to the
+		     * first time step (and to the second for Gear-2, which
+		     * starts with backward Euler) */
+		    assertTrue(solver.getFactorization().getNumFactorizations()
+			       + solver.getFactorization().getNumRefactorizations() <= 3);
+	    }
+	}
+
+	/* Second order methods take longer steps for the same tolerance */
+	assertTrue(adaptivePoints[1] < adaptivePoints[0]);
+	assertTrue(adaptivePoints[2] < adaptivePoints[0]);
+    }
+
+    /**
+     * @brief Test case for a simple RC low pass filter driven by a pulse,
+     *        with adaptive time steps landing on the corners of the pulse
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testRCPulseBreakpoints_Transient() {
+	/* Tolerance for comparing solution */
+	double tol = 5e-2;
+
+	/* Instantiate TransientSpiceSolver */
+	AbstractSpiceSolver solver = new TransientSpiceSolver();
+
+	/* Create a Pulse Source*/
+	PulseVoltage source = new PulseVoltage();
+
+	/* Set Simulation time settings, the first time step is 0.1ms */
+	double tMin = 0.0;
+	double tMax = 0.01;
+	int numPoints = 100;
+	AbstractSpiceSolver.TimeStepType timeStepType = AbstractSpiceSolver.TimeStepType.LINEAR;
+
+	/* 0V to 10V pulse starting at 1ms, 1us edges, 4ms wide */
+        source.setValue(10);
+	source.setDelay(1e-3);
+	source.setEdges(1e-6, 1e-6);
+	source.setPulseWidth(4e-3, 0);
+
+	Capacitor c1 = createRCLowPass(solver, source);
+
+	/* Add simulation time settings to solver, steps between 1ns and 1ms */
+	solver.setTimeStep(tMin, tMax, numPoints, timeStepType);
+	solver.setAdaptiveTimeStep(1e-9, 1e-3);
+	solver.setIntegrationMethod(IntegrationMethod.TRAPEZOIDAL);
+
+	/* Solve for unknown node voltages and branch currents */
+        solver.solve();
+
+	TransientSpiceResult actual = (TransientSpiceResult) solver.getResult();
+
+	/* Ideal step response : v(t) = 10 * (1 - exp(-(t - 1ms) / tau)) during
+	 * the pulse, decaying with tau after it */
+	double tau = 1e-3;
+	double breakpoints[] = { 1e-3, 1.001e-3, 5.001e-3, 5.002e-3 };
+	int landed = 0;
+	for (int j = 0; j < actual.getNumTimePoints(); j++) {
+	    double t = actual.getTime(j);
+	    double expected = 0;
+	    if (t >= 1e-3)
+		expected = 10 * (1 - Math.exp(-(t - 1e-3) / tau));
+	    if (t >= 5.001e-3)
+		expected = 10 * (1 - Math.exp(-4.001)) * Math.exp(-(t - 5.001e-3) / tau);
+
+	    assertEquals(expected, actual.getElementVoltage(j, c1, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE), tol);
+	    for (int k = 0; k < breakpoints.length; k++)
+		if (t == source.getNextBreakpoint(breakpoints[k] - 1e-9))
+		    landed++;
+	}
+	assertEquals(breakpoints.length, landed);
+	assertEquals(tMax, actual.getTime(actual.getNumTimePoints() - 1), 0);
+	assertTrue(actual.getNumTimePoints() < numPoints);
+    }
+
+    /**
+     * @brief Test case for a simple RC low pass filter whose time points are
+     *        streamed to a file, read back through small mapped windows
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testRCLowPassStreamingResult_Transient() throws IOException {
+	File file = File.createTempFile("JSPICE", ".tran");
+	file.deleteOnExit();
+	TransientSpiceResult results[] = new TransientSpiceResult[2];
+
+	for (int k = 0; k < results.length; k++) {
+	    /* Instantiate TransientSpiceSolver */
+	    AbstractSpiceSolver solver = new TransientSpiceSolver();
+	    createRCLowPass(solver, createSinusoidVoltage());
+
+	    solver.setTimeStep(0.0, 0.1, 100, AbstractSpiceSolver.TimeStepType.LINEAR);
+	    solver.setAdaptiveTimeStep(1e-9, 1e-2);
+
+	    /* Stream through a 256 byte buffer and 1KB windows */
+	    if (k == 1)
+		solver.setResultSink(new StreamingResultSink(file, 256, 1024));
+
+	    /* Solve for unknown node voltages and branch currents */
+	    solver.solve();
+
+	    results[k] = (TransientSpiceResult) solver.getResult();
+	}
+
+	TransientSpiceResult expected = results[0];
+	TransientSpiceResult actual = results[1];
+	assertEquals(expected.getNumTimePoints(), actual.getNumTimePoints());
+	assertTrue(actual.resultMatch(expected, 1e-15));
+	for (int j = actual.getNumTimePoints() - 1; j >= 0; j--)
+	    assertEquals(expected.getTime(j), actual.getTime(j), 0);
+
+	/* Header then one record (time and unknowns) per time point */
+	StreamingResultSink sink = (StreamingResultSink) actual.getResultSink();
+	sink.close();
+	DataInputStream input = new DataInputStream(new FileInputStream(file));
+	assertEquals(StreamingResultSink.MAGIC, Long.reverseBytes(input.readLong()));
+	input.close();
+	assertEquals(StreamingResultSink.HEADER_BYTES + 8L * actual.getNumTimePoints() * (sink.getNumUnknowns() + 1),
+		     file.length());
+	file.delete();
+    }
+
+    /**
+     * @brief Test case for a simple RC low pass filter keeping only the
+     *        capacitor voltage and the source current
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testRCLowPassSaveList_Transient() {
+	/* Tolerance for comparing solution */
+	double tol = 1e-12;
+	TransientSpiceResult results[] = new TransientSpiceResult[2];
+	Capacitor capacitors[] = new Capacitor[2];
+	SinusoidVoltage sources[] = new SinusoidVoltage[2];
+
+	for (int k = 0; k < results.length; k++) {
+	    /* Instantiate TransientSpiceSolver */
+	    AbstractSpiceSolver solver = new TransientSpiceSolver();
+	    sources[k] = createSinusoidVoltage();
+	    capacitors[k] = createRCLowPass(solver, sources[k]);
+
+	    solver.setTimeStep(0.0, 0.1, 100, AbstractSpiceSolver.TimeStepType.LINEAR);
+
+	    /* Keep v(c1) and i(source) only, the second time */
+	    if (k == 1) {
+		solver.saveVoltage(capacitors[k], ComponentTerminals.POS_NODE);
+		solver.saveVoltage(capacitors[k], ComponentTerminals.NEG_NODE);
+		solver.saveCurrent(sources[k]);
+	    }
+
+	    /* Solve for unknown node voltages and branch currents */
+	    solver.solve();
+
+	    results[k] = (TransientSpiceResult) solver.getResult();
+	}
+
+	TransientSpiceResult expected = results[0];
+	TransientSpiceResult actual = results[1];
+	assertEquals(2, actual.getResultSink().getNumUnknowns());
+	assertTrue(expected.getResultSink().getNumUnknowns() > 2);
+	assertEquals(expected.getNumTimePoints(), actual.getNumTimePoints());
+	for (int j = 0; j < actual.getNumTimePoints(); j++) {
+	    assertEquals(expected.getElementVoltage(j, capacitors[0], ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE),
+			 actual.getElementVoltage(j, capacitors[1], ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE), tol);
+	    assertEquals(expected.getElementCurrent(j, sources[0]), actual.getElementCurrent(j, sources[1]), tol);
+
+	    /* The source current flows through r1 */
+	    double vr = expected.getElementVoltage(j, sources[0], ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE)
+		- expected.getElementVoltage(j, capacitors[0], ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE);
+	    assertEquals(Math.abs(vr / 1e3), Math.abs(actual.getElementCurrent(j, sources[1])), tol);
+	}
+
+	/* The source node was dropped */
+	try {
+	    actual.getElementVoltage(0, sources[1], ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE);
+	    assertTrue(false);
+	} catch (IllegalArgumentException e) {
+	}
+    }
+
+    /**
+     * @brief Test case for a simple RC low pass filter whose result is
+     *        written column by column and read back one signal at a time
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testRCLowPassColumnarResult_Transient() throws IOException {
+	/* Tolerance for comparing solution */
+	double tol = 1e-12;
+	File file = File.createTempFile("JSPICE", ".col");
+	file.deleteOnExit();
+
+	/* Instantiate TransientSpiceSolver */
+	AbstractSpiceSolver solver = new TransientSpiceSolver();
+	SinusoidVoltage source = createSinusoidVoltage();
+	Capacitor c1 = createRCLowPass(solver, source);
+
+	solver.setTimeStep(0.0, 0.1, 100, AbstractSpiceSolver.TimeStepType.LINEAR);
+
+	/* Solve for unknown node voltages and branch currents */
+	solver.solve();
+
+	TransientSpiceResult actual = (TransientSpiceResult) solver.getResult();
+	actual.writeColumnar(file);
+
+	ColumnarResultReader reader = new ColumnarResultReader(file);
+	try {
+	    /* Every unknown but GND : two nodes and the source current */
+	    assertEquals(3, reader.getNumSignals());
+	    assertEquals(actual.getNumTimePoints(), reader.getNumPoints());
+	    assertEquals("time", reader.getAxisName());
+	    assertEquals("s", reader.getAxisUnit());
+
+	    String voltage = "V(" + c1.getTerminalIndex(ComponentTerminals.POS_NODE) + ")";
+	    String current = "I(" + source.getBranchIndex() + ")";
+	    assertEquals("V", reader.getSignalUnit(reader.getSignalIndex(voltage)));
+	    assertEquals("A", reader.getSignalUnit(reader.getSignalIndex(current)));
+
+	    DoubleBuffer time = reader.getAxis();
+	    DoubleBuffer vc = reader.getSignal(voltage);
+	    DoubleBuffer is = reader.getSignal(current);
+	    for (int j = 0; j < actual.getNumTimePoints(); j++) {
+		assertEquals(actual.getTime(j), time.get(j), 0);
+		assertEquals(actual.getElementVoltage(j, c1, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE),
+			     vc.get(j), tol);
+		assertEquals(actual.getElementCurrent(j, source), is.get(j), tol);
+	    }
+
+	    try {
+		reader.getSignal("V(42)");
+		assertTrue(false);
+	    } catch (IllegalArgumentException e) {
+	    }
+	} finally {
+	    reader.close();
+	}
+    }
+
     /**
      * @brief Test case for a simple Half Wave rectifier
      * 
@@ -484,6 +856,21 @@ public class TransientSpiceSolver_Test {
 
 	/* Assert if solver result matches expected solution */
 	assertTrue(actual.resultMatch(expectedResult, tol));
+
+	/* Junction voltage limiting keeps every time point within a few
+	 * Newton-Raphson iterations */
+	assertTrue(actual.getMaxNewtonIterations() <= 8);
+
+	/* The diode is stamped once per iteration, the iterations where its
+	 * voltage did not change reuse its last evaluation (device bypass) */
+	assertEquals(actual.getNewtonIterations(), actual.getDeviceEvaluations() + actual.getDeviceBypasses());
+	assertTrue(actual.getDeviceBypasses() > 0);
+
+	/* The bypass statistics of a second solve cover that solve only */
+	long bypasses = actual.getDeviceBypasses();
+	solver.solve();
+	assertEquals(bypasses, actual.getDeviceBypasses());
+	assertEquals(actual.getNewtonIterations(), actual.getDeviceEvaluations() + actual.getDeviceBypasses());
 	
 	assertEquals(expectedResult.getElementVoltage(0, r1, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE),
 		     actual.getElementVoltage(0, r1, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE),
@@ -558,6 +945,148 @@ public class TransientSpiceSolver_Test {
 	//assertEquals(0.05, r2.getCurrent(actual, 0)[0].magnitude(), tol);
     }
 
+    /**
+     * @brief Test case for the Newton variants on the half wave rectifier :
+     *        chord and Broyden iterations reuse the factors of the first
+     *        iteration of a time point, need fewer refactorizations than
+     *        full Newton and converge to the same solution
+     * 
+     * @author 1sand0s
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Test
+    public void testDiodeHalfWaveRectifierNewtonType_Transient() {
+	/* Tolerance for comparing solution */
+	double tol = 1e-5;
+	
+	/* Solution after Transient analysis */
+	Complex expected1[][] = { { new Complex(0.0, 0) }, { new Complex(0.0, 0) }, { new Complex(0.0, 0) }, { new Complex(0.0, 0) } };
+	Complex expected2[][] = { { new Complex(0.0, 0) }, { new Complex(5.877852522924732, 0) }, { new Complex(5.877852472924736, 0) }, { new Complex(-4.999999796071027E-10, 0) } };
+	Complex expected3[][] = { { new Complex(0.0, 0) }, { new Complex(9.510565162951535, 0) }, { new Complex(9.51056511295154, 0) }, { new Complex(-4.999999670035989E-10, 0) } };
+	Complex expected4[][] = { { new Complex(0.0, 0) }, { new Complex(9.510565162951536, 0) }, { new Complex(9.510565112951541, 0) }, { new Complex(-4.999999670035989E-10, 0) } };
+	Complex expected5[][] = { { new Complex(0.0, 0) }, { new Complex(5.877852522924733, 0) }, { new Complex(5.877852472924737, 0) }, { new Complex(-4.999999796071027E-10, 0) } };
+	Complex expected6[][] = { { new Complex(0.0, 0) }, { new Complex(0.0, 0) }, { new Complex(0.0, 0) }, { new Complex(0.0, 0) } };
+	Complex expected7[][] = { { new Complex(0.0, 0) }, { new Complex(-5.877852522924731, 0) }, { new Complex(-0.4809238945269585, 0) }, { new Complex(0.05396928628397773, 0) } };
+	Complex expected8[][] = { { new Complex(0.0, 0) }, { new Complex(-9.510565162951536, 0) }, { new Complex(-0.49426719327694835, 0) }, { new Complex(0.09016297969674589, 0) } };
+	Complex expected9[][] = { { new Complex(0.0, 0) }, { new Complex(-9.510565162951538, 0) }, { new Complex(-0.49426719321848683, 0) }, { new Complex(0.09016297969733053, 0) } };
+	Complex expected10[][] = { { new Complex(0.0, 0) }, { new Complex(-5.877852522924734, 0) }, { new Complex(-0.4809238943653899, 0) }, { new Complex(0.053969286285593464, 0) } };
+	
+	TransientSpiceResult expectedResult = new TransientSpiceResult();
+	expectedResult.updateResult(expected1);
+	expectedResult.updateResult(expected2);
+	expectedResult.updateResult(expected3);
+	expectedResult.updateResult(expected4);
+	expectedResult.updateResult(expected5);
+	expectedResult.updateResult(expected6);
+	expectedResult.updateResult(expected7);
+	expectedResult.updateResult(expected8);
+	expectedResult.updateResult(expected9);
+	expectedResult.updateResult(expected10);
+	
+	int fullRefactorizations = 0;
+	for (NewtonType newtonType : NewtonType.values()) {
+	    /* Instantiate TransientSpiceSolver */
+	    AbstractSpiceSolver solver = new TransientSpiceSolver();
+	    solver.setNewtonType(newtonType);
+	    solver.setTolerances(1e-6, 1e-6, 1e-12);
+
+	    /* Create a Sinusoidal Source*/
+	    SinusoidVoltage source = new SinusoidVoltage();
+
+	    /* Create resistor and Didoe */
+	    Resistor r1 = new Resistor();
+	    Diode d1 = new Diode();
+
+	    /* Create circuit GND element */
+	    GND g1 = new GND();
+
+	    /* Create wires to connect circuit elements */
+	    Wire w1 = new Wire();
+	    Wire w2 = new Wire();
+	    Wire w3 = new Wire();
+
+	    /* Set Simulation time settings */
+	    double tMin = 0.0;
+	    double tMax = 1e-3;
+	    int numPoints = 10;
+	    AbstractSpiceSolver.TimeStepType timeStepType = AbstractSpiceSolver.TimeStepType.LINEAR;
+	
+	    /* Set DC source voltage to 10V */
+	    source.setValue(10);
+
+	    /* Set frequency of sinusoid source to 1KHz */
+	    source.setFrequency(1e3);
+
+	    /* Set r1 resistance to 100 Ohm */
+	    r1.setValue(100);
+
+	    /* Diode parameters for 1N4007
+	     * See : https://www.mouser.com/datasheet/2/149/1N4007-888322.pdf
+	     */
+	    d1.setReverseSaturationCurrent(5E-10);
+	    d1.setCrystalFactor(1);
+	    d1.setThermalVoltage(2.6E-2);
+
+	    /*                Circuit Topology
+	     * 
+	     * 
+	     *        w1       r1 100         w2
+	     *         ~-----^v^v^v^v^v---------~
+	     *         |                        |
+	     *         |                        |
+	     *        ~~~                       |                                   
+	     *       ~ + ~ source               |   d1
+	     *       ~ - ~   10V              ~~~~~ 
+	     *        ~ ~                      / \
+	     *         |                       ~~~
+	     *         |                        |
+	     *         |          w3            |
+	     *         ~------------------------~
+	     *       -----  
+	     *        --- g1
+	     *         -
+	     */
+
+	    /* Use wires to connect the circuit elements as shown above */
+	    w1.addTerminal(source, ComponentTerminals.POS_NODE);
+	    w1.addTerminal(r1, ComponentTerminals.POS_NODE);
+
+	    w2.addTerminal(r1, ComponentTerminals.NEG_NODE);
+	    w2.addTerminal(d1, ComponentTerminals.CATHODE);
+
+	    w3.addTerminal(d1, ComponentTerminals.ANODE);
+	    w3.addTerminal(source, ComponentTerminals.NEG_NODE);
+	    w3.addTerminal(g1, ComponentTerminals.GND);
+
+	    /* Add circuit elements to the solver */
+	    solver.addElement(source);
+	    solver.addElement(r1);
+	    solver.addElement(d1);
+	    solver.addElement(g1);
+	    solver.addWire(w1);
+	    solver.addWire(w2);
+	    solver.addWire(w3);
+
+	    /* Add simulation time settings to solver */
+	    solver.setTimeStep(tMin, tMax, numPoints, timeStepType);
+
+	    /* Solve for unknown node voltages and branch currents */
+	    solver.solve();
+
+	    TransientSpiceResult actual = (TransientSpiceResult) solver.getResult();
+	    int refactorizations = solver.getFactorization().getNumRefactorizations();
+
+	    /* Assert if solver result matches expected solution */
+	    assertTrue(actual.resultMatch(expectedResult, tol));
+
+	    if (newtonType == NewtonType.FULL)
+		fullRefactorizations = refactorizations;
+	    else
+		assertTrue(refactorizations < fullRefactorizations);
+	}
+    }
+
     /**
      * @brief Test case for a simple Full Wave rectifier
      * 
@@ -894,4 +1423,123 @@ public class TransientSpiceSolver_Test {
 	//assertEquals(0.05, r1.getCurrent(actual, 0)[0].magnitude(), tol);
 	//assertEquals(0.05, r2.getCurrent(actual, 0)[0].magnitude(), tol);
     }
+
+    /**
+     * @brief Creates the 10V 10Hz sinusoid source of the RC low pass tests
+     * 
+     * @author 1sand0s
+     * @return SinusoidVoltage : Source with an amplitude of 10V at 10Hz
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private SinusoidVoltage createSinusoidVoltage() {
+	SinusoidVoltage source = new SinusoidVoltage();
+
+	/* Set amplitude of sinusoid source voltage to 10V */
+        source.setValue(10);
+
+	/* Set frequency of sinusoid source to 10Hz */
+	source.setFrequency(10);
+	return source;
+    }
+
+    /**
+     * @brief Adds a RC low pass filter driven by a source to a solver :
+     *        r1 1K Ohm in series with c1 1uF (tau = 1ms)
+     * 
+     * @author 1sand0s
+     * @param AbstractSpiceSolver : solver Solver to add the circuit to
+     * @param VSource : source             Source driving the filter
+     * @return Capacitor : c1, whose voltage is the output of the filter
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private Capacitor createRCLowPass(AbstractSpiceSolver solver,
+				      VSource source) {
+	/* Create resistor and capacitor */
+	Resistor r1 = new Resistor();
+        Capacitor c1 = new Capacitor();
+
+	/* Create circuit GND element */
+	GND g1 = new GND();
+
+	/* Create wires to connect circuit elements */
+        Wire w1 = new Wire();
+        Wire w2 = new Wire();
+        Wire w3 = new Wire();
+
+	/* Set r1 resistance to 1K Ohm and c1 capacitance to 1uF */
+	r1.setValue(1e3);
+	c1.setValue(1e-6);
+
+	/*                Circuit Topology
+	 * 
+	 * 
+	 *        w1       r1 1K          w2
+	 *         ~-----^v^v^v^v^v---------~
+	 *         |                        |
+	 *         |                        |
+	 *        ~~~                       |
+	 *       ~ + ~ source             ----- c1
+	 *       ~ - ~                    ----- 1uF
+	 *        ~ ~                       |
+	 *         |                        |
+	 *         |                        |
+         *         |          w3            |
+	 *         ~------------------------~
+	 *       -----  
+	 *        --- g1
+	 *         -
+	 */
+
+	/* Use wires to connect the circuit elements as shown above */
+        w1.addTerminal(source, ComponentTerminals.POS_NODE);
+        w1.addTerminal(r1, ComponentTerminals.POS_NODE);
+
+        w2.addTerminal(r1, ComponentTerminals.NEG_NODE);
+        w2.addTerminal(c1, ComponentTerminals.POS_NODE);
+
+        w3.addTerminal(c1, ComponentTerminals.NEG_NODE);
+        w3.addTerminal(source, ComponentTerminals.NEG_NODE);
+        w3.addTerminal(g1, ComponentTerminals.GND);
+
+	/* Add circuit elements to the solver */
+        solver.addElement(source);
+        solver.addElement(r1);
+        solver.addElement(c1);
+        solver.addElement(g1);
+        solver.addWire(w1);
+        solver.addWire(w2);
+        solver.addWire(w3);
+
+	return c1;
+    }
+
+    /**
+     * @brief Checks every time point of a RC low pass filter driven by the
+     *        10V 10Hz sinusoid (see createSinusoidVoltage) against the
+     *        analytical solution from 0V,
+     *        v(t) = V / (1 + (w * tau)^2) * (sin(w * t) - w * tau * cos(w * t) + w * tau * exp(-t / tau))
+     * 
+     * @author 1sand0s
+     * @param TransientSpiceResult : actual Result of the transient analysis
+     * @param Capacitor : c1                 c1 of the filter
+     * @param double : tol                   Tolerance in Volts
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void assertRCLowPass(TransientSpiceResult actual,
+				 Capacitor c1,
+				 double tol) {
+	double tau = 1e-3;
+	double omega = 2 * Math.PI * 10;
+
+	for (int j = 0; j < actual.getNumTimePoints(); j++) {
+	    double t = actual.getTime(j);
+	    double expected = 10 / (1 + omega * tau * omega * tau)
+		* (Math.sin(omega * t) - omega * tau * Math.cos(omega * t) + omega * tau * Math.exp(-t / tau));
+
+	    assertEquals(expected, actual.getElementVoltage(j, c1, ComponentTerminals.POS_NODE, ComponentTerminals.NEG_NODE), tol);
+	}
+    }
 }